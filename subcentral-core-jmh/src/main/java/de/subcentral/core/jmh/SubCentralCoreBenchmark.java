@@ -31,10 +31,15 @@
 
 package de.subcentral.core.jmh;
 
+import java.beans.IntrospectionException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import org.openjdk.jmh.annotations.Benchmark;
@@ -48,11 +53,14 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Resources;
 
+import de.subcentral.core.correct.Correction;
 import de.subcentral.core.correct.CorrectionDefaults;
 import de.subcentral.core.correct.CorrectionService;
+import de.subcentral.core.correct.Corrector;
 import de.subcentral.core.correct.LocaleLanguageReplacer;
 import de.subcentral.core.correct.LocaleLanguageReplacer.LanguageFormat;
 import de.subcentral.core.correct.LocaleLanguageReplacer.LanguagePattern;
+import de.subcentral.core.correct.ReflectiveCorrector;
 import de.subcentral.core.correct.SeriesNameCorrector;
 import de.subcentral.core.correct.SubtitleLanguageCorrector;
 import de.subcentral.core.correct.TypeBasedCorrectionService;
@@ -85,7 +93,16 @@ public class SubCentralCoreBenchmark {
     private static final SubtitleRelease   SUB_RLS                    = SubtitleRelease
             .create(Release.create(Episode.createSeasonedEpisode("Psych (2001)", 8, 1), "NtbHD", "720p", "WEB", "DL", "DD5", "1", "H", "264"), "English", "SubCentral");
 
+    private static final LocaleLanguageReplacer LANGUAGE_REPLACER     = new LocaleLanguageReplacer(ImmutableList.of(Locale.ENGLISH),
+            LanguageFormat.NAME,
+            Locale.ENGLISH,
+            ImmutableList.of(new LanguagePattern(Pattern.compile("VO", Pattern.CASE_INSENSITIVE), Locale.ENGLISH),
+                    new LanguagePattern(Pattern.compile("VF", Pattern.CASE_INSENSITIVE), Locale.FRENCH)),
+            ImmutableMap.of(Locale.ENGLISH, "VO"));
+
     private static final CorrectionService CORRECTION_SERVICE         = buildCorrectionService();
+    private static final Series            SERIES                     = new Series("Psych");
+    private static final Corrector<Series> REFLECTIVE_CORRECTOR       = buildReflectiveCorrector();
     private static final NamingService     NAMING_SERVICE             = NamingDefaults.getDefaultNamingService();
     private static final ParsingService    ADDIC7ED_PARSING_SERVICE   = Addic7edCom.getParsingService();
     private static final ParsingService    SUBCENTRAL_PARSING_SERVICE = SubCentralDe.getParsingService();
@@ -100,22 +117,37 @@ public class SubCentralCoreBenchmark {
             SUBCENTRAL_PARSING_SERVICE,
             ADDIC7ED_PARSING_SERVICE);
     private static final URL               SUBRIP_TEST_FILE           = Resources.getResource("Psych.S08E10.The.Break.Up.HDTV.x264-EXCELLENCE.de-SubCentral.srt");
+    private static final byte[]            SUBRIP_TEST_FILE_CONTENT   = readSubRipTestFile();
+    private static final Charset           SUBRIP_TEST_FILE_CHARSET   = Charset.forName("Cp1252");
 
     private static TypeBasedCorrectionService buildCorrectionService() {
         TypeBasedCorrectionService service = new TypeBasedCorrectionService("testing");
         CorrectionDefaults.registerAllDefaultNestedBeansRetrievers(service);
         CorrectionDefaults.registerAllDefaultCorrectors(service);
-        service.registerCorrector(Subtitle.class,
-                new SubtitleLanguageCorrector(new LocaleLanguageReplacer(ImmutableList.of(Locale.ENGLISH),
-                        LanguageFormat.NAME,
-                        Locale.ENGLISH,
-                        ImmutableList.of(new LanguagePattern(Pattern.compile("VO", Pattern.CASE_INSENSITIVE), Locale.ENGLISH),
-                                new LanguagePattern(Pattern.compile("VF", Pattern.CASE_INSENSITIVE), Locale.FRENCH)),
-                        ImmutableMap.of(Locale.ENGLISH, "VO"))));
+        service.registerCorrector(Subtitle.class, new SubtitleLanguageCorrector(LANGUAGE_REPLACER));
         service.registerCorrector(Series.class, new SeriesNameCorrector(Pattern.compile("Psych\\s+\\(2001\\)"), "Psych"));
         return service;
     }
 
+    private static byte[] readSubRipTestFile() {
+        try {
+            return Resources.toByteArray(SUBRIP_TEST_FILE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Corrector<Series> buildReflectiveCorrector() {
+        try {
+            // toggles the name so that every call reads and writes the property
+            return new ReflectiveCorrector<>(Series.PROP_NAME, (String name) -> "Psych".equals(name) ? "PSYCH" : "Psych", Function.identity());
+        }
+        catch (IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Benchmark
     // @BenchmarkMode(Mode.Throughput)
     // @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -123,6 +155,19 @@ public class SubCentralCoreBenchmark {
         CORRECTION_SERVICE.correct(SUB_RLS);
     }
 
+    @Benchmark
+    public void testReflectiveCorrection(Blackhole blackhole) {
+        List<Correction> corrections = new ArrayList<>(1);
+        REFLECTIVE_CORRECTOR.correct(SERIES, corrections);
+        blackhole.consume(corrections);
+    }
+
+    @Benchmark
+    public void testLanguageReplacement(Blackhole blackhole) {
+        blackhole.consume(LANGUAGE_REPLACER.apply("English"));
+        blackhole.consume(LANGUAGE_REPLACER.apply("German"));
+    }
+
     @Benchmark
     public void testNaming() {
         NAMING_SERVICE.name(SUB_RLS);
@@ -138,12 +183,12 @@ public class SubCentralCoreBenchmark {
         SUBCENTRAL_PARSING_SERVICE.parse("Psych.S08E01.720p.WEB-DL.DD5.1.H.264-ECI.de-SubCentral");
     }
 
-    // @Benchmark
+    @Benchmark
     public void testParsingBestCase() {
         PARSING_SERVICE_BEST_CASE.parse("Psych - 08x01 - Episode Title.720p.WEB-DL.DD5.1H.264.English.C.orig.Addic7ed.com");
     }
 
-    // @Benchmark
+    @Benchmark
     public void testParsingWorstCase() {
         PARSING_SERVICE_WORST_CASE.parse("Psych - 08x01 - Episode Title.720p.WEB-DL.DD5.1H.264.English.C.orig.Addic7ed.com");
     }
@@ -158,9 +203,10 @@ public class SubCentralCoreBenchmark {
         PARSING_SERVICE_BEST_CASE.parse("Psych - 08x01 - Episode Title.720p.WEB-DL.DD5.1H.264.English.C.orig.Addic7ed.com", SubtitleRelease.class);
     }
 
-    // @Benchmark
+    @Benchmark
     public void testParsingSubRipFile(Blackhole blackhole) throws IOException {
-        SubtitleContent data = SubRip.INSTANCE.read(SUBRIP_TEST_FILE.openStream(), Charset.forName("Cp1252"));
+        // the file is read into memory once so that the (jar) resource loading does not dominate the parsing
+        SubtitleContent data = SubRip.INSTANCE.read(SUBRIP_TEST_FILE_CONTENT, SUBRIP_TEST_FILE_CHARSET);
         blackhole.consume(data);
     }
 
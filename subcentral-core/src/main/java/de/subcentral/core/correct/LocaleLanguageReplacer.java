@@ -1,9 +1,11 @@
 package de.subcentral.core.correct;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.MissingResourceException;
 import java.util.Objects;
 import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
@@ -53,6 +55,8 @@ public class LocaleLanguageReplacer implements UnaryOperator<String> {
     // Custom parsing/formatting
     private final List<LanguagePattern> customLanguagePatterns;
     private final Map<Locale, String>   customLanguageTextMappings;
+    // Lookup index: normalized language text -> formatted locale
+    private final Map<String, String>   formattedLanguagesByText;
 
     public LocaleLanguageReplacer() {
         this(ImmutableList.of(Locale.ENGLISH), LanguageFormat.NAME, Locale.ENGLISH, ImmutableList.of(), ImmutableMap.of());
@@ -72,6 +76,62 @@ public class LocaleLanguageReplacer implements UnaryOperator<String> {
         this.outputLanguage = Objects.requireNonNull(targetLanguage, "outputLanguage");
         this.customLanguagePatterns = ImmutableList.copyOf(customLanguagePatterns);
         this.customLanguageTextMappings = ImmutableMap.copyOf(customLanguageTextMappings);
+        this.formattedLanguagesByText = buildIndex();
+    }
+
+    /**
+     * Builds the index of all accepted spellings of all available locales. The spellings are inserted in the order of {@link Locale#getAvailableLocales()}, so if several locales
+     * have the same spelling, the first one wins - just like with a sequential search.
+     * 
+     * @return the index
+     */
+    private Map<String, String> buildIndex() {
+        Map<String, String> index = new HashMap<>();
+        for (Locale locale : Locale.getAvailableLocales()) {
+            String formatted;
+            try {
+                formatted = formatLocale(locale);
+            }
+            catch (MissingResourceException e) {
+                // the locale cannot be formatted in the output format, so it cannot be a replacement
+                continue;
+            }
+            // Java language tag
+            index.putIfAbsent(normalize(locale.toString()), formatted);
+            // IETF language tag
+            // cannot use Locale.forLanguageTag() because it accepts any string (not only valid languages)
+            index.putIfAbsent(normalize(locale.toLanguageTag()), formatted);
+            for (Locale sourceLang : parsingLanguages) {
+                index.putIfAbsent(normalize(locale.getDisplayName(sourceLang)), formatted);
+            }
+            // ISO3
+            // No need to check for language / display language if it would match.
+            // Because in that case toString() / getDisplayName() would have matched, too (if country, script, variant are empty)
+            if (locale.getCountry().isEmpty() && locale.getScript().isEmpty() && locale.getVariant().isEmpty()) {
+                try {
+                    index.putIfAbsent(normalize(locale.getISO3Language()), formatted);
+                }
+                catch (MissingResourceException e) {
+                    // no ISO3 code for this locale
+                }
+            }
+        }
+        return ImmutableMap.copyOf(index);
+    }
+
+    /**
+     * Normalizes the case of the given text so that two texts are {@link String#equalsIgnoreCase(String) equal ignoring the case} if and only if their normalized forms are equal.
+     * 
+     * @param text
+     *            the text
+     * @return the normalized text
+     */
+    private static String normalize(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
     }
 
     public List<Locale> getParsingLanguages() {
@@ -99,45 +159,14 @@ public class LocaleLanguageReplacer implements UnaryOperator<String> {
         if (lang == null) {
             return null;
         }
-        Locale oldLocale = parseLocale(lang);
-        if (oldLocale != null) {
-            return formatLocale(oldLocale);
-        }
-        return lang;
-    }
-
-    private Locale parseLocale(String lang) {
         // 1. try the custom locale patterns
         for (LanguagePattern langPattern : customLanguagePatterns) {
             if (langPattern.pattern.matcher(lang).matches()) {
-                return langPattern.language;
-            }
-        }
-
-        // 2. try "parsing" the locale
-        for (Locale locale : Locale.getAvailableLocales()) {
-            // Java language tag
-            if (locale.toString().equalsIgnoreCase(lang)) {
-                return locale;
-            }
-            // IETF language tag
-            // cannot use Locale.forLanguageTag() because it accepts any string (not only valid languages)
-            if (locale.toLanguageTag().equalsIgnoreCase(lang)) {
-                return locale;
-            }
-            for (Locale sourceLang : parsingLanguages) {
-                if (locale.getDisplayName(sourceLang).equalsIgnoreCase(lang)) {
-                    return locale;
-                }
-            }
-            // ISO3
-            // No need to check for language / display language if it would match.
-            // Because in that case toString() / getDisplayName() would have matched, too (if country, script, variant are empty)
-            if (locale.getCountry().isEmpty() && locale.getScript().isEmpty() && locale.getVariant().isEmpty() && locale.getISO3Language().equalsIgnoreCase(lang)) {
-                return locale;
+                return formatLocale(langPattern.language);
             }
         }
-        return null;
+        // 2. look up the locale
+        return formattedLanguagesByText.getOrDefault(normalize(lang), lang);
     }
 
     private String formatLocale(Locale locale) {
@@ -2,17 +2,18 @@ package de.subcentral.core.correct;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Objects;
 import java.util.function.Function;
 
 import com.google.common.base.MoreObjects;
 
+import de.subcentral.core.util.PropertyAccessor;
 import de.subcentral.core.util.SimplePropDescriptor;
 
 public class ReflectiveCorrector<T, P> extends SinglePropertyCorrector<T, P> {
-    private final PropertyDescriptor propertyDescriptor;
-    private final Function<P, P>     cloner;
+    private final PropertyDescriptor     propertyDescriptor;
+    private final PropertyAccessor<T, P> propertyAccessor;
+    private final Function<P, P>         cloner;
 
     public ReflectiveCorrector(SimplePropDescriptor simplePropDescriptor, Function<P, P> replacer, Function<P, P> cloner) throws IntrospectionException {
         this(simplePropDescriptor.toPropertyDescriptor(), replacer, cloner);
@@ -25,6 +26,7 @@ public class ReflectiveCorrector<T, P> extends SinglePropertyCorrector<T, P> {
     public ReflectiveCorrector(PropertyDescriptor propertyDescriptor, Function<P, P> replacer, Function<P, P> cloner) {
         super(replacer);
         this.propertyDescriptor = Objects.requireNonNull(propertyDescriptor, "propertyDescriptor");
+        this.propertyAccessor = PropertyAccessor.of(propertyDescriptor);
         this.cloner = Objects.requireNonNull(cloner, "cloner");
     }
 
@@ -41,25 +43,14 @@ public class ReflectiveCorrector<T, P> extends SinglePropertyCorrector<T, P> {
         return propertyDescriptor.getName();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     protected P getValue(T bean) {
-        try {
-            return (P) propertyDescriptor.getReadMethod().invoke(bean);
-        }
-        catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
+        return propertyAccessor.get(bean);
     }
 
     @Override
     protected void setValue(T bean, P value) {
-        try {
-            propertyDescriptor.getWriteMethod().invoke(bean, value);
-        }
-        catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
+        propertyAccessor.set(bean, value);
     }
 
     @Override
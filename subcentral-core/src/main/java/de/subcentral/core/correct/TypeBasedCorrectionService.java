@@ -2,6 +2,7 @@ package de.subcentral.core.correct;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -11,10 +12,19 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.ClassUtils.Interfaces;
+
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 
 /**
+ * The correctors of a bean are all correctors whose bean type is a super type of the bean's class, in the order of registration. The nested beans retriever of a bean is the
+ * retriever registered for the most specific super type of the bean's class (the class itself, then its super classes and their interfaces).
+ * <p>
+ * Both are resolved once per bean class and then cached until a corrector or nested beans retriever is (un)registered. So correcting a bean graph only needs one map lookup per
+ * bean instead of testing every registered corrector entry.
+ * </p>
  * 
  * @implSpec #thread-safe
  *
@@ -23,6 +33,10 @@ public class TypeBasedCorrectionService implements CorrectionService {
     private final String                                            name;
     private final List<CorrectorEntry<?>>                           correctorEntries      = new CopyOnWriteArrayList<>();
     private final Map<Class<?>, Function<?, ? extends Iterable<?>>> nestedBeansRetrievers = new ConcurrentHashMap<>(8);
+    /**
+     * Replaced (not cleared) on every change so that a dispatch computed from the old registrations can never end up in the current cache.
+     */
+    private volatile Map<Class<?>, BeanTypeDispatch>                dispatchCache         = new ConcurrentHashMap<>(8);
 
     public TypeBasedCorrectionService(String name) {
         this.name = Objects.requireNonNull(name, "name");
@@ -34,17 +48,19 @@ public class TypeBasedCorrectionService implements CorrectionService {
     }
 
     public List<CorrectorEntry<?>> getCorrectorEntries() {
-        return correctorEntries;
+        return Collections.unmodifiableList(correctorEntries);
     }
 
     public <T> void registerCorrector(Class<T> beanType, Corrector<? super T> corrector) {
         correctorEntries.add(new CorrectorEntry<T>(beanType, corrector));
+        invalidateDispatchCache();
     }
 
     public boolean unregisterCorrector(Corrector<?> corrector) {
         for (CorrectorEntry<?> entry : correctorEntries) {
             if (entry.corrector.equals(corrector)) {
                 correctorEntries.remove(entry);
+                invalidateDispatchCache();
                 return true;
             }
         }
@@ -53,6 +69,11 @@ public class TypeBasedCorrectionService implements CorrectionService {
 
     public <T> void registerNestedBeansRetriever(Class<T> beanType, Function<? super T, ? extends Iterable<?>> retriever) {
         nestedBeansRetrievers.put(beanType, retriever);
+        invalidateDispatchCache();
+    }
+
+    private void invalidateDispatchCache() {
+        dispatchCache = new ConcurrentHashMap<>(8);
     }
 
     @Override
@@ -76,18 +97,14 @@ public class TypeBasedCorrectionService implements CorrectionService {
         return corrections;
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> void correct(T bean, List<Correction> corrections) {
-        for (CorrectorEntry<?> entry : correctorEntries) {
-            if (entry.beanType.isAssignableFrom(bean.getClass())) {
-                Corrector<? super T> corrector = (Corrector<? super T>) entry.corrector;
-                corrector.correct(bean, corrections);
-            }
+    private void correct(Object bean, List<Correction> corrections) {
+        for (Corrector<Object> corrector : getDispatch(bean.getClass()).correctors) {
+            corrector.correct(bean, corrections);
         }
     }
 
-    private <T> void addNestedBeans(T bean, Queue<Object> queue, IdentityHashMap<Object, Object> alreadyCorrectedBeans) {
-        Function<? super T, ? extends Iterable<?>> nestedBeanRetriever = getNestedBeansRetriever(bean);
+    private void addNestedBeans(Object bean, Queue<Object> queue, IdentityHashMap<Object, Object> alreadyCorrectedBeans) {
+        Function<Object, ? extends Iterable<?>> nestedBeanRetriever = getDispatch(bean.getClass()).nestedBeansRetriever;
         if (nestedBeanRetriever != null) {
             for (Object nestedBean : nestedBeanRetriever.apply(bean)) {
                 if (nestedBean != null && !alreadyCorrectedBeans.containsKey(nestedBean)) {
@@ -97,9 +114,33 @@ public class TypeBasedCorrectionService implements CorrectionService {
         }
     }
 
+    private BeanTypeDispatch getDispatch(Class<?> beanType) {
+        // read the cache before the registrations (see #dispatchCache)
+        Map<Class<?>, BeanTypeDispatch> cache = dispatchCache;
+        BeanTypeDispatch dispatch = cache.get(beanType);
+        if (dispatch == null) {
+            dispatch = cache.computeIfAbsent(beanType, this::createDispatch);
+        }
+        return dispatch;
+    }
+
     @SuppressWarnings("unchecked")
-    private <T> Function<? super T, ? extends Iterable<?>> getNestedBeansRetriever(T bean) {
-        return (Function<? super T, ? extends Iterable<?>>) nestedBeansRetrievers.get(bean.getClass());
+    private BeanTypeDispatch createDispatch(Class<?> beanType) {
+        ImmutableList.Builder<Corrector<Object>> correctors = ImmutableList.builder();
+        for (CorrectorEntry<?> entry : correctorEntries) {
+            if (entry.beanType.isAssignableFrom(beanType)) {
+                // safe cast because the corrector accepts a super type of the bean type
+                correctors.add((Corrector<Object>) entry.corrector);
+            }
+        }
+        Function<Object, ? extends Iterable<?>> nestedBeansRetriever = null;
+        for (Class<?> type : ClassUtils.hierarchy(beanType, Interfaces.INCLUDE)) {
+            nestedBeansRetriever = (Function<Object, ? extends Iterable<?>>) nestedBeansRetrievers.get(type);
+            if (nestedBeansRetriever != null) {
+                break;
+            }
+        }
+        return new BeanTypeDispatch(correctors.build(), nestedBeansRetriever);
     }
 
     @Override
@@ -107,6 +148,16 @@ public class TypeBasedCorrectionService implements CorrectionService {
         return MoreObjects.toStringHelper(TypeBasedCorrectionService.class).add("name", name).toString();
     }
 
+    private static final class BeanTypeDispatch {
+        private final List<Corrector<Object>>                 correctors;
+        private final Function<Object, ? extends Iterable<?>> nestedBeansRetriever;
+
+        private BeanTypeDispatch(List<Corrector<Object>> correctors, Function<Object, ? extends Iterable<?>> nestedBeansRetriever) {
+            this.correctors = correctors;
+            this.nestedBeansRetriever = nestedBeansRetriever;
+        }
+    }
+
     public static final class CorrectorEntry<T> {
         private final Class<T>             beanType;
         private final Corrector<? super T> corrector;
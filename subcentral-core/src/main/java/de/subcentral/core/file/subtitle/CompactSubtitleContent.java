@@ -0,0 +1,469 @@
+package de.subcentral.core.file.subtitle;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+
+/**
+ * A {@link SubtitleContent} for holding many subtitles in memory at once (for example for analyzing all subtitles of a site).
+ * <p>
+ * Instead of one {@link Item} object (and one text String) per item, the start and end times are stored in {@code int} arrays (milliseconds, so up to 24 days) and the
+ * texts of all items in one shared array. The {@link #getItems() items} are a view on these arrays: the returned {@link Item Items} are created on access and read and write through to the arrays. So this
+ * class can be used wherever a {@code SubtitleContent} is expected. Texts are only materialized as Strings on {@link Item#getText()}.
+ * </p>
+ * <p>
+ * As long as all texts only consist of ISO-8859-1 characters (which is the case for most western subtitles), the shared text array is a {@code byte} array with one byte per
+ * character. The first other character switches to a {@code char} array.
+ * </p>
+ * <p>
+ * An item view is bound to its index. After inserting or removing items, previously obtained item views may refer to other items.
+ * </p>
+ * <p>
+ * Changing the text of an item appends the new text to the shared array. The space of the old text is reclaimed by {@link #trimToSize()}.
+ * </p>
+ */
+public class CompactSubtitleContent extends SubtitleContent {
+    private static final int DEFAULT_CAPACITY      = 16;
+    private static final int DEFAULT_TEXT_CAPACITY = 512;
+
+    private final ItemList   items                 = new ItemList();
+    private int[]            starts;
+    private int[]            ends;
+    /**
+     * The start index of each item's text in {@link #latin1Chars} / {@link #chars}. -1 for a null text.
+     */
+    private int[]            textStarts;
+    private int[]            textLengths;
+    /**
+     * The texts as long as they only contain ISO-8859-1 characters. Null afterwards.
+     */
+    private byte[]           latin1Chars;
+    /**
+     * The texts after the first non ISO-8859-1 character was added. Null before.
+     */
+    private char[]           chars;
+    private int              size;
+    private int              charsLength;
+
+    public CompactSubtitleContent() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CompactSubtitleContent(int initialCapacity) {
+        // the items are kept in the arrays, the superclass does not need a list
+        super(true);
+        starts = new int[initialCapacity];
+        ends = new int[initialCapacity];
+        textStarts = new int[initialCapacity];
+        textLengths = new int[initialCapacity];
+        latin1Chars = new byte[DEFAULT_TEXT_CAPACITY];
+    }
+
+    public CompactSubtitleContent(Collection<? extends Item> items) {
+        this(items.size());
+        for (Item item : items) {
+            add(item.getStart(), item.getEnd(), item.getText());
+        }
+    }
+
+    /**
+     * Copies the items of the given iterator, for example of a {@link SubRipReader}. So the items are never held in memory as objects at the same time.
+     *
+     * @param items
+     *            the items
+     * @return the compact content
+     */
+    public static CompactSubtitleContent copyOf(Iterator<? extends Item> items) {
+        CompactSubtitleContent content = new CompactSubtitleContent();
+        while (items.hasNext()) {
+            Item item = items.next();
+            content.add(item.getStart(), item.getEnd(), item.getText());
+        }
+        return content;
+    }
+
+    /**
+     * The returned list reads and writes through to the arrays of this content. All list operations are supported.
+     */
+    @Override
+    public List<Item> getItems() {
+        return items;
+    }
+
+    @Override
+    public void setItems(Collection<? extends Item> items) {
+        clear();
+        for (Item item : items) {
+            add(item.getStart(), item.getEnd(), item.getText());
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    public long getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    public String getText(int index) {
+        checkIndex(index);
+        if (textStarts[index] == -1) {
+            return null;
+        }
+        if (latin1Chars != null) {
+            return new String(latin1Chars, textStarts[index], textLengths[index], StandardCharsets.ISO_8859_1);
+        }
+        return new String(chars, textStarts[index], textLengths[index]);
+    }
+
+    public void add(long start, long end, String text) {
+        insert(size, start, end, text);
+    }
+
+    public void clear() {
+        size = 0;
+        charsLength = 0;
+    }
+
+    /**
+     * Shifts the start and end times of all items.
+     *
+     * @param millis
+     *            the milliseconds to shift (negative values shift backwards)
+     * @throws IllegalArgumentException
+     *             if a start time would become negative or a time would exceed the supported range
+     */
+    public void shiftTimings(long millis) throws IllegalArgumentException {
+        if (size == 0) {
+            return;
+        }
+        int minStart = Integer.MAX_VALUE;
+        int maxStart = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minStart = Math.min(minStart, starts[i]);
+            maxStart = Math.max(maxStart, starts[i]);
+        }
+        int minEnd = Integer.MAX_VALUE;
+        int maxEnd = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            minEnd = Math.min(minEnd, ends[i]);
+            maxEnd = Math.max(maxEnd, ends[i]);
+        }
+        if (minStart + millis < 0) {
+            throw new IllegalArgumentException("Shifting by " + millis + " ms would result in a negative start time");
+        }
+        toIntTime(maxStart + millis);
+        toIntTime(minEnd + millis);
+        toIntTime(maxEnd + millis);
+        // simple loops over primitive arrays, so the JIT can unroll / vectorize them
+        int offset = (int) millis;
+        for (int i = 0; i < size; i++) {
+            starts[i] += offset;
+        }
+        for (int i = 0; i < size; i++) {
+            ends[i] += offset;
+        }
+    }
+
+    /**
+     * Transforms the timings directly on the timing arrays (no item views are created). The new timings are computed into new arrays first, so if a time point is out of the
+     * supported range the content remains unchanged.
+     *
+     * @throws IllegalArgumentException
+     *             if a time would exceed the supported range
+     */
+    @Override
+    public void transformTimings(TimingTransformation transformation) throws IllegalArgumentException {
+        Objects.requireNonNull(transformation, "transformation");
+        int[] newStarts = new int[starts.length];
+        int[] newEnds = new int[ends.length];
+        for (int i = 0; i < size; i++) {
+            newStarts[i] = toIntTime(Math.max(0L, transformation.transform(starts[i])));
+            newEnds[i] = toIntTime(Math.max(0L, transformation.transform(ends[i])));
+        }
+        starts = newStarts;
+        ends = newEnds;
+    }
+
+    /**
+     * Reduces the arrays to the size needed and removes the texts which are no longer referenced (because the text of an item was changed or the item was removed).
+     */
+    public void trimToSize() {
+        Object oldChars = latin1Chars != null ? latin1Chars : chars;
+        Object newChars = latin1Chars != null ? new byte[usedTextLength()] : new char[usedTextLength()];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            if (textStarts[i] != -1) {
+                System.arraycopy(oldChars, textStarts[i], newChars, pos, textLengths[i]);
+                textStarts[i] = pos;
+                pos += textLengths[i];
+            }
+        }
+        if (latin1Chars != null) {
+            latin1Chars = (byte[]) newChars;
+        }
+        else {
+            chars = (char[]) newChars;
+        }
+        charsLength = pos;
+        starts = Arrays.copyOf(starts, size);
+        ends = Arrays.copyOf(ends, size);
+        textStarts = Arrays.copyOf(textStarts, size);
+        textLengths = Arrays.copyOf(textLengths, size);
+    }
+
+    private int usedTextLength() {
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            if (textStarts[i] != -1) {
+                length += textLengths[i];
+            }
+        }
+        return length;
+    }
+
+    private void insert(int index, long start, long end, String text) {
+        int intStart = validateStart(start);
+        int intEnd = toIntTime(end);
+        ensureCapacity(size + 1);
+        int moved = size - index;
+        if (moved > 0) {
+            System.arraycopy(starts, index, starts, index + 1, moved);
+            System.arraycopy(ends, index, ends, index + 1, moved);
+            System.arraycopy(textStarts, index, textStarts, index + 1, moved);
+            System.arraycopy(textLengths, index, textLengths, index + 1, moved);
+        }
+        size++;
+        starts[index] = intStart;
+        ends[index] = intEnd;
+        setTextInternal(index, text);
+    }
+
+    private void remove(int index) {
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(starts, index + 1, starts, index, moved);
+            System.arraycopy(ends, index + 1, ends, index, moved);
+            System.arraycopy(textStarts, index + 1, textStarts, index, moved);
+            System.arraycopy(textLengths, index + 1, textLengths, index, moved);
+        }
+        size--;
+    }
+
+    private void setTextInternal(int index, String text) {
+        if (text == null) {
+            textStarts[index] = -1;
+            textLengths[index] = 0;
+            return;
+        }
+        int length = text.length();
+        if (latin1Chars != null && !isLatin1(text)) {
+            inflateChars();
+        }
+        if (latin1Chars != null) {
+            if (charsLength + length > latin1Chars.length) {
+                latin1Chars = Arrays.copyOf(latin1Chars, Math.max(charsLength + length, latin1Chars.length * 2));
+            }
+            for (int i = 0; i < length; i++) {
+                latin1Chars[charsLength + i] = (byte) text.charAt(i);
+            }
+        }
+        else {
+            if (charsLength + length > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(charsLength + length, chars.length * 2));
+            }
+            text.getChars(0, length, chars, charsLength);
+        }
+        textStarts[index] = charsLength;
+        textLengths[index] = length;
+        charsLength += length;
+    }
+
+    private static boolean isLatin1(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void inflateChars() {
+        chars = new char[Math.max(latin1Chars.length, DEFAULT_TEXT_CAPACITY)];
+        for (int i = 0; i < charsLength; i++) {
+            chars[i] = (char) (latin1Chars[i] & 0xFF);
+        }
+        latin1Chars = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > starts.length) {
+            int newCapacity = Math.max(capacity, Math.max(DEFAULT_CAPACITY, starts.length + (starts.length >> 1)));
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+            textStarts = Arrays.copyOf(textStarts, newCapacity);
+            textLengths = Arrays.copyOf(textLengths, newCapacity);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static int validateStart(long start) {
+        if (start < 0) {
+            throw new IllegalArgumentException("start cannot be negative");
+        }
+        return toIntTime(start);
+    }
+
+    private static int toIntTime(long millis) {
+        if (millis < Integer.MIN_VALUE || millis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("time out of supported range: " + millis);
+        }
+        return (int) millis;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(CompactSubtitleContent.class).add("items", Joiner.on('\n').join(items)).toString();
+    }
+
+    private final class ItemList extends AbstractList<Item> {
+        @Override
+        public Item get(int index) {
+            checkIndex(index);
+            return new ItemView(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Item set(int index, Item item) {
+            Item previous = copyItem(index);
+            int start = validateStart(item.getStart());
+            int end = toIntTime(item.getEnd());
+            starts[index] = start;
+            ends[index] = end;
+            setTextInternal(index, item.getText());
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Item item) {
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            insert(index, item.getStart(), item.getEnd(), item.getText());
+            modCount++;
+        }
+
+        @Override
+        public Item remove(int index) {
+            Item previous = copyItem(index);
+            CompactSubtitleContent.this.remove(index);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            CompactSubtitleContent.this.clear();
+            modCount++;
+        }
+
+        /**
+         * Returns a detached copy (the view would refer to another item after the modification).
+         */
+        private Item copyItem(int index) {
+            checkIndex(index);
+            Item item = new Item();
+            item.setStart(starts[index]);
+            item.setEnd(ends[index]);
+            item.setText(getText(index));
+            return item;
+        }
+    }
+
+    private final class ItemView extends Item {
+        private final int index;
+
+        private ItemView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public long getStart() {
+            return CompactSubtitleContent.this.getStart(index);
+        }
+
+        @Override
+        public void setStart(long start) {
+            checkIndex(index);
+            starts[index] = validateStart(start);
+        }
+
+        @Override
+        public long getEnd() {
+            return CompactSubtitleContent.this.getEnd(index);
+        }
+
+        @Override
+        public void setEnd(long end) {
+            checkIndex(index);
+            ends[index] = toIntTime(end);
+        }
+
+        @Override
+        public String getText() {
+            return CompactSubtitleContent.this.getText(index);
+        }
+
+        @Override
+        public void setText(String text) {
+            checkIndex(index);
+            setTextInternal(index, text);
+        }
+
+        @Override
+        public long getDuration() {
+            return getEnd() - getStart();
+        }
+
+        @Override
+        public void setDuration(long duration) {
+            setEnd(getStart() + duration);
+        }
+
+        @Override
+        public String toString() {
+            String text = getText();
+            return MoreObjects.toStringHelper(Item.class)
+                    .omitNullValues()
+                    .add("start", Duration.ofMillis(getStart()))
+                    .add("end", Duration.ofMillis(getEnd()))
+                    .add("text", text != null ? text.replace('\n', '|') : null)
+                    .toString();
+        }
+    }
+}
@@ -3,22 +3,22 @@ package de.subcentral.core.file.subtitle;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.SystemUtils;
-
-import de.subcentral.core.util.IOUtil;
+import com.google.common.io.ByteStreams;
 
 public class SubRip implements SubtitleFileFormat {
-    public static final SubRip   INSTANCE        = new SubRip();
-
-    private static final Pattern PATTERN_NUM     = Pattern.compile("\\s*\\d+\\s*");
-    private static final Pattern PATTERN_TIMINGS = Pattern.compile("\\s*(\\d+):(\\d+):(\\d+),(\\d+)\\s*-->\\s*(\\d+):(\\d+):(\\d+),(\\d+)\\s*");
+    public static final SubRip INSTANCE = new SubRip();
 
     private SubRip() {
 
@@ -40,166 +40,129 @@ public class SubRip implements SubtitleFileFormat {
     }
 
     @Override
-    public SubtitleContent read(BufferedReader reader) throws IOException {
-        try {
-            /**
-             * <pre>
-             * 1
-             * 00:00:03,799 --> 00:00:05,679
-             * - Here we go.
-             * - Hey, good morning.
-             * </pre>
-             */
-            Matcher numMatcher = PATTERN_NUM.matcher("");
-            Matcher timingsMatcher = PATTERN_TIMINGS.matcher("");
-            String lastNumLine = null;
-            long start = -1L;
-            long end = -1L;
-            final List<String> textLines = new ArrayList<>();
-            final List<Item> items = new ArrayList<>();
-            boolean firstLine = true;
-            for (;;) {
-                String line = reader.readLine();
-                if (line == null) {
-                    // if at the end of the stream, add the last item that was read (if any)
-                    if (start != -1L) {
-                        addItem(items, start, end, textLines);
-                    }
-                    break;
-                }
-                if (firstLine) {
-                    // remove the UTF-8 BOM that may appear at the start of the content
-                    line = IOUtil.removeUTF8BOM(line);
-                    firstLine = false;
-                }
-                if (numMatcher.reset(line).matches()) {
-                    if (lastNumLine != null) {
-                        // if there already was a num line before this num line, that line is considered to be text
-                        textLines.add(lastNumLine);
-                    }
-                    lastNumLine = line;
-                }
-                else if (timingsMatcher.reset(line).matches() && lastNumLine != null) {
-                    // add previous item if new item is encountered
-                    if (start != -1L) {
-                        addItem(items, start, end, textLines);
-                    }
-                    // reset
-                    lastNumLine = null;
-                    start = parseTimepoint(timingsMatcher.group(1), timingsMatcher.group(2), timingsMatcher.group(3), timingsMatcher.group(4));
-                    end = parseTimepoint(timingsMatcher.group(5), timingsMatcher.group(6), timingsMatcher.group(7), timingsMatcher.group(8));
-                    textLines.clear();
-                }
-                else if (StringUtils.isBlank(line)) {
-                    // blank lines are interpreted as text but the lastNum is not reset
-                    // because blank lines also may appear between num line and timings line
-                    textLines.add(line);
-                }
-                else {
-                    if (lastNumLine != null) {
-                        // if there is a num line (last line) followed by text (this line),
-                        // that num line is considered to be text and not as an item number
-                        textLines.add(lastNumLine);
-                        lastNumLine = null;
-                    }
-                    textLines.add(line);
-                }
-            }
+    public SubtitleContent read(Path file, Charset charset) throws IOException {
+        return read(Files.readAllBytes(file), charset);
+    }
 
-            return new SubtitleContent(items);
+    @Override
+    public SubtitleContent read(InputStream inputStream, Charset charset) throws IOException {
+        try {
+            return read(ByteStreams.toByteArray(inputStream), charset);
         }
         finally {
-            reader.close();
+            inputStream.close();
         }
     }
 
-    private static long parseTimepoint(String hours, String minutes, String seconds, String milliseconds) {
-        return TimeUnit.HOURS.toMillis(Long.parseLong(hours)) + TimeUnit.MINUTES.toMillis(Long.parseLong(minutes)) + TimeUnit.SECONDS.toMillis(Long.parseLong(seconds)) + Long.parseLong(milliseconds);
+    /**
+     * The bytes are decoded at once and the resulting characters are parsed without further copying.
+     */
+    @Override
+    public SubtitleContent read(byte[] bytes, Charset charset) throws IOException {
+        CharBuffer chars = charset.newDecoder().decode(ByteBuffer.wrap(bytes));
+        return readAll(new SubRipReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()));
     }
 
-    private static String joinText(List<String> textLines) {
-        boolean reachedNonBlankLine = false;
-        StringBuilder sb = new StringBuilder();
-        // iterate from end to start to skip all trailing blank lines
-        for (int i = textLines.size() - 1; i >= 0; i--) {
-            String line = textLines.get(i);
-            if (reachedNonBlankLine || StringUtils.isNotBlank(line)) {
-                reachedNonBlankLine = true;
-                // append \n after insertion if there already was a line (content in StringBuilder)
-                if (sb.length() > 0) {
-                    sb.insert(0, '\n');
-                }
-                sb.insert(0, line);
-            }
-        }
-        return sb.toString();
+    @Override
+    public SubtitleContent read(BufferedReader reader) throws IOException {
+        return readAll(new SubRipReader(reader));
     }
 
-    private static void addItem(List<Item> items, long start, long end, List<String> textLines) {
-        Item item = new Item();
-        item.setStart(start);
-        item.setEnd(end);
-        item.setText(joinText(textLines));
-        items.add(item);
+    /**
+     * Streaming alternative to {@link #read(BufferedReader)}: the items are read one after another while iterating.
+     *
+     * @param reader
+     *            the reader of the SubRip text
+     * @return the item reader. It has to be closed
+     */
+    public SubRipReader readItems(Reader reader) {
+        return new SubRipReader(reader);
     }
 
-    @Override
-    public void write(SubtitleContent sub, BufferedWriter writer) throws IOException {
+    private static SubtitleContent readAll(SubRipReader itemReader) throws IOException {
         try {
-            /**
-             * <pre>
-             * 1
-             * 00:00:03,799 --> 00:00:05,679
-             * - Here we go.
-             * - Hey, good morning.
-             * </pre>
-             */
-            for (int i = 0; i < sub.getItems().size(); i++) {
-                Item item = sub.getItems().get(i);
-                writer.write(formatNumber(i + 1));
-                writer.newLine();
-                writer.write(formatStartEnd(item.getStart(), item.getEnd()));
-                writer.newLine();
-                writer.write(formatText(item.getText()));
-                if (i < sub.getItems().size() - 1) {
-                    writer.newLine();
-                    writer.newLine();
-                }
+            List<Item> items = new ArrayList<>();
+            Item item;
+            while ((item = itemReader.read()) != null) {
+                items.add(item);
             }
+            return new SubtitleContent(items);
         }
         finally {
-            writer.close();
+            itemReader.close();
         }
     }
 
-    private static String formatNumber(int number) {
-        return Integer.toString(number);
-    }
-
-    private static String formatStartEnd(long start, long end) {
-        Object[] args = new Object[8];
-        int argsIndex = 0;
-        for (long arg : splitIntoHoursMinsSecsMillis(start)) {
-            args[argsIndex++] = arg;
-        }
-        for (long arg : splitIntoHoursMinsSecsMillis(end)) {
-            args[argsIndex++] = arg;
+    @Override
+    public void write(SubtitleContent sub, BufferedWriter writer) throws IOException {
+        try (SubRipWriter itemWriter = new SubRipWriter(writer)) {
+            for (Item item : sub.getItems()) {
+                itemWriter.write(item);
+            }
         }
-        return String.format("%02d:%02d:%02d,%03d --> %02d:%02d:%02d,%03d", args);
     }
 
-    private static String formatText(String text) {
-        return text.replace("\n", SystemUtils.LINE_SEPARATOR);
+    /**
+     * Retimes a SubRip text item by item. Only the current item is held in memory, so even large batches of files can be retimed without reading the whole
+     * {@link SubtitleContent contents}. The items are renumbered.
+     *
+     * @param reader
+     *            the reader of the source text. It is closed afterwards
+     * @param writer
+     *            the writer of the target text. It is closed afterwards
+     * @param transformation
+     *            the transformation to apply to the start and end of each item
+     * @return the number of items
+     * @throws IOException
+     *             if reading or writing fails
+     */
+    public int transformTimings(BufferedReader reader, BufferedWriter writer, TimingTransformation transformation) throws IOException {
+        Objects.requireNonNull(transformation, "transformation");
+        try (SubRipReader itemReader = new SubRipReader(reader); SubRipWriter itemWriter = new SubRipWriter(writer)) {
+            Item item;
+            while ((item = itemReader.read()) != null) {
+                transformation.applyTo(item);
+                itemWriter.write(item);
+            }
+            return itemWriter.getCount();
+        }
     }
 
-    private static long[] splitIntoHoursMinsSecsMillis(long millis) {
-        long ms = millis;
-        long hours = TimeUnit.MILLISECONDS.toHours(ms);
-        ms -= TimeUnit.HOURS.toMillis(hours);
-        long minutes = TimeUnit.MILLISECONDS.toMinutes(ms);
-        ms -= TimeUnit.MINUTES.toMillis(minutes);
-        long seconds = TimeUnit.MILLISECONDS.toSeconds(ms);
-        ms -= TimeUnit.SECONDS.toMillis(seconds);
-        return new long[] { hours, minutes, seconds, ms };
+    /**
+     * Convenience method for {@link #transformTimings(BufferedReader, BufferedWriter, TimingTransformation)}. The items are written to a temporary file which then replaces
+     * the target file. So the target file may be the source file (the file is retimed in place) and is left untouched if the transformation fails.
+     *
+     * @param source
+     *            the source file
+     * @param target
+     *            the target file (may be the source file)
+     * @param charset
+     *            the charset of the source and target file
+     * @param transformation
+     *            the transformation to apply to the start and end of each item
+     * @return the number of items
+     * @throws IOException
+     *             if reading or writing fails
+     */
+    public int transformTimings(Path source, Path target, Charset charset, TimingTransformation transformation) throws IOException {
+        Path targetDir = target.toAbsolutePath().getParent();
+        Path tmpFile = Files.createTempFile(targetDir, target.getFileName().toString(), ".tmp");
+        try {
+            BufferedReader reader = Files.newBufferedReader(source, charset);
+            BufferedWriter writer;
+            try {
+                writer = Files.newBufferedWriter(tmpFile, charset);
+            }
+            catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+            int count = transformTimings(reader, writer, transformation);
+            Files.move(tmpFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        }
+        finally {
+            Files.deleteIfExists(tmpFile);
+        }
     }
 }
@@ -0,0 +1,427 @@
+package de.subcentral.core.file.subtitle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the {@link Item items} of a SubRip text one after another.
+ *
+ * <pre>
+ * 1
+ * 00:00:03,799 --> 00:00:05,679
+ * - Here we go.
+ * - Hey, good morning.
+ * </pre>
+ * <p>
+ * The text is split into lines and each line is classified (number line, timings line, blank line or text line) by a hand-written scanner directly on the character buffer. No
+ * regular expressions are involved and the time points are computed while scanning the digits. Only the item texts are turned into Strings.
+ * </p>
+ * <p>
+ * The reader can be used as an {@link Iterator} (an {@link IOException} is then rethrown as {@link UncheckedIOException}) or via {@link #read()}.
+ * </p>
+ *
+ * @implSpec #not-thread-safe
+ */
+public class SubRipReader implements Iterator<Item>, Closeable {
+    private static final int    BUFFER_SIZE         = 8192;
+    /**
+     * More digits could overflow a long.
+     */
+    private static final int    MAX_DIGITS          = 18;
+
+    private final Reader        reader;
+    private final char[]        buffer;
+    private int                 pos;
+    private int                 limit;
+    private boolean             skipLF;
+    private boolean             firstLine           = true;
+
+    // the current line: a range either in the buffer or - if the line spans several buffer fills - in the line buffer
+    private char[]              line;
+    private int                 lineStart;
+    private int                 lineEnd;
+    private char[]              lineBuffer          = new char[128];
+
+    private final StringBuilder numLine             = new StringBuilder(8);
+    private boolean             hasNumLine;
+    private long                start               = -1L;
+    private long                end                 = -1L;
+    private final StringBuilder text                = new StringBuilder(128);
+    private boolean             hasTextLine;
+    private int                 textLengthToNonBlank;
+    private long                number;
+    private long                timepoint;
+    private long                timingsStart;
+    private long                timingsEnd;
+
+    private Item                next;
+    private boolean             finished;
+
+    /**
+     * Creates a reader which reads the text from the given reader in chunks.
+     *
+     * @param reader
+     *            the reader of the SubRip text. It is closed by {@link #close()}
+     */
+    public SubRipReader(Reader reader) {
+        this.reader = Objects.requireNonNull(reader, "reader");
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Creates a reader of text which is already in memory. The characters are not copied.
+     *
+     * @param chars
+     *            the characters of the SubRip text
+     * @param offset
+     *            the index of the first character
+     * @param length
+     *            the number of characters
+     */
+    public SubRipReader(char[] chars, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > chars.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", chars.length=" + chars.length);
+        }
+        this.reader = null;
+        this.buffer = chars;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     *
+     * @return the next item or {@code null} if the end of the text is reached
+     * @throws IOException
+     *             if reading fails
+     */
+    public Item read() throws IOException {
+        if (next != null) {
+            Item item = next;
+            next = null;
+            return item;
+        }
+        return finished ? null : readItem();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readItem();
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Item next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Item item = next;
+        next = null;
+        return item;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    private Item readItem() throws IOException {
+        while (readLine()) {
+            if (firstLine) {
+                // remove the UTF-8 BOM that may appear at the start of the content
+                if (lineStart < lineEnd && line[lineStart] == '\uFEFF') {
+                    lineStart++;
+                }
+                firstLine = false;
+            }
+            if (isNumLine()) {
+                if (hasNumLine) {
+                    // if there already was a num line before this num line, that line is considered to be text
+                    appendTextLine(numLine);
+                }
+                numLine.setLength(0);
+                numLine.append(line, lineStart, lineEnd - lineStart);
+                hasNumLine = true;
+            }
+            else if (hasNumLine && isTimingsLine()) {
+                // the timings of a new item finish the previous item (if any)
+                Item item = start != -1L ? createItem() : null;
+                hasNumLine = false;
+                start = timingsStart;
+                end = timingsEnd;
+                clearText();
+                if (item != null) {
+                    return item;
+                }
+            }
+            else if (isBlankLine()) {
+                // blank lines are interpreted as text but the num line is not reset
+                // because blank lines also may appear between num line and timings line
+                appendTextLine(true);
+            }
+            else {
+                if (hasNumLine) {
+                    // if there is a num line (last line) followed by text (this line),
+                    // that num line is considered to be text and not as an item number
+                    appendTextLine(numLine);
+                    hasNumLine = false;
+                }
+                appendTextLine(false);
+            }
+        }
+        // at the end of the stream, return the last item that was read (if any)
+        finished = true;
+        if (start != -1L) {
+            Item item = createItem();
+            start = -1L;
+            return item;
+        }
+        return null;
+    }
+
+    private Item createItem() {
+        Item item = new Item();
+        item.setStart(start);
+        item.setEnd(end);
+        // skip all trailing blank lines
+        text.setLength(textLengthToNonBlank);
+        item.setText(text.toString());
+        return item;
+    }
+
+    private void clearText() {
+        text.setLength(0);
+        hasTextLine = false;
+        textLengthToNonBlank = 0;
+    }
+
+    private void appendTextLine(boolean blank) {
+        appendLineSeparator();
+        text.append(line, lineStart, lineEnd - lineStart);
+        if (!blank) {
+            textLengthToNonBlank = text.length();
+        }
+    }
+
+    private void appendTextLine(CharSequence nonBlankLine) {
+        appendLineSeparator();
+        text.append(nonBlankLine);
+        textLengthToNonBlank = text.length();
+    }
+
+    private void appendLineSeparator() {
+        if (hasTextLine) {
+            text.append('\n');
+        }
+        hasTextLine = true;
+    }
+
+    // Line classification
+    /**
+     * {@code \s*\d+\s*}
+     */
+    private boolean isNumLine() {
+        int i = skipSpaces(lineStart);
+        int digitsEnd = skipDigits(i);
+        return digitsEnd > i && skipSpaces(digitsEnd) == lineEnd;
+    }
+
+    /**
+     * {@code \s*(\d+):(\d+):(\d+),(\d+)\s*-->\s*(\d+):(\d+):(\d+),(\d+)\s*}. On success, the time points are stored in {@link #timingsStart} and {@link #timingsEnd}.
+     */
+    private boolean isTimingsLine() {
+        int i = parseTimepoint(skipSpaces(lineStart));
+        if (i == -1) {
+            return false;
+        }
+        long startTimepoint = timepoint;
+        i = skipSpaces(i);
+        if (i + 3 > lineEnd || line[i] != '-' || line[i + 1] != '-' || line[i + 2] != '>') {
+            return false;
+        }
+        i = parseTimepoint(skipSpaces(i + 3));
+        if (i == -1 || skipSpaces(i) != lineEnd) {
+            return false;
+        }
+        timingsStart = startTimepoint;
+        timingsEnd = timepoint;
+        return true;
+    }
+
+    private boolean isBlankLine() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!Character.isWhitespace(line[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses {@code (\d+):(\d+):(\d+),(\d+)} into {@link #timepoint}.
+     *
+     * @return the index after the time point or -1 if there is no time point at the given index
+     */
+    private int parseTimepoint(int index) {
+        int i = parseNumber(index);
+        if (i == -1 || !isChar(i, ':')) {
+            return -1;
+        }
+        long hours = number;
+        i = parseNumber(i + 1);
+        if (i == -1 || !isChar(i, ':')) {
+            return -1;
+        }
+        long minutes = number;
+        i = parseNumber(i + 1);
+        if (i == -1 || !isChar(i, ',')) {
+            return -1;
+        }
+        long seconds = number;
+        i = parseNumber(i + 1);
+        if (i == -1) {
+            return -1;
+        }
+        timepoint = TimeUnit.HOURS.toMillis(hours) + TimeUnit.MINUTES.toMillis(minutes) + TimeUnit.SECONDS.toMillis(seconds) + number;
+        return i;
+    }
+
+    /**
+     * Parses {@code \d+} into {@link #number}.
+     *
+     * @return the index after the digits or -1 if there are no digits at the given index
+     */
+    private int parseNumber(int index) {
+        int digitsEnd = skipDigits(index);
+        if (digitsEnd == index || digitsEnd - index > MAX_DIGITS) {
+            return -1;
+        }
+        long value = 0L;
+        for (int i = index; i < digitsEnd; i++) {
+            value = value * 10L + (line[i] - '0');
+        }
+        number = value;
+        return digitsEnd;
+    }
+
+    private boolean isChar(int index, char c) {
+        return index < lineEnd && line[index] == c;
+    }
+
+    private int skipDigits(int index) {
+        int i = index;
+        while (i < lineEnd && line[i] >= '0' && line[i] <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips the characters matched by {@code \s} (without {@link java.util.regex.Pattern#UNICODE_CHARACTER_CLASS}).
+     */
+    private int skipSpaces(int index) {
+        int i = index;
+        while (i < lineEnd) {
+            char c = line[i];
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                i++;
+            }
+            else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // Line splitting
+    /**
+     * Reads the next line like {@link java.io.BufferedReader#readLine()} does (the line is terminated by "\n", "\r" or "\r\n").
+     *
+     * @return whether a line was read
+     */
+    private boolean readLine() throws IOException {
+        int lineBufferLength = -1;
+        for (;;) {
+            if (pos >= limit && !fill()) {
+                if (lineBufferLength == -1) {
+                    return false;
+                }
+                setLine(lineBuffer, 0, lineBufferLength);
+                return true;
+            }
+            if (skipLF) {
+                skipLF = false;
+                if (buffer[pos] == '\n') {
+                    pos++;
+                    continue;
+                }
+            }
+            int i = pos;
+            while (i < limit && buffer[i] != '\n' && buffer[i] != '\r') {
+                i++;
+            }
+            if (i < limit) {
+                if (lineBufferLength == -1) {
+                    setLine(buffer, pos, i);
+                }
+                else {
+                    lineBufferLength = appendToLineBuffer(lineBufferLength, pos, i);
+                    setLine(lineBuffer, 0, lineBufferLength);
+                }
+                skipLF = buffer[i] == '\r';
+                pos = i + 1;
+                return true;
+            }
+            // the line continues after the buffered chars
+            lineBufferLength = appendToLineBuffer(Math.max(lineBufferLength, 0), pos, limit);
+            pos = limit;
+        }
+    }
+
+    private void setLine(char[] chars, int start, int end) {
+        line = chars;
+        lineStart = start;
+        lineEnd = end;
+    }
+
+    private int appendToLineBuffer(int lineBufferLength, int from, int to) {
+        int newLength = lineBufferLength + (to - from);
+        if (newLength > lineBuffer.length) {
+            char[] newLineBuffer = new char[Math.max(newLength, lineBuffer.length * 2)];
+            System.arraycopy(lineBuffer, 0, newLineBuffer, 0, lineBufferLength);
+            lineBuffer = newLineBuffer;
+        }
+        System.arraycopy(buffer, from, lineBuffer, lineBufferLength, to - from);
+        return newLength;
+    }
+
+    private boolean fill() throws IOException {
+        if (reader == null) {
+            return false;
+        }
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n == -1) {
+            return false;
+        }
+        pos = 0;
+        limit = n;
+        return true;
+    }
+}
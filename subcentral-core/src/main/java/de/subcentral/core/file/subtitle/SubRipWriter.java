@@ -0,0 +1,152 @@
+package de.subcentral.core.file.subtitle;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@link Item items} in the SubRip format one after another. The items are numbered in the order they are written and separated by a blank line.
+ *
+ * <pre>
+ * 1
+ * 00:00:03,799 --> 00:00:05,679
+ * - Here we go.
+ * - Hey, good morning.
+ * </pre>
+ * <p>
+ * The timings are formatted into a reused character buffer, so apart from the item number no Strings are created.
+ * </p>
+ *
+ * @implSpec #not-thread-safe
+ */
+public class SubRipWriter implements Closeable, Flushable {
+    private static final long    MILLIS_PER_SECOND   = TimeUnit.SECONDS.toMillis(1L);
+    private static final long    MILLIS_PER_MINUTE   = TimeUnit.MINUTES.toMillis(1L);
+    private static final long    MILLIS_PER_HOUR     = TimeUnit.HOURS.toMillis(1L);
+    /**
+     * Enough for two time points with the maximum number of hours.
+     */
+    private static final int     TIMINGS_BUFFER_SIZE = 64;
+
+    private final BufferedWriter writer;
+    private final char[]         timingsBuffer       = new char[TIMINGS_BUFFER_SIZE];
+    private int                  count;
+
+    /**
+     *
+     * @param writer
+     *            the writer to write to. It is closed by {@link #close()}
+     */
+    public SubRipWriter(BufferedWriter writer) {
+        this.writer = Objects.requireNonNull(writer, "writer");
+    }
+
+    /**
+     *
+     * @return the number of items written so far
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public void write(Item item) throws IOException {
+        if (count > 0) {
+            writer.newLine();
+            writer.newLine();
+        }
+        count++;
+        writer.write(Integer.toString(count));
+        writer.newLine();
+        writer.write(timingsBuffer, 0, formatStartEnd(item.getStart(), item.getEnd(), timingsBuffer));
+        writer.newLine();
+        writeText(item.getText());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeText(String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        int lineStart = 0;
+        int lineEnd;
+        while ((lineEnd = text.indexOf('\n', lineStart)) != -1) {
+            writer.write(text, lineStart, lineEnd - lineStart);
+            writer.newLine();
+            lineStart = lineEnd + 1;
+        }
+        writer.write(text, lineStart, text.length() - lineStart);
+    }
+
+    /**
+     * Formats "00:00:03,799 --> 00:00:05,679" into the given buffer.
+     *
+     * @return the number of chars written
+     */
+    private static int formatStartEnd(long start, long end, char[] buffer) {
+        int pos = formatTimepoint(start, buffer, 0);
+        buffer[pos++] = ' ';
+        buffer[pos++] = '-';
+        buffer[pos++] = '-';
+        buffer[pos++] = '>';
+        buffer[pos++] = ' ';
+        return formatTimepoint(end, buffer, pos);
+    }
+
+    private static int formatTimepoint(long millis, char[] buffer, int offset) {
+        if (millis < 0) {
+            // rare case, not worth optimizing
+            long[] parts = splitIntoHoursMinsSecsMillis(millis);
+            String timepoint = String.format("%02d:%02d:%02d,%03d", parts[0], parts[1], parts[2], parts[3]);
+            timepoint.getChars(0, timepoint.length(), buffer, offset);
+            return offset + timepoint.length();
+        }
+        long hours = millis / MILLIS_PER_HOUR;
+        int pos = offset;
+        if (hours < 100L) {
+            pos = formatDigits(hours, 2, buffer, pos);
+        }
+        else {
+            String hoursStr = Long.toString(hours);
+            hoursStr.getChars(0, hoursStr.length(), buffer, pos);
+            pos += hoursStr.length();
+        }
+        buffer[pos++] = ':';
+        pos = formatDigits((millis / MILLIS_PER_MINUTE) % 60L, 2, buffer, pos);
+        buffer[pos++] = ':';
+        pos = formatDigits((millis / MILLIS_PER_SECOND) % 60L, 2, buffer, pos);
+        buffer[pos++] = ',';
+        return formatDigits(millis % MILLIS_PER_SECOND, 3, buffer, pos);
+    }
+
+    private static int formatDigits(long value, int digits, char[] buffer, int offset) {
+        long remainder = value;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + (remainder % 10L));
+            remainder /= 10L;
+        }
+        return offset + digits;
+    }
+
+    private static long[] splitIntoHoursMinsSecsMillis(long millis) {
+        long ms = millis;
+        long hours = TimeUnit.MILLISECONDS.toHours(ms);
+        ms -= TimeUnit.HOURS.toMillis(hours);
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(ms);
+        ms -= TimeUnit.MINUTES.toMillis(minutes);
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(ms);
+        ms -= TimeUnit.SECONDS.toMillis(seconds);
+        return new long[] { hours, minutes, seconds, ms };
+    }
+}
@@ -3,11 +3,13 @@ package de.subcentral.core.file.subtitle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
 
 public class SubtitleContent {
+    // null if a subclass keeps the items itself
     private final List<Item> items;
 
     public SubtitleContent() {
@@ -18,6 +20,17 @@ public class SubtitleContent {
         this.items = new ArrayList<>(items);
     }
 
+    /**
+     * For subclasses which keep the items themselves. Such a subclass passes true and overrides {@link #getItems()} and {@link #setItems(Collection)}. So no list is
+     * allocated in vain.
+     *
+     * @param itemsKeptBySubclass
+     *            whether the subclass keeps the items itself
+     */
+    protected SubtitleContent(boolean itemsKeptBySubclass) {
+        items = itemsKeptBySubclass ? null : new ArrayList<>();
+    }
+
     public List<Item> getItems() {
         return items;
     }
@@ -27,8 +40,21 @@ public class SubtitleContent {
         this.items.addAll(items);
     }
 
+    /**
+     * Transforms the start and end of all items.
+     *
+     * @param transformation
+     *            the transformation (see {@link TimingTransformations})
+     */
+    public void transformTimings(TimingTransformation transformation) {
+        Objects.requireNonNull(transformation, "transformation");
+        for (Item item : getItems()) {
+            transformation.applyTo(item);
+        }
+    }
+
     @Override
     public String toString() {
-        return MoreObjects.toStringHelper(SubtitleContent.class).add("items", Joiner.on('\n').join(items)).toString();
+        return MoreObjects.toStringHelper(SubtitleContent.class).add("items", Joiner.on('\n').join(getItems())).toString();
     }
 }
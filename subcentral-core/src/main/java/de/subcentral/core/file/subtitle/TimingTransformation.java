@@ -0,0 +1,41 @@
+package de.subcentral.core.file.subtitle;
+
+import java.util.Objects;
+
+/**
+ * Transforms a time point (in milliseconds) of a subtitle, for example to synchronize a subtitle to another release. See {@link TimingTransformations} for the common
+ * transformations.
+ * <p>
+ * Transformations are combined into pipelines with {@link #andThen(TimingTransformation)}. They are applied to whole contents with
+ * {@link SubtitleContent#transformTimings(TimingTransformation)} or - without reading the whole content into memory - file to file with
+ * {@link SubRip#transformTimings(java.io.BufferedReader, java.io.BufferedWriter, TimingTransformation)}.
+ * </p>
+ *
+ * @implSpec Implementations should be #immutable #thread-safe
+ */
+@FunctionalInterface
+public interface TimingTransformation {
+    /**
+     *
+     * @param millis
+     *            the time point
+     * @return the transformed time point. May be negative (negative time points are set to 0 when applied to an item)
+     */
+    public long transform(long millis);
+
+    public default TimingTransformation andThen(TimingTransformation after) {
+        Objects.requireNonNull(after, "after");
+        return (long millis) -> after.transform(transform(millis));
+    }
+
+    /**
+     * Transforms the start and end of the given item. Negative results are set to 0.
+     *
+     * @param item
+     *            the item to retime
+     */
+    public default void applyTo(Item item) {
+        item.setStart(Math.max(0L, transform(item.getStart())));
+        item.setEnd(Math.max(0L, transform(item.getEnd())));
+    }
+}
@@ -0,0 +1,192 @@
+package de.subcentral.core.file.subtitle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+public class TimingTransformations {
+    private TimingTransformations() {
+        throw new AssertionError(getClass() + " is an utility class and therefore cannot be instantiated");
+    }
+
+    public static TimingTransformation identity() {
+        return (long millis) -> millis;
+    }
+
+    /**
+     *
+     * @param offset
+     *            the milliseconds to add (negative to shift backwards)
+     * @return the constant shift
+     */
+    public static TimingTransformation shift(long offset) {
+        return (long millis) -> millis + offset;
+    }
+
+    /**
+     *
+     * @param factor
+     *            the factor to multiply the time points with
+     * @return the linear scale (relative to 0)
+     */
+    public static TimingTransformation scale(double factor) {
+        return linear(factor, 0L);
+    }
+
+    /**
+     *
+     * @param factor
+     *            the factor to multiply the time points with
+     * @param offset
+     *            the milliseconds to add after scaling
+     * @return the linear transformation {@code millis * factor + offset}
+     */
+    public static TimingTransformation linear(double factor, long offset) {
+        if (!(factor > 0d) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("factor must be positive and finite: " + factor);
+        }
+        return (long millis) -> Math.round(millis * factor) + offset;
+    }
+
+    /**
+     * Converts a subtitle which was timed for a video with the source frame rate to a video with the target frame rate (for example from 23.976 fps to 25 fps). The frames stay
+     * the same, so the time points are scaled by {@code sourceFps / targetFps}.
+     *
+     * @param sourceFps
+     *            the frame rate the subtitle was timed for
+     * @param targetFps
+     *            the frame rate of the target video
+     * @return the frame rate conversion
+     */
+    public static TimingTransformation convertFrameRate(double sourceFps, double targetFps) {
+        if (!(sourceFps > 0d) || !(targetFps > 0d)) {
+            throw new IllegalArgumentException("frame rates must be positive: " + sourceFps + ", " + targetFps);
+        }
+        return scale(sourceFps / targetFps);
+    }
+
+    /**
+     * Synchronizes by anchor points. Each anchor maps a time point of the subtitle to the time point where it should be. Between two anchors the time points are interpolated
+     * linearly, before the first and after the last anchor the first respectively last segment is extended. With a single anchor this is a constant shift.
+     *
+     * @param anchors
+     *            the anchors (at least one, the order does not matter, no two anchors for the same source time point)
+     * @return the piecewise linear transformation
+     */
+    public static TimingTransformation resync(Iterable<SyncPoint> anchors) {
+        List<SyncPoint> sorted = new ArrayList<>();
+        anchors.forEach(sorted::add);
+        if (sorted.isEmpty()) {
+            throw new IllegalArgumentException("at least one anchor is required");
+        }
+        sorted.sort(Comparator.comparingLong(SyncPoint::getSource));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i - 1).source == sorted.get(i).source) {
+                throw new IllegalArgumentException("two anchors for the same source time point: " + sorted.get(i));
+            }
+        }
+        if (sorted.size() == 1) {
+            SyncPoint anchor = sorted.get(0);
+            return shift(anchor.target - anchor.source);
+        }
+        return new PiecewiseLinearTransformation(sorted);
+    }
+
+    /**
+     * A time point of the subtitle ({@link #getSource() source}) and the time point where it should be ({@link #getTarget() target}).
+     *
+     * @implSpec #value-object #immutable #thread-safe
+     */
+    public static final class SyncPoint {
+        private final long source;
+        private final long target;
+
+        private SyncPoint(long source, long target) {
+            this.source = source;
+            this.target = target;
+        }
+
+        public static SyncPoint of(long source, long target) {
+            return new SyncPoint(source, target);
+        }
+
+        public long getSource() {
+            return source;
+        }
+
+        public long getTarget() {
+            return target;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof SyncPoint) {
+                SyncPoint o = (SyncPoint) obj;
+                return source == o.source && target == o.target;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, target);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(SyncPoint.class).add("source", source).add("target", target).toString();
+        }
+    }
+
+    private static final class PiecewiseLinearTransformation implements TimingTransformation {
+        private final List<SyncPoint> anchors;
+        private final long[]          sources;
+        private final long[]          targets;
+        private final double[]        factors;
+
+        private PiecewiseLinearTransformation(List<SyncPoint> sortedAnchors) {
+            int count = sortedAnchors.size();
+            this.anchors = ImmutableList.copyOf(sortedAnchors);
+            this.sources = new long[count];
+            this.targets = new long[count];
+            for (int i = 0; i < count; i++) {
+                sources[i] = sortedAnchors.get(i).source;
+                targets[i] = sortedAnchors.get(i).target;
+            }
+            // factors[i] is the factor of the segment starting at anchor i
+            this.factors = new double[count - 1];
+            for (int i = 0; i < count - 1; i++) {
+                factors[i] = (double) (targets[i + 1] - targets[i]) / (sources[i + 1] - sources[i]);
+            }
+        }
+
+        @Override
+        public long transform(long millis) {
+            // binary search for the segment: the last anchor with source <= millis (clamped to the first and last segment)
+            int low = 0;
+            int high = sources.length - 2;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (sources[mid] <= millis) {
+                    low = mid;
+                }
+                else {
+                    high = mid - 1;
+                }
+            }
+            return targets[low] + Math.round((millis - sources[low]) * factors[low]);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(PiecewiseLinearTransformation.class).add("anchors", anchors).toString();
+        }
+    }
+}
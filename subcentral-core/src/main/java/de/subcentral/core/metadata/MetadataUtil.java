@@ -0,0 +1,296 @@
+package de.subcentral.core.metadata;
+
+import java.io.Serializable;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.SerializationUtils;
+
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.media.GenericMedia;
+import de.subcentral.core.metadata.media.MediaBase;
+import de.subcentral.core.metadata.media.Movie;
+import de.subcentral.core.metadata.media.NamedMediaBase;
+import de.subcentral.core.metadata.media.Network;
+import de.subcentral.core.metadata.media.Season;
+import de.subcentral.core.metadata.media.Series;
+import de.subcentral.core.metadata.media.StandaloneMedia;
+import de.subcentral.core.metadata.release.Group;
+import de.subcentral.core.metadata.release.Nuke;
+import de.subcentral.core.metadata.release.Release;
+import de.subcentral.core.metadata.release.Tag;
+import de.subcentral.core.metadata.subtitle.Subtitle;
+import de.subcentral.core.metadata.subtitle.SubtitleRelease;
+
+public class MetadataUtil {
+    private MetadataUtil() {
+        throw new AssertionError(getClass() + " is an utility class and therefore cannot be instantiated");
+    }
+
+    /**
+     * Creates a deep copy of the given metadata object graph. References between the objects of the graph (for example several episodes of the same series) are preserved in the
+     * copy.
+     * <p>
+     * The metadata classes ({@link SubtitleRelease}, {@link Subtitle}, {@link Release}, {@link Episode}, {@link Season}, {@link Series}, {@link Movie}, {@link GenericMedia},
+     * {@link Network}, {@link Contribution}) and collections of them are copied property by property, which is a lot faster than {@link SerializationUtils#clone(Serializable)}.
+     * Immutable values (Strings, numbers, {@link Temporal temporals}, {@link Tag tags}, {@link Group groups}, {@link Nuke nukes}) and {@link Site sites} (which are reference
+     * data) are shared. Other serializable objects are copied by serialization.
+     * </p>
+     *
+     * @param obj
+     *            the object to copy (may be null)
+     * @return the copy
+     * @throws IllegalArgumentException
+     *             if the graph contains an object which can neither be copied property by property nor by serialization
+     */
+    public static <T> T deepCopy(T obj) throws IllegalArgumentException {
+        return new GraphCopier().copy(obj);
+    }
+
+    private static final class GraphCopier {
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        private <T> T copy(T obj) {
+            if (obj == null || isShared(obj)) {
+                return obj;
+            }
+            Object copy = copies.get(obj);
+            if (copy == null) {
+                copy = createCopy(obj);
+            }
+            return (T) copy;
+        }
+
+        private static boolean isShared(Object obj) {
+            return obj instanceof String
+                    || obj instanceof Number
+                    || obj instanceof Boolean
+                    || obj instanceof Character
+                    || obj instanceof Enum
+                    || obj instanceof Temporal
+                    || obj instanceof Tag
+                    || obj instanceof Group
+                    || obj instanceof Nuke
+                    || obj instanceof Site
+                    || obj instanceof Contributor;
+        }
+
+        private Object createCopy(Object obj) {
+            if (obj instanceof SubtitleRelease) {
+                return copySubtitleRelease((SubtitleRelease) obj);
+            }
+            if (obj instanceof Subtitle) {
+                return copySubtitle((Subtitle) obj);
+            }
+            if (obj instanceof Release) {
+                return copyRelease((Release) obj);
+            }
+            if (obj instanceof Episode) {
+                return copyEpisode((Episode) obj);
+            }
+            if (obj instanceof Season) {
+                return copySeason((Season) obj);
+            }
+            if (obj instanceof Series) {
+                return copySeries((Series) obj);
+            }
+            if (obj instanceof Movie) {
+                Movie copy = new Movie();
+                copies.put(obj, copy);
+                copyStandaloneMediaProps((Movie) obj, copy);
+                return copy;
+            }
+            if (obj instanceof GenericMedia) {
+                GenericMedia orig = (GenericMedia) obj;
+                GenericMedia copy = new GenericMedia();
+                copies.put(obj, copy);
+                copyStandaloneMediaProps(orig, copy);
+                copy.setMediaType(orig.getMediaType());
+                copy.setMediaContentType(orig.getMediaContentType());
+                return copy;
+            }
+            if (obj instanceof Network) {
+                Network orig = (Network) obj;
+                Network copy = new Network(orig.getName());
+                copies.put(obj, copy);
+                copyMetadataProps(orig, copy);
+                return copy;
+            }
+            if (obj instanceof Contribution) {
+                Contribution orig = (Contribution) obj;
+                Contribution copy = new Contribution(orig.getContributor(), orig.getType(), orig.getDescription(), orig.getAmount(), orig.getProgress());
+                copies.put(obj, copy);
+                return copy;
+            }
+            if (obj instanceof List) {
+                List<Object> copy = new ArrayList<>(((List<?>) obj).size());
+                copies.put(obj, copy);
+                copyElements((List<?>) obj, copy);
+                return copy;
+            }
+            if (obj instanceof Set) {
+                Set<Object> copy = new LinkedHashSet<>(((Set<?>) obj).size());
+                copies.put(obj, copy);
+                copyElements((Set<?>) obj, copy);
+                return copy;
+            }
+            if (obj instanceof Map) {
+                Map<Object, Object> copy = new LinkedHashMap<>(((Map<?, ?>) obj).size());
+                copies.put(obj, copy);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+                    copy.put(copy(entry.getKey()), copy(entry.getValue()));
+                }
+                return copy;
+            }
+            if (obj instanceof Serializable) {
+                Object copy = SerializationUtils.clone((Serializable) obj);
+                copies.put(obj, copy);
+                return copy;
+            }
+            throw new IllegalArgumentException("Cannot copy object of type " + obj.getClass().getName() + ": " + obj);
+        }
+
+        private SubtitleRelease copySubtitleRelease(SubtitleRelease orig) {
+            SubtitleRelease copy = new SubtitleRelease();
+            copies.put(orig, copy);
+            copyMetadataProps(orig, copy);
+            copy.setName(orig.getName());
+            copyElements(orig.getSubtitles(), copy.getSubtitles());
+            copy.getTags().addAll(orig.getTags());
+            copyElements(orig.getMatchingReleases(), copy.getMatchingReleases());
+            copy.setVersion(orig.getVersion());
+            copy.setDate(orig.getDate());
+            copy.setSize(orig.getSize());
+            copy.setNfo(orig.getNfo());
+            copy.setNfoLink(orig.getNfoLink());
+            copyElements(orig.getContributions(), copy.getContributions());
+            return copy;
+        }
+
+        private Subtitle copySubtitle(Subtitle orig) {
+            Subtitle copy = new Subtitle();
+            copies.put(orig, copy);
+            copyMetadataProps(orig, copy);
+            copy.setMedia(copy(orig.getMedia()));
+            copy.setLanguage(orig.getLanguage());
+            copy.setGroup(orig.getGroup());
+            copy.setSource(orig.getSource());
+            copy.setState(orig.getState());
+            copy.setProductionType(orig.getProductionType());
+            copy.setBasis(copy(orig.getBasis()));
+            copy.setNfo(orig.getNfo());
+            copy.setNfoLink(orig.getNfoLink());
+            copyElements(orig.getContributions(), copy.getContributions());
+            return copy;
+        }
+
+        private Release copyRelease(Release orig) {
+            Release copy = new Release();
+            copies.put(orig, copy);
+            copyMetadataProps(orig, copy);
+            copy.setName(orig.getName());
+            copyElements(orig.getMedia(), copy.getMedia());
+            copy.getTags().addAll(orig.getTags());
+            copy.setGroup(orig.getGroup());
+            copy.setSource(orig.getSource());
+            copy.getLanguages().addAll(orig.getLanguages());
+            copy.setCategory(orig.getCategory());
+            copy.setDate(orig.getDate());
+            copy.setSize(orig.getSize());
+            copy.setFileCount(orig.getFileCount());
+            copy.getNukes().addAll(orig.getNukes());
+            copy.setNfo(orig.getNfo());
+            copy.setNfoLink(orig.getNfoLink());
+            copy.getFurtherInfoLinks().addAll(orig.getFurtherInfoLinks());
+            return copy;
+        }
+
+        private Episode copyEpisode(Episode orig) {
+            Episode copy = new Episode();
+            copies.put(orig, copy);
+            copyMediaProps(orig, copy);
+            // the series has to be set before the season because the season has to belong to the same series
+            copy.setSeries(copy(orig.getSeries()));
+            copy.setSeason(copy(orig.getSeason()));
+            copy.setNumberInSeries(orig.getNumberInSeries());
+            copy.setNumberInSeason(orig.getNumberInSeason());
+            copy.setSpecial(orig.isSpecial());
+            copy.setRunningTime(orig.getRunningTime());
+            return copy;
+        }
+
+        private Season copySeason(Season orig) {
+            Season copy = new Season();
+            copies.put(orig, copy);
+            copyMediaProps(orig, copy);
+            copy.setSeries(copy(orig.getSeries()));
+            copy.setNumber(orig.getNumber());
+            copy.setSpecial(orig.isSpecial());
+            copy.setFinaleDate(orig.getFinaleDate());
+            copyElements(orig.getEpisodes(), copy.getEpisodes());
+            return copy;
+        }
+
+        private Series copySeries(Series orig) {
+            Series copy = new Series();
+            copies.put(orig, copy);
+            copyNamedMediaProps(orig, copy);
+            copy.setType(orig.getType());
+            copy.setFinaleDate(orig.getFinaleDate());
+            copy.getLanguages().addAll(orig.getLanguages());
+            copy.getCountries().addAll(orig.getCountries());
+            copy.setRegularRunningTime(orig.getRegularRunningTime());
+            copy.getGenres().addAll(orig.getGenres());
+            copyElements(orig.getNetworks(), copy.getNetworks());
+            copyElements(orig.getEpisodes(), copy.getEpisodes());
+            copyElements(orig.getSeasons(), copy.getSeasons());
+            return copy;
+        }
+
+        private void copyStandaloneMediaProps(StandaloneMedia orig, StandaloneMedia copy) {
+            copyNamedMediaProps(orig, copy);
+            copy.getLanguages().addAll(orig.getLanguages());
+            copy.getCountries().addAll(orig.getCountries());
+            copy.getGenres().addAll(orig.getGenres());
+            copy.setRunningTime(orig.getRunningTime());
+        }
+
+        private void copyNamedMediaProps(NamedMediaBase orig, NamedMediaBase copy) {
+            copyMediaProps(orig, copy);
+            copy.setName(orig.getName());
+            copy.getAliasNames().addAll(orig.getAliasNames());
+        }
+
+        private void copyMediaProps(MediaBase orig, MediaBase copy) {
+            copyMetadataProps(orig, copy);
+            copy.setTitle(orig.getTitle());
+            copy.setDate(orig.getDate());
+            copy.setDescription(orig.getDescription());
+            copy.getRatings().putAll(orig.getRatings());
+            copy.setContentRating(orig.getContentRating());
+            copy.getImages().putAll(orig.getImages());
+            copy.getFurtherInfoLinks().addAll(orig.getFurtherInfoLinks());
+        }
+
+        private void copyMetadataProps(MetadataBase orig, MetadataBase copy) {
+            copy.getIds().putAll(orig.getIds());
+            for (Map.Entry<String, Object> attr : orig.getAttributes().entries()) {
+                copy.getAttributes().put(attr.getKey(), copy(attr.getValue()));
+            }
+        }
+
+        private <E> void copyElements(Collection<? extends E> source, Collection<E> target) {
+            for (E element : source) {
+                target.add(copy(element));
+            }
+        }
+    }
+}
@@ -1,18 +1,37 @@
 package de.subcentral.core.metadata.release;
 
+import java.util.List;
 import java.util.Objects;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
 
 public class Compatibility {
-    private final Release           source;
-    private final Release           compatible;
-    private final CompatibilityRule rule;
+    private final Release                  source;
+    private final Release                  compatible;
+    private final CompatibilityRule        rule;
+    private final List<GroupCompatibility> path;
 
     public Compatibility(Release source, Release compatible, CompatibilityRule rule) {
+        this(source, compatible, rule, ImmutableList.of());
+    }
+
+    /**
+     *
+     * @param source
+     *            the source release
+     * @param compatible
+     *            the compatible release
+     * @param rule
+     *            the rule of the last hop
+     * @param path
+     *            the hops from the group of the source to the group of the compatible (if the compatibility was found in a {@link CompatibilityGraph})
+     */
+    public Compatibility(Release source, Release compatible, CompatibilityRule rule, List<GroupCompatibility> path) {
         this.source = Objects.requireNonNull(source);
         this.compatible = Objects.requireNonNull(compatible);
         this.rule = Objects.requireNonNull(rule);
+        this.path = ImmutableList.copyOf(path);
     }
 
     public Release getSource() {
@@ -27,8 +46,16 @@ public class Compatibility {
         return rule;
     }
 
+    /**
+     *
+     * @return the hops from the group of the source to the group of the compatible or an empty list if the compatibility was not found in a {@link CompatibilityGraph}
+     */
+    public List<GroupCompatibility> getPath() {
+        return path;
+    }
+
     @Override
     public String toString() {
-        return MoreObjects.toStringHelper(Compatibility.class).add("source", source).add("compatible", compatible).add("rule", rule).toString();
+        return MoreObjects.toStringHelper(Compatibility.class).add("source", source).add("compatible", compatible).add("rule", rule).add("path", path).toString();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
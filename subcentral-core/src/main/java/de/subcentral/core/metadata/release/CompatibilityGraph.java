@@ -0,0 +1,130 @@
+package de.subcentral.core.metadata.release;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The compatibilities between groups which follow from a set of {@link GroupCompatibilityRule group rules}, including the transitive ones. The direct compatibilities (hops)
+ * of every group are computed once on their first lookup and then only read. The transitive compatibilities are searched along these hops.
+ * <p>
+ * The search can also be restricted to continue only from certain groups (see {@link #findCompatibleGroups(Group, Predicate)}).
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class CompatibilityGraph {
+    private final List<GroupCompatibilityRule>                  rules;
+    private final ConcurrentMap<Group, List<GroupCompatibility>> hops = new ConcurrentHashMap<>();
+
+    private CompatibilityGraph(List<GroupCompatibilityRule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     *
+     * @param rules
+     *            the rules. Rules which are not {@link GroupCompatibilityRule group rules} are ignored
+     * @return the compiled graph
+     */
+    public static CompatibilityGraph compile(Collection<? extends CompatibilityRule> rules) {
+        ImmutableList.Builder<GroupCompatibilityRule> groupRules = ImmutableList.builder();
+        for (CompatibilityRule rule : rules) {
+            if (rule instanceof GroupCompatibilityRule) {
+                groupRules.add((GroupCompatibilityRule) rule);
+            }
+        }
+        return new CompatibilityGraph(groupRules.build());
+    }
+
+    public List<GroupCompatibilityRule> getRules() {
+        return rules;
+    }
+
+    /**
+     *
+     * @param sourceGroup
+     *            the source group (may be null)
+     * @return the groups whose releases are compatible to the releases of the source group (in the order of their distance). Each group is mapped to the shortest path of
+     *         hops from the source group to it. The source group itself is only contained if it is reachable (for example by
+     *         {@link SameGroupCompatibilityRule} or by a symmetric rule)
+     */
+    public Map<Group, List<GroupCompatibility>> findCompatibleGroups(Group sourceGroup) {
+        if (sourceGroup == null) {
+            return ImmutableMap.of();
+        }
+        return search(sourceGroup, (Group group) -> true);
+    }
+
+    /**
+     * Like {@link #findCompatibleGroups(Group)}, but the search only continues from the groups which pass the given filter (the source group always does). So a group is
+     * only reached via groups which pass the filter, for example via the groups of which releases are listed.
+     *
+     * @param sourceGroup
+     *            the source group (may be null)
+     * @param continueFrom
+     *            whether the search continues from a reached group
+     * @return the compatible groups, see {@link #findCompatibleGroups(Group)}
+     */
+    public Map<Group, List<GroupCompatibility>> findCompatibleGroups(Group sourceGroup, Predicate<Group> continueFrom) {
+        if (sourceGroup == null) {
+            return ImmutableMap.of();
+        }
+        return search(sourceGroup, Objects.requireNonNull(continueFrom, "continueFrom"));
+    }
+
+    private List<GroupCompatibility> findHops(Group group) {
+        return hops.computeIfAbsent(group, (Group g) -> {
+            ImmutableList.Builder<GroupCompatibility> groupHops = ImmutableList.builder();
+            for (GroupCompatibilityRule rule : rules) {
+                for (Group compatibleGroup : rule.findCompatibleGroups(g)) {
+                    groupHops.add(new GroupCompatibility(g, compatibleGroup, rule));
+                }
+            }
+            return groupHops.build();
+        });
+    }
+
+    private Map<Group, List<GroupCompatibility>> search(Group sourceGroup, Predicate<Group> continueFrom) {
+        // LinkedHashMap to maintain the order of the breadth-first search
+        Map<Group, List<GroupCompatibility>> paths = new LinkedHashMap<>(4);
+        Map<Group, List<GroupCompatibility>> pathsToVisited = new HashMap<>(4);
+        pathsToVisited.put(sourceGroup, ImmutableList.of());
+        Queue<Group> groups = new ArrayDeque<>(4);
+        groups.add(sourceGroup);
+        Group currentGroup;
+        while ((currentGroup = groups.poll()) != null) {
+            List<GroupCompatibility> pathToCurrent = pathsToVisited.get(currentGroup);
+            for (GroupCompatibility hop : findHops(currentGroup)) {
+                Group compatibleGroup = hop.getCompatibleGroup();
+                if (paths.containsKey(compatibleGroup)) {
+                    continue;
+                }
+                List<GroupCompatibility> path = ImmutableList.<GroupCompatibility> builder().addAll(pathToCurrent).add(hop).build();
+                paths.put(compatibleGroup, path);
+                // the source group may be reached again via a cycle but does not have to be visited again
+                if (pathsToVisited.putIfAbsent(compatibleGroup, path) == null && continueFrom.test(compatibleGroup)) {
+                    groups.add(compatibleGroup);
+                }
+            }
+        }
+        return ImmutableMap.copyOf(paths);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(CompatibilityGraph.class).add("rules", rules).toString();
+    }
+}
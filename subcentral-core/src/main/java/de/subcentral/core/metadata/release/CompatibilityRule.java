@@ -6,4 +6,12 @@ import java.util.Set;
 @FunctionalInterface
 public interface CompatibilityRule {
     public Set<Release> findCompatibles(Release source, Collection<Release> possibleCompatibles);
+
+    /**
+     * Finds the compatibles among the indexed releases. The default implementation scans all releases. Rules which only depend on the group or the tags of the releases
+     * should query the index instead.
+     */
+    public default Set<Release> findCompatibles(Release source, ReleaseIndex possibleCompatibles) {
+        return findCompatibles(source, possibleCompatibles.getReleases());
+    }
 }
@@ -2,41 +2,91 @@ package de.subcentral.core.metadata.release;
 
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+import com.google.common.collect.ForwardingIterator;
+import com.google.common.collect.ForwardingSet;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 /**
+ * Finds the compatible releases of releases according to the {@link #getRules() rules}.
+ * <p>
+ * The rules are compiled into a {@link CompatibilityGraph} whenever they change. If all rules are {@link GroupCompatibilityRule group rules}, the compatible groups of a
+ * release are just read from the graph. Otherwise the rules are applied to the releases one after another.
+ * </p>
  * 
  * @implSpec #thread-safe
  *
  */
 public class CompatibilityService {
-    private Set<CompatibilityRule> rules = new CopyOnWriteArraySet<>();
+    private final Object                 lock  = new Object();
+    private final Set<CompatibilityRule> rules = new RuleSet();
+    // Written while holding the lock
+    private volatile long                rulesVersion;
+    private volatile CompiledRules       compiledRules;
 
+    /**
+     * 
+     * @return the rules. Every modification causes the rules to be compiled again
+     */
     public Set<CompatibilityRule> getRules() {
         return rules;
     }
 
+    /**
+     * Replaces the rules atomically.
+     */
     public void setCompatibilities(Collection<? extends CompatibilityRule> rules) {
-        this.rules.clear();
-        this.rules.addAll(rules);
+        synchronized (lock) {
+            this.rules.clear();
+            this.rules.addAll(rules);
+        }
+    }
+
+    /**
+     * 
+     * @return the graph of the current group rules
+     */
+    public CompatibilityGraph getCompatibilityGraph() {
+        return getCompiledRules().graph;
+    }
+
+    private CompiledRules getCompiledRules() {
+        CompiledRules compiled = compiledRules;
+        if (compiled != null && compiled.version == rulesVersion) {
+            return compiled;
+        }
+        synchronized (lock) {
+            compiled = compiledRules;
+            if (compiled == null || compiled.version != rulesVersion) {
+                compiled = new CompiledRules(rulesVersion, ImmutableList.copyOf(rules));
+                compiledRules = compiled;
+            }
+            return compiled;
+        }
     }
 
     public Set<Compatibility> findCompatibilities(Collection<Release> sources, Collection<Release> possibleCompatibles) {
+        // the possible compatibles are indexed once for all sources
+        ReleaseIndex index = ReleaseIndex.of(possibleCompatibles);
+        Set<Release> sourceSet = new HashSet<>(sources);
         // LinkedHashMap to maintain insertion order
         Map<Release, Compatibility> allCompatibilities = new LinkedHashMap<>(4);
         for (Release source : sources) {
-            Set<Compatibility> compatibilities = findCompatibilities(source, possibleCompatibles);
+            Set<Compatibility> compatibilities = findCompatibilities(source, index);
             for (Compatibility compatibility : compatibilities) {
                 // only add the compatible release if not contained in the original release list
                 // and not already in the list of found compatible releases
                 Release compatible = compatibility.getCompatible();
-                if (!sources.contains(compatible)) {
+                if (!sourceSet.contains(compatible)) {
                     allCompatibilities.putIfAbsent(compatible, compatibility);
                     // no need to check the newly found compatible release itself for rules
                     // because that was already done in findCompatibles(Release, Collection<Release>)
@@ -47,9 +97,17 @@ public class CompatibilityService {
     }
 
     public Set<Compatibility> findCompatibilities(Release source, Collection<Release> possibleCompatibles) {
+        return findCompatibilities(source, ReleaseIndex.of(possibleCompatibles));
+    }
+
+    public Set<Compatibility> findCompatibilities(Release source, ReleaseIndex possibleCompatibles) {
         if (source == null) {
             return ImmutableSet.of();
         }
+        CompiledRules compiled = getCompiledRules();
+        if (compiled.onlyGroupRules) {
+            return findCompatibilitiesInGraph(source, possibleCompatibles, compiled.graph);
+        }
 
         // Do not use ImmutableMap.Builder here, as it has no putIfAbsent() method
         // LinkedHashMap to maintain insertion order
@@ -59,7 +117,7 @@ public class CompatibilityService {
         sources.add(source);
         Release currentSource;
         while ((currentSource = sources.poll()) != null) {
-            for (CompatibilityRule c : rules) {
+            for (CompatibilityRule c : compiled.rules) {
                 Set<Release> compatibles = c.findCompatibles(currentSource, possibleCompatibles);
                 for (Release compatible : compatibles) {
                     // Never add the source Release
@@ -77,4 +135,143 @@ public class CompatibilityService {
         }
         return ImmutableSet.copyOf(allCompatibilities.values());
     }
+
+    private static Set<Compatibility> findCompatibilitiesInGraph(Release source, ReleaseIndex possibleCompatibles, CompatibilityGraph graph) {
+        // LinkedHashMap to maintain insertion order
+        Map<Release, Compatibility> allCompatibilities = new LinkedHashMap<>(4);
+        // Like the rule-by-rule search, the compatibility is only transitive via groups of which releases are listed
+        Map<Group, List<GroupCompatibility>> compatibleGroups = graph.findCompatibleGroups(source.getGroup(),
+                (Group group) -> !possibleCompatibles.findByGroup(group).isEmpty());
+        for (Map.Entry<Group, List<GroupCompatibility>> entry : compatibleGroups.entrySet()) {
+            List<GroupCompatibility> path = entry.getValue();
+            GroupCompatibility lastHop = path.get(path.size() - 1);
+            // Like the rule-by-rule search, the source of a transitive compatibility is the release via which it was found
+            Release intermediateSource = path.size() == 1 ? source : findIntermediateSource(source, lastHop.getSourceGroup(), allCompatibilities);
+            for (Release compatible : possibleCompatibles.findByGroup(entry.getKey())) {
+                // Never add the source Release
+                if (!source.equals(compatible)) {
+                    allCompatibilities.putIfAbsent(compatible, new Compatibility(intermediateSource, compatible, lastHop.getRule(), path));
+                }
+            }
+        }
+        return ImmutableSet.copyOf(allCompatibilities.values());
+    }
+
+    /**
+     * The groups are found in the order of their distance, so the releases of the group of the previous hop were already added.
+     */
+    private static Release findIntermediateSource(Release source, Group group, Map<Release, Compatibility> compatibilities) {
+        for (Release compatible : compatibilities.keySet()) {
+            if (group.equals(compatible.getGroup())) {
+                return compatible;
+            }
+        }
+        return source;
+    }
+
+    private static final class CompiledRules {
+        private final long                    version;
+        private final List<CompatibilityRule> rules;
+        private final CompatibilityGraph      graph;
+        private final boolean                 onlyGroupRules;
+
+        private CompiledRules(long version, List<CompatibilityRule> rules) {
+            this.version = version;
+            this.rules = rules;
+            this.graph = CompatibilityGraph.compile(rules);
+            this.onlyGroupRules = graph.getRules().size() == rules.size();
+        }
+    }
+
+    /**
+     * Increments the version of the rules on every modification.
+     */
+    private final class RuleSet extends ForwardingSet<CompatibilityRule> {
+        private final Set<CompatibilityRule> delegate = new CopyOnWriteArraySet<>();
+
+        @Override
+        protected Set<CompatibilityRule> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public boolean add(CompatibilityRule rule) {
+            synchronized (lock) {
+                return modified(delegate.add(rule));
+            }
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends CompatibilityRule> c) {
+            synchronized (lock) {
+                return modified(delegate.addAll(c));
+            }
+        }
+
+        @Override
+        public boolean remove(Object rule) {
+            synchronized (lock) {
+                return modified(delegate.remove(rule));
+            }
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            synchronized (lock) {
+                return modified(delegate.removeAll(c));
+            }
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            synchronized (lock) {
+                return modified(delegate.retainAll(c));
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (lock) {
+                modified(!delegate.isEmpty());
+                delegate.clear();
+            }
+        }
+
+        @Override
+        public Iterator<CompatibilityRule> iterator() {
+            // CopyOnWriteArraySet iterators do not support remove(), so iterate over a snapshot and remove from the set
+            Iterator<CompatibilityRule> iter = ImmutableList.copyOf(delegate).iterator();
+            return new ForwardingIterator<CompatibilityRule>() {
+                private CompatibilityRule current;
+
+                @Override
+                protected Iterator<CompatibilityRule> delegate() {
+                    return iter;
+                }
+
+                @Override
+                public CompatibilityRule next() {
+                    current = iter.next();
+                    return current;
+                }
+
+                @Override
+                public void remove() {
+                    if (current == null) {
+                        throw new IllegalStateException();
+                    }
+                    RuleSet.this.remove(current);
+                    current = null;
+                }
+            };
+        }
+
+        // guarded by lock
+        private boolean modified(boolean modified) {
+            if (modified) {
+                rulesVersion++;
+            }
+            return modified;
+        }
+    }
 }
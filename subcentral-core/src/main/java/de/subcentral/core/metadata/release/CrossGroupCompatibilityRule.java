@@ -1,7 +1,7 @@
 package de.subcentral.core.metadata.release;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -9,7 +9,7 @@ import com.google.common.base.MoreObjects;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableSet;
 
-public class CrossGroupCompatibilityRule implements CompatibilityRule, Comparable<CrossGroupCompatibilityRule> {
+public class CrossGroupCompatibilityRule implements GroupCompatibilityRule, Comparable<CrossGroupCompatibilityRule> {
     private enum MatchDirection {
         NONE, FORWARD, BACKWARD;
     }
@@ -38,13 +38,15 @@ public class CrossGroupCompatibilityRule implements CompatibilityRule, Comparabl
 
     @Override
     public Set<Release> findCompatibles(Release source, Collection<Release> possibleCompatibles) {
+        // a single lookup: building an index would cost more than the scan
         MatchDirection md = matchSourceRelease(source);
         if (MatchDirection.NONE == md) {
             return ImmutableSet.of();
         }
-        Set<Release> compatibles = new HashSet<>(4);
+        Group compatibleGroup = getMatchingCompatibleGroup(md);
+        Set<Release> compatibles = new LinkedHashSet<>(4);
         for (Release possibleCompatible : possibleCompatibles) {
-            if (matchesCompatibleRelease(possibleCompatible, md) && !source.equals(possibleCompatible)) {
+            if (compatibleGroup.equals(possibleCompatible.getGroup()) && !source.equals(possibleCompatible)) {
                 // Set.add() only adds if does not exist yet. That is what we want.
                 // Do not use ImmutableSet.Builder.add here as it allows the addition of duplicate entries but throws an exception at build time.
                 compatibles.add(possibleCompatible);
@@ -53,27 +55,58 @@ public class CrossGroupCompatibilityRule implements CompatibilityRule, Comparabl
         return compatibles;
     }
 
+    @Override
+    public Set<Release> findCompatibles(Release source, ReleaseIndex possibleCompatibles) {
+        MatchDirection md = matchSourceRelease(source);
+        if (MatchDirection.NONE == md) {
+            return ImmutableSet.of();
+        }
+        // Set.add() only adds if does not exist yet. That is what we want.
+        // Do not use ImmutableSet.Builder.add here as it allows the addition of duplicate entries but throws an exception at build time.
+        Set<Release> compatibles = new LinkedHashSet<>(possibleCompatibles.findByGroup(getMatchingCompatibleGroup(md)));
+        compatibles.remove(source);
+        return compatibles;
+    }
+
+    @Override
+    public Set<Group> findCompatibleGroups(Group group) {
+        MatchDirection md = matchSourceGroup(group);
+        if (MatchDirection.NONE == md) {
+            return ImmutableSet.of();
+        }
+        return ImmutableSet.of(getMatchingCompatibleGroup(md));
+    }
+
+    @Override
+    public Set<Group> getGroups() {
+        return ImmutableSet.of(sourceGroup, compatibleGroup);
+    }
+
     private MatchDirection matchSourceRelease(Release source) {
         if (source == null) {
             return MatchDirection.NONE;
         }
-        if (sourceGroup.equals(source.getGroup())) {
+        return matchSourceGroup(source.getGroup());
+    }
+
+    private MatchDirection matchSourceGroup(Group group) {
+        if (sourceGroup.equals(group)) {
             return MatchDirection.FORWARD;
         }
-        if (symmetric && compatibleGroup.equals(source.getGroup())) {
+        if (symmetric && compatibleGroup.equals(group)) {
             return MatchDirection.BACKWARD;
         }
         return MatchDirection.NONE;
     }
 
-    private boolean matchesCompatibleRelease(Release possibleCompatible, MatchDirection matchDirection) {
+    private Group getMatchingCompatibleGroup(MatchDirection matchDirection) {
         switch (matchDirection) {
             case FORWARD:
-                return compatibleGroup.equals(possibleCompatible.getGroup());
+                return compatibleGroup;
             case BACKWARD:
-                return sourceGroup.equals(possibleCompatible.getGroup());
+                return sourceGroup;
             default:
-                return false;
+                throw new IllegalArgumentException(matchDirection.name());
         }
     }
 
@@ -0,0 +1,54 @@
+package de.subcentral.core.metadata.release;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * One hop in the {@link CompatibilityGraph}: the releases of the compatible group are compatible to the releases of the source group because of the rule.
+ */
+public class GroupCompatibility {
+    private final Group                  sourceGroup;
+    private final Group                  compatibleGroup;
+    private final GroupCompatibilityRule rule;
+
+    public GroupCompatibility(Group sourceGroup, Group compatibleGroup, GroupCompatibilityRule rule) {
+        this.sourceGroup = Objects.requireNonNull(sourceGroup, "sourceGroup");
+        this.compatibleGroup = Objects.requireNonNull(compatibleGroup, "compatibleGroup");
+        this.rule = Objects.requireNonNull(rule, "rule");
+    }
+
+    public Group getSourceGroup() {
+        return sourceGroup;
+    }
+
+    public Group getCompatibleGroup() {
+        return compatibleGroup;
+    }
+
+    public GroupCompatibilityRule getRule() {
+        return rule;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof GroupCompatibility) {
+            GroupCompatibility o = (GroupCompatibility) obj;
+            return sourceGroup.equals(o.sourceGroup) && compatibleGroup.equals(o.compatibleGroup) && rule.equals(o.rule);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sourceGroup, compatibleGroup, rule);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(GroupCompatibility.class).add("sourceGroup", sourceGroup).add("compatibleGroup", compatibleGroup).add("rule", rule).toString();
+    }
+}
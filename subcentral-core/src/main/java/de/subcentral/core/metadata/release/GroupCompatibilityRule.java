@@ -0,0 +1,23 @@
+package de.subcentral.core.metadata.release;
+
+import java.util.Set;
+
+/**
+ * A rule which only depends on the groups of the releases. Group rules are compiled into a {@link CompatibilityGraph}, so the compatible groups (including the transitively
+ * compatible ones) are only computed once.
+ */
+public interface GroupCompatibilityRule extends CompatibilityRule {
+    /**
+     *
+     * @param sourceGroup
+     *            the group of the source release (not null)
+     * @return the groups whose releases are compatible to the releases of the source group
+     */
+    public Set<Group> findCompatibleGroups(Group sourceGroup);
+
+    /**
+     *
+     * @return the groups named by this rule or an empty set if the rule applies to every group
+     */
+    public Set<Group> getGroups();
+}
@@ -0,0 +1,82 @@
+package de.subcentral.core.metadata.release;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * An inverted index over a list of releases. Each group is mapped to the positions of the releases (a {@link BitSet}) of that group. So the releases of a group are found
+ * without comparing every release. This pays off if the same releases are looked up many times, for example when searching for the compatibles of many releases (see
+ * {@link CompatibilityService}).
+ * <p>
+ * All results are in the order of the indexed list.
+ * </p>
+ *
+ * @implSpec #thread-safe. The indexed releases must not be modified while the index is used
+ */
+public class ReleaseIndex {
+    private static final BitSet      NONE         = new BitSet(0);
+
+    private final List<Release>      releases;
+    private final Map<Group, BitSet> groups       = new HashMap<>();
+    private final BitSet             withoutGroup = new BitSet();
+
+    private ReleaseIndex(List<Release> releases) {
+        this.releases = releases;
+        for (int i = 0; i < releases.size(); i++) {
+            Release rls = releases.get(i);
+            if (rls.getGroup() == null) {
+                withoutGroup.set(i);
+            }
+            else {
+                groups.computeIfAbsent(rls.getGroup(), (Group g) -> new BitSet()).set(i);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param releases
+     *            the releases to index. Duplicates are kept
+     * @return the index
+     */
+    public static ReleaseIndex of(Collection<Release> releases) {
+        return new ReleaseIndex(ImmutableList.copyOf(releases));
+    }
+
+    public List<Release> getReleases() {
+        return releases;
+    }
+
+    public int size() {
+        return releases.size();
+    }
+
+    /**
+     *
+     * @param group
+     *            the group. If null, the releases without a group are returned
+     * @return the releases of the group
+     */
+    public List<Release> findByGroup(Group group) {
+        return toReleases(group == null ? withoutGroup : groups.getOrDefault(group, NONE));
+    }
+
+    private List<Release> toReleases(BitSet positions) {
+        ImmutableList.Builder<Release> matches = ImmutableList.builder();
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            matches.add(releases.get(i));
+        }
+        return matches.build();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ReleaseIndex.class).add("size", releases.size()).add("groups", groups.size()).toString();
+    }
+}
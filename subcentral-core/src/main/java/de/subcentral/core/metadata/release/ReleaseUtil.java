@@ -95,6 +95,7 @@ public class ReleaseUtil {
     public static Map<Release, StandardRelease> guessMatchingReleases(Release partialRls, Collection<StandardRelease> standardRlss, Collection<Tag> metaTags) {
         // LinkedHashMap to maintain insertion order
         Map<Release, StandardRelease> guessedRlss = new LinkedHashMap<>(4);
+        // the standard releases are only filtered once, so a scan is cheaper than building an index
         for (StandardRelease stdRls : standardRlss) {
             Release candidate = stdRls.getRelease();
             if (filterByTags(partialRls.getTags(), metaTags).test(candidate) && filterByGroup(partialRls.getGroup(), true).test(candidate)) {
@@ -1,18 +1,19 @@
 package de.subcentral.core.metadata.release;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
 
-public class SameGroupCompatibilityRule implements CompatibilityRule {
+public class SameGroupCompatibilityRule implements GroupCompatibilityRule {
     @Override
     public Set<Release> findCompatibles(Release source, Collection<Release> possibleCompatibles) {
+        // a single lookup: building an index would cost more than the scan
         if (source == null || source.getGroup() == null) {
             return ImmutableSet.of();
         }
-        Set<Release> compatibles = new HashSet<>(4);
+        Set<Release> compatibles = new LinkedHashSet<>(4);
         for (Release possibleCompatible : possibleCompatibles) {
             if (source.getGroup().equals(possibleCompatible.getGroup()) && !source.equals(possibleCompatible)) {
                 // Set.add() only adds if does not exist yet. That is what we want.
@@ -22,4 +23,26 @@ public class SameGroupCompatibilityRule implements CompatibilityRule {
         }
         return compatibles;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Set<Release> findCompatibles(Release source, ReleaseIndex possibleCompatibles) {
+        if (source == null || source.getGroup() == null) {
+            return ImmutableSet.of();
+        }
+        // Set.add() only adds if does not exist yet. That is what we want.
+        // Do not use ImmutableSet.Builder.add() here as it allows the addition of duplicate entries but throws an exception when building
+        Set<Release> compatibles = new LinkedHashSet<>(possibleCompatibles.findByGroup(source.getGroup()));
+        compatibles.remove(source);
+        return compatibles;
+    }
+
+    @Override
+    public Set<Group> findCompatibleGroups(Group sourceGroup) {
+        return ImmutableSet.of(sourceGroup);
+    }
+
+    @Override
+    public Set<Group> getGroups() {
+        return ImmutableSet.of();
+    }
+}
\ No newline at end of file
@@ -1,8 +1,16 @@
 package de.subcentral.core.metadata.service;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,14 +21,25 @@ import com.google.common.collect.ImmutableSet;
 
 import de.subcentral.core.metadata.Site;
 import de.subcentral.core.metadata.media.MediaUtil;
+import de.subcentral.core.metadata.release.Release;
+import de.subcentral.core.metadata.release.ReleaseUtil;
 import de.subcentral.core.name.NamingDefaults;
 import de.subcentral.core.name.NamingService;
 import de.subcentral.core.name.NamingUtil;
+import de.subcentral.core.util.ExecutorUtil;
 
 public abstract class AbstractMetadataService implements MetadataService {
-    private static final Logger       log            = LogManager.getLogger(AbstractMetadataService.class);
+    private static final Logger       log                           = LogManager.getLogger(AbstractMetadataService.class);
 
-    private final List<NamingService> namingServices = initNamingServices();
+    /**
+     * Default maximum number of concurrent searches: 3.
+     */
+    public static final int           DEFAULT_MAX_CONCURRENT_SEARCHES = 3;
+
+    private final List<NamingService> namingServices                = initNamingServices();
+    private volatile Executor         searchExecutor                = DefaultSearchExecutor.INSTANCE;
+    private volatile Semaphore        searchPermits                 = new Semaphore(DEFAULT_MAX_CONCURRENT_SEARCHES);
+    private volatile int              maxConcurrentSearches         = DEFAULT_MAX_CONCURRENT_SEARCHES;
 
     protected List<NamingService> initNamingServices() {
         ImmutableList.Builder<NamingService> services = ImmutableList.builder();
@@ -39,17 +58,129 @@ public abstract class AbstractMetadataService implements MetadataService {
         return searchByObjectsName(queryObj, recordType);
     }
 
+    public Executor getSearchExecutor() {
+        return searchExecutor;
+    }
+
+    /**
+     * 
+     * @param searchExecutor
+     *            the executor for the concurrent searches of {@link #searchByObjectsName(Object, Class)}. As the calling thread waits for the searches, the executor must not
+     *            be a bounded pool which also executes the calling task. By default, a shared executor which starts a thread per search is used
+     */
+    public void setSearchExecutor(Executor searchExecutor) {
+        this.searchExecutor = Objects.requireNonNull(searchExecutor, "searchExecutor");
+    }
+
+    public int getMaxConcurrentSearches() {
+        return maxConcurrentSearches;
+    }
+
+    /**
+     * 
+     * @param maxConcurrentSearches
+     *            the maximum number of searches of this service which run at the same time (across all calls of {@link #searchByObjectsName(Object, Class)}). Limits the
+     *            load on the host of this service. 1 disables concurrent searches
+     */
+    public void setMaxConcurrentSearches(int maxConcurrentSearches) {
+        if (maxConcurrentSearches < 1) {
+            throw new IllegalArgumentException("maxConcurrentSearches must be positive: " + maxConcurrentSearches);
+        }
+        this.searchPermits = new Semaphore(maxConcurrentSearches);
+        this.maxConcurrentSearches = maxConcurrentSearches;
+    }
+
+    /**
+     * Generates the names of the query object and {@link #search(String, Class) searches} for each name. The searches run concurrently (at most
+     * {@link #getMaxConcurrentSearches()} at the same time) on the {@link #getSearchExecutor() search executor}, so the time of this call is the time of the slowest search
+     * and not the sum of all searches.
+     * <p>
+     * The results are merged in the order of the names. Releases which are found by multiple names are only contained once (see {@link ReleaseUtil#distinctByName(java.util.Collection)}).
+     * If any search fails, its exception is thrown.
+     * </p>
+     */
     protected <T> List<T> searchByObjectsName(Object queryObj, Class<T> recordType) throws UnsupportedOperationException, IOException {
         if (queryObj == null) {
             return ImmutableList.of();
         }
-        ImmutableList.Builder<T> results = ImmutableList.builder();
         Set<String> names = NamingUtil.generateNames(queryObj, namingServices, MediaUtil.generateNamingContextsForAllNames(queryObj));
         log.debug("Searching for records of type {} with generated names {} for query object {} of type {}", recordType.getName(), names, queryObj, queryObj.getClass().getName());
-        for (String name : names) {
-            results.addAll(search(name, recordType));
+        List<List<T>> resultsByName;
+        if (names.size() <= 1 || maxConcurrentSearches <= 1) {
+            resultsByName = new ArrayList<>(names.size());
+            for (String name : names) {
+                resultsByName.add(search(name, recordType));
+            }
+        }
+        else {
+            resultsByName = searchConcurrently(names, recordType);
+        }
+        return mergeResults(resultsByName, recordType);
+    }
+
+    private <T> List<List<T>> searchConcurrently(Set<String> names, Class<T> recordType) throws IOException {
+        Semaphore permits = searchPermits;
+        List<Future<List<T>>> searches = new ArrayList<>(names.size());
+        try {
+            for (String name : names) {
+                FutureTask<List<T>> search = new FutureTask<>(() -> {
+                    permits.acquire();
+                    try {
+                        return search(name, recordType);
+                    }
+                    finally {
+                        permits.release();
+                    }
+                });
+                searchExecutor.execute(search);
+                searches.add(search);
+            }
+            List<List<T>> resultsByName = new ArrayList<>(searches.size());
+            for (Future<List<T>> search : searches) {
+                resultsByName.add(search.get());
+            }
+            return resultsByName;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Interrupted while waiting for the searches of " + names);
+            ioe.initCause(e);
+            throw ioe;
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+        finally {
+            // if a search failed, the other searches are not needed anymore
+            for (Future<List<T>> search : searches) {
+                search.cancel(true);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> mergeResults(List<List<T>> resultsByName, Class<T> recordType) {
+        if (resultsByName.size() == 1) {
+            return ImmutableList.copyOf(resultsByName.get(0));
+        }
+        List<T> results = new ArrayList<>();
+        for (List<T> nameResults : resultsByName) {
+            results.addAll(nameResults);
         }
-        return results.build();
+        if (recordType == Release.class) {
+            return (List<T>) ImmutableList.copyOf(ReleaseUtil.distinctByName((List<Release>) results));
+        }
+        return ImmutableList.copyOf(results);
     }
 
     @Override
@@ -78,4 +209,8 @@ public abstract class AbstractMetadataService implements MetadataService {
     protected UnsupportedOperationException createUnsupportedExternalSiteException(Site unsupportedExternalSite) {
         return new UnsupportedOperationException("The external site is not supported: " + unsupportedExternalSite + " (supported external sites: " + getSupportedExternalSites() + ")");
     }
+
+    private static final class DefaultSearchExecutor {
+        private static final Executor INSTANCE = ExecutorUtil.newPerTaskExecutor("MetadataService-Search");
+    }
 }
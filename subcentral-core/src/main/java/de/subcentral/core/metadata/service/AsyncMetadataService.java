@@ -0,0 +1,50 @@
+package de.subcentral.core.metadata.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import de.subcentral.core.metadata.Site;
+
+/**
+ * The non-blocking counterpart of {@link MetadataService}. Each method returns immediately. The returned future is completed with the result or, if the operation fails, with
+ * the exception which the corresponding method of {@link MetadataService} would have thrown (for example an {@link java.io.IOException}).
+ * <p>
+ * Existing services can be adapted with {@link #of(MetadataService, Executor)}.
+ * </p>
+ *
+ * @see MetadataServiceUtil#searchInAll(List, Object, Class, java.time.Duration, java.util.function.BiConsumer)
+ */
+public interface AsyncMetadataService {
+    /**
+     * Adapts a (blocking) metadata service. The calls to the service are executed by the given executor.
+     *
+     * @param service
+     *            the service
+     * @param executor
+     *            the executor. As the calls block while waiting for responses, an executor which starts a thread per task is best suited (see
+     *            {@link de.subcentral.core.util.ExecutorUtil#newPerTaskExecutor(String)})
+     * @return the asynchronous service
+     */
+    public static AsyncMetadataService of(MetadataService service, Executor executor) {
+        return new ExecutorAsyncMetadataService(service, executor);
+    }
+
+    /**
+     *
+     * @return the metadata service whose results are returned. Used to identify the source of the results
+     */
+    public MetadataService getService();
+
+    public default Site getSite() {
+        return getService().getSite();
+    }
+
+    public <T> CompletableFuture<List<T>> searchAsync(String query, Class<T> recordType);
+
+    public <T> CompletableFuture<List<T>> searchByObjectAsync(Object queryObj, Class<T> recordType);
+
+    public <T> CompletableFuture<List<T>> searchByExternalIdAsync(Site externalSite, String externalId, Class<T> recordType);
+
+    public <T> CompletableFuture<T> getAsync(String id, Class<T> recordType);
+}
@@ -0,0 +1,331 @@
+package de.subcentral.core.metadata.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import com.google.common.base.MoreObjects;
+
+import de.subcentral.core.metadata.MetadataUtil;
+import de.subcentral.core.metadata.Site;
+
+/**
+ * A {@link MetadataService} which merges concurrent identical calls to another metadata service. If a call to {@link #search(String, Class)},
+ * {@link #searchByObject(Object, Class)}, {@link #searchByExternalId(Site, String, Class)} or {@link #get(String, Class)} arrives while the same call (same method, query and
+ * record type) is still running, the new call does not query the original service but waits for the running call and receives its result (or its exception).
+ * <p>
+ * This is no cache: as soon as a call has finished, the next identical call queries the original service again.
+ * </p>
+ * <p>
+ * The result of the running call is handed to the caller who started it. If other callers joined, a private snapshot of the result is taken before it is handed out and
+ * the callers who joined receive a copy of that snapshot (by default a {@link MetadataUtil#deepCopy(Object) deep copy}), so that every caller may modify its records.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class CoalescingMetadataService implements MetadataService {
+    private final MetadataService                                   original;
+    private final UnaryOperator<Object>                             copier;
+    private final ConcurrentMap<CallKey, InFlightCall>              inFlightCalls  = new ConcurrentHashMap<>();
+    private final LongAdder                                         callCount      = new LongAdder();
+    private final LongAdder                                         coalescedCount = new LongAdder();
+
+    public CoalescingMetadataService(MetadataService original) {
+        this(original, MetadataUtil::deepCopy);
+    }
+
+    /**
+     *
+     * @param original
+     *            the service whose calls are coalesced
+     * @param copier
+     *            the function to create the snapshot of the result of a running call which others joined and the copies of that snapshot which are handed to the callers
+     *            who joined. Only if the callers do not modify the results, {@link UnaryOperator#identity()} may be used
+     */
+    public CoalescingMetadataService(MetadataService original, UnaryOperator<Object> copier) {
+        this.original = Objects.requireNonNull(original, "original");
+        this.copier = Objects.requireNonNull(copier, "copier");
+    }
+
+    public MetadataService getOriginal() {
+        return original;
+    }
+
+    /**
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        return new Stats(callCount.sum(), coalescedCount.sum());
+    }
+
+    /**
+     *
+     * @return the number of distinct calls which are currently running
+     */
+    public int getInFlightCount() {
+        return inFlightCalls.size();
+    }
+
+    @Override
+    public String getName() {
+        return original.getName();
+    }
+
+    @Override
+    public Status checkStatus() {
+        return original.checkStatus();
+    }
+
+    @Override
+    public void addStatusListener(Consumer<Status> listener) {
+        original.addStatusListener(listener);
+    }
+
+    @Override
+    public void removeStatusListener(Consumer<Status> listener) {
+        original.removeStatusListener(listener);
+    }
+
+    @Override
+    public Site getSite() {
+        return original.getSite();
+    }
+
+    @Override
+    public Set<Class<?>> getSupportedRecordTypes() {
+        return original.getSupportedRecordTypes();
+    }
+
+    @Override
+    public Set<Class<?>> getSearchableRecordTypes() {
+        return original.getSearchableRecordTypes();
+    }
+
+    @Override
+    public Set<Site> getSupportedExternalSites() {
+        return original.getSupportedExternalSites();
+    }
+
+    @Override
+    public <T> List<T> search(String query, Class<T> recordType) throws UnsupportedOperationException, IOException {
+        return coalesce(new CallKey(CallType.SEARCH, query, recordType), () -> original.search(query, recordType));
+    }
+
+    @Override
+    public <T> List<T> searchByObject(Object queryObj, Class<T> recordType) throws UnsupportedOperationException, IOException {
+        return coalesce(new CallKey(CallType.SEARCH_BY_OBJECT, queryObj, recordType), () -> original.searchByObject(queryObj, recordType));
+    }
+
+    @Override
+    public <T> List<T> searchByExternalId(Site externalSite, String externalId, Class<T> recordType) throws UnsupportedOperationException, IOException {
+        return coalesce(new CallKey(CallType.SEARCH_BY_EXTERNAL_ID, Arrays.asList(externalSite, externalId), recordType),
+                () -> original.searchByExternalId(externalSite, externalId, recordType));
+    }
+
+    @Override
+    public <T> T get(String id, Class<T> recordType) throws UnsupportedOperationException, IOException {
+        return coalesce(new CallKey(CallType.GET, id, recordType), () -> original.get(id, recordType));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R coalesce(CallKey key, Call<R> call) throws IOException {
+        callCount.increment();
+        if (key.query == null) {
+            return call.call();
+        }
+        InFlightCall newCall = new InFlightCall();
+        // joining is done inside compute() so that finish() sees every caller who joined
+        InFlightCall runningCall = inFlightCalls.compute(key, (k, c) -> {
+            if (c == null) {
+                return newCall;
+            }
+            c.joinedCount++;
+            return c;
+        });
+        if (runningCall != newCall) {
+            coalescedCount.increment();
+            return (R) copier.apply(await(runningCall.future));
+        }
+        R result;
+        try {
+            result = call.call();
+        }
+        catch (IOException | RuntimeException | Error e) {
+            // remove before completing, so that no new caller joins a finished call
+            finish(key, newCall);
+            newCall.future.completeExceptionally(e);
+            throw e;
+        }
+        // the caller who started the call may modify the result as soon as it is returned,
+        // so the callers who joined must copy from a snapshot of their own
+        newCall.future.complete(finish(key, newCall) > 0 && result != null ? copier.apply(result) : result);
+        return result;
+    }
+
+    /**
+     * Removes the call so that no new caller joins it.
+     *
+     * @return the number of callers who joined the call
+     */
+    private int finish(CallKey key, InFlightCall call) {
+        int[] joinedCount = new int[1];
+        inFlightCalls.computeIfPresent(key, (k, c) -> {
+            if (c != call) {
+                return c;
+            }
+            joinedCount[0] = c.joinedCount;
+            return null;
+        });
+        return joinedCount[0];
+    }
+
+    private static Object await(CompletableFuture<Object> runningCall) throws IOException {
+        try {
+            return runningCall.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioe = new InterruptedIOException("Interrupted while waiting for a running call");
+            ioe.initCause(e);
+            throw ioe;
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(CoalescingMetadataService.class).add("original", original).add("stats", getStats()).toString();
+    }
+
+    /**
+     * The number of calls and how many of them joined a running call instead of querying the original service.
+     *
+     * @implSpec #value-object #immutable #thread-safe
+     */
+    public static final class Stats {
+        private final long callCount;
+        private final long coalescedCount;
+
+        private Stats(long callCount, long coalescedCount) {
+            this.callCount = callCount;
+            this.coalescedCount = coalescedCount;
+        }
+
+        public long getCallCount() {
+            return callCount;
+        }
+
+        /**
+         *
+         * @return the number of calls which joined a running call
+         */
+        public long getCoalescedCount() {
+            return coalescedCount;
+        }
+
+        /**
+         *
+         * @return the number of calls which were passed to the original service
+         */
+        public long getOriginalCallCount() {
+            return callCount - coalescedCount;
+        }
+
+        /**
+         *
+         * @return the ratio of coalesced calls to all calls or 0.0 if there were no calls
+         */
+        public double getCoalescedRate() {
+            return callCount == 0L ? 0.0 : (double) coalescedCount / callCount;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Stats) {
+                Stats o = (Stats) obj;
+                return callCount == o.callCount && coalescedCount == o.coalescedCount;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(callCount, coalescedCount);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(Stats.class).add("callCount", callCount).add("coalescedCount", coalescedCount).toString();
+        }
+    }
+
+    private static final class InFlightCall {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        // guarded by the lock of inFlightCalls on the call's key
+        private int                             joinedCount;
+    }
+
+    @FunctionalInterface
+    private static interface Call<R> {
+        R call() throws IOException;
+    }
+
+    private static enum CallType {
+        SEARCH, SEARCH_BY_OBJECT, SEARCH_BY_EXTERNAL_ID, GET
+    }
+
+    private static final class CallKey {
+        private final CallType type;
+        private final Object   query;
+        private final Class<?> recordType;
+
+        private CallKey(CallType type, Object query, Class<?> recordType) {
+            this.type = type;
+            this.query = query;
+            this.recordType = recordType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof CallKey) {
+                CallKey o = (CallKey) obj;
+                return type == o.type && query.equals(o.query) && Objects.equals(recordType, o.recordType);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, query, recordType);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package de.subcentral.core.metadata.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.google.common.base.MoreObjects;
+
+import de.subcentral.core.metadata.Site;
+
+/**
+ * Adapts a blocking {@link MetadataService} to {@link AsyncMetadataService} by executing each call on an {@link Executor}. If the returned future is already completed when the
+ * call is about to start (for example because it was cancelled or exceeded a deadline), the call is skipped.
+ *
+ * @implSpec #thread-safe
+ */
+class ExecutorAsyncMetadataService implements AsyncMetadataService {
+    private final MetadataService service;
+    private final Executor        executor;
+
+    ExecutorAsyncMetadataService(MetadataService service, Executor executor) {
+        this.service = Objects.requireNonNull(service, "service");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public MetadataService getService() {
+        return service;
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> searchAsync(String query, Class<T> recordType) {
+        return supply(() -> service.search(query, recordType));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> searchByObjectAsync(Object queryObj, Class<T> recordType) {
+        return supply(() -> service.searchByObject(queryObj, recordType));
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> searchByExternalIdAsync(Site externalSite, String externalId, Class<T> recordType) {
+        return supply(() -> service.searchByExternalId(externalSite, externalId, recordType));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String id, Class<T> recordType) {
+        return supply(() -> service.get(id, recordType));
+    }
+
+    private <R> CompletableFuture<R> supply(Callable<R> call) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(call.call());
+                }
+                catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ExecutorAsyncMetadataService.class).add("service", service).add("executor", executor).toString();
+    }
+}
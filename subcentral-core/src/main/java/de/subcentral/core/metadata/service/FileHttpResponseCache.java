@@ -0,0 +1,189 @@
+package de.subcentral.core.metadata.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hashing;
+
+/**
+ * Stores the responses as files in a directory, so they survive restarts. Each entry is one file named after the hash of its URL. Files are written to a temporary file first
+ * and then moved, so concurrent readers never see half written entries.
+ * <p>
+ * Expired entries are not removed automatically (they are overwritten by the next response for the same URL). Use {@link #removeExpired()} to clean up.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class FileHttpResponseCache implements HttpResponseCache {
+    private static final Logger log            = LogManager.getLogger(FileHttpResponseCache.class);
+
+    private static final String FILE_EXTENSION = ".cache";
+    /**
+     * Incremented whenever the file format changes. Files of other versions are ignored.
+     */
+    private static final int    FORMAT_VERSION = 1;
+
+    private final Path          directory;
+
+    /**
+     *
+     * @param directory
+     *            the directory to store the responses in. Created if it does not exist
+     */
+    public FileHttpResponseCache(Path directory) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public Entry get(String url) {
+        Path file = getFile(url);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String entryUrl = in.readUTF();
+            if (!url.equals(entryUrl)) {
+                // hash collision
+                return null;
+            }
+            Instant expiration = Instant.ofEpochMilli(in.readLong());
+            int statusCode = in.readInt();
+            String contentType = in.readBoolean() ? in.readUTF() : null;
+            if (!in.readBoolean()) {
+                return Entry.ofNegative(url, statusCode, expiration);
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return Entry.of(url, statusCode, contentType, new String(body, StandardCharsets.UTF_8), expiration);
+        }
+        catch (NoSuchFileException e) {
+            return null;
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Could not read cached response of " + url + " from " + file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(Entry entry) {
+        Path file = getFile(entry.getUrl());
+        Path tmpFile = null;
+        try {
+            Files.createDirectories(directory);
+            tmpFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(entry.getUrl());
+                out.writeLong(entry.getExpiration().toEpochMilli());
+                out.writeInt(entry.getStatusCode());
+                out.writeBoolean(entry.getContentType() != null);
+                if (entry.getContentType() != null) {
+                    out.writeUTF(entry.getContentType());
+                }
+                out.writeBoolean(!entry.isNegative());
+                if (!entry.isNegative()) {
+                    byte[] body = entry.getBody().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(body.length);
+                    out.write(body);
+                }
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Could not write cached response of " + entry.getUrl() + " to " + file, e);
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    @Override
+    public void invalidate(String url) {
+        deleteQuietly(getFile(url));
+    }
+
+    @Override
+    public void invalidateAll() {
+        forEachCacheFile(FileHttpResponseCache::deleteQuietly);
+    }
+
+    /**
+     * Deletes the files of all expired entries.
+     */
+    public void removeExpired() {
+        Instant now = Instant.now();
+        forEachCacheFile((Path file) -> {
+            boolean expired;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                // files of other versions are never read, so they can be removed as well
+                expired = in.readInt() != FORMAT_VERSION || !Instant.ofEpochMilli(skipUtfAndReadLong(in)).isAfter(now);
+            }
+            catch (IOException e) {
+                log.warn("Could not read cached response from " + file, e);
+                return;
+            }
+            if (expired) {
+                deleteQuietly(file);
+            }
+        });
+    }
+
+    private static long skipUtfAndReadLong(DataInputStream in) throws IOException {
+        in.readUTF();
+        return in.readLong();
+    }
+
+    private Path getFile(String url) {
+        return directory.resolve(Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString() + FILE_EXTENSION);
+    }
+
+    private void forEachCacheFile(Consumer<Path> action) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                action.accept(file);
+            }
+        }
+        catch (IOException e) {
+            log.warn("Could not list cached responses in " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn("Could not delete " + file, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(FileHttpResponseCache.class).add("directory", directory).toString();
+    }
+}
@@ -2,35 +2,85 @@ package de.subcentral.core.metadata.service;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
 
+import com.google.common.util.concurrent.RateLimiter;
+
+import de.subcentral.core.util.CircuitBreaker;
+import de.subcentral.core.util.CircuitBreaker.State;
 import de.subcentral.core.util.NetUtil;
 import de.subcentral.core.util.Service.Status.Code;
 
 public abstract class HttpMetadataService extends AbstractMetadataService {
-    private static final Logger   log                = LogManager.getLogger(HttpMetadataService.class);
+    private static final Logger                          log                             = LogManager.getLogger(HttpMetadataService.class);
 
     /**
      * Default timeout: 10 seconds.
      */
-    public static final int       DEFAULT_TIMEOUT    = 10_000;
+    public static final int                              DEFAULT_TIMEOUT                 = 10_000;
     /**
      * Default test query: {@value #DEFAULT_TEST_QUERY}.
      */
-    protected static final String DEFAULT_TEST_QUERY = "Game of Thrones S06E01";
+    protected static final String                        DEFAULT_TEST_QUERY              = "Game of Thrones S06E01";
+    /**
+     * Default time-to-live of cached responses: 15 minutes.
+     */
+    public static final Duration                         DEFAULT_CACHE_TTL               = Duration.ofMinutes(15L);
+    /**
+     * Default time-to-live of cached negative responses ("not found" or empty results): 5 minutes.
+     */
+    public static final Duration                         DEFAULT_NEGATIVE_CACHE_TTL      = Duration.ofMinutes(5L);
+    /**
+     * Default maximum request rate per host: 2 requests per second.
+     */
+    public static final double                           DEFAULT_MAX_REQUESTS_PER_SECOND = 2.0d;
+    /**
+     * Default time to skip a database after its circuit breaker opened, before it is probed: 30 seconds.
+     */
+    public static final Duration                         DEFAULT_CIRCUIT_OPEN_DURATION   = Duration.ofSeconds(30L);
+    private static final Pattern                         XML_CONTENT_TYPE                = Pattern.compile("(application|text)/\\w*\\+?xml.*");
 
-    protected int                 timeout            = DEFAULT_TIMEOUT;
+    protected int                                        timeout                         = DEFAULT_TIMEOUT;
+    protected HttpResponseCache                          responseCache;
+    protected Duration                                   cacheTtl                        = DEFAULT_CACHE_TTL;
+    protected Duration                                   negativeCacheTtl                = DEFAULT_NEGATIVE_CACHE_TTL;
+    /**
+     * Set while checking the status, so that the status reflects the actual availability. Requests of status checks bypass the cache and the circuit breaker.
+     */
+    private final ThreadLocal<Boolean>                   checkingStatus                  = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    /**
+     * Token bucket which limits the requests to the host.
+     */
+    private final RateLimiter                            rateLimiter                     = RateLimiter.create(DEFAULT_MAX_REQUESTS_PER_SECOND);
+    /**
+     * Skips the host if it fails or is slow. Requests which take longer than half of the {@link #getTimeout() timeout} are slow.
+     */
+    private final CircuitBreaker                         circuitBreaker                  = new CircuitBreaker(getClass().getSimpleName(),
+            this::probe,
+            Duration.ofMillis(timeout / 2),
+            DEFAULT_CIRCUIT_OPEN_DURATION);
+    private final Map<Consumer<Status>, Consumer<State>> statusListeners                 = new ConcurrentHashMap<>();
 
     // Metadata
     public String getHost() {
@@ -53,14 +103,109 @@ public abstract class HttpMetadataService extends AbstractMetadataService {
 
     public void setTimeout(int timeout) {
         this.timeout = timeout;
+        circuitBreaker.setSlowCallThreshold(Duration.ofMillis(timeout / 2));
+    }
+
+    /**
+     * 
+     * @return the cache for the responses or null if responses are not cached (the default)
+     */
+    public HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public void setResponseCache(HttpResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * 
+     * @param cacheTtl
+     *            the time-to-live of cached responses. Subclasses may use other values for specific requests (see {@link #getDocument(URL, Duration)})
+     */
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = Objects.requireNonNull(cacheTtl, "cacheTtl");
+    }
+
+    public Duration getNegativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    public void setNegativeCacheTtl(Duration negativeCacheTtl) {
+        this.negativeCacheTtl = Objects.requireNonNull(negativeCacheTtl, "negativeCacheTtl");
+    }
+
+    public double getMaxRequestsPerSecond() {
+        return rateLimiter.getRate();
+    }
+
+    /**
+     * 
+     * @param maxRequestsPerSecond
+     *            the maximum rate of requests to the host. If a request cannot be sent within the {@link #getTimeout() timeout} because of the rate limit, it fails
+     */
+    public void setMaxRequestsPerSecond(double maxRequestsPerSecond) {
+        rateLimiter.setRate(maxRequestsPerSecond);
+    }
+
+    /**
+     * 
+     * @return the circuit breaker which skips this service while it fails or is slow
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     // Status
+    /**
+     * If the {@link #getCircuitBreaker() circuit breaker} is open, the service is not available and no request is sent. Otherwise the {@link #getTestQuery() test query} is
+     * executed.
+     */
     @Override
     public Status checkStatus() {
+        State state = circuitBreaker.getState();
+        if (state != State.CLOSED) {
+            return toStatus(state);
+        }
+        return runTestQuery();
+    }
+
+    @Override
+    public void addStatusListener(Consumer<Status> listener) {
+        Consumer<State> stateListener = (State state) -> listener.accept(toStatus(state));
+        if (statusListeners.putIfAbsent(listener, stateListener) == null) {
+            circuitBreaker.addListener(stateListener);
+        }
+    }
+
+    @Override
+    public void removeStatusListener(Consumer<Status> listener) {
+        Consumer<State> stateListener = statusListeners.remove(listener);
+        if (stateListener != null) {
+            circuitBreaker.removeListener(stateListener);
+        }
+    }
+
+    private Status toStatus(State state) {
+        if (state == State.CLOSED) {
+            return Status.of(Code.AVAILABLE, circuitBreaker.getAverageLatencyMillis());
+        }
+        return Status.of(Code.NOT_AVAILABLE, -1L, "Temporarily skipped because of " + circuitBreaker.getOpenReason());
+    }
+
+    private boolean probe() {
+        return runTestQuery().getCode() != Code.NOT_AVAILABLE;
+    }
+
+    private Status runTestQuery() {
         String testQuery = getTestQuery();
         Code code;
         long start = System.currentTimeMillis();
+        checkingStatus.set(Boolean.TRUE);
         try {
             List<?> results = search(testQuery, getSupportedRecordTypes().iterator().next());
             code = results.isEmpty() ? Code.LIMITED : Code.AVAILABLE;
@@ -69,6 +214,9 @@ public abstract class HttpMetadataService extends AbstractMetadataService {
             log.warn("Metadata database " + this + " failed to execute test query '" + testQuery + "'", e);
             code = Code.NOT_AVAILABLE;
         }
+        finally {
+            checkingStatus.remove();
+        }
         long responseTime = System.currentTimeMillis() - start;
         return Status.of(code, responseTime);
     }
@@ -121,7 +269,116 @@ public abstract class HttpMetadataService extends AbstractMetadataService {
     }
 
     protected Document getDocument(URL url) throws IOException {
-        return NetUtil.getDocument(url, this::setupConnection);
+        return getDocument(url, cacheTtl);
+    }
+
+    /**
+     * Retrieves the document of the given URL. If a {@link #getResponseCache() response cache} is set, a cached response which has not expired is used instead of a
+     * request. Otherwise the response is cached for the given time-to-live. Negative responses ("404 Not Found", "410 Gone" and {@link #isEmptyResult(Document) empty
+     * results}) are cached for the {@link #getNegativeCacheTtl() negative time-to-live} at most.
+     * 
+     * @param url
+     *            the URL
+     * @param ttl
+     *            the time-to-live of the response if it is cached
+     * @return the document
+     * @throws IOException
+     *             if the request fails
+     */
+    protected Document getDocument(URL url, Duration ttl) throws IOException {
+        HttpResponseCache cache = responseCache;
+        if (cache == null || checkingStatus.get()) {
+            return execute(url).parse();
+        }
+        String key = url.toExternalForm();
+        Instant now = Instant.now();
+        HttpResponseCache.Entry entry = cache.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            log.debug("Using cached response of {} (expires at {})", url, entry.getExpiration());
+            if (entry.isNegative()) {
+                throw new HttpStatusException("HTTP error fetching URL (cached)", entry.getStatusCode(), key);
+            }
+            return parseBody(entry);
+        }
+
+        Connection.Response response;
+        try {
+            response = execute(url);
+        }
+        catch (HttpStatusException e) {
+            if (e.getStatusCode() == HttpURLConnection.HTTP_NOT_FOUND || e.getStatusCode() == HttpURLConnection.HTTP_GONE) {
+                cache.put(HttpResponseCache.Entry.ofNegative(key, e.getStatusCode(), now.plus(negativeCacheTtl)));
+            }
+            throw e;
+        }
+        Document doc = response.parse();
+        Duration entryTtl = ttl;
+        if (isEmptyResult(doc) && negativeCacheTtl.compareTo(entryTtl) < 0) {
+            entryTtl = negativeCacheTtl;
+        }
+        cache.put(HttpResponseCache.Entry.of(key, response.statusCode(), response.contentType(), response.body(), now.plus(entryTtl)));
+        return doc;
+    }
+
+    /**
+     * Sends the request, limited by the {@link #getMaxRequestsPerSecond() rate limit} and guarded by the {@link #getCircuitBreaker() circuit breaker}.
+     */
+    private Connection.Response execute(URL url) throws IOException {
+        boolean guarded = !checkingStatus.get();
+        if (guarded) {
+            circuitBreaker.acquirePermission();
+        }
+        if (!rateLimiter.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+            throw new IOException("Could not request " + url + " within " + timeout + " ms because of the rate limit of " + rateLimiter.getRate() + " requests per second");
+        }
+        long start = System.nanoTime();
+        try {
+            Connection.Response response = NetUtil.getResponse(url, this::setupConnection);
+            if (guarded) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            }
+            return response;
+        }
+        catch (IOException e) {
+            if (guarded) {
+                if (isHostFailure(e)) {
+                    circuitBreaker.onFailure(System.nanoTime() - start);
+                }
+                else {
+                    circuitBreaker.onSuccess(System.nanoTime() - start);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Client errors like "404 Not Found" are valid answers of a healthy host. Server errors, "429 Too Many Requests", timeouts and connection failures are not.
+     */
+    private static boolean isHostFailure(IOException e) {
+        if (e instanceof HttpStatusException) {
+            int statusCode = ((HttpStatusException) e).getStatusCode();
+            return statusCode >= 500 || statusCode == 429;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the given document is a page without results (for example a search without hits). Such pages are cached for the {@link #getNegativeCacheTtl() negative
+     * time-to-live} at most, because the results may appear soon. The default implementation returns false.
+     * 
+     * @param doc
+     *            the retrieved document
+     * @return whether the document does not contain any results
+     */
+    protected boolean isEmptyResult(Document doc) {
+        return false;
+    }
+
+    private static Document parseBody(HttpResponseCache.Entry entry) {
+        // like Connection.Response.parse(): XML content is parsed with the XML parser
+        boolean xml = entry.getContentType() != null && XML_CONTENT_TYPE.matcher(entry.getContentType()).matches();
+        return Jsoup.parse(entry.getBody(), entry.getUrl(), xml ? Parser.xmlParser() : Parser.htmlParser());
     }
 
     /**
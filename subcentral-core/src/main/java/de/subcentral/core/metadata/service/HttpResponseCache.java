@@ -0,0 +1,128 @@
+package de.subcentral.core.metadata.service;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A cache for the responses of {@link HttpMetadataService HttpMetadataServices}, keyed by the URL of the request.
+ * <p>
+ * Caching is an optimization, so implementations should not fail: if an entry cannot be read or written, it is treated as not cached.
+ * </p>
+ *
+ * @see MemoryHttpResponseCache
+ * @see FileHttpResponseCache
+ * @see TieredHttpResponseCache
+ * @implSpec Implementations should be #thread-safe
+ */
+public interface HttpResponseCache {
+    /**
+     *
+     * @param url
+     *            the URL of the request
+     * @return the cached entry or null if there is none. The entry may be {@link Entry#isExpired(Instant) expired}
+     */
+    public Entry get(String url);
+
+    public void put(Entry entry);
+
+    public void invalidate(String url);
+
+    public void invalidateAll();
+
+    /**
+     * A cached response. Either a successful response with its body or a negative response (for example "404 Not Found") without body.
+     *
+     * @implSpec #value-object #immutable #thread-safe
+     */
+    public static final class Entry {
+        private final String  url;
+        private final int     statusCode;
+        private final String  contentType;
+        private final String  body;
+        private final Instant expiration;
+
+        private Entry(String url, int statusCode, String contentType, String body, Instant expiration) {
+            this.url = Objects.requireNonNull(url, "url");
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.body = body;
+            this.expiration = Objects.requireNonNull(expiration, "expiration");
+        }
+
+        public static Entry of(String url, int statusCode, String contentType, String body, Instant expiration) {
+            return new Entry(url, statusCode, contentType, Objects.requireNonNull(body, "body"), expiration);
+        }
+
+        public static Entry ofNegative(String url, int statusCode, Instant expiration) {
+            return new Entry(url, statusCode, null, null, expiration);
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         *
+         * @return the content type of the response or null if unknown
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         *
+         * @return the body of the response or null if this is a {@link #isNegative() negative} entry
+         */
+        public String getBody() {
+            return body;
+        }
+
+        public Instant getExpiration() {
+            return expiration;
+        }
+
+        public boolean isNegative() {
+            return body == null;
+        }
+
+        public boolean isExpired(Instant now) {
+            return !now.isBefore(expiration);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Entry) {
+                Entry o = (Entry) obj;
+                return url.equals(o.url) && statusCode == o.statusCode && Objects.equals(contentType, o.contentType) && Objects.equals(body, o.body)
+                        && expiration.equals(o.expiration);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, statusCode, contentType, body, expiration);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(Entry.class)
+                    .omitNullValues()
+                    .add("url", url)
+                    .add("statusCode", statusCode)
+                    .add("contentType", contentType)
+                    .add("body.length", body != null ? body.length() : null)
+                    .add("expiration", expiration)
+                    .toString();
+        }
+    }
+}
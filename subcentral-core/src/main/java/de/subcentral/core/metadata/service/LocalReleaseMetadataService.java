@@ -0,0 +1,617 @@
+package de.subcentral.core.metadata.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+
+import de.subcentral.core.metadata.MetadataUtil;
+import de.subcentral.core.metadata.Site;
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.media.Media;
+import de.subcentral.core.metadata.media.MediaUtil;
+import de.subcentral.core.metadata.release.Group;
+import de.subcentral.core.metadata.release.Release;
+import de.subcentral.core.metadata.release.Tag;
+import de.subcentral.core.name.NamingDefaults;
+import de.subcentral.core.name.NamingService;
+import de.subcentral.core.name.NamingUtil;
+import de.subcentral.core.util.Context;
+
+/**
+ * A local mirror of release databases. The releases are kept in memory and indexed by the normalized name of their media (series name, season and episode number), by the
+ * normalized name of their series, by group and by tags, so a lookup needs no network access. Every {@link #addAll(Collection) added} release is appended to a log file
+ * which is read on {@link #open(Path) open}, so the mirror survives restarts. If a release is added again, the newer record supersedes the older one. Superseded records
+ * are removed by {@link #compact()}.
+ * <p>
+ * The mirror is fed with the results of the remote release databases. As new releases of a media may be published any time, the releases of a media are only found by
+ * {@link #search(String, Class)} and {@link #searchByObject(Object, Class)} as long as releases of that media were added within the {@link #getMaxAge() maximum age}. After
+ * that, the remote databases should be queried again and their results added. Expired releases can still be found with {@link #searchByObject(Object, Class, boolean)}, for
+ * example if the remote databases are not available.
+ * </p>
+ * <p>
+ * So that the mirror does not grow forever, releases which were added longer ago than the retention period are dropped on {@link #open(Path, Duration) open}. Their
+ * records are removed from the log file by the next compaction.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class LocalReleaseMetadataService extends AbstractMetadataService implements Closeable {
+    private static final Logger               log                               = LogManager.getLogger(LocalReleaseMetadataService.class);
+
+    public static final Site                  SITE                              = new Site("local", "Local mirror");
+
+    /**
+     * Default maximum age: 1 day.
+     */
+    public static final Duration              DEFAULT_MAX_AGE                   = Duration.ofDays(1L);
+    /**
+     * Default retention period: 90 days.
+     */
+    public static final Duration              DEFAULT_RETENTION                 = Duration.ofDays(90L);
+
+    /**
+     * Incremented whenever the file format changes. Files of other versions are discarded.
+     */
+    private static final int                  FORMAT_VERSION                    = 1;
+    /**
+     * The log is compacted on open if it contains more superseded (or dropped) than current records and at least this number of superseded records.
+     */
+    private static final int                  MIN_SUPERSEDED_RECORDS_TO_COMPACT = 1000;
+
+    private final Path                        file;
+    private final List<NamingService>         namingServices                    = initNamingServices();
+    private final NamingService               seriesNamingService               = NamingDefaults.getDefaultNormalizingNamingService();
+    private final Function<String, String>    normalizer                        = NamingDefaults.getDefaultNormalizingFormatter();
+    private final ReadWriteLock               lock                              = new ReentrantReadWriteLock();
+    private volatile Duration                 maxAge                            = DEFAULT_MAX_AGE;
+
+    // Guarded by lock
+    private final Map<String, Entry>          releases                          = new HashMap<>();
+    private final SetMultimap<String, String> mediaIndex                        = LinkedHashMultimap.create();
+    private final Map<String, Long>           mediaAddTimes                     = new HashMap<>();
+    private final SetMultimap<String, String> seriesIndex                       = LinkedHashMultimap.create();
+    private final SetMultimap<Group, String>  groupIndex                        = LinkedHashMultimap.create();
+    private final SetMultimap<Tag, String>    tagIndex                          = LinkedHashMultimap.create();
+    private DataOutputStream                  out;
+    private int                               recordCount;
+
+    private LocalReleaseMetadataService(Path file) {
+        this.file = Objects.requireNonNull(file, "file");
+    }
+
+    /**
+     * Opens the mirror stored in the given file with the {@link #DEFAULT_RETENTION default retention period}.
+     *
+     * @see #open(Path, Duration)
+     */
+    public static LocalReleaseMetadataService open(Path file) throws IOException {
+        return open(file, DEFAULT_RETENTION);
+    }
+
+    /**
+     * Opens the mirror stored in the given file. The releases are read into memory. If the file was not completely written (for example because the application
+     * crashed), the incomplete record at the end is discarded.
+     *
+     * @param file
+     *            the log file. Created if it does not exist
+     * @param retention
+     *            the releases which were added longer ago are dropped
+     * @return the opened mirror. Must be {@link #close() closed}
+     * @throws IOException
+     *             if the file cannot be read or created
+     */
+    public static LocalReleaseMetadataService open(Path file, Duration retention) throws IOException {
+        Objects.requireNonNull(retention, "retention");
+        LocalReleaseMetadataService service = new LocalReleaseMetadataService(file);
+        service.load(System.currentTimeMillis() - retention.toMillis());
+        return service;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     *
+     * @param maxAge
+     *            the time after which the releases of a media are not found by the regular searches anymore unless releases of that media are added again
+     */
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = Objects.requireNonNull(maxAge, "maxAge");
+    }
+
+    public int getReleaseCount() {
+        lock.readLock().lock();
+        try {
+            return releases.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Site getSite() {
+        return SITE;
+    }
+
+    @Override
+    public Set<Class<?>> getSupportedRecordTypes() {
+        return ImmutableSet.of(Release.class);
+    }
+
+    /**
+     * Searches for the releases of the media with the given name (for example "Psych S01E01") or for the release with the given name.
+     */
+    @Override
+    public <T> List<T> search(String query, Class<T> recordType) throws UnsupportedOperationException {
+        checkSearchable(recordType);
+        return lookup(ImmutableSet.of(normalizer.apply(query)), false, recordType);
+    }
+
+    @Override
+    public <T> List<T> searchByObject(Object queryObj, Class<T> recordType) throws UnsupportedOperationException {
+        return searchByObject(queryObj, recordType, false);
+    }
+
+    /**
+     *
+     * @param queryObj
+     *            the query object (typically the media of a release)
+     * @param recordType
+     *            the record type
+     * @param includeExpired
+     *            whether releases which are older than the {@link #getMaxAge() maximum age} should be found as well
+     * @return the found releases (copies)
+     */
+    public <T> List<T> searchByObject(Object queryObj, Class<T> recordType, boolean includeExpired) throws UnsupportedOperationException {
+        checkSearchable(recordType);
+        if (queryObj == null) {
+            return ImmutableList.of();
+        }
+        Set<String> names = NamingUtil.generateNames(queryObj, namingServices, MediaUtil.generateNamingContextsForAllNames(queryObj));
+        return lookup(names, includeExpired, recordType);
+    }
+
+    /**
+     * Gets the release with the given name, regardless of its age.
+     */
+    @Override
+    public <T> T get(String id, Class<T> recordType) throws UnsupportedOperationException {
+        if (!recordType.isAssignableFrom(Release.class)) {
+            throw createUnsupportedRecordTypeException(recordType);
+        }
+        Release rls;
+        lock.readLock().lock();
+        try {
+            Entry entry = releases.get(normalizer.apply(id));
+            rls = entry != null ? entry.release : null;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        return recordType.cast(MetadataUtil.deepCopy(rls));
+    }
+
+    /**
+     *
+     * @param seriesName
+     *            the name of the series (or movie)
+     * @return all releases of the series (copies), regardless of their age
+     */
+    public List<Release> findBySeries(String seriesName) {
+        lock.readLock().lock();
+        try {
+            return getReleases(seriesIndex.get(normalizer.apply(seriesName)));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @return all releases of the group (copies), regardless of their age
+     */
+    public List<Release> findByGroup(Group group) {
+        lock.readLock().lock();
+        try {
+            return getReleases(groupIndex.get(group));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @return all releases which contain the tag (copies), regardless of their age
+     */
+    public List<Release> findByTag(Tag tag) {
+        lock.readLock().lock();
+        try {
+            return getReleases(tagIndex.get(tag));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkSearchable(Class<?> recordType) {
+        if (!recordType.isAssignableFrom(Release.class)) {
+            throw createRecordTypeNotSearchableException(recordType);
+        }
+    }
+
+    private <T> List<T> lookup(Set<String> keys, boolean includeExpired, Class<T> recordType) {
+        long minAddTime = includeExpired ? Long.MIN_VALUE : System.currentTimeMillis() - maxAge.toMillis();
+        List<Release> results;
+        lock.readLock().lock();
+        try {
+            Set<String> names = new LinkedHashSet<>();
+            for (String key : keys) {
+                Long mediaAddTime = mediaAddTimes.get(key);
+                if (mediaAddTime != null && mediaAddTime.longValue() >= minAddTime) {
+                    names.addAll(mediaIndex.get(key));
+                }
+                Entry entry = releases.get(key);
+                if (entry != null && entry.addTime >= minAddTime) {
+                    names.add(key);
+                }
+            }
+            results = getReleases(names);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        log.trace("Found {} releases for {} in local mirror", results.size(), keys);
+        ImmutableList.Builder<T> copies = ImmutableList.builder();
+        for (Release rls : results) {
+            copies.add(recordType.cast(rls));
+        }
+        return copies.build();
+    }
+
+    // guarded by lock
+    private List<Release> getReleases(Collection<String> names) {
+        // the stored releases must not be modified by the callers
+        List<Release> results = new ArrayList<>(names.size());
+        for (String name : names) {
+            results.add(MetadataUtil.deepCopy(releases.get(name).release));
+        }
+        return results;
+    }
+
+    /**
+     * Adds the releases to the mirror and appends them to the log file. Releases without a name are ignored. The releases are copied, so they may be modified afterwards.
+     *
+     * @param rlss
+     *            the releases (typically the results of a remote release database)
+     * @throws IOException
+     *             if the releases could not be written to the log file. They are not added then
+     */
+    public void addAll(Collection<? extends Release> rlss) throws IOException {
+        long now = System.currentTimeMillis();
+        List<Entry> entries = new ArrayList<>(rlss.size());
+        List<byte[]> records = new ArrayList<>(rlss.size());
+        for (Release rls : rlss) {
+            if (rls.getName() == null) {
+                log.debug("Not adding release without name to local mirror: {}", rls);
+                continue;
+            }
+            byte[] record = serialize(rls);
+            // the deserialized release is a copy, so later modifications of the given release do not affect the mirror
+            entries.add(createEntry(deserialize(record), now));
+            records.add(record);
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            for (byte[] record : records) {
+                writeRecord(out, now, record);
+            }
+            out.flush();
+            recordCount += records.size();
+            for (Entry entry : entries) {
+                index(entry);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Added {} releases to local mirror", entries.size());
+    }
+
+    /**
+     * Rewrites the log file so that it only contains the current records.
+     *
+     * @throws IOException
+     *             if the file could not be rewritten. The old file remains in place then
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            out.close();
+            Path tmpFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                    tmpOut.writeInt(FORMAT_VERSION);
+                    for (Entry entry : releases.values()) {
+                        writeRecord(tmpOut, entry.addTime, serialize(entry.release));
+                    }
+                }
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Compacted local mirror {} from {} to {} records", file, recordCount, releases.size());
+                recordCount = releases.size();
+            }
+            finally {
+                Files.deleteIfExists(tmpFile);
+                out = openForAppend();
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(long minAddTime) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        if (Files.notExists(file)) {
+            writeHeader();
+        }
+        else {
+            long validLength = readRecords();
+            if (validLength < 0L) {
+                log.warn("Discarding local mirror {} because it has an unsupported format", file);
+                writeHeader();
+            }
+            else if (validLength < Files.size(file)) {
+                log.warn("Discarding incomplete record at the end of local mirror {}", file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+            }
+        }
+        out = openForAppend();
+        int dropped = dropOlderThan(minAddTime);
+        log.debug("Loaded {} releases from local mirror {} in {} ms ({} expired releases dropped)",
+                releases.size(),
+                file,
+                Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                dropped);
+
+        int supersededRecords = recordCount - releases.size();
+        if (supersededRecords > releases.size() && supersededRecords >= MIN_SUPERSEDED_RECORDS_TO_COMPACT) {
+            compact();
+        }
+    }
+
+    /**
+     * @return the length of the valid part of the file or -1 if the file has an unsupported format
+     */
+    private long readRecords() throws IOException {
+        long fileLength = Files.size(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return -1L;
+                }
+            }
+            catch (EOFException e) {
+                return -1L;
+            }
+            long validLength = Integer.BYTES;
+            while (true) {
+                long addTime;
+                byte[] record;
+                try {
+                    addTime = in.readLong();
+                    int length = in.readInt();
+                    // a corrupt length would cause a NegativeArraySizeException or OutOfMemoryError. It is treated like an incomplete record
+                    if (length < 0 || length > fileLength - validLength - Long.BYTES - Integer.BYTES) {
+                        log.warn("Invalid record length {} at offset {} in local mirror {}", length, validLength, file);
+                        return validLength;
+                    }
+                    record = new byte[length];
+                    in.readFully(record);
+                }
+                catch (EOFException e) {
+                    return validLength;
+                }
+                validLength += Long.BYTES + Integer.BYTES + record.length;
+                recordCount++;
+                try {
+                    index(createEntry(deserialize(record), addTime));
+                }
+                catch (IOException e) {
+                    log.warn("Skipping unreadable record in local mirror " + file, e);
+                }
+            }
+        }
+    }
+
+    // guarded by write lock
+    private int dropOlderThan(long minAddTime) {
+        int dropped = 0;
+        Iterator<Entry> iter = releases.values().iterator();
+        while (iter.hasNext()) {
+            Entry entry = iter.next();
+            if (entry.addTime < minAddTime) {
+                iter.remove();
+                unindex(entry);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private void writeHeader() throws IOException {
+        try (DataOutputStream headerOut = new DataOutputStream(Files.newOutputStream(file))) {
+            headerOut.writeInt(FORMAT_VERSION);
+        }
+    }
+
+    private DataOutputStream openForAppend() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+    }
+
+    private void checkOpen() throws IOException {
+        if (out == null) {
+            throw new IOException("Local mirror is closed: " + file);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, long addTime, byte[] record) throws IOException {
+        out.writeLong(addTime);
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    private static byte[] serialize(Release rls) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objOut = new ObjectOutputStream(bytes)) {
+            objOut.writeObject(rls);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Release deserialize(byte[] record) throws IOException {
+        try (ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(record))) {
+            return (Release) objIn.readObject();
+        }
+        catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Record is not a release", e);
+        }
+    }
+
+    private Entry createEntry(Release rls, long addTime) {
+        Set<String> mediaNames = NamingUtil.generateNames(rls.getMedia(), namingServices, ImmutableList.of(Context.EMPTY));
+        Set<String> seriesNames = new LinkedHashSet<>();
+        for (Media media : rls.getMedia()) {
+            Object series = media instanceof Episode ? ((Episode) media).getSeries() : media;
+            if (series != null) {
+                seriesNames.addAll(NamingUtil.generateNames(series, ImmutableList.of(seriesNamingService), ImmutableList.of(Context.EMPTY)));
+            }
+        }
+        return new Entry(normalizer.apply(rls.getName()), rls, addTime, mediaNames, seriesNames);
+    }
+
+    // guarded by write lock
+    private void index(Entry entry) {
+        Entry superseded = releases.put(entry.name, entry);
+        if (superseded != null) {
+            unindex(superseded);
+        }
+        for (String mediaName : entry.mediaNames) {
+            mediaIndex.put(mediaName, entry.name);
+            mediaAddTimes.merge(mediaName, entry.addTime, Math::max);
+        }
+        for (String seriesName : entry.seriesNames) {
+            seriesIndex.put(seriesName, entry.name);
+        }
+        if (entry.release.getGroup() != null) {
+            groupIndex.put(entry.release.getGroup(), entry.name);
+        }
+        for (Tag tag : entry.release.getTags()) {
+            tagIndex.put(tag, entry.name);
+        }
+    }
+
+    // guarded by write lock
+    private void unindex(Entry entry) {
+        for (String mediaName : entry.mediaNames) {
+            mediaIndex.remove(mediaName, entry.name);
+            if (!mediaIndex.containsKey(mediaName)) {
+                mediaAddTimes.remove(mediaName);
+            }
+        }
+        for (String seriesName : entry.seriesNames) {
+            seriesIndex.remove(seriesName, entry.name);
+        }
+        if (entry.release.getGroup() != null) {
+            groupIndex.remove(entry.release.getGroup(), entry.name);
+        }
+        for (Tag tag : entry.release.getTags()) {
+            tagIndex.remove(tag, entry.name);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(LocalReleaseMetadataService.class).add("file", file).add("maxAge", maxAge).toString();
+    }
+
+    private static final class Entry {
+        private final String      name;
+        private final Release     release;
+        private final long        addTime;
+        private final Set<String> mediaNames;
+        private final Set<String> seriesNames;
+
+        private Entry(String name, Release release, long addTime, Set<String> mediaNames, Set<String> seriesNames) {
+            this.name = name;
+            this.release = release;
+            this.addTime = addTime;
+            this.mediaNames = mediaNames;
+            this.seriesNames = seriesNames;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.subcentral.core.metadata.service;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Keeps the responses in memory. If the cache is full, the least recently used entries are evicted.
+ *
+ * @implSpec #thread-safe
+ */
+public class MemoryHttpResponseCache implements HttpResponseCache {
+    public static final long           DEFAULT_MAXIMUM_SIZE = 1_000L;
+
+    private final long                 maximumSize;
+    private final Cache<String, Entry> cache;
+
+    public MemoryHttpResponseCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     *
+     * @param maximumSize
+     *            the maximum number of responses
+     */
+    public MemoryHttpResponseCache(long maximumSize) {
+        this.maximumSize = maximumSize;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    @Override
+    public Entry get(String url) {
+        return cache.getIfPresent(url);
+    }
+
+    @Override
+    public void put(Entry entry) {
+        Objects.requireNonNull(entry, "entry");
+        cache.put(entry.getUrl(), entry);
+    }
+
+    @Override
+    public void invalidate(String url) {
+        cache.invalidate(url);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(MemoryHttpResponseCache.class).add("maximumSize", maximumSize).add("size", cache.size()).toString();
+    }
+}
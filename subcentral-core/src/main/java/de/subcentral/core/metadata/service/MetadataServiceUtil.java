@@ -1,11 +1,18 @@
 package de.subcentral.core.metadata.service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,32 +20,142 @@ import org.apache.logging.log4j.Logger;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ListMultimap;
 
+import de.subcentral.core.util.ExecutorUtil;
+
 public class MetadataServiceUtil {
     private static final Logger log = LogManager.getLogger(MetadataServiceUtil.class);
 
     public static <T> ListMultimap<MetadataService, T> searchInAll(List<MetadataService> metadataServices, Object queryObj, Class<T> recordType, ExecutorService executor) throws InterruptedException {
+        return searchInAll(metadataServices, queryObj, recordType, executor, null);
+    }
+
+    /**
+     * Searches all metadata services in parallel and waits until all of them returned their results, failed or exceeded the deadline. Services that fail or exceed the deadline
+     * are skipped.
+     *
+     * @param metadataServices
+     *            the services to search
+     * @param queryObj
+     *            the query object
+     * @param recordType
+     *            the record type
+     * @param executor
+     *            the executor for the calls to the services. The deadline counts from the submission, so it includes the time a call waits for a thread of the executor. An
+     *            executor which starts each call immediately should be used (see {@link de.subcentral.core.util.ExecutorUtil#newPerTaskExecutor(String)}). With a bounded
+     *            executor, the calls which are still queued when the deadline is exceeded are skipped
+     * @param deadline
+     *            the maximum time to wait for each service or null if there is no deadline
+     * @return the results in the order of the services
+     * @throws InterruptedException
+     *             if the current thread was interrupted while waiting. The searches which have not started yet are skipped then
+     */
+    public static <T> ListMultimap<MetadataService, T> searchInAll(List<MetadataService> metadataServices, Object queryObj, Class<T> recordType, Executor executor, Duration deadline)
+            throws InterruptedException {
         if (queryObj == null) {
             // if metadataObj is null, don't invoke any threads but return immediately
             return ImmutableListMultimap.of();
         }
-        List<Callable<List<T>>> tasks = new ArrayList<>(metadataServices.size());
-        for (MetadataService metadataService : metadataServices) {
-            tasks.add(() -> metadataService.searchByObject(queryObj, recordType));
+        Map<MetadataService, List<T>> resultsByService = new ConcurrentHashMap<>(metadataServices.size());
+        CompletableFuture<Void> all = searchInAll(toAsync(metadataServices, executor), queryObj, recordType, deadline, resultsByService::put);
+        try {
+            all.get();
+        }
+        catch (InterruptedException e) {
+            all.cancel(true);
+            throw e;
+        }
+        catch (ExecutionException e) {
+            // the failures of the services are skipped, so only the result handler could have failed
+            throw new IllegalStateException(e.getCause());
         }
-
-        List<Future<List<T>>> futures = executor.invokeAll(tasks);
 
         ImmutableListMultimap.Builder<MetadataService, T> results = ImmutableListMultimap.builder();
+        for (MetadataService metadataService : metadataServices) {
+            List<T> serviceResults = resultsByService.get(metadataService);
+            if (serviceResults != null) {
+                results.putAll(metadataService, serviceResults);
+            }
+        }
+        return results.build();
+    }
+
+    /**
+     * Searches all metadata services in parallel and passes the results of each service to the result handler as soon as they arrive. Services that fail or exceed the
+     * deadline are skipped (and logged).
+     * <p>
+     * The result handler may be called concurrently by multiple threads.
+     * </p>
+     *
+     * @param metadataServices
+     *            the services to search
+     * @param queryObj
+     *            the query object
+     * @param recordType
+     *            the record type
+     * @param deadline
+     *            the maximum time to wait for each service or null if there is no deadline
+     * @param resultHandler
+     *            the handler for the results of each service
+     * @return a future which is completed when all services have returned their results, failed or exceeded the deadline. If it is cancelled, the searches which have not
+     *         started yet are skipped
+     */
+    public static <T> CompletableFuture<Void> searchInAll(List<? extends AsyncMetadataService> metadataServices,
+            Object queryObj,
+            Class<T> recordType,
+            Duration deadline,
+            BiConsumer<? super MetadataService, ? super List<T>> resultHandler) {
+        Objects.requireNonNull(resultHandler, "resultHandler");
+        if (queryObj == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<List<T>>> searches = new ArrayList<>(metadataServices.size());
+        CompletableFuture<?>[] handledSearches = new CompletableFuture<?>[metadataServices.size()];
         for (int i = 0; i < metadataServices.size(); i++) {
-            try {
-                results.putAll(metadataServices.get(i), futures.get(i).get());
+            MetadataService metadataService = metadataServices.get(i).getService();
+            CompletableFuture<List<T>> search = metadataServices.get(i).searchByObjectAsync(queryObj, recordType);
+            if (deadline != null) {
+                ExecutorUtil.orTimeout(search, deadline);
             }
-            catch (ExecutionException e) {
-                log.debug("Exception while searching metadata database " + metadataServices.get(i) + " for records of type " + recordType.getName() + " by " + queryObj
-                        + ". Skipping this metadata database.", e);
+            searches.add(search);
+            handledSearches[i] = search.handle((List<T> results, Throwable t) -> {
+                if (t == null) {
+                    resultHandler.accept(metadataService, results);
+                }
+                else {
+                    logSearchFailure(metadataService, queryObj, recordType, t instanceof CompletionException ? t.getCause() : t);
+                }
+                return null;
+            });
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(handledSearches);
+        all.whenComplete((Void v, Throwable t) -> {
+            if (all.isCancelled()) {
+                searches.forEach((CompletableFuture<List<T>> search) -> search.cancel(true));
             }
+        });
+        return all;
+    }
+
+    private static void logSearchFailure(MetadataService metadataService, Object queryObj, Class<?> recordType, Throwable t) {
+        if (t instanceof TimeoutException) {
+            log.info("Metadata database {} did not respond in time while searching for records of type {} by {} ({}). Skipping this metadata database.",
+                    metadataService,
+                    recordType.getName(),
+                    queryObj,
+                    t.getMessage());
         }
-        return results.build();
+        else {
+            log.debug("Exception while searching metadata database " + metadataService + " for records of type " + recordType.getName() + " by " + queryObj
+                    + ". Skipping this metadata database.", t);
+        }
+    }
+
+    public static List<AsyncMetadataService> toAsync(List<? extends MetadataService> metadataServices, Executor executor) {
+        List<AsyncMetadataService> asyncServices = new ArrayList<>(metadataServices.size());
+        for (MetadataService metadataService : metadataServices) {
+            asyncServices.add(AsyncMetadataService.of(metadataService, executor));
+        }
+        return asyncServices;
     }
 
     private MetadataServiceUtil() {
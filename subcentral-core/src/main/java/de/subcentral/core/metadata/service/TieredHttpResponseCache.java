@@ -0,0 +1,64 @@
+package de.subcentral.core.metadata.service;
+
+import java.util.Objects;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Combines a fast cache (usually a {@link MemoryHttpResponseCache}) with a slower but bigger or persistent cache (usually a {@link FileHttpResponseCache}). Responses are
+ * stored in both caches. An entry which is only found in the second cache is copied to the first cache.
+ *
+ * @implSpec #thread-safe if both caches are thread-safe
+ */
+public class TieredHttpResponseCache implements HttpResponseCache {
+    private final HttpResponseCache first;
+    private final HttpResponseCache second;
+
+    public TieredHttpResponseCache(HttpResponseCache first, HttpResponseCache second) {
+        this.first = Objects.requireNonNull(first, "first");
+        this.second = Objects.requireNonNull(second, "second");
+    }
+
+    public HttpResponseCache getFirst() {
+        return first;
+    }
+
+    public HttpResponseCache getSecond() {
+        return second;
+    }
+
+    @Override
+    public Entry get(String url) {
+        Entry entry = first.get(url);
+        if (entry == null) {
+            entry = second.get(url);
+            if (entry != null) {
+                first.put(entry);
+            }
+        }
+        return entry;
+    }
+
+    @Override
+    public void put(Entry entry) {
+        first.put(entry);
+        second.put(entry);
+    }
+
+    @Override
+    public void invalidate(String url) {
+        first.invalidate(url);
+        second.invalidate(url);
+    }
+
+    @Override
+    public void invalidateAll() {
+        first.invalidateAll();
+        second.invalidateAll();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(TieredHttpResponseCache.class).add("first", first).add("second", second).toString();
+    }
+}
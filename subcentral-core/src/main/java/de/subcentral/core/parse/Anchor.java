@@ -0,0 +1,155 @@
+package de.subcentral.core.parse;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Cheap structural features of a release or subtitle name which can be detected with a single linear scan over the text (no regular expressions involved).
+ * <p>
+ * An anchor is meant to be a <b>necessary</b> condition for a pattern to match: if a pattern requires an anchor and the anchor is not present in the text, the pattern cannot
+ * match. This allows skipping expensive (backtracking) pattern matches up front. See {@link PrefilteringMappingMatcher}.
+ * </p>
+ * <p>
+ * All letter checks are case-insensitive and all digit checks are ASCII only (like {@code \d} without {@link java.util.regex.Pattern#UNICODE_CHARACTER_CLASS}), so that the
+ * anchors are valid for case-insensitive patterns as well.
+ * </p>
+ */
+public enum Anchor {
+    /**
+     * "S00E00", for example "Psych.S08E01.720p.HDTV.x264-DIMENSION".
+     */
+    SEASON_EPISODE,
+
+    /**
+     * "E00", for example "Fargo.E01.720p.HDTV.x264-KILLERS". Every text containing {@link #SEASON_EPISODE} also contains this anchor.
+     */
+    EPISODE,
+
+    /**
+     * "0x00", for example "The_Fall.2x02.720p_HDTV_x264-FoV" or "Psych - 08x01 - Pilot.English.C.orig.Addic7ed.com".
+     */
+    CROSS_EPISODE,
+
+    /**
+     * "0000.00.00", for example "The.Daily.Show.2015.01.01.720p.HDTV.x264-BATV".
+     */
+    DATE,
+
+    /**
+     * Four consecutive digits, for example "Winter's Tale (2014)" or "Movie.Name.2014.720p.BluRay.x264-GROUP". Every text containing {@link #DATE} also contains this anchor.
+     */
+    YEAR,
+
+    /**
+     * The text ends with a hyphen followed by at least one word character ({@code -\w+}), for example "Psych.S08E01.720p.HDTV.x264-DIMENSION".
+     */
+    GROUP_SUFFIX;
+
+    private static final Anchor[] VALUES   = values();
+    private static final int      ALL_MASK = (1 << VALUES.length) - 1;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static int mask(Set<Anchor> anchors) {
+        int mask = 0;
+        for (Anchor anchor : anchors) {
+            mask |= anchor.mask();
+        }
+        return mask;
+    }
+
+    public static int allMask() {
+        return ALL_MASK;
+    }
+
+    public static Set<Anchor> fromMask(int mask) {
+        EnumSet<Anchor> anchors = EnumSet.noneOf(Anchor.class);
+        for (Anchor anchor : VALUES) {
+            if ((mask & anchor.mask()) != 0) {
+                anchors.add(anchor);
+            }
+        }
+        return anchors;
+    }
+
+    /**
+     * Scans the given text once and determines all anchors present in it.
+     *
+     * @param text
+     *            the text to scan (may be null)
+     * @return the bit mask of the present anchors (the bit of an anchor is {@link #mask()})
+     */
+    public static int scan(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        int len = text.length();
+        int mask = 0;
+        if (endsWithGroup(text, len)) {
+            mask |= GROUP_SUFFIX.mask();
+        }
+        for (int i = 0; i < len && mask != ALL_MASK; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                if (isDigits(text, i + 1, 3, len)) {
+                    mask |= YEAR.mask();
+                    if (isChar(text, i + 4, '.', len) && isDigits(text, i + 5, 2, len) && isChar(text, i + 7, '.', len) && isDigits(text, i + 8, 2, len)) {
+                        mask |= DATE.mask();
+                    }
+                }
+                if (isCharIgnoreCase(text, i + 1, 'x', len) && isDigits(text, i + 2, 2, len)) {
+                    mask |= CROSS_EPISODE.mask();
+                }
+            }
+            else if (c == 'E' || c == 'e') {
+                if (isDigits(text, i + 1, 2, len)) {
+                    mask |= EPISODE.mask();
+                }
+            }
+            else if (c == 'S' || c == 's') {
+                if (isDigits(text, i + 1, 2, len) && isCharIgnoreCase(text, i + 3, 'e', len) && isDigits(text, i + 4, 2, len)) {
+                    mask |= SEASON_EPISODE.mask();
+                }
+            }
+        }
+        return mask;
+    }
+
+    private static boolean endsWithGroup(CharSequence text, int len) {
+        int i = len - 1;
+        while (i >= 0 && isWordChar(text.charAt(i))) {
+            i--;
+        }
+        return i >= 0 && i < len - 1 && text.charAt(i) == '-';
+    }
+
+    private static boolean isDigits(CharSequence text, int start, int count, int len) {
+        if (start + count > len) {
+            return false;
+        }
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isChar(CharSequence text, int index, char expected, int len) {
+        return index < len && text.charAt(index) == expected;
+    }
+
+    private static boolean isCharIgnoreCase(CharSequence text, int index, char expectedLowerCase, int len) {
+        return index < len && Character.toLowerCase(text.charAt(index)) == expectedLowerCase;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+}
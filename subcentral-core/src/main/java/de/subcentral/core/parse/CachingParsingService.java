@@ -0,0 +1,153 @@
+package de.subcentral.core.parse;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import de.subcentral.core.metadata.MetadataUtil;
+
+/**
+ * A {@link ParsingService} which caches the results of another parsing service. The cache is keyed on the text and the target types and has a maximum size. If it is full, the
+ * least recently used results are evicted. Texts that could not be parsed are cached as well.
+ * <p>
+ * The cached objects are never handed out. Every call returns a copy of the cached object (by default a {@link MetadataUtil#deepCopy(Object) deep copy}) so that the caller may
+ * modify it (for example correct it) without affecting the cached result.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class CachingParsingService implements ParsingService {
+    private final String                       name;
+    private final ParsingService               original;
+    private final UnaryOperator<Object>        copier;
+    private final Cache<CacheKey, Optional<?>> cache;
+
+    public CachingParsingService(String name, ParsingService original, long maximumSize) {
+        this(name, original, maximumSize, MetadataUtil::deepCopy);
+    }
+
+    /**
+     *
+     * @param name
+     *            the name of this service
+     * @param original
+     *            the service whose results are cached
+     * @param maximumSize
+     *            the maximum number of cached results
+     * @param copier
+     *            the function to create the copy of a cached result which is handed out. Only if the callers do not modify the results, {@link UnaryOperator#identity()} may be
+     *            used
+     */
+    public CachingParsingService(String name, ParsingService original, long maximumSize, UnaryOperator<Object> copier) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.original = Objects.requireNonNull(original, "original");
+        this.copier = Objects.requireNonNull(copier, "copier");
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public ParsingService getOriginal() {
+        return original;
+    }
+
+    /**
+     * The statistics contain the hit, miss and eviction counts.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Set<Class<?>> getSupportedTargetTypes() {
+        return original.getSupportedTargetTypes();
+    }
+
+    @Override
+    public Object parse(String text) {
+        return getCopy(new CacheKey(text, ImmutableSet.of()), () -> original.parse(text));
+    }
+
+    @Override
+    public <T> T parse(String text, Class<T> targetType) {
+        Objects.requireNonNull(targetType, "targetType cannot be null. For untyped parsing use #parse(String).");
+        return targetType.cast(getCopy(new CacheKey(text, ImmutableSet.of(targetType)), () -> original.parse(text, targetType)));
+    }
+
+    @Override
+    public Object parse(String text, Set<Class<?>> targetTypes) {
+        return getCopy(new CacheKey(text, ImmutableSet.copyOf(targetTypes)), () -> original.parse(text, targetTypes));
+    }
+
+    private Object getCopy(CacheKey key, Supplier<?> parseOperation) {
+        if (key.text == null) {
+            return parseOperation.get();
+        }
+        Optional<?> cachedResult;
+        try {
+            cachedResult = cache.get(key, () -> Optional.ofNullable(parseOperation.get()));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return cachedResult.isPresent() ? copier.apply(cachedResult.get()) : null;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(CachingParsingService.class).add("name", name).add("original", original).add("stats", cache.stats()).toString();
+    }
+
+    private static final class CacheKey {
+        private final String        text;
+        private final Set<Class<?>> targetTypes;
+
+        private CacheKey(String text, Set<Class<?>> targetTypes) {
+            this.text = text;
+            this.targetTypes = targetTypes;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof CacheKey) {
+                CacheKey o = (CacheKey) obj;
+                return text.equals(o.text) && targetTypes.equals(o.targetTypes);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + targetTypes.hashCode();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package de.subcentral.core.parse;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
@@ -14,6 +13,11 @@ public class CompoundMappingMatcher<K> implements MappingMatcher<K> {
     private final Pattern                     pattern;
     private final Map<Integer, GroupEntry<K>> groups;
     private final Map<K, String>              predefinedMatches;
+    /**
+     * Each thread resets its own matcher instead of creating a new one for every text.
+     */
+    private final ThreadLocal<Matcher>        matcher;
+    private final MatchResult.Layout<K>       layout;
 
     public CompoundMappingMatcher(Pattern pattern, Map<Integer, GroupEntry<K>> groups) {
         this(pattern, groups, ImmutableMap.of());
@@ -23,6 +27,8 @@ public class CompoundMappingMatcher<K> implements MappingMatcher<K> {
         this.pattern = Objects.requireNonNull(pattern, "pattern");
         this.groups = ImmutableMap.copyOf(new TreeMap<>(groups)); // TreeMap to sort; includes null checks
         this.predefinedMatches = ImmutableMap.copyOf(predefinedMatches); // includes null checks
+        this.matcher = ThreadLocal.withInitial(() -> this.pattern.matcher(""));
+        this.layout = new MatchResult.Layout<>(this.groups, this.predefinedMatches);
     }
 
     public Pattern getPattern() {
@@ -51,19 +57,9 @@ public class CompoundMappingMatcher<K> implements MappingMatcher<K> {
         if (text == null) {
             return ImmutableMap.of();
         }
-        Matcher m = pattern.matcher(text);
+        Matcher m = matcher.get().reset(text);
         if (m.matches()) {
-            Map<K, String> mappedGroups = new HashMap<>(groups.size() + predefinedMatches.size());
-            mappedGroups.putAll(predefinedMatches);
-            for (Map.Entry<Integer, GroupEntry<K>> entry : groups.entrySet()) {
-                GroupEntry<K> groupEntry = entry.getValue();
-                String groupValue = m.group(entry.getKey());
-                // groupVal can be null for optional groups
-                if (groupValue != null) {
-                    groupEntry.mergeGroupValue(mappedGroups, groupValue);
-                }
-            }
-            return mappedGroups;
+            return MatchResult.of(layout, text, m);
         }
         return ImmutableMap.of();
     }
@@ -86,18 +82,6 @@ public class CompoundMappingMatcher<K> implements MappingMatcher<K> {
         public static <K> MatcherEntry<K> ofMatcher(MappingMatcher<K> matcher) {
             return new MatcherEntry<>(matcher);
         }
-
-        protected abstract void mergeGroupValue(Map<K, String> mappedGroups, String value);
-
-        protected static <K> void mergeStringValues(Map<K, String> map, K key, String value) {
-            // concat the values if multiple values have the same key
-            map.merge(key,
-                    value,
-                    (String oldVal, String newVal) -> new StringBuilder(oldVal.length() + PatternMappingMatcher.VALUES_WITH_SAME_KEY_SEPARATOR.length() + newVal.length()).append(oldVal)
-                            .append(PatternMappingMatcher.VALUES_WITH_SAME_KEY_SEPARATOR)
-                            .append(newVal)
-                            .toString());
-        }
     }
 
     public static class KeyEntry<K> extends GroupEntry<K> {
@@ -110,11 +94,6 @@ public class CompoundMappingMatcher<K> implements MappingMatcher<K> {
         public K getKey() {
             return key;
         }
-
-        @Override
-        public void mergeGroupValue(Map<K, String> mappedGroups, String value) {
-            GroupEntry.mergeStringValues(mappedGroups, key, value);
-        }
     }
 
     public static class MatcherEntry<K> extends GroupEntry<K> {
@@ -127,13 +106,5 @@ public class CompoundMappingMatcher<K> implements MappingMatcher<K> {
         public MappingMatcher<K> getMatcher() {
             return matcher;
         }
-
-        @Override
-        public void mergeGroupValue(Map<K, String> mappedGroups, String value) {
-            Map<K, String> result = matcher.match(value);
-            for (Map.Entry<K, String> entry : result.entrySet()) {
-                GroupEntry.mergeStringValues(mappedGroups, entry.getKey(), entry.getValue());
-            }
-        }
     }
 }
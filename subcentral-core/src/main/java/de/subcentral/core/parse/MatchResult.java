@@ -0,0 +1,319 @@
+package de.subcentral.core.parse;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.primitives.Ints;
+
+import de.subcentral.core.parse.CompoundMappingMatcher.GroupEntry;
+import de.subcentral.core.parse.CompoundMappingMatcher.KeyEntry;
+import de.subcentral.core.parse.CompoundMappingMatcher.MatcherEntry;
+
+/**
+ * The result of a successful match of a {@link PatternMappingMatcher} or {@link CompoundMappingMatcher}.
+ * <p>
+ * Instead of copying the predefined matches and all group values into a new {@link java.util.HashMap} for every match, this map only stores the text and the start and end
+ * offsets of the capturing groups. Everything else is described by the {@link Layout} which the matcher creates once: each key of the matcher gets a dense ordinal, and for
+ * each ordinal the layout knows the predefined value and the groups that are mapped to the key. The value of a key is only turned into a String when it is requested (and then
+ * kept). Lookups, {@link #containsKey(Object)} and {@link #isEmpty()} do not create any Strings. Only the groups that are matched by nested matchers (see
+ * {@link MatcherEntry}) are matched directly and their results are kept.
+ * </p>
+ * <p>
+ * Like before, the values of several groups with the same key (and the predefined value of the key) are concatenated in the order of the groups, separated by
+ * {@link PatternMappingMatcher#VALUES_WITH_SAME_KEY_SEPARATOR}.
+ * </p>
+ * <p>
+ * The map is unmodifiable.
+ * </p>
+ *
+ * @implSpec #not-thread-safe
+ */
+public final class MatchResult<K> extends AbstractMap<K, String> {
+    private static final int[]         NO_GROUPS = new int[0];
+
+    private final Layout<K>            layout;
+    private final String               text;
+    /**
+     * Start and end offset of each group of the layout. -1 if the group did not participate in the match.
+     */
+    private final int[]                offsets;
+    /**
+     * The results of the nested matchers (in the order of {@link Layout#nestedGroups}). Null if there are no nested matchers, null elements if the group did not participate.
+     */
+    private final List<Map<K, String>> nestedResults;
+    /**
+     * The materialized values by key ordinal. Created on the first request.
+     */
+    private String[]                   values;
+    private Set<Entry<K, String>>      entrySet;
+
+    private MatchResult(Layout<K> layout, String text, int[] offsets, List<Map<K, String>> nestedResults) {
+        this.layout = layout;
+        this.text = text;
+        this.offsets = offsets;
+        this.nestedResults = nestedResults;
+    }
+
+    /**
+     * Creates the result of a successful match. The offsets are copied from the matcher, so the matcher can be reset afterwards.
+     */
+    static <K> MatchResult<K> of(Layout<K> layout, String text, Matcher matcher) {
+        int[] groupNumbers = layout.groupNumbers;
+        int[] offsets = new int[groupNumbers.length * 2];
+        for (int i = 0; i < groupNumbers.length; i++) {
+            offsets[2 * i] = matcher.start(groupNumbers[i]);
+            offsets[2 * i + 1] = matcher.end(groupNumbers[i]);
+        }
+        List<Map<K, String>> nestedResults = null;
+        if (layout.nestedGroups.length > 0) {
+            // ArrayList as it permits null elements
+            nestedResults = new ArrayList<>(layout.nestedGroups.length);
+            for (int i = 0; i < layout.nestedGroups.length; i++) {
+                int group = layout.nestedGroups[i];
+                nestedResults.add(offsets[2 * group] != -1 ? layout.nestedMatchers.get(i).match(text.substring(offsets[2 * group], offsets[2 * group + 1])) : null);
+            }
+        }
+        return new MatchResult<>(layout, text, offsets, nestedResults);
+    }
+
+    @Override
+    public String get(Object key) {
+        Integer ordinal = layout.ordinals.get(key);
+        if (ordinal != null) {
+            return value(ordinal);
+        }
+        return nestedResults != null ? computeValue(-1, key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Integer ordinal = layout.ordinals.get(key);
+        if (ordinal != null) {
+            return hasValue(ordinal);
+        }
+        return nestedContainsKey(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (int ordinal = 0; ordinal < layout.keys.size(); ordinal++) {
+            if (hasValue(ordinal)) {
+                return false;
+            }
+        }
+        if (nestedResults != null) {
+            for (Map<K, String> nestedResult : nestedResults) {
+                if (nestedResult != null && !nestedResult.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Entry<K, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private boolean hasValue(int ordinal) {
+        if (layout.predefinedValues[ordinal] != null) {
+            return true;
+        }
+        for (int group : layout.groupsByOrdinal[ordinal]) {
+            if (offsets[2 * group] != -1) {
+                return true;
+            }
+        }
+        return nestedContainsKey(layout.keys.get(ordinal));
+    }
+
+    private boolean nestedContainsKey(Object key) {
+        if (nestedResults != null) {
+            for (Map<K, String> nestedResult : nestedResults) {
+                if (nestedResult != null && nestedResult.containsKey(key)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String value(int ordinal) {
+        if (values != null && values[ordinal] != null) {
+            return values[ordinal];
+        }
+        String value = computeValue(ordinal, layout.keys.get(ordinal));
+        if (value != null) {
+            if (values == null) {
+                values = new String[layout.keys.size()];
+            }
+            values[ordinal] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Concatenates the predefined value, the values of the groups mapped to the key and the values of the nested results for the key, in the order of the groups.
+     *
+     * @param ordinal
+     *            the ordinal of the key or -1 if the key is only known to the nested matchers
+     */
+    private String computeValue(int ordinal, Object key) {
+        String value = ordinal != -1 ? layout.predefinedValues[ordinal] : null;
+        StringBuilder sb = null;
+        int[] keyGroups = ordinal != -1 ? layout.groupsByOrdinal[ordinal] : NO_GROUPS;
+        int[] nestedGroups = layout.nestedGroups;
+        int k = 0;
+        int n = 0;
+        while (k < keyGroups.length || n < nestedGroups.length) {
+            String part;
+            int start;
+            int end;
+            if (n == nestedGroups.length || (k < keyGroups.length && keyGroups[k] < nestedGroups[n])) {
+                int group = keyGroups[k++];
+                part = text;
+                start = offsets[2 * group];
+                end = offsets[2 * group + 1];
+                if (start == -1) {
+                    // optional group that did not participate
+                    continue;
+                }
+            }
+            else {
+                Map<K, String> nestedResult = nestedResults.get(n++);
+                part = nestedResult != null ? nestedResult.get(key) : null;
+                if (part == null) {
+                    continue;
+                }
+                start = 0;
+                end = part.length();
+            }
+            if (value == null) {
+                value = part.substring(start, end);
+            }
+            else {
+                // concat the values if multiple groups have the same key
+                if (sb == null) {
+                    sb = new StringBuilder(value);
+                }
+                sb.append(PatternMappingMatcher.VALUES_WITH_SAME_KEY_SEPARATOR).append(part, start, end);
+            }
+        }
+        return sb != null ? sb.toString() : value;
+    }
+
+    private List<K> presentKeys() {
+        List<K> presentKeys = new ArrayList<>(layout.keys.size());
+        for (int ordinal = 0; ordinal < layout.keys.size(); ordinal++) {
+            if (hasValue(ordinal)) {
+                presentKeys.add(layout.keys.get(ordinal));
+            }
+        }
+        if (nestedResults != null) {
+            for (Map<K, String> nestedResult : nestedResults) {
+                if (nestedResult != null) {
+                    for (K key : nestedResult.keySet()) {
+                        if (!layout.ordinals.containsKey(key) && !presentKeys.contains(key)) {
+                            presentKeys.add(key);
+                        }
+                    }
+                }
+            }
+        }
+        return presentKeys;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, String>> {
+        @Override
+        public Iterator<Entry<K, String>> iterator() {
+            return Iterators.transform(presentKeys().iterator(), (K key) -> new SimpleImmutableEntry<>(key, get(key)));
+        }
+
+        @Override
+        public int size() {
+            return presentKeys().size();
+        }
+    }
+
+    /**
+     * Describes how the groups of a pattern are mapped to the keys. Created once per matcher.
+     *
+     * @implSpec #immutable #thread-safe
+     */
+    static final class Layout<K> {
+        private final List<K>                 keys;
+        private final Map<K, Integer>         ordinals;
+        private final String[]                predefinedValues;
+        /**
+         * For each key ordinal: the indices (into {@link #groupNumbers}) of the groups which are mapped to the key, ascending.
+         */
+        private final int[][]                 groupsByOrdinal;
+        /**
+         * The indices (into {@link #groupNumbers}) of the groups which are matched by nested matchers, ascending.
+         */
+        private final int[]                   nestedGroups;
+        private final List<MappingMatcher<K>> nestedMatchers;
+        private final int[]                   groupNumbers;
+
+        /**
+         *
+         * @param groups
+         *            the group numbers and their entries. The iteration order is the order in which values of the same key are concatenated
+         * @param predefinedMatches
+         *            the predefined values. They come before the group values of the same key
+         */
+        Layout(Map<Integer, ? extends GroupEntry<K>> groups, Map<K, String> predefinedMatches) {
+            Map<K, List<Integer>> groupIndicesByKey = new LinkedHashMap<>();
+            for (K key : predefinedMatches.keySet()) {
+                groupIndicesByKey.put(key, new ArrayList<>(1));
+            }
+            List<Integer> nestedGroupIndices = new ArrayList<>();
+            ImmutableList.Builder<MappingMatcher<K>> nestedMatchersBuilder = ImmutableList.builder();
+            this.groupNumbers = new int[groups.size()];
+            int groupIndex = 0;
+            for (Map.Entry<Integer, ? extends GroupEntry<K>> entry : groups.entrySet()) {
+                groupNumbers[groupIndex] = entry.getKey();
+                GroupEntry<K> groupEntry = entry.getValue();
+                if (groupEntry instanceof KeyEntry) {
+                    groupIndicesByKey.computeIfAbsent(((KeyEntry<K>) groupEntry).getKey(), (K key) -> new ArrayList<>(1)).add(groupIndex);
+                }
+                else {
+                    nestedGroupIndices.add(groupIndex);
+                    nestedMatchersBuilder.add(((MatcherEntry<K>) groupEntry).getMatcher());
+                }
+                groupIndex++;
+            }
+            this.nestedGroups = Ints.toArray(nestedGroupIndices);
+            this.nestedMatchers = nestedMatchersBuilder.build();
+            int size = groupIndicesByKey.size();
+            ImmutableList.Builder<K> keysBuilder = ImmutableList.builder();
+            ImmutableMap.Builder<K, Integer> ordinalsBuilder = ImmutableMap.builder();
+            this.predefinedValues = new String[size];
+            this.groupsByOrdinal = new int[size][];
+            int ordinal = 0;
+            for (Map.Entry<K, List<Integer>> entry : groupIndicesByKey.entrySet()) {
+                keysBuilder.add(entry.getKey());
+                ordinalsBuilder.put(entry.getKey(), ordinal);
+                predefinedValues[ordinal] = predefinedMatches.get(entry.getKey());
+                groupsByOrdinal[ordinal] = Ints.toArray(entry.getValue());
+                ordinal++;
+            }
+            this.keys = keysBuilder.build();
+            this.ordinals = ordinalsBuilder.build();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.subcentral.core.parse;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Parses a range of texts by splitting it in halves until the ranges are small enough to be parsed sequentially. Each result is written to the index of its text, so the
+ * order of the texts is preserved.
+ *
+ * @see ParsingService#parseAll(java.util.Collection, Class, java.util.concurrent.ForkJoinPool)
+ */
+class ParseAllTask<T> extends RecursiveAction {
+    private static final long         serialVersionUID = 6309637312917305838L;
+
+    private final List<String>        texts;
+    private final Function<String, T> parseOperation;
+    private final Object[]            results;
+    private final int                 from;
+    private final int                 to;
+    private final int                 threshold;
+
+    ParseAllTask(List<String> texts, Function<String, T> parseOperation, Object[] results, int from, int to, int threshold) {
+        this.texts = texts;
+        this.parseOperation = parseOperation;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            for (int i = from; i < to; i++) {
+                results[i] = parseOperation.apply(texts.get(i));
+            }
+        }
+        else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseAllTask<>(texts, parseOperation, results, from, middle, threshold),
+                    new ParseAllTask<>(texts, parseOperation, results, middle, to, threshold));
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package de.subcentral.core.parse;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import de.subcentral.core.util.Service;
@@ -36,6 +44,41 @@ public interface ParsingService extends Service, Function<String, Object> {
      */
     public Object parse(String text, Set<Class<?>> targetTypes);
 
+    /**
+     * Parses the texts in parallel in the {@link ForkJoinPool#commonPool() common pool}.
+     * 
+     * @see #parseAll(Collection, Class, ForkJoinPool)
+     */
+    public default <T> List<T> parseAll(Collection<String> texts, Class<T> targetType) {
+        return parseAll(texts, targetType, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses many texts (for example a list of release names) in parallel. The texts are split into ranges which are parsed by the threads of the given pool, each range by
+     * calls of {@link #parse(String, Class)}. So this service has to be thread-safe.
+     * 
+     * @param texts
+     *            the texts which should be parsed to objects
+     * @param targetType
+     *            the type of the parsed objects
+     * @param pool
+     *            the pool to parse in
+     * @return the parsed objects in the order of the texts. The list contains null for each text that could not be parsed
+     */
+    public default <T> List<T> parseAll(Collection<String> texts, Class<T> targetType, ForkJoinPool pool) {
+        Objects.requireNonNull(targetType, "targetType");
+        List<String> textList = texts instanceof List && texts instanceof RandomAccess ? (List<String>) texts : new ArrayList<>(texts);
+        Object[] results = new Object[textList.size()];
+        if (!textList.isEmpty()) {
+            // several ranges per thread so that threads which finish early can steal work
+            int threshold = Math.max(1, textList.size() / (pool.getParallelism() * 8));
+            pool.invoke(new ParseAllTask<>(textList, (String text) -> parse(text, targetType), results, 0, results.length, threshold));
+        }
+        @SuppressWarnings("unchecked")
+        List<T> resultList = (List<T>) Arrays.asList(results);
+        return Collections.unmodifiableList(resultList);
+    }
+
     @Override
     public default Object apply(String text) {
         return parse(text);
@@ -1,6 +1,5 @@
 package de.subcentral.core.parse;
 
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.ParameterizedType;
 import java.util.Collection;
 import java.util.Collections;
@@ -16,6 +15,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
 
+import de.subcentral.core.util.PropertyAccessor;
 import de.subcentral.core.util.SimplePropDescriptor;
 
 public class ParsingUtil {
@@ -32,21 +32,21 @@ public class ParsingUtil {
             SimplePropDescriptor simplePropDescr = p.getKey();
             if (targetType.equals(simplePropDescr.getBeanClass())) {
                 try {
-                    PropertyDescriptor propDescr = simplePropDescr.toPropertyDescriptor();
-                    TypeToken<?> type = TypeToken.of(propDescr.getReadMethod().getGenericParameterTypes()[0]);
+                    PropertyAccessor<T, Object> accessor = PropertyAccessor.of(simplePropDescr);
+                    TypeToken<?> type = TypeToken.of(accessor.getGenericType());
                     if (Collection.class.isAssignableFrom(type.getRawType())) {
                         ParameterizedType genericType = (ParameterizedType) type.getType();
                         Class<?> itemClass = (Class<?>) genericType.getActualTypeArguments()[0];
                         List<?> value = parsePropService.parseList(p.getValue(), simplePropDescr, itemClass);
                         if (Set.class.isAssignableFrom(type.getRawType())) {
-                            simplePropDescr.toPropertyDescriptor().getWriteMethod().invoke(bean, ImmutableSet.copyOf(value));
+                            accessor.set(bean, ImmutableSet.copyOf(value));
                         }
                         else {
-                            simplePropDescr.toPropertyDescriptor().getWriteMethod().invoke(bean, value);
+                            accessor.set(bean, value);
                         }
                     }
                     else {
-                        simplePropDescr.toPropertyDescriptor().getWriteMethod().invoke(bean, parsePropService.parse(p.getValue(), simplePropDescr, type.wrap().getRawType()));
+                        accessor.set(bean, parsePropService.parse(p.getValue(), simplePropDescr, type.wrap().getRawType()));
                     }
 
                 }
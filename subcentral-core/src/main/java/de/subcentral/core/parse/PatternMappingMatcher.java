@@ -1,6 +1,5 @@
 package de.subcentral.core.parse;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.regex.Matcher;
@@ -8,6 +7,7 @@ import java.util.regex.Pattern;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 
 public class PatternMappingMatcher<K> implements MappingMatcher<K> {
     /**
@@ -15,9 +15,14 @@ public class PatternMappingMatcher<K> implements MappingMatcher<K> {
      */
     public static final String    VALUES_WITH_SAME_KEY_SEPARATOR = " ";
 
-    private final Pattern         pattern;
-    private final Map<Integer, K> groups;
-    private final Map<K, String>  predefinedMatches;
+    private final Pattern               pattern;
+    private final Map<Integer, K>       groups;
+    private final Map<K, String>        predefinedMatches;
+    /**
+     * Each thread resets its own matcher instead of creating a new one for every text.
+     */
+    private final ThreadLocal<Matcher>  matcher;
+    private final MatchResult.Layout<K> layout;
 
     public PatternMappingMatcher(Pattern pattern, Map<Integer, K> groups) {
         this(pattern, groups, ImmutableMap.of());
@@ -27,6 +32,8 @@ public class PatternMappingMatcher<K> implements MappingMatcher<K> {
         this.pattern = Objects.requireNonNull(pattern, "pattern");
         this.groups = ImmutableMap.copyOf(groups); // includes null checks
         this.predefinedMatches = ImmutableMap.copyOf(predefinedMatches); // includes null checks
+        this.matcher = ThreadLocal.withInitial(() -> this.pattern.matcher(""));
+        this.layout = new MatchResult.Layout<>(Maps.transformValues(this.groups, CompoundMappingMatcher.GroupEntry::ofKey), this.predefinedMatches);
     }
 
     public Pattern getPattern() {
@@ -59,20 +66,9 @@ public class PatternMappingMatcher<K> implements MappingMatcher<K> {
         if (text == null) {
             return ImmutableMap.of();
         }
-        Matcher m = pattern.matcher(text);
+        Matcher m = matcher.get().reset(text);
         if (m.matches()) {
-            Map<K, String> mappedGroups = new HashMap<>(groups.size() + predefinedMatches.size());
-            mappedGroups.putAll(predefinedMatches);
-            for (Map.Entry<Integer, K> entry : groups.entrySet()) {
-                K groupKey = entry.getValue();
-                String groupValue = m.group(entry.getKey());
-                // groupVal can be null for optional groups
-                if (groupValue != null) {
-                    // concat the values if multiple groups have the same key
-                    mappedGroups.merge(groupKey, groupValue, (String oldVal, String newVal) -> oldVal + VALUES_WITH_SAME_KEY_SEPARATOR + newVal);
-                }
-            }
-            return mappedGroups;
+            return MatchResult.of(layout, text, m);
         }
         return ImmutableMap.of();
     }
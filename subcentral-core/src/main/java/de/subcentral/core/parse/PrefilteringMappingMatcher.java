@@ -0,0 +1,125 @@
+package de.subcentral.core.parse;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+/**
+ * A {@link MappingMatcher} which - like {@link MultiMappingMatcher} - returns the result of the first matching matcher. But instead of trying every matcher in order, the text is
+ * scanned once for its {@link Anchor anchors} and only the matchers whose required anchors are all present are tried.
+ * <p>
+ * For every possible combination of present anchors the list of candidate matchers is computed on construction. So the dispatch is one scan of the text plus one array lookup.
+ * Texts which cannot match a matcher because they lack a required anchor (for example an Addic7ed.com name for a scene release pattern) are rejected without running any regular
+ * expression.
+ * </p>
+ * <p>
+ * The required anchors of a matcher have to be a necessary condition for a match. Otherwise matches are lost.
+ * </p>
+ *
+ * @implSpec #immutable #thread-safe
+ */
+public class PrefilteringMappingMatcher<K> implements MappingMatcher<K> {
+    private final List<AnchoredMatcher<K>>      matchers;
+    private final List<List<MappingMatcher<K>>> candidatesByAnchors;
+
+    public PrefilteringMappingMatcher(List<AnchoredMatcher<K>> matchers) {
+        this.matchers = ImmutableList.copyOf(matchers);
+        this.candidatesByAnchors = compile(this.matchers);
+    }
+
+    private static <K> List<List<MappingMatcher<K>>> compile(List<AnchoredMatcher<K>> matchers) {
+        int maskCount = Anchor.allMask() + 1;
+        ImmutableList.Builder<List<MappingMatcher<K>>> candidates = ImmutableList.builder();
+        for (int presentMask = 0; presentMask < maskCount; presentMask++) {
+            ImmutableList.Builder<MappingMatcher<K>> candidatesForMask = ImmutableList.builder();
+            for (AnchoredMatcher<K> m : matchers) {
+                if ((m.requiredAnchorsMask & presentMask) == m.requiredAnchorsMask) {
+                    candidatesForMask.add(m.matcher);
+                }
+            }
+            candidates.add(candidatesForMask.build());
+        }
+        return candidates.build();
+    }
+
+    public List<AnchoredMatcher<K>> getMatchers() {
+        return matchers;
+    }
+
+    /**
+     *
+     * @param text
+     *            the text
+     * @return the matchers which may match the given text, in order
+     */
+    public List<MappingMatcher<K>> getCandidates(String text) {
+        return candidatesByAnchors.get(Anchor.scan(text));
+    }
+
+    @Override
+    public Map<K, String> match(String text) {
+        if (text == null) {
+            return ImmutableMap.of();
+        }
+        for (MappingMatcher<K> matcher : getCandidates(text)) {
+            Map<K, String> matchResult = matcher.match(text);
+            if (!matchResult.isEmpty()) {
+                return matchResult;
+            }
+        }
+        return ImmutableMap.of();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PrefilteringMappingMatcher.class).add("matchers", matchers).toString();
+    }
+
+    public static final class AnchoredMatcher<K> {
+        private final MappingMatcher<K> matcher;
+        private final Set<Anchor>       requiredAnchors;
+        private final int               requiredAnchorsMask;
+
+        private AnchoredMatcher(MappingMatcher<K> matcher, Set<Anchor> requiredAnchors) {
+            this.matcher = Objects.requireNonNull(matcher, "matcher");
+            this.requiredAnchors = Sets.immutableEnumSet(requiredAnchors);
+            this.requiredAnchorsMask = Anchor.mask(this.requiredAnchors);
+        }
+
+        /**
+         *
+         * @param matcher
+         *            the matcher
+         * @param requiredAnchors
+         *            the anchors that any text matched by the matcher contains. If none are specified, the matcher is tried for every text
+         * @return the anchored matcher
+         */
+        public static <K> AnchoredMatcher<K> of(MappingMatcher<K> matcher, Anchor... requiredAnchors) {
+            EnumSet<Anchor> anchors = EnumSet.noneOf(Anchor.class);
+            for (Anchor a : requiredAnchors) {
+                anchors.add(a);
+            }
+            return new AnchoredMatcher<>(matcher, anchors);
+        }
+
+        public MappingMatcher<K> getMatcher() {
+            return matcher;
+        }
+
+        public Set<Anchor> getRequiredAnchors() {
+            return requiredAnchors;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(AnchoredMatcher.class).add("matcher", matcher).add("requiredAnchors", requiredAnchors).toString();
+        }
+    }
+}
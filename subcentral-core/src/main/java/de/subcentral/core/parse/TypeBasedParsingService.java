@@ -1,22 +1,31 @@
 package de.subcentral.core.parse;
 
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 /**
+ * The parsers applicable for a requested target type (or set of target types) are resolved once and then cached until a parser is (un)registered.
  * 
  * @implSpec #thread-safe
  *
  */
 public class TypeBasedParsingService implements ParsingService {
-    private final String               name;
-    private final List<ParserEntry<?>> entries = new CopyOnWriteArrayList<>();
+    private final String                                  name;
+    private final List<ParserEntry<?>>                    entries        = new CopyOnWriteArrayList<>();
+    /**
+     * Replaced (not cleared) on every change so that a dispatch computed from the old registrations can never end up in the current cache.
+     */
+    private volatile Map<Set<Class<?>>, List<Parser<?>>> parsersByTypes = new ConcurrentHashMap<>(8);
 
     public TypeBasedParsingService(String name) {
         this.name = Objects.requireNonNull(name, "name");
@@ -28,7 +37,7 @@ public class TypeBasedParsingService implements ParsingService {
     }
 
     public List<ParserEntry<?>> getEntries() {
-        return entries;
+        return Collections.unmodifiableList(entries);
     }
 
     @Override
@@ -42,6 +51,7 @@ public class TypeBasedParsingService implements ParsingService {
 
     public <T> void register(Class<T> targetType, Parser<T> parser) {
         entries.add(new ParserEntry<T>(targetType, parser));
+        invalidateDispatchCache();
     }
 
     public <T> void registerAll(Class<T> targetType, Iterable<Parser<T>> parsers) {
@@ -51,11 +61,10 @@ public class TypeBasedParsingService implements ParsingService {
     }
 
     public boolean unregister(Parser<?> parser) {
-        Iterator<ParserEntry<?>> iter = entries.iterator();
-        while (iter.hasNext()) {
-            ParserEntry<?> entry = iter.next();
+        for (ParserEntry<?> entry : entries) {
             if (entry.parser.equals(parser)) {
-                iter.remove();
+                entries.remove(entry);
+                invalidateDispatchCache();
                 return true;
             }
         }
@@ -74,6 +83,11 @@ public class TypeBasedParsingService implements ParsingService {
 
     public void unregisterAll() {
         entries.clear();
+        invalidateDispatchCache();
+    }
+
+    private void invalidateDispatchCache() {
+        parsersByTypes = new ConcurrentHashMap<>(8);
     }
 
     @Override
@@ -90,18 +104,10 @@ public class TypeBasedParsingService implements ParsingService {
     @Override
     public <T> T parse(String text, Class<T> targetType) {
         Objects.requireNonNull(targetType, "targetType cannot be null. For untyped parsing use #parse(String).");
-        for (ParserEntry<?> entry : entries) {
-            if (targetType.isAssignableFrom(entry.targetType)) {
-                // save cast because targetType is super type of parser's type
-                @SuppressWarnings("unchecked")
-                Parser<? extends T> parser = (Parser<? extends T>) entry.parser;
-                T parsedObj = parser.parse(text);
-                if (parsedObj != null) {
-                    return parsedObj;
-                }
-            }
-        }
-        return null;
+        // safe cast because targetType is a super type of the parsers' types
+        @SuppressWarnings("unchecked")
+        T parsedObj = (T) parse(text, getParsers(ImmutableSet.of(targetType)));
+        return parsedObj;
     }
 
     @Override
@@ -109,18 +115,40 @@ public class TypeBasedParsingService implements ParsingService {
         if (targetTypes.isEmpty()) {
             return parse(text);
         }
+        return parse(text, getParsers(targetTypes));
+    }
+
+    private static Object parse(String text, List<Parser<?>> parsers) {
+        for (int i = 0; i < parsers.size(); i++) {
+            Object parsedObj = parsers.get(i).parse(text);
+            if (parsedObj != null) {
+                return parsedObj;
+            }
+        }
+        return null;
+    }
+
+    private List<Parser<?>> getParsers(Set<Class<?>> targetTypes) {
+        // read the cache before the registrations (see #parsersByTypes)
+        Map<Set<Class<?>>, List<Parser<?>>> cache = parsersByTypes;
+        List<Parser<?>> parsers = cache.get(targetTypes);
+        if (parsers == null) {
+            parsers = cache.computeIfAbsent(ImmutableSet.copyOf(targetTypes), this::createParsers);
+        }
+        return parsers;
+    }
+
+    private List<Parser<?>> createParsers(Set<Class<?>> targetTypes) {
+        ImmutableList.Builder<Parser<?>> parsers = ImmutableList.builder();
         for (ParserEntry<?> entry : entries) {
             for (Class<?> targetType : targetTypes) {
                 if (targetType.isAssignableFrom(entry.targetType)) {
-                    Parser<?> parser = entry.parser;
-                    Object parsedObj = parser.parse(text);
-                    if (parsedObj != null) {
-                        return parsedObj;
-                    }
+                    parsers.add(entry.parser);
+                    break;
                 }
             }
         }
-        return null;
+        return parsers.build();
     }
 
     @Override
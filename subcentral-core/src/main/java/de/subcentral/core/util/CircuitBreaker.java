@@ -0,0 +1,362 @@
+package de.subcentral.core.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Protects callers from a remote service which fails or is very slow. The breaker records the outcome and the latency of the last calls in a rolling window. If the failure
+ * rate or the rate of slow calls in the window reaches its threshold, the circuit {@link State#OPEN opens}: every call is rejected immediately with a
+ * {@link CircuitBreakerOpenException} instead of waiting for the remote service.
+ * <p>
+ * While the circuit is open, the breaker periodically runs the {@link Probe} in the background ({@link State#HALF_OPEN}). Once a probe succeeds, the circuit closes again and
+ * calls are permitted.
+ * </p>
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * breaker.acquirePermission();
+ * long start = System.nanoTime();
+ * try {
+ *     doCall();
+ *     breaker.onSuccess(System.nanoTime() - start);
+ * }
+ * catch (IOException e) {
+ *     breaker.onFailure(System.nanoTime() - start);
+ *     throw e;
+ * }
+ * </pre>
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class CircuitBreaker {
+    private static final Logger log                              = LogManager.getLogger(CircuitBreaker.class);
+
+    public static final int     DEFAULT_WINDOW_SIZE              = 20;
+    public static final int     DEFAULT_MINIMUM_CALLS            = 5;
+    public static final double  DEFAULT_FAILURE_RATE_THRESHOLD   = 0.5d;
+    public static final double  DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8d;
+
+    public enum State {
+        /**
+         * Calls are permitted and their outcomes are recorded.
+         */
+        CLOSED,
+        /**
+         * Calls are rejected. The breaker waits before the next probe.
+         */
+        OPEN,
+        /**
+         * Calls are rejected. The probe is running.
+         */
+        HALF_OPEN
+    }
+
+    /**
+     * Checks whether the remote service has recovered. Called in a background thread. The probe may block (for example on a remote call), it does not delay the probes of
+     * other breakers.
+     */
+    @FunctionalInterface
+    public static interface Probe {
+        /**
+         *
+         * @return true if the remote service has recovered
+         * @throws Exception
+         *             if the remote service has not recovered
+         */
+        boolean probe() throws Exception;
+    }
+
+    private final String                name;
+    private final Probe                 probe;
+    private final long                  openDurationNanos;
+    private final int                   minimumCalls;
+    private final double                failureRateThreshold;
+    private final double                slowCallRateThreshold;
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+
+    // Rolling window (ring buffer) of the last calls. Guarded by this
+    private final boolean[]             failedCalls;
+    private final boolean[]             slowCalls;
+    private final long[]                latencies;
+    private int                         next;
+    private int                         recordedCalls;
+    private State                       state     = State.CLOSED;
+    private String                      openReason;
+    private long                        slowCallThresholdNanos;
+
+    /**
+     * Creates a breaker with the default window size, minimum number of calls and thresholds.
+     *
+     * @param name
+     *            the name (for logging)
+     * @param probe
+     *            the probe
+     * @param slowCallThreshold
+     *            calls which take longer are slow
+     * @param openDuration
+     *            the time to wait before a probe
+     */
+    public CircuitBreaker(String name, Probe probe, Duration slowCallThreshold, Duration openDuration) {
+        this(name, probe, slowCallThreshold, openDuration, DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_CALL_RATE_THRESHOLD);
+    }
+
+    /**
+     *
+     * @param name
+     *            the name (for logging)
+     * @param probe
+     *            the probe
+     * @param slowCallThreshold
+     *            calls which take longer are slow
+     * @param openDuration
+     *            the time to wait before a probe
+     * @param windowSize
+     *            the number of calls in the rolling window
+     * @param minimumCalls
+     *            the minimum number of calls in the window before the rates are evaluated
+     * @param failureRateThreshold
+     *            the failure rate (0.0 - 1.0) at which the circuit opens
+     * @param slowCallRateThreshold
+     *            the rate of slow calls (0.0 - 1.0) at which the circuit opens
+     */
+    public CircuitBreaker(String name,
+            Probe probe,
+            Duration slowCallThreshold,
+            Duration openDuration,
+            int windowSize,
+            int minimumCalls,
+            double failureRateThreshold,
+            double slowCallRateThreshold) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("windowSize and minimumCalls must be positive and minimumCalls must not be greater than windowSize: " + windowSize + ", "
+                    + minimumCalls);
+        }
+        this.name = Objects.requireNonNull(name, "name");
+        this.probe = Objects.requireNonNull(probe, "probe");
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+        this.openDurationNanos = openDuration.toNanos();
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.failedCalls = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+        this.latencies = new long[windowSize];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized Duration getSlowCallThreshold() {
+        return Duration.ofNanos(slowCallThresholdNanos);
+    }
+
+    /**
+     *
+     * @param slowCallThreshold
+     *            calls which take longer are slow. Applies to the calls which are recorded from now on
+     */
+    public synchronized void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     *
+     * @return why the circuit was opened or null if it is closed
+     */
+    public synchronized String getOpenReason() {
+        return openReason;
+    }
+
+    /**
+     *
+     * @return the average latency of the calls in the window (in milliseconds) or -1 if there are none
+     */
+    public synchronized long getAverageLatencyMillis() {
+        if (recordedCalls == 0) {
+            return -1L;
+        }
+        long sum = 0L;
+        for (int i = 0; i < recordedCalls; i++) {
+            sum += latencies[i];
+        }
+        return TimeUnit.NANOSECONDS.toMillis(sum / recordedCalls);
+    }
+
+    /**
+     *
+     * @param listener
+     *            notified after each state change (in the thread which caused the change)
+     */
+    public void addListener(Consumer<State> listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    public void removeListener(Consumer<State> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     *
+     * @throws CircuitBreakerOpenException
+     *             if the circuit is not closed
+     */
+    public synchronized void acquirePermission() throws CircuitBreakerOpenException {
+        if (state != State.CLOSED) {
+            throw new CircuitBreakerOpenException("Circuit breaker " + name + " is " + state + " (" + openReason + ")");
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        record(false, latencyNanos);
+    }
+
+    public void onFailure(long latencyNanos) {
+        record(true, latencyNanos);
+    }
+
+    private void record(boolean failure, long latencyNanos) {
+        synchronized (this) {
+            if (state != State.CLOSED) {
+                // a call which was permitted before the circuit opened
+                return;
+            }
+            failedCalls[next] = failure;
+            slowCalls[next] = latencyNanos > slowCallThresholdNanos;
+            latencies[next] = latencyNanos;
+            next = (next + 1) % latencies.length;
+            if (recordedCalls < latencies.length) {
+                recordedCalls++;
+            }
+            if (recordedCalls < minimumCalls) {
+                return;
+            }
+            int failed = 0;
+            int slow = 0;
+            for (int i = 0; i < recordedCalls; i++) {
+                if (failedCalls[i]) {
+                    failed++;
+                }
+                if (slowCalls[i]) {
+                    slow++;
+                }
+            }
+            double failureRate = (double) failed / recordedCalls;
+            double slowCallRate = (double) slow / recordedCalls;
+            if (failureRate >= failureRateThreshold) {
+                open(String.format("failure rate %.0f%% of the last %d calls", failureRate * 100d, recordedCalls));
+            }
+            else if (slowCallRate >= slowCallRateThreshold) {
+                open(String.format("slow call rate %.0f%% of the last %d calls", slowCallRate * 100d, recordedCalls));
+            }
+            else {
+                return;
+            }
+        }
+        notifyListeners(State.OPEN);
+    }
+
+    // guarded by this
+    private void open(String reason) {
+        log.warn("Opening circuit breaker {}: {}. Probing again in {} ms", name, reason, TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        state = State.OPEN;
+        openReason = reason;
+        scheduleProbe();
+    }
+
+    // guarded by this
+    private void scheduleProbe() {
+        // the scheduler thread only hands the probe over, so a blocking probe does not delay the others
+        ProbeScheduler.SCHEDULER.schedule(() -> ProbeScheduler.EXECUTOR.execute(this::runProbe), openDurationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void runProbe() {
+        synchronized (this) {
+            state = State.HALF_OPEN;
+        }
+        notifyListeners(State.HALF_OPEN);
+        boolean recovered;
+        try {
+            recovered = probe.probe();
+        }
+        catch (Exception e) {
+            log.debug("Probe of circuit breaker " + name + " failed", e);
+            recovered = false;
+        }
+        State newState;
+        synchronized (this) {
+            if (recovered) {
+                log.info("Closing circuit breaker {}: probe succeeded", name);
+                state = State.CLOSED;
+                openReason = null;
+                next = 0;
+                recordedCalls = 0;
+            }
+            else {
+                log.debug("Circuit breaker {} stays open: probe failed", name);
+                state = State.OPEN;
+                scheduleProbe();
+            }
+            newState = state;
+        }
+        notifyListeners(newState);
+    }
+
+    private void notifyListeners(State newState) {
+        for (Consumer<State> listener : listeners) {
+            try {
+                listener.accept(newState);
+            }
+            catch (RuntimeException e) {
+                log.warn("Listener of circuit breaker " + name + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(CircuitBreaker.class).omitNullValues().add("name", name).add("state", state).add("openReason", openReason).toString();
+    }
+
+    /**
+     * Thrown if a call is rejected because the circuit is open.
+     */
+    public static class CircuitBreakerOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitBreakerOpenException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class ProbeScheduler {
+        private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("CircuitBreaker-ProbeScheduler", true));
+        // at most one probe per open breaker is running. So the number of threads is bounded by the number of breakers
+        private static final ExecutorService             EXECUTOR  = new ThreadPoolExecutor(0,
+                Integer.MAX_VALUE,
+                60L,
+                TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new NamedThreadFactory("CircuitBreaker-Probe", true));
+    }
+}
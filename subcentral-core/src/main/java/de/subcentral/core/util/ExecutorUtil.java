@@ -0,0 +1,79 @@
+package de.subcentral.core.util;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class ExecutorUtil {
+    private static final Logger log = LogManager.getLogger(ExecutorUtil.class);
+
+    /**
+     * Creates an executor which starts a new thread for each task. Meant for tasks which spend most of their time waiting for I/O (like requests to metadata databases).
+     * <p>
+     * If the runtime supports virtual threads (Java 21+), each task runs in a virtual thread, so blocking is cheap and the number of concurrent tasks is not limited by a pool.
+     * Otherwise a cached thread pool of daemon threads is used.
+     * </p>
+     *
+     * @param baseName
+     *            the base name of the threads of the cached thread pool (virtual threads are unnamed)
+     * @return the executor
+     */
+    public static ExecutorService newPerTaskExecutor(String baseName) {
+        try {
+            // looked up reflectively because the code is compiled for Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (NoSuchMethodException e) {
+            log.debug("Virtual threads are not supported by this runtime. Using a cached thread pool");
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Could not create virtual thread executor. Using a cached thread pool", e);
+        }
+        return Executors.newCachedThreadPool(new NamedThreadFactory(baseName, true));
+    }
+
+    /**
+     * Completes the given future with a {@link TimeoutException} if it is not completed before the given timeout (like {@code CompletableFuture.orTimeout()} of Java 9).
+     *
+     * @param future
+     *            the future
+     * @param timeout
+     *            the timeout
+     * @return the given future
+     */
+    public static <T> CompletableFuture<T> orTimeout(CompletableFuture<T> future, Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout");
+        if (future.isDone()) {
+            return future;
+        }
+        ScheduledFuture<?> timeoutTask = TimeoutScheduler.INSTANCE
+                .schedule(() -> future.completeExceptionally(new TimeoutException("Timeout of " + timeout.toMillis() + " ms exceeded")), timeout.toNanos(), TimeUnit.NANOSECONDS);
+        future.whenComplete((T result, Throwable t) -> timeoutTask.cancel(false));
+        return future;
+    }
+
+    private static final class TimeoutScheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE = createScheduler();
+
+        private static ScheduledThreadPoolExecutor createScheduler() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("Timeout-Scheduler", true));
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
+    private ExecutorUtil() {
+        throw new AssertionError(getClass() + " is an utility class and therefore cannot be instantiated");
+    }
+}
@@ -0,0 +1,272 @@
+package de.subcentral.core.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Passes on files once they are ready to be read, that is, once they were not modified for the {@link #getQuiescencePeriod() quiescence period} and are not locked by another
+ * process (see {@link IOUtil#isLocked(Path)}). A file is {@link #track(Path) tracked} when it is created and every time it is modified (typically on the events of a
+ * {@link java.nio.file.WatchService}). Every tracking restarts the timer of the file.
+ * <p>
+ * All timers run on one scheduler thread, so any number of files which are being written cost no threads. The checks are cheap (the attributes of the file are read and it is
+ * checked for a lock). If a file changed without being tracked again or if it is locked, it is checked again after another quiescence period. Files which do not become ready
+ * within the {@link #getMaxWait() maximum wait} are given up. Files which no longer exist are dropped.
+ * </p>
+ * <p>
+ * The consumer is called in the scheduler thread. It should return quickly and hand the files on to other threads if it has to do more work.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class FileReadinessTracker implements Closeable {
+    private static final Logger                    log              = LogManager.getLogger(FileReadinessTracker.class);
+
+    public static final Duration                   DEFAULT_MAX_WAIT = Duration.ofHours(1L);
+
+    private final Consumer<Path>                   readyFileConsumer;
+    private final ScheduledThreadPoolExecutor      scheduler;
+    private final ConcurrentMap<Path, TrackedFile> trackedFiles     = new ConcurrentHashMap<>();
+    private volatile Duration                      quiescencePeriod;
+    private volatile Duration                      maxWait          = DEFAULT_MAX_WAIT;
+    private volatile boolean                       closed;
+
+    /**
+     *
+     * @param quiescencePeriod
+     *            the time a file has to remain unchanged before it is ready
+     * @param readyFileConsumer
+     *            the consumer of the ready files
+     */
+    public FileReadinessTracker(Duration quiescencePeriod, Consumer<Path> readyFileConsumer) {
+        setQuiescencePeriod(quiescencePeriod);
+        this.readyFileConsumer = Objects.requireNonNull(readyFileConsumer, "readyFileConsumer");
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("FileReadinessTracker", true));
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    public Duration getQuiescencePeriod() {
+        return quiescencePeriod;
+    }
+
+    /**
+     * Applies to the files which are tracked afterwards.
+     *
+     * @param quiescencePeriod
+     *            the time a file has to remain unchanged before it is ready (must not be negative)
+     */
+    public void setQuiescencePeriod(Duration quiescencePeriod) {
+        Objects.requireNonNull(quiescencePeriod, "quiescencePeriod");
+        if (quiescencePeriod.isNegative()) {
+            throw new IllegalArgumentException("quiescencePeriod must not be negative: " + quiescencePeriod);
+        }
+        this.quiescencePeriod = quiescencePeriod;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = Objects.requireNonNull(maxWait, "maxWait");
+    }
+
+    /**
+     * Starts or restarts the timer of the given file. Ignored if the tracker is {@link #close() closed}.
+     *
+     * @param file
+     *            the file which was created or modified
+     */
+    public void track(Path file) {
+        Objects.requireNonNull(file, "file");
+        if (closed) {
+            log.debug("Ignoring {} because the tracker is closed", file);
+            return;
+        }
+        FileState state = FileState.read(file);
+        try {
+            trackedFiles.compute(file, (Path f, TrackedFile previous) -> {
+                if (previous != null) {
+                    previous.timer.cancel(false);
+                }
+                long firstTracked = previous != null ? previous.firstTracked : System.nanoTime();
+                return schedule(file, firstTracked, state);
+            });
+        }
+        catch (RejectedExecutionException e) {
+            // closed concurrently
+            log.debug("Ignoring {} because the tracker is closed", file);
+        }
+    }
+
+    public void trackAll(Collection<Path> files) {
+        for (Path file : files) {
+            track(file);
+        }
+    }
+
+    /**
+     *
+     * @param file
+     *            the file
+     * @return true if the file was tracked
+     */
+    public boolean untrack(Path file) {
+        TrackedFile tracked = trackedFiles.remove(file);
+        if (tracked != null) {
+            tracked.timer.cancel(false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @return the number of files which are not ready yet
+     */
+    public int getTrackedCount() {
+        return trackedFiles.size();
+    }
+
+    private TrackedFile schedule(Path file, long firstTracked, FileState state) {
+        TrackedFile tracked = new TrackedFile(firstTracked, state);
+        tracked.timer = scheduler.schedule(() -> check(file, tracked), quiescencePeriod.toNanos(), TimeUnit.NANOSECONDS);
+        return tracked;
+    }
+
+    private void check(Path file, TrackedFile tracked) {
+        if (trackedFiles.get(file) != tracked) {
+            // tracked again in the meantime
+            return;
+        }
+        FileState state = FileState.read(file);
+        if (state == null) {
+            log.debug("Dropping {} because it does not exist anymore", file);
+            trackedFiles.remove(file, tracked);
+            return;
+        }
+        if (System.nanoTime() - tracked.firstTracked > maxWait.toNanos()) {
+            log.warn("Giving up on {} because it did not become ready within {}", file, maxWait);
+            trackedFiles.remove(file, tracked);
+            return;
+        }
+        boolean locked;
+        try {
+            locked = IOUtil.isLocked(file);
+        }
+        catch (IOException e) {
+            log.debug("Could not check whether {} is locked: {}", file, e.toString());
+            locked = true;
+        }
+        if (locked || !state.equals(tracked.state)) {
+            log.trace("{} is not ready yet (locked={}, state={}, previous state={})", file, locked, state, tracked.state);
+            TrackedFile next = schedule(file, tracked.firstTracked, state);
+            if (!trackedFiles.replace(file, tracked, next)) {
+                next.timer.cancel(false);
+            }
+            return;
+        }
+        if (trackedFiles.remove(file, tracked)) {
+            log.debug("{} is ready after {} ms", file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tracked.firstTracked));
+            try {
+                readyFileConsumer.accept(file);
+            }
+            catch (RuntimeException e) {
+                log.error("Exception while passing on ready file " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking. The files which are not ready yet are not passed on and files which are tracked afterwards are ignored.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        trackedFiles.clear();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(FileReadinessTracker.class)
+                .add("quiescencePeriod", quiescencePeriod)
+                .add("maxWait", maxWait)
+                .add("trackedFiles", trackedFiles.size())
+                .toString();
+    }
+
+    private static final class TrackedFile {
+        private final long         firstTracked;
+        private final FileState    state;
+        private ScheduledFuture<?> timer;
+
+        private TrackedFile(long firstTracked, FileState state) {
+            this.firstTracked = firstTracked;
+            this.state = state;
+        }
+    }
+
+    private static final class FileState {
+        private final long size;
+        private final long lastModified;
+
+        private FileState(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         *
+         * @return the state or null if the file does not exist (anymore)
+         */
+        private static FileState read(Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return new FileState(attrs.size(), attrs.lastModifiedTime().toMillis());
+            }
+            catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof FileState) {
+                FileState o = (FileState) obj;
+                return size == o.size && lastModified == o.lastModified;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(FileState.class).add("size", size).add("lastModified", lastModified).toString();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.FileSystemException;
@@ -12,6 +14,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.ExecutorService;
@@ -25,9 +29,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.io.BaseEncoding;
 
 public class IOUtil {
-    private static final Logger log = LogManager.getLogger(IOUtil.class);
+    private static final Logger                 log              = LogManager.getLogger(IOUtil.class);
+
+    private static final int                    HASH_BUFFER_SIZE = 64 * 1024;
+    // allocating direct buffers is expensive, so each thread reuses its buffer
+    private static final ThreadLocal<ByteBuffer> HASH_BUFFER      = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(HASH_BUFFER_SIZE));
 
     private IOUtil() {
         throw new AssertionError(getClass() + " is an utility class and therefore cannot be instantiated");
@@ -132,6 +141,36 @@ public class IOUtil {
         return new String[] { filename.substring(0, indexOfLastDot), filename.substring(indexOfLastDot, filename.length()) };
     }
 
+    /**
+     * Computes the SHA-256 hash of the content of the given file. The file is streamed through a {@link FileChannel} into a direct buffer, so it is never read into memory
+     * completely and the content is not copied into a heap buffer by the channel.
+     *
+     * @param file
+     *            the file
+     * @return the hash (lower case hex string)
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is supported by every Java platform", e);
+        }
+        ByteBuffer buffer = HASH_BUFFER.get();
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
     public static boolean isCompletelyWritten(Path file) {
         try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
             return true;
@@ -152,6 +191,10 @@ public class IOUtil {
         }
     }
 
+    /**
+     * @deprecated blocks the calling thread while polling. Use {@link FileReadinessTracker} to wait for many files at once
+     */
+    @Deprecated
     public static boolean waitUntilUnlocked(Path file, long timeout, TimeUnit timeoutUnit) throws IOException, TimeoutException, InterruptedException {
         long start = System.currentTimeMillis();
         boolean waited = false;
@@ -168,6 +211,10 @@ public class IOUtil {
         return waited;
     }
 
+    /**
+     * @deprecated blocks the calling thread for at least one check period. Use {@link FileReadinessTracker} to wait for many files at once
+     */
+    @Deprecated
     public static boolean waitUntilSizeRemainsUnchanged(Path file, long checkPeriod, long timeout, TimeUnit timeoutUnit) throws IOException, TimeoutException, InterruptedException {
         long start = System.currentTimeMillis();
         boolean waited = false;
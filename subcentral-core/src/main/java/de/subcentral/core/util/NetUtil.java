@@ -123,4 +123,18 @@ public class NetUtil {
         log.printf(Level.TRACE, "HTML of %s were:%n%s%n", url, doc);
         return doc;
     }
+
+    /**
+     * Like {@link #getDocument(URL, Function)} but returns the whole response, so that the body can be kept (for example for caching).
+     * 
+     * @throws org.jsoup.HttpStatusException
+     *             if the response status is not OK
+     */
+    public static Connection.Response getResponse(URL url, Function<URL, Connection> connectionSetup) throws IOException {
+        log.trace("Requesting HTML of {}", url);
+        long start = System.nanoTime();
+        Connection.Response response = connectionSetup.apply(url).execute();
+        log.debug("Retrieved HTML of {} in {} ms", url, TimeUtil.durationMillis(start));
+        return response;
+    }
 }
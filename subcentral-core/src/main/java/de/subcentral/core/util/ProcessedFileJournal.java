@@ -0,0 +1,569 @@
+package de.subcentral.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * A journal of the processing of files. Every {@link #record(Path, Status) recorded} status is appended to a log file which is read on {@link #open(Path) open}, so the
+ * journal survives restarts. A file is identified by its path, size, modification time and the hash of its content. The current entries are kept in memory and indexed
+ * by path and by content hash, so {@link #isProcessed(Path) checking} whether a file was already processed needs no scan.
+ * <p>
+ * The entries of files whose processing was {@link Status#STARTED started} but never ended (for example because the application was closed) are returned by
+ * {@link #getUnfinished()}, so their processing can be resumed.
+ * </p>
+ * <p>
+ * The entries of files which do not exist anymore are kept for the {@link #getMissingFileRetention() missing file retention} (so the content of processed and then
+ * deleted files is still known) and dropped on the next compaction after that. So the journal does not grow forever.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+public class ProcessedFileJournal implements Closeable {
+    private static final Logger               log                               = LogManager.getLogger(ProcessedFileJournal.class);
+
+    /**
+     * Incremented whenever the file format changes. Files of other versions are discarded.
+     */
+    private static final int                  FORMAT_VERSION                    = 1;
+    /**
+     * The log is compacted on open if it contains more superseded than current records and at least this number of superseded records.
+     */
+    private static final int                  MIN_SUPERSEDED_RECORDS_TO_COMPACT = 1000;
+
+    public static final Duration              DEFAULT_MISSING_FILE_RETENTION    = Duration.ofDays(30L);
+
+    public enum Status {
+        STARTED, FINISHED, FAILED, CANCELLED
+    }
+
+    private final Path                        file;
+    private final Duration                    missingFileRetention;
+    private final ReadWriteLock               lock                              = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Path, Entry>            entries                           = new HashMap<>();
+    private final SetMultimap<String, Path>   hashIndex                         = LinkedHashMultimap.create();
+    private DataOutputStream                  out;
+    private int                               recordCount;
+
+    private ProcessedFileJournal(Path file, Duration missingFileRetention) {
+        this.file = Objects.requireNonNull(file, "file");
+        this.missingFileRetention = Objects.requireNonNull(missingFileRetention, "missingFileRetention");
+    }
+
+    /**
+     * Opens the journal stored in the given file. The entries are read into memory. If the file was not completely written (for example because the application crashed),
+     * the incomplete record at the end is discarded. The same applies to a corrupt record (with an invalid length) and all records after it.
+     *
+     * @param file
+     *            the log file. Created if it does not exist
+     * @return the opened journal. Must be {@link #close() closed}
+     * @throws IOException
+     *             if the file cannot be read or created
+     */
+    public static ProcessedFileJournal open(Path file) throws IOException {
+        return open(file, DEFAULT_MISSING_FILE_RETENTION);
+    }
+
+    /**
+     * Like {@link #open(Path)}, but with the given retention for the entries of files which do not exist anymore.
+     *
+     * @param file
+     *            the log file. Created if it does not exist
+     * @param missingFileRetention
+     *            how long after their last record the entries of files which do not exist anymore are kept
+     * @return the opened journal. Must be {@link #close() closed}
+     * @throws IOException
+     *             if the file cannot be read or created
+     */
+    public static ProcessedFileJournal open(Path file, Duration missingFileRetention) throws IOException {
+        ProcessedFileJournal journal = new ProcessedFileJournal(file, missingFileRetention);
+        journal.load();
+        return journal;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Duration getMissingFileRetention() {
+        return missingFileRetention;
+    }
+
+    public int getEntryCount() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @param file
+     *            the file
+     * @return the current entry of the file or null if the file was never recorded
+     */
+    public Entry get(Path file) {
+        Path key = file.toAbsolutePath();
+        lock.readLock().lock();
+        try {
+            return entries.get(key);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @param file
+     *            the file
+     * @return true if the processing of the file {@link Status#FINISHED finished} and the file was not modified since then (same size and modification time)
+     * @throws IOException
+     *             if the attributes of the file could not be read
+     */
+    public boolean isProcessed(Path file) throws IOException {
+        Entry entry = get(file);
+        if (entry == null || entry.status != Status.FINISHED) {
+            return false;
+        }
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        return entry.size == attrs.size() && entry.lastModified == attrs.lastModifiedTime().toMillis();
+    }
+
+    /**
+     *
+     * @param hash
+     *            the content hash (see {@link #hash(Path)})
+     * @return the current entries of the files with that content
+     */
+    public List<Entry> findByHash(String hash) {
+        lock.readLock().lock();
+        try {
+            List<Entry> results = new ArrayList<>();
+            for (Path path : hashIndex.get(hash)) {
+                results.add(entries.get(path));
+            }
+            return results;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @return the entries of the files whose processing was started but did not end
+     */
+    public List<Entry> getUnfinished() {
+        lock.readLock().lock();
+        try {
+            List<Entry> results = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.status == Status.STARTED) {
+                    results.add(entry);
+                }
+            }
+            return results;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the status of the processing of the given file. The content hash is only computed if the file is new or was modified since it was recorded last. If the file
+     * does not exist anymore (for example because it was deleted after it was processed), the identity of the last entry is used.
+     *
+     * @param file
+     *            the file
+     * @param status
+     *            the status
+     * @return the new entry of the file
+     * @throws IOException
+     *             if the file could not be read or the record could not be written. Nothing is recorded then
+     */
+    public Entry record(Path file, Status status) throws IOException {
+        return record(file, status, null);
+    }
+
+    /**
+     * Like {@link #record(Path, Status)}, but uses the given content hash instead of computing it.
+     *
+     * @param file
+     *            the file
+     * @param status
+     *            the status
+     * @param contentHash
+     *            the hash of the current content of the file (see {@link #hash(Path)}) or null if it is not known
+     * @return the new entry of the file
+     * @throws IOException
+     *             if the file could not be read or the record could not be written. Nothing is recorded then
+     */
+    public Entry record(Path file, Status status, String contentHash) throws IOException {
+        Objects.requireNonNull(status, "status");
+        Path path = file.toAbsolutePath();
+        Entry previous = get(path);
+        long now = System.currentTimeMillis();
+        Entry entry;
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            long size = attrs.size();
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            if (contentHash != null) {
+                entry = new Entry(path, size, lastModified, contentHash, status, now);
+            }
+            else if (previous != null && previous.size == size && previous.lastModified == lastModified) {
+                entry = new Entry(path, size, lastModified, previous.hash, status, now);
+            }
+            else {
+                entry = new Entry(path, size, lastModified, hash(path), status, now);
+            }
+        }
+        catch (NoSuchFileException e) {
+            if (previous == null) {
+                throw e;
+            }
+            entry = new Entry(path, previous.size, previous.lastModified, previous.hash, status, now);
+        }
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            writeRecord(out, entry);
+            out.flush();
+            recordCount++;
+            index(entry);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+        log.trace("Recorded {}", entry);
+        return entry;
+    }
+
+    /**
+     * Rewrites the log file so that it only contains the current records. The entries of files which do not exist anymore and were last recorded before the
+     * {@link #getMissingFileRetention() missing file retention} are dropped.
+     *
+     * @throws IOException
+     *             if the file could not be rewritten. The old file remains in place then
+     */
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            removeExpiredEntries();
+            rewrite();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // guarded by write lock
+    private void rewrite() throws IOException {
+        out.close();
+        // if the file cannot be reopened, the journal is closed
+        out = null;
+        try {
+            Path tmpFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream tmpOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                    tmpOut.writeInt(FORMAT_VERSION);
+                    for (Entry entry : entries.values()) {
+                        writeRecord(tmpOut, entry);
+                    }
+                }
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Compacted processed file journal {} from {} to {} records", file, recordCount, entries.size());
+                recordCount = entries.size();
+            }
+            finally {
+                Files.deleteIfExists(tmpFile);
+            }
+        }
+        finally {
+            out = openForAppend();
+        }
+    }
+
+    /**
+     * @return the number of removed entries
+     */
+    // guarded by write lock
+    private int removeExpiredEntries() {
+        long expiry = System.currentTimeMillis() - missingFileRetention.toMillis();
+        int removed = 0;
+        Iterator<Entry> iter = entries.values().iterator();
+        while (iter.hasNext()) {
+            Entry entry = iter.next();
+            if (entry.time < expiry && Files.notExists(entry.file)) {
+                iter.remove();
+                hashIndex.remove(entry.hash, entry.file);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Removed {} entries of missing files from processed file journal {}", removed, file);
+        }
+        return removed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     *
+     * @param file
+     *            the file
+     * @return the hash of the content of the file (hex string)
+     * @throws IOException
+     *             if the file could not be read
+     */
+    public static String hash(Path file) throws IOException {
+        return IOUtil.sha256(file);
+    }
+
+    private void load() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        if (Files.notExists(file)) {
+            writeHeader();
+        }
+        else {
+            long validLength = readRecords();
+            if (validLength < 0L) {
+                log.warn("Discarding processed file journal {} because it has an unsupported format", file);
+                writeHeader();
+            }
+            else if (validLength < Files.size(file)) {
+                log.warn("Discarding incomplete or corrupt records at the end of processed file journal {}", file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(validLength);
+                }
+            }
+        }
+        out = openForAppend();
+        log.debug("Loaded {} entries from processed file journal {} in {} ms", entries.size(), file, Duration.ofNanos(System.nanoTime() - start).toMillis());
+
+        // not yet visible to other threads, so no need to lock
+        int expiredEntries = removeExpiredEntries();
+        int supersededRecords = recordCount - entries.size();
+        if (expiredEntries > 0 || (supersededRecords > entries.size() && supersededRecords >= MIN_SUPERSEDED_RECORDS_TO_COMPACT)) {
+            rewrite();
+        }
+    }
+
+    /**
+     * @return the length of the valid part of the file or -1 if the file has an unsupported format
+     */
+    private long readRecords() throws IOException {
+        long fileLength = Files.size(file);
+        Status[] statuses = Status.values();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            try {
+                if (in.readInt() != FORMAT_VERSION) {
+                    return -1L;
+                }
+            }
+            catch (EOFException e) {
+                return -1L;
+            }
+            long validLength = Integer.BYTES;
+            while (true) {
+                // the length prefix allows to detect incomplete records
+                byte[] record;
+                try {
+                    int length = in.readInt();
+                    // a corrupt length would cause a NegativeArraySizeException or OutOfMemoryError. It is treated like an incomplete record
+                    if (length < 0 || length > fileLength - validLength - Integer.BYTES) {
+                        log.warn("Invalid record length {} at offset {} in processed file journal {}", length, validLength, file);
+                        return validLength;
+                    }
+                    record = new byte[length];
+                    in.readFully(record);
+                }
+                catch (EOFException e) {
+                    return validLength;
+                }
+                validLength += Integer.BYTES + record.length;
+                recordCount++;
+                try {
+                    index(readRecord(record, statuses));
+                }
+                catch (IOException | RuntimeException e) {
+                    log.warn("Skipping unreadable record in processed file journal " + file, e);
+                }
+            }
+        }
+    }
+
+    private static Entry readRecord(byte[] record, Status[] statuses) throws IOException {
+        try (DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record))) {
+            int status = recordIn.readByte();
+            if (status < 0 || status >= statuses.length) {
+                throw new IOException("Unknown status: " + status);
+            }
+            long time = recordIn.readLong();
+            long size = recordIn.readLong();
+            long lastModified = recordIn.readLong();
+            String hash = recordIn.readUTF();
+            Path path = Paths.get(recordIn.readUTF());
+            return new Entry(path, size, lastModified, hash, statuses[status], time);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        try (DataOutputStream headerOut = new DataOutputStream(Files.newOutputStream(file))) {
+            headerOut.writeInt(FORMAT_VERSION);
+        }
+    }
+
+    private DataOutputStream openForAppend() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+    }
+
+    private void checkOpen() throws IOException {
+        if (out == null) {
+            throw new IOException("Processed file journal is closed: " + file);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream recordOut = new DataOutputStream(bytes)) {
+            recordOut.writeByte(entry.status.ordinal());
+            recordOut.writeLong(entry.time);
+            recordOut.writeLong(entry.size);
+            recordOut.writeLong(entry.lastModified);
+            recordOut.writeUTF(entry.hash);
+            recordOut.writeUTF(entry.file.toString());
+        }
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    // guarded by write lock
+    private void index(Entry entry) {
+        Entry superseded = entries.put(entry.file, entry);
+        if (superseded != null) {
+            hashIndex.remove(superseded.hash, superseded.file);
+        }
+        hashIndex.put(entry.hash, entry.file);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ProcessedFileJournal.class).add("file", file).toString();
+    }
+
+    /**
+     * The status of the processing of a file at a point in time.
+     */
+    public static final class Entry {
+        private final Path   file;
+        private final long   size;
+        private final long   lastModified;
+        private final String hash;
+        private final Status status;
+        private final long   time;
+
+        private Entry(Path file, long size, long lastModified, String hash, Status status, long time) {
+            this.file = file;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.status = status;
+            this.time = time;
+        }
+
+        /**
+         *
+         * @return the absolute path of the file
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         *
+         * @return the time the status was recorded (epoch millis)
+         */
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(Entry.class)
+                    .add("file", file)
+                    .add("size", size)
+                    .add("lastModified", lastModified)
+                    .add("hash", hash)
+                    .add("status", status)
+                    .add("time", time)
+                    .toString();
+        }
+    }
+}
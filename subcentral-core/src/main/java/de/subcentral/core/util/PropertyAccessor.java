@@ -0,0 +1,214 @@
+package de.subcentral.core.util;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Fast access to a bean property.
+ * <p>
+ * The getter and setter are bound once to the read and write method of the property. Whenever possible they are generated with the {@link LambdaMetafactory}, so calling them
+ * costs about as much as calling the methods directly: there is no argument array, no access check and no wrapping of the thrown exceptions into an
+ * {@link java.lang.reflect.InvocationTargetException}. If the methods cannot be linked from this class (for example because they are declared in a non-public class), the
+ * accessor falls back to {@link MethodHandle method handles}.
+ * </p>
+ * <p>
+ * Accessors for {@link SimplePropDescriptor SimplePropDescriptors} are cached (see {@link #of(SimplePropDescriptor)}).
+ * </p>
+ *
+ * @implSpec #immutable #thread-safe
+ */
+public final class PropertyAccessor<T, P> {
+    private static final MethodHandles.Lookup                                        LOOKUP = MethodHandles.lookup();
+    private static final ConcurrentMap<SimplePropDescriptor, PropertyAccessor<?, ?>> CACHE  = new ConcurrentHashMap<>();
+
+    private final String           name;
+    private final Class<?>         type;
+    private final Type             genericType;
+    private final Function<T, P>   getter;
+    private final BiConsumer<T, P> setter;
+
+    private PropertyAccessor(PropertyDescriptor propDescriptor) {
+        this.name = propDescriptor.getName();
+        this.type = propDescriptor.getPropertyType();
+        Method readMethod = propDescriptor.getReadMethod();
+        Method writeMethod = propDescriptor.getWriteMethod();
+        if (readMethod != null) {
+            this.genericType = readMethod.getGenericReturnType();
+        }
+        else if (writeMethod != null) {
+            this.genericType = writeMethod.getGenericParameterTypes()[0];
+        }
+        else {
+            this.genericType = type;
+        }
+        this.getter = readMethod != null ? createGetter(readMethod) : null;
+        this.setter = writeMethod != null ? createSetter(writeMethod) : null;
+    }
+
+    /**
+     * Returns the cached accessor for the given property. The accessor is created on the first call.
+     *
+     * @param propDescriptor
+     *            the property
+     * @return the accessor
+     * @throws IntrospectionException
+     *             if the property does not exist
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, P> PropertyAccessor<T, P> of(SimplePropDescriptor propDescriptor) throws IntrospectionException {
+        PropertyAccessor<?, ?> accessor = CACHE.get(propDescriptor);
+        if (accessor == null) {
+            accessor = new PropertyAccessor<>(propDescriptor.toPropertyDescriptor());
+            PropertyAccessor<?, ?> existingAccessor = CACHE.putIfAbsent(propDescriptor, accessor);
+            if (existingAccessor != null) {
+                accessor = existingAccessor;
+            }
+        }
+        return (PropertyAccessor<T, P>) accessor;
+    }
+
+    /**
+     * Creates a new accessor for the given property. The accessor is not cached. It should be bound once and kept by the caller.
+     *
+     * @param propDescriptor
+     *            the property
+     * @return the new accessor
+     */
+    public static <T, P> PropertyAccessor<T, P> of(PropertyDescriptor propDescriptor) {
+        return new PropertyAccessor<>(Objects.requireNonNull(propDescriptor, "propDescriptor"));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Type getGenericType() {
+        return genericType;
+    }
+
+    public boolean isReadable() {
+        return getter != null;
+    }
+
+    public boolean isWritable() {
+        return setter != null;
+    }
+
+    public P get(T bean) {
+        if (getter == null) {
+            throw new UnsupportedOperationException("Property " + name + " is not readable");
+        }
+        return getter.apply(bean);
+    }
+
+    public void set(T bean, P value) {
+        if (setter == null) {
+            throw new UnsupportedOperationException("Property " + name + " is not writable");
+        }
+        setter.accept(bean, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, P> Function<T, P> createGetter(Method readMethod) {
+        try {
+            if (isLinkable(readMethod)) {
+                MethodHandle handle = LOOKUP.unreflect(readMethod);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                        "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle,
+                        handle.type().wrap());
+                return (Function<T, P>) site.getTarget().invoke();
+            }
+            readMethod.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflect(readMethod).asType(MethodType.methodType(Object.class, Object.class));
+            return (T bean) -> {
+                try {
+                    return (P) handle.invokeExact(bean);
+                }
+                catch (RuntimeException | Error e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+        catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot create getter for " + readMethod, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, P> BiConsumer<T, P> createSetter(Method writeMethod) {
+        try {
+            if (isLinkable(writeMethod)) {
+                MethodHandle handle = LOOKUP.unreflect(writeMethod);
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        handle.type().wrap().changeReturnType(void.class));
+                return (BiConsumer<T, P>) site.getTarget().invoke();
+            }
+            writeMethod.setAccessible(true);
+            MethodHandle handle = LOOKUP.unreflect(writeMethod).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (T bean, P value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                }
+                catch (RuntimeException | Error e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    throw new RuntimeException(e);
+                }
+            };
+        }
+        catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot create setter for " + writeMethod, e);
+        }
+    }
+
+    /**
+     * A generated lambda class is linked against the class loader of this class. So the method has to be public and visible from that class loader.
+     */
+    private static boolean isLinkable(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(declaringClass.getModifiers()) || !Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(declaringClass.getName(), false, PropertyAccessor.class.getClassLoader()) == declaringClass;
+        }
+        catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(PropertyAccessor.class).add("name", name).add("type", type).toString();
+    }
+}
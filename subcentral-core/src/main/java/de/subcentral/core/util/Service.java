@@ -1,6 +1,7 @@
 package de.subcentral.core.util;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import de.subcentral.core.util.Service.Status.Code;
 
@@ -10,20 +11,26 @@ public interface Service {
             AVAILABLE, LIMITED, NOT_AVAILABLE
         }
 
-        private final Code code;
-        private final long responseTime;
+        private final Code   code;
+        private final long   responseTime;
+        private final String message;
 
         public static Status of(Code code) {
-            return new Status(code, -1L);
+            return new Status(code, -1L, null);
         }
 
         public static Status of(Code code, long responseTime) {
-            return new Status(code, responseTime);
+            return new Status(code, responseTime, null);
         }
 
-        private Status(Code code, long responseTime) {
+        public static Status of(Code code, long responseTime, String message) {
+            return new Status(code, responseTime, message);
+        }
+
+        private Status(Code code, long responseTime, String message) {
             this.code = Objects.requireNonNull(code, "code");
             this.responseTime = responseTime;
+            this.message = message;
         }
 
         public Code getCode() {
@@ -33,6 +40,14 @@ public interface Service {
         public long getResponseTime() {
             return responseTime;
         }
+
+        /**
+         * 
+         * @return details about the status (for example why the service is not available) or null
+         */
+        public String getMessage() {
+            return message;
+        }
     }
 
     public String getName();
@@ -40,4 +55,19 @@ public interface Service {
     public default Status checkStatus() {
         return Status.of(Code.AVAILABLE);
     }
+
+    /**
+     * Registers a listener which is notified if the service detects a change of its status by itself (for example because it stopped responding). The default
+     * implementation does not detect status changes and therefore never notifies the listener.
+     * 
+     * @param listener
+     *            the listener
+     */
+    public default void addStatusListener(Consumer<Status> listener) {
+        // status changes are not detected
+    }
+
+    public default void removeStatusListener(Consumer<Status> listener) {
+        // status changes are not detected
+    }
 }
@@ -17,6 +17,11 @@ public class SimplePropDescriptor implements Comparable<SimplePropDescriptor>, S
 
     private final Class<?>    beanClass;
     private final String      propName;
+    /**
+     * Cached because descriptors are used as map keys all the time (for example by the parsing). Transient because the hash code of a class is not stable across JVMs. 0
+     * if not computed yet.
+     */
+    private transient int     hashCode;
 
     public SimplePropDescriptor(Class<?> beanClass, String propName) {
         this.beanClass = Objects.requireNonNull(beanClass, "beanClass");
@@ -59,7 +64,13 @@ public class SimplePropDescriptor implements Comparable<SimplePropDescriptor>, S
 
     @Override
     public int hashCode() {
-        return Objects.hash(beanClass, propName);
+        int h = hashCode;
+        if (h == 0) {
+            // same as Objects.hash(beanClass, propName) but without the varargs array
+            h = 31 * (31 + beanClass.hashCode()) + propName.hashCode();
+            hashCode = h;
+        }
+        return h;
     }
 
     @Override
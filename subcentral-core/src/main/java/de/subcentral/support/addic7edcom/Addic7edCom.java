@@ -14,6 +14,7 @@ import de.subcentral.core.metadata.media.Series;
 import de.subcentral.core.metadata.release.Release;
 import de.subcentral.core.metadata.subtitle.Subtitle;
 import de.subcentral.core.metadata.subtitle.SubtitleRelease;
+import de.subcentral.core.parse.Anchor;
 import de.subcentral.core.parse.CompoundMappingMatcher;
 import de.subcentral.core.parse.CompoundMappingMatcher.GroupEntry;
 import de.subcentral.core.parse.MappingMatcher;
@@ -22,6 +23,8 @@ import de.subcentral.core.parse.Parser;
 import de.subcentral.core.parse.ParsingDefaults;
 import de.subcentral.core.parse.ParsingService;
 import de.subcentral.core.parse.PatternMappingMatcher;
+import de.subcentral.core.parse.PrefilteringMappingMatcher;
+import de.subcentral.core.parse.PrefilteringMappingMatcher.AnchoredMatcher;
 import de.subcentral.core.parse.SubtitleReleaseParser;
 import de.subcentral.core.parse.TypeBasedParsingService;
 import de.subcentral.core.parse.TypeBasedParsingService.ParserEntry;
@@ -65,7 +68,7 @@ public class Addic7edCom {
         predefMatches.put(Series.PROP_TYPE, Series.TYPE_SEASONED);
         MappingMatcher<SimplePropDescriptor> matcher = new CompoundMappingMatcher<>(pattern, groups.build(), predefMatches.build());
 
-        return new SubtitleReleaseParser(matcher, ParsingDefaults.getDefaultSingletonListEpisodeMapper());
+        return new SubtitleReleaseParser(new PrefilteringMappingMatcher<>(ImmutableList.of(AnchoredMatcher.of(matcher, Anchor.CROSS_EPISODE))), ParsingDefaults.getDefaultSingletonListEpisodeMapper());
     }
 
     private static MappingMatcher<SimplePropDescriptor> createEpisodeTitleAndReleaseMatcher() {
@@ -179,7 +182,7 @@ public class Addic7edCom {
         predefMatches.put(Subtitle.PROP_SOURCE, getSite().getName());
         MappingMatcher<SimplePropDescriptor> matcher = new CompoundMappingMatcher<>(pattern, groups.build(), predefMatches.build());
 
-        return new SubtitleReleaseParser(matcher, ParsingDefaults.getDefaultSingletonListMovieMapper());
+        return new SubtitleReleaseParser(new PrefilteringMappingMatcher<>(ImmutableList.of(AnchoredMatcher.of(matcher, Anchor.YEAR))), ParsingDefaults.getDefaultSingletonListMovieMapper());
     }
 
     private static MappingMatcher<SimplePropDescriptor> createReleaseMatcher() {
@@ -14,11 +14,13 @@ import de.subcentral.core.metadata.media.Series;
 import de.subcentral.core.metadata.release.Release;
 import de.subcentral.core.metadata.subtitle.Subtitle;
 import de.subcentral.core.metadata.subtitle.SubtitleRelease;
+import de.subcentral.core.parse.Anchor;
 import de.subcentral.core.parse.MappingMatcher;
-import de.subcentral.core.parse.MultiMappingMatcher;
 import de.subcentral.core.parse.ParsingDefaults;
 import de.subcentral.core.parse.ParsingService;
 import de.subcentral.core.parse.PatternMappingMatcher;
+import de.subcentral.core.parse.PrefilteringMappingMatcher;
+import de.subcentral.core.parse.PrefilteringMappingMatcher.AnchoredMatcher;
 import de.subcentral.core.parse.SubtitleReleaseParser;
 import de.subcentral.core.parse.TypeBasedParsingService;
 import de.subcentral.core.parse.TypeBasedParsingService.ParserEntry;
@@ -42,7 +44,7 @@ public class ItalianSubsNet {
         // Episode Parsers
 
         // Matchers
-        ImmutableList.Builder<MappingMatcher<SimplePropDescriptor>> episodeMatchers = ImmutableList.builder();
+        ImmutableList.Builder<AnchoredMatcher<SimplePropDescriptor>> episodeMatchers = ImmutableList.builder();
 
         // Examples:
         // Psych.s08e04.sub.itasa
@@ -53,7 +55,7 @@ public class ItalianSubsNet {
         grps101.put(2, Season.PROP_NUMBER);
         grps101.put(3, Episode.PROP_NUMBER_IN_SEASON);
         MappingMatcher<SimplePropDescriptor> matcher101 = new PatternMappingMatcher<>(p101, grps101.build(), commonPredefMatches);
-        episodeMatchers.add(matcher101);
+        episodeMatchers.add(AnchoredMatcher.of(matcher101, Anchor.SEASON_EPISODE));
 
         // Examples:
         // Psych.s08e03.P.sub.itasa
@@ -68,15 +70,15 @@ public class ItalianSubsNet {
         grps102.put(3, Episode.PROP_NUMBER_IN_SEASON);
         grps102.put(4, Release.PROP_TAGS);
         MappingMatcher<SimplePropDescriptor> matcher102 = new PatternMappingMatcher<>(p102, grps102.build(), commonPredefMatches);
-        episodeMatchers.add(matcher102);
+        episodeMatchers.add(AnchoredMatcher.of(matcher102, Anchor.SEASON_EPISODE));
 
-        SubtitleReleaseParser episodeSubParser = new SubtitleReleaseParser(new MultiMappingMatcher<>(episodeMatchers.build()), ParsingDefaults.getDefaultSingletonListEpisodeMapper());
+        SubtitleReleaseParser episodeSubParser = new SubtitleReleaseParser(new PrefilteringMappingMatcher<>(episodeMatchers.build()), ParsingDefaults.getDefaultSingletonListEpisodeMapper());
 
         // --------------
         // Multi-Episode Parsers
 
         // Matchers
-        ImmutableList.Builder<MappingMatcher<SimplePropDescriptor>> multiEpisodeMatchers = ImmutableList.builder();
+        ImmutableList.Builder<AnchoredMatcher<SimplePropDescriptor>> multiEpisodeMatchers = ImmutableList.builder();
 
         // Examples:
         // Psych.s07e15-16.sub.itasa
@@ -87,7 +89,7 @@ public class ItalianSubsNet {
         grps201.put(2, Season.PROP_NUMBER);
         grps201.put(3, Episode.PROP_NUMBER_IN_SEASON);
         MappingMatcher<SimplePropDescriptor> matcher201 = new PatternMappingMatcher<>(p201, grps201.build(), commonPredefMatches);
-        multiEpisodeMatchers.add(matcher201);
+        multiEpisodeMatchers.add(AnchoredMatcher.of(matcher201, Anchor.SEASON_EPISODE));
 
         // Examples:
         // Psych.s07e15-16.720p.sub.itasa
@@ -100,9 +102,9 @@ public class ItalianSubsNet {
         grps202.put(3, Episode.PROP_NUMBER_IN_SEASON);
         grps202.put(4, Release.PROP_TAGS);
         MappingMatcher<SimplePropDescriptor> matcher202 = new PatternMappingMatcher<>(p202, grps202.build(), commonPredefMatches);
-        multiEpisodeMatchers.add(matcher202);
+        multiEpisodeMatchers.add(AnchoredMatcher.of(matcher202, Anchor.SEASON_EPISODE));
 
-        SubtitleReleaseParser multiEpisodeSubParser = new SubtitleReleaseParser(new MultiMappingMatcher<>(multiEpisodeMatchers.build()), ParsingDefaults.getDefaultMultiEpisodeMapper());
+        SubtitleReleaseParser multiEpisodeSubParser = new SubtitleReleaseParser(new PrefilteringMappingMatcher<>(multiEpisodeMatchers.build()), ParsingDefaults.getDefaultMultiEpisodeMapper());
 
         TypeBasedParsingService service = new TypeBasedParsingService(SITE.getName());
         service.register(SubtitleRelease.class, episodeSubParser);
@@ -74,6 +74,14 @@ public class OrlyDbComMetadataService extends HttpMetadataService {
         return buildRelativeUrl("q", query);
     }
 
+    /**
+     * Search results without release divs.
+     */
+    @Override
+    protected boolean isEmptyResult(Document doc) {
+        return doc.select("div#releases > div").isEmpty();
+    }
+
     /**
      * <pre>
      * <div id="releases">
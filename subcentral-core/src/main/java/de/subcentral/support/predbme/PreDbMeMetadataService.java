@@ -193,6 +193,14 @@ public class PreDbMeMetadataService extends HttpMetadataService {
     // return NamingDefaults.getDefaultNormalizingFormatter().apply(title).replace(' ', '-');
     // }
 
+    /**
+     * A page without posts is only cached shortly, the release may be pre'ed any moment.
+     */
+    @Override
+    protected boolean isEmptyResult(Document doc) {
+        return doc.getElementsByClass("post").isEmpty();
+    }
+
     /**
      * <pre>
      * <div class="content">
@@ -96,6 +96,14 @@ public class PreDbOrgMetadataService extends HttpMetadataService {
         return String.format("/post/%s", id);
     }
 
+    /**
+     * No posts means no releases (yet).
+     */
+    @Override
+    protected boolean isEmptyResult(Document doc) {
+        return doc.getElementsByClass("post").isEmpty();
+    }
+
     /**
      * <pre>
      * <table class="table">
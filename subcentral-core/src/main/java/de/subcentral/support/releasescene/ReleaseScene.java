@@ -20,14 +20,16 @@ import de.subcentral.core.metadata.media.Movie;
 import de.subcentral.core.metadata.media.Season;
 import de.subcentral.core.metadata.media.Series;
 import de.subcentral.core.metadata.release.Release;
+import de.subcentral.core.parse.Anchor;
 import de.subcentral.core.parse.EpisodeMapper;
 import de.subcentral.core.parse.MappingMatcher;
 import de.subcentral.core.parse.MovieMapper;
 import de.subcentral.core.parse.MultiEpisodeMapper;
-import de.subcentral.core.parse.MultiMappingMatcher;
 import de.subcentral.core.parse.ParsingDefaults;
 import de.subcentral.core.parse.ParsingService;
 import de.subcentral.core.parse.PatternMappingMatcher;
+import de.subcentral.core.parse.PrefilteringMappingMatcher;
+import de.subcentral.core.parse.PrefilteringMappingMatcher.AnchoredMatcher;
 import de.subcentral.core.parse.ReleaseParser;
 import de.subcentral.core.parse.SimpleParsePropStringService;
 import de.subcentral.core.parse.TypeBasedParsingService;
@@ -52,7 +54,7 @@ public class ReleaseScene {
         pps.setPropFromStringFunctions(propFromStringFns.build());
 
         EpisodeMapper epiMapper = new EpisodeMapper(pps);
-        ImmutableList.Builder<MappingMatcher<SimplePropDescriptor>> epiRlsMatchers = ImmutableList.builder();
+        ImmutableList.Builder<AnchoredMatcher<SimplePropDescriptor>> epiRlsMatchers = ImmutableList.builder();
 
         // SINGLE EPISODES
         // Series.Name.S00E00.Some.Tags-Group
@@ -65,7 +67,7 @@ public class ReleaseScene {
         grps101.put(4, Release.PROP_TAGS);
         grps101.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher101 = new PatternMappingMatcher<>(p101, grps101.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        epiRlsMatchers.add(matcher101);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher101, Anchor.SEASON_EPISODE, Anchor.GROUP_SUFFIX));
 
         // Seasoned episode
         // Series.Name.S00E00.Episode.Title.Some.Tags-Group
@@ -79,7 +81,7 @@ public class ReleaseScene {
         grps102.put(5, Release.PROP_TAGS);
         grps102.put(6, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher102 = new PatternMappingMatcher<>(p102, grps102.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        epiRlsMatchers.add(matcher102);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher102, Anchor.SEASON_EPISODE, Anchor.GROUP_SUFFIX));
 
         // Series.Name.S00E00.Some.Tags
         // "Penn.Zero.Part-Time.Hero.S01E08.1080p.WEBRip.AAC2.0.x264"
@@ -91,7 +93,7 @@ public class ReleaseScene {
         grps103.put(3, Episode.PROP_NUMBER_IN_SEASON);
         grps103.put(4, Release.PROP_TAGS);
         MappingMatcher<SimplePropDescriptor> matcher103 = new PatternMappingMatcher<>(p103, grps103.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        epiRlsMatchers.add(matcher103);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher103, Anchor.SEASON_EPISODE));
 
         // Alternate naming scheme (used for example by UK group FoV) "The_Fall.2x02.720p_HDTV_x264-FoV"
         Pattern p112 = Pattern.compile("(.*?)\\.(\\d{1,2})x(\\d{2})\\.(.*?)-(\\w+)", Pattern.CASE_INSENSITIVE);
@@ -103,7 +105,7 @@ public class ReleaseScene {
         grps112.put(4, Release.PROP_TAGS);
         grps112.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher112 = new PatternMappingMatcher<>(p112, grps112.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        epiRlsMatchers.add(matcher112);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher112, Anchor.CROSS_EPISODE, Anchor.GROUP_SUFFIX));
 
         // Mini-series episode
         Pattern p201 = Pattern.compile("(.*?)\\.E(\\d{2})\\.(.*?)\\.(" + firstTagPattern + "\\..*)-(\\w+)", Pattern.CASE_INSENSITIVE);
@@ -115,7 +117,7 @@ public class ReleaseScene {
         grps201.put(4, Release.PROP_TAGS);
         grps201.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher201 = new PatternMappingMatcher<>(p201, grps201.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_MINI_SERIES));
-        epiRlsMatchers.add(matcher201);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher201, Anchor.EPISODE, Anchor.GROUP_SUFFIX));
 
         Pattern p202 = Pattern.compile("(.*?)\\.E(\\d{2})\\.(.*?)-(\\w+)", Pattern.CASE_INSENSITIVE);
         ImmutableMap.Builder<Integer, SimplePropDescriptor> grps202 = ImmutableMap.builder();
@@ -125,7 +127,7 @@ public class ReleaseScene {
         grps202.put(3, Release.PROP_TAGS);
         grps202.put(4, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher202 = new PatternMappingMatcher<>(p202, grps202.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_MINI_SERIES));
-        epiRlsMatchers.add(matcher202);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher202, Anchor.EPISODE, Anchor.GROUP_SUFFIX));
 
         // Dated episode
         Pattern p301 = Pattern.compile("(.*?)\\.(\\d{4}\\.\\d{2}\\.\\d{2})\\.(.*?)\\.(" + firstTagPattern + "\\..*)-(\\w+)", Pattern.CASE_INSENSITIVE);
@@ -137,7 +139,7 @@ public class ReleaseScene {
         grps301.put(4, Release.PROP_TAGS);
         grps301.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher301 = new PatternMappingMatcher<>(p301, grps301.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_DATED));
-        epiRlsMatchers.add(matcher301);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher301, Anchor.DATE, Anchor.GROUP_SUFFIX));
 
         Pattern p302 = Pattern.compile("(.*?)\\.(\\d{4}\\.\\d{2}\\.\\d{2})\\.(.*?)-(\\w+)", Pattern.CASE_INSENSITIVE);
         ImmutableMap.Builder<Integer, SimplePropDescriptor> grps302 = ImmutableMap.builder();
@@ -147,12 +149,12 @@ public class ReleaseScene {
         grps302.put(3, Release.PROP_TAGS);
         grps302.put(4, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher302 = new PatternMappingMatcher<>(p302, grps302.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_DATED));
-        epiRlsMatchers.add(matcher302);
+        epiRlsMatchers.add(AnchoredMatcher.of(matcher302, Anchor.DATE, Anchor.GROUP_SUFFIX));
 
-        ReleaseParser epiRlsParser = new ReleaseParser(new MultiMappingMatcher<>(epiRlsMatchers.build()), ParsingDefaults.createSingletonListMapper(epiMapper));
+        ReleaseParser epiRlsParser = new ReleaseParser(new PrefilteringMappingMatcher<>(epiRlsMatchers.build()), ParsingDefaults.createSingletonListMapper(epiMapper));
 
         // MULTI-EPISODES
-        ImmutableList.Builder<MappingMatcher<SimplePropDescriptor>> multiEpiRlsMatchers = ImmutableList.builder();
+        ImmutableList.Builder<AnchoredMatcher<SimplePropDescriptor>> multiEpiRlsMatchers = ImmutableList.builder();
         // Multi-episode (seasoned, range)
         Pattern p401 = Pattern.compile("(.*?)\\.S(\\d{2})(E\\d{2}-E\\d{2})\\.(.*?)\\.(" + firstTagPattern + "\\..*)-(\\w+)", Pattern.CASE_INSENSITIVE);
         ImmutableMap.Builder<Integer, SimplePropDescriptor> grps401 = ImmutableMap.builder();
@@ -164,7 +166,7 @@ public class ReleaseScene {
         grps401.put(5, Release.PROP_TAGS);
         grps401.put(6, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher401 = new PatternMappingMatcher<>(p401, grps401.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        multiEpiRlsMatchers.add(matcher401);
+        multiEpiRlsMatchers.add(AnchoredMatcher.of(matcher401, Anchor.SEASON_EPISODE, Anchor.GROUP_SUFFIX));
 
         Pattern p402 = Pattern.compile("(.*?)\\.S(\\d{2})(E\\d{2}-E\\d{2})\\.(.*?)-(\\w+)", Pattern.CASE_INSENSITIVE);
         ImmutableMap.Builder<Integer, SimplePropDescriptor> grps402 = ImmutableMap.builder();
@@ -175,7 +177,7 @@ public class ReleaseScene {
         grps402.put(4, Release.PROP_TAGS);
         grps402.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher402 = new PatternMappingMatcher<>(p402, grps402.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        multiEpiRlsMatchers.add(matcher402);
+        multiEpiRlsMatchers.add(AnchoredMatcher.of(matcher402, Anchor.SEASON_EPISODE, Anchor.GROUP_SUFFIX));
 
         // Multi-episode (seasoned, addition)
         Pattern p451 = Pattern.compile("(.*?)\\.S(\\d{2})(E\\d{2}(?:\\+?E\\d{2})+)\\.(.*?)\\.(" + firstTagPattern + "\\..*)-(\\w+)", Pattern.CASE_INSENSITIVE);
@@ -188,7 +190,7 @@ public class ReleaseScene {
         grps451.put(5, Release.PROP_TAGS);
         grps451.put(6, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher451 = new PatternMappingMatcher<>(p451, grps451.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        multiEpiRlsMatchers.add(matcher451);
+        multiEpiRlsMatchers.add(AnchoredMatcher.of(matcher451, Anchor.SEASON_EPISODE, Anchor.GROUP_SUFFIX));
 
         Pattern p452 = Pattern.compile("(.*?)\\.S(\\d{2})(E\\d{2}(?:\\+?E\\d{2})+)\\.(.*?)-(\\w+)", Pattern.CASE_INSENSITIVE);
         ImmutableMap.Builder<Integer, SimplePropDescriptor> grps452 = ImmutableMap.builder();
@@ -199,12 +201,12 @@ public class ReleaseScene {
         grps452.put(4, Release.PROP_TAGS);
         grps452.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher452 = new PatternMappingMatcher<>(p452, grps452.build(), ImmutableMap.of(Series.PROP_TYPE, Series.TYPE_SEASONED));
-        multiEpiRlsMatchers.add(matcher452);
+        multiEpiRlsMatchers.add(AnchoredMatcher.of(matcher452, Anchor.SEASON_EPISODE, Anchor.GROUP_SUFFIX));
 
-        ReleaseParser multiEpiRlsParser = new ReleaseParser(new MultiMappingMatcher<>(multiEpiRlsMatchers.build()), new MultiEpisodeMapper(epiMapper));
+        ReleaseParser multiEpiRlsParser = new ReleaseParser(new PrefilteringMappingMatcher<>(multiEpiRlsMatchers.build()), new MultiEpisodeMapper(epiMapper));
 
         // MOVIE
-        ImmutableList.Builder<MappingMatcher<SimplePropDescriptor>> movieRlsMatchers = ImmutableList.builder();
+        ImmutableList.Builder<AnchoredMatcher<SimplePropDescriptor>> movieRlsMatchers = ImmutableList.builder();
 
         // Movie.Name.FirstTag.2015.Other.Tags-Group
         // Movie.Name.FirstTag.OtherTags.2015.Other.Tags-Group
@@ -217,7 +219,7 @@ public class ReleaseScene {
         grps601.put(4, Release.PROP_TAGS);
         grps601.put(5, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher601 = new PatternMappingMatcher<>(p601, grps601.build());
-        movieRlsMatchers.add(matcher601);
+        movieRlsMatchers.add(AnchoredMatcher.of(matcher601, Anchor.YEAR, Anchor.GROUP_SUFFIX));
 
         // Movie.Name.2015.All.Tags-Group
         Pattern p602 = Pattern.compile("(.*?)\\.(\\d{4})\\.(.*?)-(\\w+)", Pattern.CASE_INSENSITIVE);
@@ -228,7 +230,7 @@ public class ReleaseScene {
         grps602.put(3, Release.PROP_TAGS);
         grps602.put(4, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher602 = new PatternMappingMatcher<>(p602, grps602.build());
-        movieRlsMatchers.add(matcher602);
+        movieRlsMatchers.add(AnchoredMatcher.of(matcher602, Anchor.YEAR, Anchor.GROUP_SUFFIX));
 
         // Movie.Name.All.Tags-Group
         Pattern p603 = Pattern.compile("(.*?)\\.(" + firstTagPattern + "\\..*)-(\\w+)", Pattern.CASE_INSENSITIVE);
@@ -238,9 +240,9 @@ public class ReleaseScene {
         grps603.put(2, Release.PROP_TAGS);
         grps603.put(3, Release.PROP_GROUP);
         MappingMatcher<SimplePropDescriptor> matcher603 = new PatternMappingMatcher<>(p603, grps603.build());
-        movieRlsMatchers.add(matcher603);
+        movieRlsMatchers.add(AnchoredMatcher.of(matcher603, Anchor.GROUP_SUFFIX));
 
-        ReleaseParser movieRlsParser = new ReleaseParser(new MultiMappingMatcher<>(movieRlsMatchers.build()), ParsingDefaults.createSingletonListMapper(new MovieMapper(pps)));
+        ReleaseParser movieRlsParser = new ReleaseParser(new PrefilteringMappingMatcher<>(movieRlsMatchers.build()), ParsingDefaults.createSingletonListMapper(new MovieMapper(pps)));
 
         TypeBasedParsingService service = new TypeBasedParsingService(PARSING_SERVICE_NAME);
         service.register(Release.class, epiRlsParser);
@@ -2,6 +2,7 @@ package de.subcentral.support.thetvdbcom;
 
 import java.io.IOException;
 import java.net.URL;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -63,6 +64,10 @@ public class TheTvDbComMetadataService extends HttpMetadataService {
     private static final String   API_SUB_PATH                 = "/api/";
     private static final String   IMG_SUB_PATH                 = "/banners/";
     private static final Splitter LIST_SPLITTER                = Splitter.on('|').trimResults().omitEmptyStrings();
+    /**
+     * Series and episode records rarely change, so they can be cached much longer than search results.
+     */
+    private static final Duration RECORD_CACHE_TTL             = Duration.ofDays(1L);
 
     private final String          apiKey;
 
@@ -199,7 +204,7 @@ public class TheTvDbComMetadataService extends HttpMetadataService {
 
         URL url = buildRelativeUrl(path.toString());
         log.debug("Getting series with id {} using url {}", id, url);
-        return parseSeriesRecord(getDocument(url));
+        return parseSeriesRecord(getDocument(url, RECORD_CACHE_TTL));
     }
 
     public Episode getEpisode(int id, String language) throws IOException {
@@ -215,7 +220,7 @@ public class TheTvDbComMetadataService extends HttpMetadataService {
 
         URL url = buildRelativeUrl(path.toString());
         log.debug("Getting episode with id {} using url {}", id, url);
-        return parseEpisodeRecord(getDocument(url));
+        return parseEpisodeRecord(getDocument(url, RECORD_CACHE_TTL));
     }
 
     private String formatSeriesNameQueryValue(String name) {
@@ -69,6 +69,14 @@ public class XRelToMetadataService extends HttpMetadataService {
         throw createRecordTypeNotSearchableException(recordType);
     }
 
+    /**
+     * Search results without release items.
+     */
+    @Override
+    protected boolean isEmptyResult(Document doc) {
+        return doc.select("div.release_item").isEmpty();
+    }
+
     /**
      * <pre>
      * 	<div id="search_result_frame">
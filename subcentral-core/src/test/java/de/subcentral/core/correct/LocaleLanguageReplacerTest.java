@@ -0,0 +1,58 @@
+package de.subcentral.core.correct;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.subcentral.core.correct.LocaleLanguageReplacer.LanguageFormat;
+import de.subcentral.core.correct.LocaleLanguageReplacer.LanguagePattern;
+
+public class LocaleLanguageReplacerTest {
+    private final LocaleLanguageReplacer nameReplacer    = new LocaleLanguageReplacer(ImmutableList.of(Locale.ENGLISH, Locale.GERMAN), LanguageFormat.NAME, Locale.ENGLISH);
+    private final LocaleLanguageReplacer displayReplacer = new LocaleLanguageReplacer(ImmutableList.of(Locale.ENGLISH),
+            LanguageFormat.DISPLAY_LANGUAGE,
+            Locale.GERMAN,
+            ImmutableList.of(new LanguagePattern(Pattern.compile("VO", Pattern.CASE_INSENSITIVE), Locale.ENGLISH)),
+            ImmutableMap.of(Locale.FRENCH, "VF"));
+
+    @Test
+    public void testParseJavaName() {
+        assertEquals("pt_BR", nameReplacer.apply("pt_BR"));
+        assertEquals("pt_BR", nameReplacer.apply("PT_br"));
+    }
+
+    @Test
+    public void testParseLanguageTag() {
+        assertEquals("pt_BR", nameReplacer.apply("pt-BR"));
+    }
+
+    @Test
+    public void testParseDisplayNameInAllParsingLanguages() {
+        assertEquals("de", nameReplacer.apply("german"));
+        assertEquals("de", nameReplacer.apply("Deutsch"));
+        assertEquals("pt_BR", nameReplacer.apply("Portuguese (Brazil)"));
+    }
+
+    @Test
+    public void testParseIso3() {
+        assertEquals("de", nameReplacer.apply("deu"));
+    }
+
+    @Test
+    public void testUnknownLanguageIsKept() {
+        assertEquals("Klingon-ish", nameReplacer.apply("Klingon-ish"));
+    }
+
+    @Test
+    public void testCustomPatternsAndMappings() {
+        assertEquals("Englisch", displayReplacer.apply("vo"));
+        assertEquals("VF", displayReplacer.apply("French"));
+        assertEquals("Deutsch", displayReplacer.apply("German"));
+    }
+}
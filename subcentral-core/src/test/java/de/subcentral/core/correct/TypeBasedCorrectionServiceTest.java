@@ -0,0 +1,50 @@
+package de.subcentral.core.correct;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.media.Media;
+import de.subcentral.core.metadata.release.Release;
+
+public class TypeBasedCorrectionServiceTest {
+    @Test
+    public void testNestedBeansRetrieverOfSuperType() {
+        TypeBasedCorrectionService service = new TypeBasedCorrectionService("test");
+        service.registerNestedBeansRetriever(Release.class, Release::getMedia);
+        // registered for the interface, not for Episode itself
+        service.registerNestedBeansRetriever(Media.class, (Media media) -> media instanceof Episode ? ImmutableList.of(((Episode) media).getSeries()) : ImmutableList.of());
+        service.registerCorrector(Object.class, (Object bean, List<Correction> corrections) -> corrections.add(new Correction(bean, "visited", null, null, null)));
+
+        Release rls = Release.create(Episode.createSeasonedEpisode("Psych", 8, 1), "DIMENSION", "720p", "HDTV", "x264");
+        List<Correction> corrections = service.correct(rls);
+
+        // release, episode, series
+        assertEquals(3, corrections.size());
+    }
+
+    @Test
+    public void testRegisterInvalidatesDispatch() {
+        TypeBasedCorrectionService service = new TypeBasedCorrectionService("test");
+        Corrector<Release> groupCorrector = (rls, corrections) -> rls.setGroup(null);
+        Release rls = Release.create("DIMENSION", "720p", "HDTV", "x264");
+        service.correct(rls);
+        assertEquals("DIMENSION", rls.getGroup().getName());
+
+        service.registerCorrector(Release.class, groupCorrector);
+        service.correct(rls);
+        assertEquals(null, rls.getGroup());
+
+        service.unregisterCorrector(groupCorrector);
+        service.registerCorrector(Release.class, (r, corrections) -> r.setNfo("nfo"));
+        rls = Release.create("DIMENSION", "720p", "HDTV", "x264");
+        service.correct(rls);
+        assertEquals("DIMENSION", rls.getGroup().getName());
+        assertEquals("nfo", rls.getNfo());
+    }
+}
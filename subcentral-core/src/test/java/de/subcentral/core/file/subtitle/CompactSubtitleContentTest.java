@@ -0,0 +1,91 @@
+package de.subcentral.core.file.subtitle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CompactSubtitleContentTest {
+    private static final String CONTENT = "1\n00:00:01,000 --> 00:00:02,000\nFirst\nline\n\n2\n00:00:03,000 --> 00:00:04,000\nSecond\n\n3\n00:00:05,000 --> 00:00:06,000\nThird";
+
+    @Test
+    public void testCopyOfSubRipReader() throws IOException {
+        CompactSubtitleContent content;
+        try (SubRipReader reader = SubRip.INSTANCE.readItems(new StringReader(CONTENT))) {
+            content = CompactSubtitleContent.copyOf(reader);
+        }
+        List<Item> items = content.getItems();
+        assertEquals(3, items.size());
+        assertEquals(1000L, items.get(0).getStart());
+        assertEquals(2000L, items.get(0).getEnd());
+        assertEquals("First\nline", items.get(0).getText());
+        assertEquals("Third", content.getText(2));
+    }
+
+    @Test
+    public void testItemViewWritesThrough() throws IOException {
+        CompactSubtitleContent content = CompactSubtitleContent.copyOf(SubRip.INSTANCE.readItems(new StringReader(CONTENT)));
+        Item second = content.getItems().get(1);
+        second.setText("Changed");
+        second.setDuration(5000L);
+        second.setText(null);
+        assertNull(content.getText(1));
+        assertEquals(8000L, content.getEnd(1));
+
+        content.getItems().get(0).setText("Changed");
+        content.trimToSize();
+        assertEquals("Changed", content.getText(0));
+        assertEquals("Third", content.getText(2));
+    }
+
+    @Test
+    public void testListOperations() throws IOException {
+        CompactSubtitleContent content = CompactSubtitleContent.copyOf(SubRip.INSTANCE.readItems(new StringReader(CONTENT)));
+        Item removed = content.getItems().remove(0);
+        assertEquals("First\nline", removed.getText());
+        assertEquals("Second", content.getText(0));
+
+        Item item = new Item();
+        item.setStart(500L);
+        item.setEnd(600L);
+        item.setText("Inserted");
+        content.getItems().add(0, item);
+        assertEquals(3, content.size());
+        assertEquals("Inserted", content.getText(0));
+        assertEquals("Third", content.getText(2));
+
+        content.setItems(SubRip.INSTANCE.read(CONTENT.getBytes(), StandardCharsets.UTF_8).getItems());
+        assertEquals(3, content.size());
+        assertEquals("First\nline", content.getText(0));
+    }
+
+    @Test
+    public void testNonLatin1Text() throws IOException {
+        CompactSubtitleContent content = CompactSubtitleContent.copyOf(SubRip.INSTANCE.readItems(new StringReader(CONTENT)));
+        content.getItems().get(1).setText("Zwei \u2013 \u00fcber");
+        assertEquals("First\nline", content.getText(0));
+        assertEquals("Zwei \u2013 \u00fcber", content.getText(1));
+        content.trimToSize();
+        assertEquals("Zwei \u2013 \u00fcber", content.getText(1));
+        assertEquals("Third", content.getText(2));
+    }
+
+    @Test
+    public void testShiftTimings() throws IOException {
+        CompactSubtitleContent content = CompactSubtitleContent.copyOf(SubRip.INSTANCE.readItems(new StringReader(CONTENT)));
+        content.shiftTimings(-1000L);
+        assertEquals(0L, content.getStart(0));
+        assertEquals(5000L, content.getEnd(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShiftTimingsToNegative() throws IOException {
+        CompactSubtitleContent content = CompactSubtitleContent.copyOf(SubRip.INSTANCE.readItems(new StringReader(CONTENT)));
+        content.shiftTimings(-1001L);
+    }
+}
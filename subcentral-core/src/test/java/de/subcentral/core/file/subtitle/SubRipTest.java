@@ -0,0 +1,79 @@
+package de.subcentral.core.file.subtitle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.junit.Test;
+
+public class SubRipTest {
+    private static final String CONTENT = "\uFEFF1\r\n"
+            + "00:00:03,799 --> 00:00:05,679\r\n"
+            + "- Here we go.\r\n"
+            + "- Hey, good morning.\r\n"
+            + "\r\n"
+            + "2\r\n"
+            + " 01:02:03,4 -->01:02:05,000 \r\n"
+            + "\r\n"
+            + "3 Days\r\n"
+            + "42\r\n"
+            + "Later\r\n"
+            + "\r\n"
+            + "\r\n"
+            + "3\r\n"
+            + "00:10:00,000 --> 00:10:01,000\r\n"
+            + "Last";
+
+    @Test
+    public void testRead() throws IOException {
+        List<Item> items = SubRip.INSTANCE.read(new BufferedReader(new StringReader(CONTENT))).getItems();
+        assertEquals(3, items.size());
+        assertItem(items.get(0), 3799L, 5679L, "- Here we go.\n- Hey, good morning.");
+        // leading blank lines are kept, trailing ones are removed, number lines followed by text are text
+        assertItem(items.get(1), 3723004L, 3725000L, "\n3 Days\n42\nLater");
+        assertItem(items.get(2), 600000L, 601000L, "Last");
+    }
+
+    @Test
+    public void testReadBytesEqualsReadReader() throws IOException {
+        List<Item> items = SubRip.INSTANCE.read(CONTENT.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8).getItems();
+        assertEquals(3, items.size());
+        assertItem(items.get(1), 3723004L, 3725000L, "\n3 Days\n42\nLater");
+    }
+
+    @Test
+    public void testReadItemsStreaming() throws IOException {
+        try (SubRipReader reader = SubRip.INSTANCE.readItems(new StringReader(CONTENT))) {
+            assertItem(reader.next(), 3799L, 5679L, "- Here we go.\n- Hey, good morning.");
+            assertEquals(3723004L, reader.next().getStart());
+            assertEquals(600000L, reader.next().getStart());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        SubtitleContent sub = SubRip.INSTANCE.read(new BufferedReader(new StringReader(CONTENT)));
+        StringWriter writer = new StringWriter();
+        SubRip.INSTANCE.write(sub, new BufferedWriter(writer));
+        String nl = SystemUtils.LINE_SEPARATOR;
+        String expected = "1" + nl + "00:00:03,799 --> 00:00:05,679" + nl + "- Here we go." + nl + "- Hey, good morning." + nl + nl
+                + "2" + nl + "01:02:03,004 --> 01:02:05,000" + nl + nl + "3 Days" + nl + "42" + nl + "Later" + nl + nl
+                + "3" + nl + "00:10:00,000 --> 00:10:01,000" + nl + "Last";
+        assertEquals(expected, writer.toString());
+    }
+
+    private static void assertItem(Item item, long start, long end, String text) {
+        assertEquals(start, item.getStart());
+        assertEquals(end, item.getEnd());
+        assertEquals(text, item.getText());
+    }
+}
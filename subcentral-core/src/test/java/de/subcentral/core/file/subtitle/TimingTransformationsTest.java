@@ -0,0 +1,125 @@
+package de.subcentral.core.file.subtitle;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.file.subtitle.TimingTransformations.SyncPoint;
+
+public class TimingTransformationsTest {
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testShiftAndScale() {
+        assertEquals(1500L, TimingTransformations.shift(500L).transform(1000L));
+        assertEquals(500L, TimingTransformations.shift(-500L).transform(1000L));
+        assertEquals(2000L, TimingTransformations.scale(2d).transform(1000L));
+        assertEquals(2100L, TimingTransformations.linear(2d, 100L).transform(1000L));
+    }
+
+    @Test
+    public void testConvertFrameRate() {
+        // one hour at 23.976 fps is 57.5424 minutes at 25 fps (the same frames are played faster)
+        assertEquals(3452544L, TimingTransformations.convertFrameRate(23.976d, 25d).transform(3600000L));
+    }
+
+    @Test
+    public void testAndThen() {
+        TimingTransformation pipeline = TimingTransformations.scale(2d).andThen(TimingTransformations.shift(100L));
+        assertEquals(2100L, pipeline.transform(1000L));
+    }
+
+    @Test
+    public void testResync() {
+        TimingTransformation resync = TimingTransformations.resync(ImmutableList.of(SyncPoint.of(10000L, 12000L), SyncPoint.of(0L, 1000L), SyncPoint.of(20000L, 22000L)));
+        // first segment: 0 -> 1000, 10000 -> 12000 (factor 1.1)
+        assertEquals(-100L, resync.transform(-1000L));
+        assertEquals(1000L, resync.transform(0L));
+        assertEquals(6500L, resync.transform(5000L));
+        assertEquals(12000L, resync.transform(10000L));
+        // second segment: constant shift by 2000
+        assertEquals(17000L, resync.transform(15000L));
+        assertEquals(32000L, resync.transform(30000L));
+    }
+
+    @Test
+    public void testResyncSingleAnchorIsShift() {
+        assertEquals(3500L, TimingTransformations.resync(ImmutableList.of(SyncPoint.of(1000L, 1500L))).transform(3000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResyncDuplicateAnchors() {
+        TimingTransformations.resync(ImmutableList.of(SyncPoint.of(1000L, 1500L), SyncPoint.of(1000L, 2000L)));
+    }
+
+    @Test
+    public void testTransformContent() {
+        TimingTransformation shift = TimingTransformations.shift(-2000L);
+        SubtitleContent content = new SubtitleContent(createItems());
+        content.transformTimings(shift);
+        CompactSubtitleContent compactContent = new CompactSubtitleContent(createItems());
+        compactContent.transformTimings(shift);
+
+        for (SubtitleContent c : ImmutableList.of(content, compactContent)) {
+            List<Item> items = c.getItems();
+            // negative time points are set to 0
+            assertEquals(0L, items.get(0).getStart());
+            assertEquals(0L, items.get(0).getEnd());
+            assertEquals(0L, items.get(1).getStart());
+            assertEquals(1000L, items.get(1).getEnd());
+            assertEquals("second", items.get(1).getText());
+        }
+    }
+
+    @Test
+    public void testTransformSubRipStreaming() throws IOException {
+        String source = "1\n00:00:01,000 --> 00:00:02,000\nfirst\n\n2\n00:00:03,000 --> 00:00:04,500\nsecond\nline";
+        StringWriter target = new StringWriter();
+        int count = SubRip.INSTANCE.transformTimings(new BufferedReader(new StringReader(source)),
+                new BufferedWriter(target),
+                TimingTransformations.shift(61000L));
+        assertEquals(2, count);
+        String nl = System.lineSeparator();
+        String expected = "1" + nl + "00:01:02,000 --> 00:01:03,000" + nl + "first" + nl + nl + "2" + nl + "00:01:04,000 --> 00:01:05,500" + nl + "second" + nl + "line";
+        assertEquals(expected, target.toString());
+    }
+
+    @Test
+    public void testTransformSubRipFileInPlace() throws IOException {
+        Path file = tmpFolder.newFile("sub.srt").toPath();
+        Files.write(file, "1\n00:00:01,000 --> 00:00:02,000\nfirst".getBytes(StandardCharsets.UTF_8));
+        int count = SubRip.INSTANCE.transformTimings(file, file, StandardCharsets.UTF_8, TimingTransformations.shift(1000L));
+        assertEquals(1, count);
+        String nl = System.lineSeparator();
+        assertEquals("1" + nl + "00:00:02,000 --> 00:00:03,000" + nl + "first", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        // no temporary file is left behind
+        assertEquals(1, tmpFolder.getRoot().list().length);
+    }
+
+    private static List<Item> createItems() {
+        Item first = new Item();
+        first.setStart(500L);
+        first.setEnd(1500L);
+        first.setText("first");
+        Item second = new Item();
+        second.setStart(2000L);
+        second.setEnd(3000L);
+        second.setText("second");
+        return ImmutableList.of(first, second);
+    }
+}
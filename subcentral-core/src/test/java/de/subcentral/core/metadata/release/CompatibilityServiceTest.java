@@ -1,15 +1,22 @@
 package de.subcentral.core.metadata.release;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
 import de.subcentral.core.metadata.media.Episode;
 
 public class CompatibilityServiceTest {
@@ -37,4 +44,81 @@ public class CompatibilityServiceTest {
 
         assertEquals(expectedCompatibleRlss, compatibleReleases);
     }
+
+    @Test
+    public void testFindTransitiveCompatibles() {
+        Episode epi = Episode.createSeasonedEpisode("Psych", 1, 1);
+        Release sourceRls = Release.create("Psych.S01E01.HDTV.x264-LOL", epi, "LOL", "HDTV", "x264");
+        CrossGroupCompatibilityRule lolToDimension = new CrossGroupCompatibilityRule(Group.of("LOL"), Group.of("DIMENSION"), false);
+        CrossGroupCompatibilityRule dimensionToKings = new CrossGroupCompatibilityRule(Group.of("KiNGS"), Group.of("DIMENSION"), true);
+
+        CompatibilityService compService = new CompatibilityService();
+        compService.setCompatibilities(ImmutableList.of(lolToDimension, dimensionToKings));
+        Release dimensionRls = Release.create("Psych.S01E01.720p.HDTV.x264-DIMENSION", epi, "DIMENSION", "720p", "HDTV", "x264");
+        Release kingsRls = Release.create("Psych.S01E01.720p.WEB-DL.H.264.DD5.1-KiNGS", epi, "KiNGS", "720p", "WEB-DL", "H.264", "DD5.1");
+        List<Release> existingRlss = ImmutableList.of(Release.create("Psych.S01E01.PROPER.HDTV.x264-LOL", epi, "LOL", "PROPER", "HDTV", "x264"), dimensionRls, kingsRls);
+
+        Set<Compatibility> compatibilities = compService.findCompatibilities(sourceRls, existingRlss);
+
+        assertEquals(2, compatibilities.size());
+        Iterator<Compatibility> iter = compatibilities.iterator();
+        assertSame(dimensionRls, iter.next().getCompatible());
+        Compatibility compatibility = iter.next();
+        assertSame(kingsRls, compatibility.getCompatible());
+        // the release via which the compatibility was found
+        assertSame(dimensionRls, compatibility.getSource());
+        assertSame(dimensionToKings, compatibility.getRule());
+        assertEquals(ImmutableList.of(new GroupCompatibility(Group.of("LOL"), Group.of("DIMENSION"), lolToDimension),
+                new GroupCompatibility(Group.of("DIMENSION"), Group.of("KiNGS"), dimensionToKings)), compatibility.getPath());
+
+        // the same sources as the rule-by-rule search (which is used if not all rules are group rules)
+        CompatibilityService ruleByRuleService = new CompatibilityService();
+        ruleByRuleService.setCompatibilities(ImmutableList.of(lolToDimension, dimensionToKings));
+        ruleByRuleService.getRules().add((Release source, Collection<Release> possibleCompatibles) -> ImmutableSet.of());
+        for (Compatibility ruleByRuleCompatibility : ruleByRuleService.findCompatibilities(sourceRls, existingRlss)) {
+            Compatibility graphCompatibility = compatibilities.stream().filter(c -> c.getCompatible() == ruleByRuleCompatibility.getCompatible()).findFirst().get();
+            assertSame(ruleByRuleCompatibility.getSource(), graphCompatibility.getSource());
+            assertSame(ruleByRuleCompatibility.getRule(), graphCompatibility.getRule());
+        }
+    }
+
+    @Test
+    public void testNotTransitiveViaUnlistedGroups() {
+        Episode epi = Episode.createSeasonedEpisode("Psych", 1, 1);
+        Release sourceRls = Release.create("Psych.S01E01.HDTV.x264-LOL", epi, "LOL", "HDTV", "x264");
+        Release kingsRls = Release.create("Psych.S01E01.720p.WEB-DL.H.264.DD5.1-KiNGS", epi, "KiNGS", "720p", "WEB-DL", "H.264", "DD5.1");
+        List<Release> existingRlss = ImmutableList.of(kingsRls);
+        List<CompatibilityRule> rules = ImmutableList.of(new CrossGroupCompatibilityRule(Group.of("LOL"), Group.of("DIMENSION"), false),
+                new CrossGroupCompatibilityRule(Group.of("KiNGS"), Group.of("DIMENSION"), true));
+
+        // no DIMENSION release is listed, so KiNGS is not reached via DIMENSION
+        CompatibilityService compService = new CompatibilityService();
+        compService.setCompatibilities(rules);
+        assertEquals(ImmutableSet.of(), compService.findCompatibilities(sourceRls, existingRlss));
+        // the same as the rule-by-rule search (which is used if not all rules are group rules)
+        CompatibilityService ruleByRuleService = new CompatibilityService();
+        ruleByRuleService.setCompatibilities(rules);
+        ruleByRuleService.getRules().add((Release source, Collection<Release> possibleCompatibles) -> ImmutableSet.of());
+        assertEquals(ImmutableSet.of(), ruleByRuleService.findCompatibilities(sourceRls, existingRlss));
+
+        // the group graph itself is transitive
+        assertEquals(ImmutableSet.of(Group.of("DIMENSION"), Group.of("KiNGS")), compService.getCompatibilityGraph().findCompatibleGroups(Group.of("LOL")).keySet());
+    }
+
+    @Test
+    public void testGraphIsRebuiltWhenRulesChange() {
+        CompatibilityService compService = new CompatibilityService();
+        compService.getRules().add(new CrossGroupCompatibilityRule(Group.of("LOL"), Group.of("DIMENSION"), false));
+        CompatibilityGraph graph = compService.getCompatibilityGraph();
+        assertSame(graph, compService.getCompatibilityGraph());
+        assertEquals(ImmutableSet.of(Group.of("DIMENSION")), graph.findCompatibleGroups(Group.of("LOL")).keySet());
+
+        compService.getRules().add(new SameGroupCompatibilityRule());
+        CompatibilityGraph newGraph = compService.getCompatibilityGraph();
+        assertNotSame(graph, newGraph);
+        assertEquals(ImmutableSet.of(Group.of("DIMENSION"), Group.of("LOL")), newGraph.findCompatibleGroups(Group.of("LOL")).keySet());
+
+        compService.getRules().removeIf(SameGroupCompatibilityRule.class::isInstance);
+        assertEquals(ImmutableSet.of(Group.of("DIMENSION")), compService.getCompatibilityGraph().findCompatibleGroups(Group.of("LOL")).keySet());
+    }
 }
@@ -0,0 +1,29 @@
+package de.subcentral.core.metadata.release;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.metadata.media.Episode;
+
+public class ReleaseIndexTest {
+    private static final Episode       EPI      = Episode.createSeasonedEpisode("Psych", 1, 1);
+    private static final List<Release> RELEASES = ImmutableList.of(Release.create("Psych.S01E01.HDTV.x264-LOL", EPI, "LOL", "HDTV", "x264"),
+            Release.create("Psych.S01E01.PROPER.HDTV.x264-LOL", EPI, "LOL", "PROPER", "HDTV", "x264"),
+            Release.create("Psych.S01E01.720p.HDTV.x264-DIMENSION", EPI, "DIMENSION", "720p", "HDTV", "x264"),
+            Release.create("Psych.S01E01.720p.WEB-DL.H.264.DD5.1-KiNGS", EPI, "KiNGS", "720p", "WEB-DL", "H.264", "DD5.1"),
+            new Release(EPI, Tags.of("HDTV", "XviD"), null));
+
+    @Test
+    public void testFindByGroup() {
+        ReleaseIndex index = ReleaseIndex.of(RELEASES);
+
+        assertEquals(RELEASES.subList(0, 2), index.findByGroup(Group.of("lol")));
+        assertEquals(RELEASES.subList(4, 5), index.findByGroup(null));
+        assertEquals(ImmutableList.of(), index.findByGroup(Group.of("ASAP")));
+    }
+}
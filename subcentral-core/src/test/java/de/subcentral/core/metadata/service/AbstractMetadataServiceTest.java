@@ -0,0 +1,118 @@
+package de.subcentral.core.metadata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.subcentral.core.metadata.Site;
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.media.Media;
+import de.subcentral.core.metadata.release.Release;
+
+public class AbstractMetadataServiceTest {
+    @Test
+    public void testSearchByObjectsNameSearchesNamesConcurrently() throws IOException {
+        SlowMetadataService service = new SlowMetadataService();
+        service.setMaxConcurrentSearches(2);
+        // the first two searches only return once both are running
+        service.concurrentSearches = new CountDownLatch(2);
+
+        List<Release> results = service.searchByObject(createEpisodeWithAliases(), Release.class);
+
+        assertEquals(3, service.searchCount.get());
+        assertEquals(2, service.maxConcurrency.get());
+        // the release which is found by every name is only contained once
+        assertEquals(ImmutableList.of("Psych.S01E01.720p.HDTV.x264-DIMENSION", "psych s01e01", "psych us s01e01", "psych 2006 s01e01"), names(results));
+    }
+
+    @Test
+    public void testSearchByObjectsNameSequentially() throws IOException {
+        SlowMetadataService service = new SlowMetadataService();
+        service.setMaxConcurrentSearches(1);
+
+        List<Release> results = service.searchByObject(createEpisodeWithAliases(), Release.class);
+
+        assertEquals(3, service.searchCount.get());
+        assertEquals(1, service.maxConcurrency.get());
+        assertEquals(4, results.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testSearchByObjectsNameRethrowsFailure() throws IOException {
+        SlowMetadataService service = new SlowMetadataService();
+        service.failingQuery = "psych us s01e01";
+
+        service.searchByObject(createEpisodeWithAliases(), Release.class);
+    }
+
+    private static List<Media> createEpisodeWithAliases() {
+        // like the media of a release
+        Episode epi = Episode.createSeasonedEpisode("Psych", 1, 1);
+        epi.getSeries().getAliasNames().add("Psych US");
+        epi.getSeries().getAliasNames().add("Psych (2006)");
+        return ImmutableList.of(epi);
+    }
+
+    private static List<String> names(List<Release> releases) {
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (Release rls : releases) {
+            names.add(rls.getName());
+        }
+        return names.build();
+    }
+
+    private static class SlowMetadataService extends AbstractMetadataService {
+        private final Site              site               = new Site("slow");
+        private final AtomicInteger     searchCount        = new AtomicInteger();
+        private final AtomicInteger     concurrency        = new AtomicInteger();
+        private final AtomicInteger     maxConcurrency     = new AtomicInteger();
+        // each search waits until this number of searches has started
+        private volatile CountDownLatch concurrentSearches = new CountDownLatch(0);
+        private volatile String         failingQuery;
+
+        @Override
+        public Site getSite() {
+            return site;
+        }
+
+        @Override
+        public Set<Class<?>> getSupportedRecordTypes() {
+            return ImmutableSet.of(Release.class);
+        }
+
+        @Override
+        public <T> List<T> search(String query, Class<T> recordType) throws IOException {
+            searchCount.incrementAndGet();
+            maxConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+            try {
+                CountDownLatch latch = concurrentSearches;
+                latch.countDown();
+                if (!latch.await(10L, TimeUnit.SECONDS)) {
+                    throw new IOException("The searches did not run concurrently");
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            finally {
+                concurrency.decrementAndGet();
+            }
+            if (query.equals(failingQuery)) {
+                throw new IOException("Search failed: " + query);
+            }
+            return ImmutableList.of(recordType.cast(new Release("Psych.S01E01.720p.HDTV.x264-DIMENSION")), recordType.cast(new Release(query)));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package de.subcentral.core.metadata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.subcentral.core.metadata.MetadataUtil;
+import de.subcentral.core.metadata.Site;
+import de.subcentral.core.metadata.release.Release;
+
+public class CoalescingMetadataServiceTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsAreCoalesced() throws Exception {
+        BlockingMetadataService original = new BlockingMetadataService();
+        CoalescingMetadataService service = new CoalescingMetadataService(original);
+
+        Future<List<Release>> first = executor.submit(() -> service.search("Psych S01E01", Release.class));
+        original.started.await(10, TimeUnit.SECONDS);
+        List<Future<List<Release>>> joined = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            joined.add(executor.submit(() -> service.search("Psych S01E01", Release.class)));
+        }
+        awaitCoalescedCount(service, 3L);
+        original.release.countDown();
+
+        List<Release> firstResult = first.get(10, TimeUnit.SECONDS);
+        for (Future<List<Release>> f : joined) {
+            List<Release> result = f.get(10, TimeUnit.SECONDS);
+            assertEquals(firstResult, result);
+            // joined callers get their own copies
+            assertNotSame(firstResult.get(0), result.get(0));
+        }
+        assertEquals(1, original.calls.get());
+        assertEquals(3L, service.getStats().getCoalescedCount());
+        assertEquals(1L, service.getStats().getOriginalCallCount());
+        assertEquals(0, service.getInFlightCount());
+    }
+
+    @Test
+    public void testJoinedCallsDoNotSeeModificationsOfFirstCaller() throws Exception {
+        BlockingMetadataService original = new BlockingMetadataService();
+        CountDownLatch copying = new CountDownLatch(1);
+        CountDownLatch modified = new CountDownLatch(1);
+        AtomicReference<Thread> firstCaller = new AtomicReference<>();
+        CoalescingMetadataService service = new CoalescingMetadataService(original, obj -> {
+            // the joined caller copies only after the first caller has modified its result
+            if (Thread.currentThread() != firstCaller.get()) {
+                copying.countDown();
+                try {
+                    modified.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return MetadataUtil.deepCopy(obj);
+        });
+
+        Future<Release> first = executor.submit(() -> {
+            firstCaller.set(Thread.currentThread());
+            Release rls = service.get("Psych S01E01", Release.class);
+            // the first caller modifies its result while the joined caller copies
+            copying.await(10, TimeUnit.SECONDS);
+            rls.setCategory("modified");
+            modified.countDown();
+            return rls;
+        });
+        original.started.await(10, TimeUnit.SECONDS);
+        Future<Release> joined = executor.submit(() -> service.get("Psych S01E01", Release.class));
+        awaitCoalescedCount(service, 1L);
+        original.release.countDown();
+
+        assertEquals("modified", first.get(10, TimeUnit.SECONDS).getCategory());
+        assertNull(joined.get(10, TimeUnit.SECONDS).getCategory());
+        assertEquals(1, original.calls.get());
+    }
+
+    @Test
+    public void testDifferentCallsAreNotCoalesced() throws Exception {
+        BlockingMetadataService original = new BlockingMetadataService();
+        original.release.countDown();
+        CoalescingMetadataService service = new CoalescingMetadataService(original);
+
+        service.search("Psych S01E01", Release.class);
+        service.search("Psych S01E02", Release.class);
+        service.searchByObject("Psych S01E01", Release.class);
+        // not cached: the same call again queries the original service
+        service.search("Psych S01E01", Release.class);
+
+        assertEquals(4, original.calls.get());
+        assertEquals(0L, service.getStats().getCoalescedCount());
+    }
+
+    @Test
+    public void testExceptionIsPropagatedToJoinedCalls() throws Exception {
+        BlockingMetadataService original = new BlockingMetadataService();
+        original.failure = new IOException("database down");
+        CoalescingMetadataService service = new CoalescingMetadataService(original);
+
+        Future<Release> first = executor.submit(() -> service.get("1", Release.class));
+        original.started.await(10, TimeUnit.SECONDS);
+        Future<Release> second = executor.submit(() -> service.get("1", Release.class));
+        awaitCoalescedCount(service, 1L);
+        original.release.countDown();
+
+        for (Future<Release> f : ImmutableList.of(first, second)) {
+            try {
+                f.get(10, TimeUnit.SECONDS);
+                fail("Expected ExecutionException");
+            }
+            catch (ExecutionException e) {
+                assertSame(original.failure, e.getCause());
+            }
+        }
+        assertEquals(1, original.calls.get());
+        assertEquals(0, service.getInFlightCount());
+    }
+
+    private static void awaitCoalescedCount(CoalescingMetadataService service, long coalescedCount) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (service.getStats().getCoalescedCount() < coalescedCount && System.nanoTime() < deadline) {
+            Thread.sleep(1L);
+        }
+        assertEquals(coalescedCount, service.getStats().getCoalescedCount());
+    }
+
+    private static class BlockingMetadataService extends AbstractMetadataService {
+        private final Site           site    = new Site("test");
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger  calls   = new AtomicInteger();
+        private volatile IOException failure;
+
+        @Override
+        public Site getSite() {
+            return site;
+        }
+
+        @Override
+        public Set<Class<?>> getSupportedRecordTypes() {
+            return ImmutableSet.of(Release.class);
+        }
+
+        @Override
+        public <T> List<T> search(String query, Class<T> recordType) throws IOException {
+            return ImmutableList.of(recordType.cast(call(query)));
+        }
+
+        @Override
+        public <T> List<T> searchByObject(Object queryObj, Class<T> recordType) throws IOException {
+            return search(queryObj.toString(), recordType);
+        }
+
+        @Override
+        public <T> T get(String id, Class<T> recordType) throws IOException {
+            return recordType.cast(call(id));
+        }
+
+        private Release call(String query) throws IOException {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return Release.create(query, "GRP");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package de.subcentral.core.metadata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.sun.net.httpserver.HttpServer;
+
+import de.subcentral.core.metadata.Site;
+
+public class HttpResponseCacheTest {
+    private HttpServer    server;
+    private AtomicInteger requestCount;
+
+    @Before
+    public void startServer() throws IOException {
+        requestCount = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            boolean found = exchange.getRequestURI().getPath().startsWith("/found");
+            byte[] body = ("<html><head><title>" + exchange.getRequestURI().getPath() + "</title></head></html>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(found ? 200 : 404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRepeatedRequestIsServedFromCache() throws IOException {
+        TestMetadataService service = new TestMetadataService();
+        service.setResponseCache(new MemoryHttpResponseCache());
+
+        assertEquals(ImmutableList.of("/found/a"), service.search("found/a", String.class));
+        assertEquals(ImmutableList.of("/found/a"), service.search("found/a", String.class));
+        assertEquals(1, requestCount.get());
+
+        service.search("found/b", String.class);
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testNotFoundIsCachedNegatively() throws IOException {
+        TestMetadataService service = new TestMetadataService();
+        service.setResponseCache(new MemoryHttpResponseCache());
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.search("missing", String.class);
+                fail("Expected HttpStatusException");
+            }
+            catch (HttpStatusException e) {
+                assertEquals(404, e.getStatusCode());
+            }
+        }
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    public void testWithoutCacheEveryRequestIsSent() throws IOException {
+        TestMetadataService service = new TestMetadataService();
+
+        service.search("found/a", String.class);
+        service.search("found/a", String.class);
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testFileCacheRoundTrip() throws IOException {
+        Path dir = Files.createTempDirectory("http-cache");
+        try {
+            FileHttpResponseCache cache = new FileHttpResponseCache(dir);
+            Instant expiration = Instant.ofEpochMilli(Instant.now().plusSeconds(60L).toEpochMilli());
+            HttpResponseCache.Entry entry = HttpResponseCache.Entry.of("http://example.org/ä", 200, "text/html", "<html>ä€</html>", expiration);
+            HttpResponseCache.Entry negative = HttpResponseCache.Entry.ofNegative("http://example.org/missing", 404, Instant.ofEpochMilli(0L));
+            cache.put(entry);
+            cache.put(negative);
+
+            FileHttpResponseCache reopened = new FileHttpResponseCache(dir);
+            assertEquals(entry, reopened.get(entry.getUrl()));
+            assertEquals(negative, reopened.get(negative.getUrl()));
+
+            reopened.removeExpired();
+            assertEquals(entry, reopened.get(entry.getUrl()));
+            assertNull(reopened.get(negative.getUrl()));
+
+            reopened.invalidateAll();
+            assertNull(reopened.get(entry.getUrl()));
+        }
+        finally {
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testTieredCachePromotesEntries() {
+        MemoryHttpResponseCache first = new MemoryHttpResponseCache();
+        MemoryHttpResponseCache second = new MemoryHttpResponseCache();
+        TieredHttpResponseCache cache = new TieredHttpResponseCache(first, second);
+        HttpResponseCache.Entry entry = HttpResponseCache.Entry.of("http://example.org/", 200, null, "body", Instant.now().plusSeconds(60L));
+        second.put(entry);
+
+        assertEquals(entry, cache.get(entry.getUrl()));
+        assertEquals(entry, first.get(entry.getUrl()));
+
+        cache.invalidate(entry.getUrl());
+        assertNull(first.get(entry.getUrl()));
+        assertNull(second.get(entry.getUrl()));
+    }
+
+    private class TestMetadataService extends HttpMetadataService {
+        private final Site site = new Site("test", "Test", "http://localhost:" + server.getAddress().getPort());
+
+        @Override
+        public Site getSite() {
+            return site;
+        }
+
+        @Override
+        public Set<Class<?>> getSupportedRecordTypes() {
+            return ImmutableSet.of(String.class);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> List<T> search(String query, Class<T> recordType) throws IOException {
+            Document doc = getDocument(new URL(getHost() + "/" + query));
+            return (List<T>) ImmutableList.of(doc.title());
+        }
+    }
+}
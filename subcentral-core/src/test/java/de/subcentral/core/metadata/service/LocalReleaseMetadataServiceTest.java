@@ -0,0 +1,154 @@
+package de.subcentral.core.metadata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.release.Group;
+import de.subcentral.core.metadata.release.Release;
+import de.subcentral.core.metadata.release.Tag;
+
+public class LocalReleaseMetadataServiceTest {
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testSearchByObjectUsesIndexes() throws IOException {
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(tmpFolder.getRoot().toPath().resolve("releases.log"))) {
+            mirror.addAll(createReleases());
+
+            // the query object is like the media of a parsed release (with alias names)
+            Episode epi = Episode.createSeasonedEpisode("Psych", 1, 1);
+            epi.getSeries().getAliasNames().add("Psych (2006)");
+            List<Release> results = mirror.searchByObject(ImmutableList.of(epi), Release.class);
+
+            assertEquals(ImmutableList.of("Psych.S01E01.720p.HDTV.x264-DIMENSION", "Psych.S01E01.HDTV.x264-LOL"), names(results));
+            assertEquals(names(results), names(mirror.search("Psych S01E01", Release.class)));
+            assertEquals(3, mirror.findBySeries("Psych").size());
+            assertEquals(ImmutableList.of("Psych.S01E01.720p.HDTV.x264-DIMENSION"), names(mirror.findByGroup(Group.of("DIMENSION"))));
+            assertEquals(ImmutableList.of("Psych.S01E01.720p.HDTV.x264-DIMENSION"), names(mirror.findByTag(Tag.of("720p"))));
+            assertEquals("Psych.S01E02.HDTV.x264-LOL", mirror.get("psych.s01e02.hdtv.x264-lol", Release.class).getName());
+        }
+    }
+
+    @Test
+    public void testReleasesAreCopied() throws IOException {
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(tmpFolder.getRoot().toPath().resolve("releases.log"))) {
+            List<Release> rlss = createReleases();
+            mirror.addAll(rlss);
+            rlss.get(0).setGroup(Group.of("MODIFIED"));
+
+            Release found = mirror.get(rlss.get(0).getName(), Release.class);
+            assertEquals(Group.of("DIMENSION"), found.getGroup());
+            found.setGroup(Group.of("MODIFIED"));
+            assertNotSame(found, mirror.get(rlss.get(0).getName(), Release.class));
+            assertEquals(Group.of("DIMENSION"), mirror.get(rlss.get(0).getName(), Release.class).getGroup());
+        }
+    }
+
+    @Test
+    public void testReopenAfterIncompleteWrite() throws IOException {
+        Path file = tmpFolder.getRoot().toPath().resolve("releases.log");
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            mirror.addAll(createReleases());
+            // added again: supersedes the older record
+            mirror.addAll(createReleases().subList(0, 1));
+        }
+        // simulate a crash while appending a record
+        Files.write(file, new byte[] { 0, 0, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            assertEquals(3, mirror.getReleaseCount());
+            assertEquals(2, mirror.search("Psych S01E01", Release.class).size());
+            mirror.compact();
+            mirror.addAll(ImmutableList.of(Release.create("Psych.S01E03.HDTV.x264-LOL", Episode.createSeasonedEpisode("Psych", 1, 3), "LOL", "HDTV", "x264")));
+        }
+
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            assertEquals(4, mirror.getReleaseCount());
+        }
+    }
+
+    @Test
+    public void testReopenWithCorruptRecordLength() throws IOException {
+        Path file = tmpFolder.getRoot().toPath().resolve("releases.log");
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            mirror.addAll(createReleases());
+        }
+        long validLength = Files.size(file);
+
+        // add time followed by a negative length
+        Files.write(file, new byte[] { 0, 0, 0, 0, 0, 0, 0, 1, -1, -1, -1, -2, 1, 2, 3 }, StandardOpenOption.APPEND);
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            assertEquals(3, mirror.getReleaseCount());
+        }
+        assertEquals(validLength, Files.size(file));
+
+        // add time followed by a length far beyond the end of the file
+        Files.write(file, new byte[] { 0, 0, 0, 0, 0, 0, 0, 1, 0x7f, -1, -1, -1, 1, 2, 3 }, StandardOpenOption.APPEND);
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            assertEquals(3, mirror.getReleaseCount());
+        }
+        assertEquals(validLength, Files.size(file));
+    }
+
+    @Test
+    public void testExpiredReleasesAreOnlyFoundOnRequest() throws Exception {
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(tmpFolder.getRoot().toPath().resolve("releases.log"))) {
+            mirror.addAll(createReleases());
+            mirror.setMaxAge(Duration.ofMillis(1L));
+            Thread.sleep(10L);
+
+            Episode epi = Episode.createSeasonedEpisode("Psych", 1, 1);
+            assertTrue(mirror.searchByObject(epi, Release.class).isEmpty());
+            assertEquals(2, mirror.searchByObject(epi, Release.class, true).size());
+        }
+    }
+
+    @Test
+    public void testReleasesOlderThanRetentionAreDroppedOnOpen() throws Exception {
+        Path file = tmpFolder.getRoot().toPath().resolve("releases.log");
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file)) {
+            mirror.addAll(createReleases());
+        }
+        Thread.sleep(10L);
+
+        try (LocalReleaseMetadataService mirror = LocalReleaseMetadataService.open(file, Duration.ofMillis(1L))) {
+            assertEquals(0, mirror.getReleaseCount());
+            assertTrue(mirror.searchByObject(Episode.createSeasonedEpisode("Psych", 1, 1), Release.class, true).isEmpty());
+            mirror.addAll(createReleases().subList(0, 1));
+            assertEquals(1, mirror.getReleaseCount());
+            assertEquals(1, mirror.searchByObject(Episode.createSeasonedEpisode("Psych", 1, 1), Release.class).size());
+        }
+    }
+
+    private static List<Release> createReleases() {
+        Episode epi1 = Episode.createSeasonedEpisode("Psych", 1, 1);
+        Episode epi2 = Episode.createSeasonedEpisode("Psych", 1, 2);
+        return ImmutableList.of(Release.create("Psych.S01E01.720p.HDTV.x264-DIMENSION", epi1, "DIMENSION", "720p", "HDTV", "x264"),
+                Release.create("Psych.S01E01.HDTV.x264-LOL", epi1, "LOL", "HDTV", "x264"),
+                Release.create("Psych.S01E02.HDTV.x264-LOL", epi2, "LOL", "HDTV", "x264"));
+    }
+
+    private static List<String> names(List<Release> releases) {
+        ImmutableList.Builder<String> names = ImmutableList.builder();
+        for (Release rls : releases) {
+            names.add(rls.getName());
+        }
+        return names.build();
+    }
+}
@@ -0,0 +1,145 @@
+package de.subcentral.core.metadata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+
+import de.subcentral.core.metadata.Site;
+import de.subcentral.core.util.ExecutorUtil;
+
+public class MetadataServiceUtilTest {
+    private final ExecutorService executor = ExecutorUtil.newPerTaskExecutor("MetadataServiceUtilTest");
+    private final CountDownLatch  stall    = new CountDownLatch(1);
+
+    @After
+    public void shutdownExecutor() {
+        stall.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSearchInAllSkipsServicesExceedingDeadline() throws Exception {
+        MetadataService fast = new StubMetadataService("fast", null);
+        MetadataService stalled = new StubMetadataService("stalled", stall);
+        MetadataService failing = new StubMetadataService("failing", null);
+
+        long start = System.nanoTime();
+        ListMultimap<MetadataService, String> results = MetadataServiceUtil
+                .searchInAll(ImmutableList.of(stalled, fast, failing), "query", String.class, executor, Duration.ofMillis(200L));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000L);
+        assertEquals(ImmutableSet.of(fast), results.keySet());
+        assertEquals(ImmutableList.of("fast:query"), results.get(fast));
+    }
+
+    @Test
+    public void testSearchInAllSkipsServicesQueuedBeyondDeadline() throws Exception {
+        StubMetadataService stalled = new StubMetadataService("stalled", stall);
+        StubMetadataService queued = new StubMetadataService("queued", null);
+        // a bounded executor whose only thread is blocked by the stalled service
+        ExecutorService boundedExecutor = Executors.newSingleThreadExecutor();
+        try {
+            ListMultimap<MetadataService, String> results = MetadataServiceUtil
+                    .searchInAll(ImmutableList.of(stalled, queued), "query", String.class, boundedExecutor, Duration.ofMillis(200L));
+            assertTrue(results.isEmpty());
+
+            // the queued search is skipped once it gets a thread
+            stall.countDown();
+            boundedExecutor.shutdown();
+            assertTrue(boundedExecutor.awaitTermination(5L, TimeUnit.SECONDS));
+            assertEquals(0, queued.searchCount.get());
+        }
+        finally {
+            boundedExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStreamingSearchInAllDeliversResultsAsTheyArrive() throws Exception {
+        MetadataService fast = new StubMetadataService("fast", null);
+        MetadataService stalled = new StubMetadataService("stalled", stall);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch fastReceived = new CountDownLatch(1);
+
+        CompletableFuture<Void> all = MetadataServiceUtil.searchInAll(MetadataServiceUtil.toAsync(ImmutableList.of(stalled, fast), executor),
+                "query",
+                String.class,
+                null,
+                (MetadataService service, List<String> serviceResults) -> {
+                    received.addAll(serviceResults);
+                    fastReceived.countDown();
+                });
+
+        // the results of the fast service are delivered while the other one is still running
+        assertTrue(fastReceived.await(5L, TimeUnit.SECONDS));
+        assertEquals(ImmutableList.of("fast:query"), received);
+        assertFalse(all.isDone());
+
+        stall.countDown();
+        all.get(5L, TimeUnit.SECONDS);
+        assertEquals(ImmutableSet.of("fast:query", "stalled:query"), ImmutableSet.copyOf(received));
+    }
+
+    private static class StubMetadataService extends AbstractMetadataService {
+        private final Site           site;
+        private final CountDownLatch stall;
+        private final AtomicInteger  searchCount = new AtomicInteger();
+
+        private StubMetadataService(String name, CountDownLatch stall) {
+            this.site = new Site(name);
+            this.stall = stall;
+        }
+
+        @Override
+        public Site getSite() {
+            return site;
+        }
+
+        @Override
+        public Set<Class<?>> getSupportedRecordTypes() {
+            return ImmutableSet.of(String.class);
+        }
+
+        @Override
+        public <T> List<T> search(String query, Class<T> recordType) throws IOException {
+            searchCount.incrementAndGet();
+            if (site.getName().equals("failing")) {
+                throw new IOException("failing");
+            }
+            if (stall != null) {
+                try {
+                    stall.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            return ImmutableList.of(recordType.cast(site.getName() + ":" + query));
+        }
+
+        @Override
+        public <T> List<T> searchByObject(Object queryObj, Class<T> recordType) throws IOException {
+            return search(queryObj.toString(), recordType);
+        }
+    }
+}
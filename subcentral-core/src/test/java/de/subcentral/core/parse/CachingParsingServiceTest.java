@@ -0,0 +1,71 @@
+package de.subcentral.core.parse;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.subcentral.core.metadata.MetadataUtil;
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.media.Season;
+import de.subcentral.core.metadata.media.Series;
+import de.subcentral.core.metadata.release.Release;
+import de.subcentral.core.metadata.subtitle.SubtitleRelease;
+import de.subcentral.support.addic7edcom.Addic7edCom;
+import de.subcentral.support.releasescene.ReleaseScene;
+
+public class CachingParsingServiceTest {
+    @Test
+    public void testCacheHitReturnsCopy() {
+        CachingParsingService service = new CachingParsingService("cache", Addic7edCom.getParsingService(), 10);
+        String name = "Psych - 08x01 - Episode Title.720p.WEB-DL.DD5.1H.264.English.C.orig.Addic7ed.com";
+
+        SubtitleRelease first = service.parse(name, SubtitleRelease.class);
+        SubtitleRelease second = service.parse(name, SubtitleRelease.class);
+
+        Assert.assertEquals(1L, service.getStats().missCount());
+        Assert.assertEquals(1L, service.getStats().hitCount());
+        Assert.assertEquals(Addic7edCom.getParsingService().parse(name, SubtitleRelease.class), second);
+        Assert.assertNotSame(first, second);
+        Assert.assertNotSame(first.getFirstSubtitle(), second.getFirstSubtitle());
+        Assert.assertNotSame(first.getFirstSubtitle().getMedia(), second.getFirstSubtitle().getMedia());
+
+        // modifying a returned object does not modify the cached one
+        ((Episode) first.getFirstSubtitle().getMedia()).getSeries().setName("Changed");
+        first.getFirstMatchingRelease().setGroup(null);
+        Assert.assertEquals(second, service.parse(name, SubtitleRelease.class));
+    }
+
+    @Test
+    public void testDeepCopyPreservesSharedReferences() {
+        Series series = new Series("Psych");
+        Season season = series.newSeason(8);
+        Release rls = Release.create("DIMENSION", "720p", "HDTV", "x264");
+        rls.getMedia().add(series.newEpisode(season, 1));
+        rls.getMedia().add(series.newEpisode(season, 2));
+
+        Release copy = MetadataUtil.deepCopy(rls);
+        Episode epi1Copy = (Episode) copy.getMedia().get(0);
+        Episode epi2Copy = (Episode) copy.getMedia().get(1);
+        Assert.assertEquals(rls, copy);
+        Assert.assertNotSame(season, epi1Copy.getSeason());
+        Assert.assertSame(epi1Copy.getSeason(), epi2Copy.getSeason());
+        Assert.assertSame(epi1Copy.getSeries(), epi2Copy.getSeries());
+        Assert.assertSame(epi1Copy.getSeries(), epi1Copy.getSeason().getSeries());
+    }
+
+    @Test
+    public void testUnparseableTextIsCached() {
+        CachingParsingService service = new CachingParsingService("cache", ReleaseScene.getParsingService(), 10);
+        Assert.assertNull(service.parse("no release", Release.class));
+        Assert.assertNull(service.parse("no release", Release.class));
+        Assert.assertEquals(1L, service.getStats().hitCount());
+    }
+
+    @Test
+    public void testEviction() {
+        CachingParsingService service = new CachingParsingService("cache", ReleaseScene.getParsingService(), 1);
+        service.parse("Psych.S08E01.720p.HDTV.x264-DIMENSION");
+        service.parse("Psych.S08E02.720p.HDTV.x264-DIMENSION");
+        Assert.assertEquals(1L, service.getSize());
+        Assert.assertEquals(1L, service.getStats().evictionCount());
+    }
+}
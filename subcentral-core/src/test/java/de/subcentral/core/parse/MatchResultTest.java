@@ -0,0 +1,71 @@
+package de.subcentral.core.parse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.subcentral.core.parse.CompoundMappingMatcher.GroupEntry;
+
+public class MatchResultTest {
+    private static final Pattern PATTERN = Pattern.compile("(\\w+)\\.S(\\d+)E(\\d+)(?:\\.(\\w+))?-(\\w+)");
+
+    @Test
+    public void testMatch() {
+        PatternMappingMatcher<String> matcher = new PatternMappingMatcher<>(PATTERN,
+                ImmutableMap.of(1, "series", 2, "season", 3, "episode", 4, "tags", 5, "tags"),
+                ImmutableMap.of("source", "scene", "tags", "PREDEF"));
+
+        Map<String, String> result = matcher.match("Psych.S01E02.HDTV-LOL");
+        // optional group participated: predefined value first, then the group values in group order
+        assertEquals(ImmutableMap.of("series", "Psych", "season", "01", "episode", "02", "tags", "PREDEF HDTV LOL", "source", "scene"), result);
+        assertEquals(result, ImmutableMap.copyOf(result));
+
+        result = matcher.match("Psych.S01E02-LOL");
+        assertEquals("PREDEF LOL", result.get("tags"));
+        assertEquals(5, result.size());
+    }
+
+    @Test
+    public void testMatchOptionalGroupMissing() {
+        PatternMappingMatcher<String> matcher = new PatternMappingMatcher<>(PATTERN, ImmutableMap.of(0, "name", 4, "tags"));
+
+        Map<String, String> result = matcher.match("Psych.S01E02-LOL");
+        assertFalse(result.isEmpty());
+        assertFalse(result.containsKey("tags"));
+        assertNull(result.get("tags"));
+        assertTrue(result.containsKey("name"));
+        assertEquals(ImmutableMap.of("name", "Psych.S01E02-LOL"), result);
+    }
+
+    @Test
+    public void testCompoundMatchWithNestedMatcher() {
+        PatternMappingMatcher<String> nestedMatcher = new PatternMappingMatcher<>(Pattern.compile("(\\w+)\\.(\\w+)"), ImmutableMap.of(1, "tags", 2, "source"));
+        CompoundMappingMatcher<String> matcher = new CompoundMappingMatcher<>(Pattern.compile("(\\w+) - (.*) - (\\w+)"),
+                ImmutableMap.of(3, GroupEntry.ofKey("tags"), 1, GroupEntry.ofKey("series"), 2, GroupEntry.ofMatcher(nestedMatcher)),
+                ImmutableMap.of("tags", "PREDEF"));
+
+        Map<String, String> result = matcher.match("Psych - HDTV.Addic7ed - English");
+        // groups are merged in the order of the group numbers
+        assertEquals(ImmutableMap.of("series", "Psych", "tags", "PREDEF HDTV English", "source", "Addic7ed"), result);
+        assertTrue(result.containsKey("source"));
+        assertEquals(3, result.size());
+
+        // the nested matcher does not match
+        assertEquals(ImmutableMap.of("series", "Psych", "tags", "PREDEF English"), matcher.match("Psych - HDTV - English"));
+    }
+
+    @Test
+    public void testNoMatch() {
+        PatternMappingMatcher<String> matcher = new PatternMappingMatcher<>(PATTERN, ImmutableMap.of(1, "series"));
+        assertTrue(matcher.match("Psych").isEmpty());
+        assertTrue(matcher.match(null).isEmpty());
+    }
+}
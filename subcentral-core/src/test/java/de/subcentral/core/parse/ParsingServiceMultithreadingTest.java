@@ -1,10 +1,20 @@
 package de.subcentral.core.parse;
 
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
 public class ParsingServiceMultithreadingTest {
     private static final Logger log = LogManager.getLogger(ParsingServiceMultithreadingTest.class);
 
@@ -63,4 +73,31 @@ public class ParsingServiceMultithreadingTest {
         tn.start();
         tn.join();
     }
+
+    @Test
+    public void testParseAllPreservesOrder() {
+        TypeBasedParsingService ps = new TypeBasedParsingService("test");
+        PatternMappingMatcher<String> matcher = new PatternMappingMatcher<>(Pattern.compile("No\\.(\\d+)"), ImmutableMap.of(1, "num"));
+        ps.register(Integer.class, (String text) -> {
+            String num = matcher.match(text).get("num");
+            return num != null ? Integer.valueOf(num) : null;
+        });
+
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            texts.add(i % 10 == 0 ? "invalid" : "No." + i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Integer> results = ps.parseAll(texts, Integer.class, pool);
+            assertEquals(texts.size(), results.size());
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals(i % 10 == 0 ? null : Integer.valueOf(i), results.get(i));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+        assertEquals(ImmutableList.of(), ps.parseAll(ImmutableList.of(), Integer.class));
+    }
 }
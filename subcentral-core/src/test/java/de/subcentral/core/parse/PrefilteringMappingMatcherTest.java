@@ -0,0 +1,48 @@
+package de.subcentral.core.parse;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import de.subcentral.core.parse.PrefilteringMappingMatcher.AnchoredMatcher;
+import de.subcentral.core.util.SimplePropDescriptor;
+
+public class PrefilteringMappingMatcherTest {
+    @Test
+    public void testScanAnchors() {
+        Assert.assertEquals(EnumSet.of(Anchor.SEASON_EPISODE, Anchor.EPISODE, Anchor.GROUP_SUFFIX), Anchor.fromMask(Anchor.scan("Psych.S08E01.720p.HDTV.x264-DIMENSION")));
+        Assert.assertEquals(EnumSet.of(Anchor.SEASON_EPISODE, Anchor.EPISODE), Anchor.fromMask(Anchor.scan("Psych.s08e04.sub.itasa")));
+        Assert.assertEquals(EnumSet.of(Anchor.CROSS_EPISODE, Anchor.GROUP_SUFFIX), Anchor.fromMask(Anchor.scan("The_Fall.2x02.720p_HDTV_x264-FoV")));
+        Assert.assertEquals(EnumSet.of(Anchor.DATE, Anchor.YEAR, Anchor.GROUP_SUFFIX), Anchor.fromMask(Anchor.scan("The.Daily.Show.2015.01.01.720p.HDTV.x264-BATV")));
+        Assert.assertEquals(EnumSet.of(Anchor.CROSS_EPISODE), Anchor.fromMask(Anchor.scan("Psych - 08x01 - Episode Title.720p.WEB-DL.DD5.1H.264.English.C.orig.Addic7ed.com")));
+        Assert.assertEquals(EnumSet.of(Anchor.YEAR), Anchor.fromMask(Anchor.scan("Winter's Tale (2014).DVD-Rip.English.orig.Addic7ed.com")));
+        Assert.assertEquals(EnumSet.noneOf(Anchor.class), Anchor.fromMask(Anchor.scan("Some.Text-")));
+        Assert.assertEquals(0, Anchor.scan(""));
+        Assert.assertEquals(0, Anchor.scan(null));
+    }
+
+    @Test
+    public void testMatchOnlyCandidates() {
+        SimplePropDescriptor prop = new SimplePropDescriptor(getClass(), "prop");
+        MappingMatcher<SimplePropDescriptor> seasonEpisodeMatcher = new PatternMappingMatcher<>(Pattern.compile("(.*?)\\.S\\d{2}E\\d{2}.*"), ImmutableMap.of(1, prop));
+        MappingMatcher<SimplePropDescriptor> crossEpisodeMatcher = new PatternMappingMatcher<>(Pattern.compile("(.*?) - \\d{2}x\\d{2} - .*"), ImmutableMap.of(1, prop));
+        MappingMatcher<SimplePropDescriptor> fallbackMatcher = new PatternMappingMatcher<>(Pattern.compile("(.*)"), ImmutableMap.of(1, prop));
+        PrefilteringMappingMatcher<SimplePropDescriptor> matcher = new PrefilteringMappingMatcher<>(ImmutableList.of(AnchoredMatcher.of(seasonEpisodeMatcher,
+                Anchor.SEASON_EPISODE), AnchoredMatcher.of(crossEpisodeMatcher, Anchor.CROSS_EPISODE), AnchoredMatcher.of(fallbackMatcher)));
+
+        Assert.assertEquals(ImmutableList.of(seasonEpisodeMatcher, fallbackMatcher), matcher.getCandidates("Psych.S08E01.HDTV.x264-LOL"));
+        Assert.assertEquals(ImmutableList.of(crossEpisodeMatcher, fallbackMatcher), matcher.getCandidates("Psych - 08x01 - Pilot"));
+
+        Map<SimplePropDescriptor, String> expected = ImmutableMap.of(prop, "Psych");
+        Assert.assertEquals(expected, matcher.match("Psych.S08E01.HDTV.x264-LOL"));
+        Assert.assertEquals(expected, matcher.match("Psych - 08x01 - Pilot"));
+        Assert.assertEquals(ImmutableMap.of(prop, "Psych"), matcher.match("Psych"));
+        Assert.assertTrue(matcher.match(null).isEmpty());
+    }
+}
@@ -0,0 +1,152 @@
+package de.subcentral.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.util.CircuitBreaker.CircuitBreakerOpenException;
+import de.subcentral.core.util.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10L);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10L);
+
+    @Test
+    public void testOpensAtFailureRate() throws Exception {
+        CircuitBreaker breaker = createBreaker(() -> false, Duration.ofMinutes(1L));
+        breaker.onSuccess(FAST);
+        breaker.onFailure(FAST);
+        breaker.onSuccess(FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+        // minimum number of calls reached, failure rate 50%
+        breaker.onFailure(FAST);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testOpensAtSlowCallRate() throws Exception {
+        CircuitBreaker breaker = createBreaker(() -> false, Duration.ofMinutes(1L));
+        for (int i = 0; i < 3; i++) {
+            breaker.onSuccess(SLOW);
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+        breaker.onSuccess(SLOW);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testSlowCallThresholdCanBeChanged() throws Exception {
+        CircuitBreaker breaker = createBreaker(() -> false, Duration.ofMinutes(1L));
+        breaker.setSlowCallThreshold(Duration.ofMinutes(1L));
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(SLOW);
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test(expected = CircuitBreakerOpenException.class)
+    public void testOpenCircuitRejectsCalls() throws Exception {
+        CircuitBreaker breaker = createBreaker(() -> false, Duration.ofMinutes(1L));
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(FAST);
+        }
+        breaker.acquirePermission();
+    }
+
+    @Test
+    public void testProbeClosesCircuit() throws Exception {
+        // the results of the probes, in order. A probe waits until its result is given
+        BlockingQueue<Boolean> probeResults = new LinkedBlockingQueue<>(ImmutableList.of(false, false));
+        AtomicInteger probes = new AtomicInteger();
+        CircuitBreaker breaker = createBreaker(() -> {
+            probes.incrementAndGet();
+            return probeResults.take();
+        }, Duration.ofMillis(20L));
+        List<State> states = new CopyOnWriteArrayList<>();
+        CountDownLatch closed = new CountDownLatch(1);
+        breaker.addListener(state -> {
+            states.add(state);
+            if (state == State.CLOSED) {
+                closed.countDown();
+            }
+        });
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(FAST);
+        }
+        // the first two probes fail, the third one waits
+        awaitProbes(probes, 3);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        probeResults.add(true);
+
+        // the listeners are notified after the state has changed, so wait for the event
+        assertTrue(closed.await(10L, TimeUnit.SECONDS));
+        assertEquals(State.CLOSED, breaker.getState());
+        breaker.acquirePermission();
+        assertEquals(3, probes.get());
+        assertEquals(3, Collections.frequency(states, State.OPEN));
+        assertEquals(3, Collections.frequency(states, State.HALF_OPEN));
+        assertEquals(State.CLOSED, states.get(states.size() - 1));
+        // the window was reset
+        assertEquals(-1L, breaker.getAverageLatencyMillis());
+    }
+
+    @Test
+    public void testBlockingProbeDoesNotDelayOtherBreakers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger probes = new AtomicInteger();
+        CircuitBreaker blocked = createBreaker(() -> {
+            probes.incrementAndGet();
+            release.await();
+            return true;
+        }, Duration.ofMillis(10L));
+        CircuitBreaker other = createBreaker(() -> true, Duration.ofMillis(20L));
+        try {
+            for (int i = 0; i < 4; i++) {
+                blocked.onFailure(FAST);
+            }
+            awaitProbes(probes, 1);
+            for (int i = 0; i < 4; i++) {
+                other.onFailure(FAST);
+            }
+            awaitState(other, State.CLOSED);
+            assertEquals(State.HALF_OPEN, blocked.getState());
+        }
+        finally {
+            release.countDown();
+        }
+        awaitState(blocked, State.CLOSED);
+    }
+
+    private static CircuitBreaker createBreaker(CircuitBreaker.Probe probe, Duration openDuration) {
+        return new CircuitBreaker("test", probe, Duration.ofSeconds(1L), openDuration, 10, 4, 0.5d, 0.8d);
+    }
+
+    private static void awaitProbes(AtomicInteger probes, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (probes.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(count, probes.get());
+    }
+
+    private static void awaitState(CircuitBreaker breaker, State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while (breaker.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertTrue("Expected " + state + " but was " + breaker.getState(), breaker.getState() == state);
+    }
+}
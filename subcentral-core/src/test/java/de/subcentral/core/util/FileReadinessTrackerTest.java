@@ -0,0 +1,115 @@
+package de.subcentral.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+
+public class FileReadinessTrackerTest {
+    private static final Duration QUIESCENCE = Duration.ofMillis(100L);
+
+    @Rule
+    public TemporaryFolder        tmpFolder  = new TemporaryFolder();
+
+    @Test
+    public void testFileIsPassedOnOnceAfterQuiescence() throws Exception {
+        Path file = tmpFolder.newFile("test.srt").toPath();
+        List<Path> readyFiles = new CopyOnWriteArrayList<>();
+        try (FileReadinessTracker tracker = new FileReadinessTracker(QUIESCENCE, readyFiles::add)) {
+            // events while the file is being written
+            for (int i = 0; i < 5; i++) {
+                append(file);
+                tracker.track(file);
+                Thread.sleep(20L);
+            }
+            assertTrue(readyFiles.isEmpty());
+
+            waitUntilPassedOn(tracker, readyFiles);
+            assertEquals(ImmutableList.of(file), readyFiles);
+        }
+    }
+
+    @Test
+    public void testFileChangedWithoutEventIsCheckedAgain() throws Exception {
+        Path file = tmpFolder.newFile("test.srt").toPath();
+        List<Path> readyFiles = new CopyOnWriteArrayList<>();
+        AtomicLong passedOn = new AtomicLong();
+        try (FileReadinessTracker tracker = new FileReadinessTracker(QUIESCENCE, (Path f) -> {
+            passedOn.set(System.nanoTime());
+            readyFiles.add(f);
+        })) {
+            append(file);
+            long tracked = System.nanoTime();
+            tracker.track(file);
+            // modified without tracking again
+            append(file);
+
+            waitUntilPassedOn(tracker, readyFiles);
+            assertEquals(ImmutableList.of(file), readyFiles);
+            // not passed on by the first check but only by the check one quiescence period later
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(passedOn.get() - tracked);
+            assertTrue("Passed on after " + elapsedMillis + " ms", elapsedMillis >= 2 * QUIESCENCE.toMillis());
+        }
+    }
+
+    @Test
+    public void testDeletedFileIsDropped() throws Exception {
+        Path file = tmpFolder.newFile("test.srt").toPath();
+        List<Path> readyFiles = new CopyOnWriteArrayList<>();
+        try (FileReadinessTracker tracker = new FileReadinessTracker(QUIESCENCE, readyFiles::add)) {
+            tracker.track(file);
+            Files.delete(file);
+
+            waitUntilNotTracked(tracker);
+            assertTrue(readyFiles.isEmpty());
+        }
+    }
+
+    @Test
+    public void testTrackAfterCloseIsIgnored() throws Exception {
+        Path file = tmpFolder.newFile("test.srt").toPath();
+        List<Path> readyFiles = new CopyOnWriteArrayList<>();
+        FileReadinessTracker tracker = new FileReadinessTracker(QUIESCENCE, readyFiles::add);
+        tracker.close();
+
+        tracker.track(file);
+        assertEquals(0, tracker.getTrackedCount());
+        assertTrue(readyFiles.isEmpty());
+    }
+
+    private static void append(Path file) throws IOException {
+        Files.write(file, "1\n00:00:01,000 --> 00:00:02,000\nText\n\n".getBytes(), StandardOpenOption.APPEND);
+    }
+
+    private static void waitUntilNotTracked(FileReadinessTracker tracker) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (tracker.getTrackedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(0, tracker.getTrackedCount());
+    }
+
+    private static void waitUntilPassedOn(FileReadinessTracker tracker, List<Path> readyFiles) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (readyFiles.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        // give the tracker the chance to pass on a file twice
+        Thread.sleep(QUIESCENCE.toMillis());
+        waitUntilNotTracked(tracker);
+    }
+}
@@ -0,0 +1,35 @@
+package de.subcentral.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.hash.Hashing;
+
+public class IOUtilTest {
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testSha256() throws IOException {
+        // larger than the buffer and not a multiple of its size
+        byte[] content = new byte[200_003];
+        new Random(42L).nextBytes(content);
+        Path file = Files.write(tmpFolder.getRoot().toPath().resolve("a.srt"), content);
+        Path emptyFile = Files.write(tmpFolder.getRoot().toPath().resolve("b.srt"), new byte[0]);
+
+        assertEquals(Hashing.sha256().hashBytes(content).toString(), IOUtil.sha256(file));
+        assertEquals(Hashing.sha256().hashBytes(new byte[0]).toString(), IOUtil.sha256(emptyFile));
+        // the reused buffer does not carry over content
+        assertEquals(IOUtil.sha256(file), IOUtil.sha256(Files.copy(file, tmpFolder.getRoot().toPath().resolve("c.srt"))));
+        assertNotEquals(IOUtil.sha256(file), IOUtil.sha256(emptyFile));
+    }
+}
@@ -0,0 +1,203 @@
+package de.subcentral.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.subcentral.core.util.ProcessedFileJournal.Entry;
+import de.subcentral.core.util.ProcessedFileJournal.Status;
+
+public class ProcessedFileJournalTest {
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Test
+    public void testIsProcessed() throws IOException {
+        Path file = createFile("a.srt", "content");
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(tmpFolder.getRoot().toPath().resolve("journal.log"))) {
+            assertFalse(journal.isProcessed(file));
+            journal.record(file, Status.STARTED);
+            assertFalse(journal.isProcessed(file));
+            journal.record(file, Status.FINISHED);
+            assertTrue(journal.isProcessed(file));
+
+            // modified after it was processed
+            Files.write(file, "other content".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000L));
+            assertFalse(journal.isProcessed(file));
+        }
+    }
+
+    @Test
+    public void testFindByHash() throws IOException {
+        Path file1 = createFile("a.srt", "content");
+        Path file2 = createFile("b.srt", "content");
+        Path file3 = createFile("c.srt", "other content");
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(tmpFolder.getRoot().toPath().resolve("journal.log"))) {
+            journal.record(file1, Status.FINISHED);
+            journal.record(file2, Status.STARTED);
+            journal.record(file3, Status.FINISHED);
+
+            List<Entry> entries = journal.findByHash(ProcessedFileJournal.hash(file1));
+            assertEquals(2, entries.size());
+            assertEquals(file1.toAbsolutePath(), entries.get(0).getFile());
+            assertEquals(file2.toAbsolutePath(), entries.get(1).getFile());
+            assertEquals(1, journal.findByHash(ProcessedFileJournal.hash(file3)).size());
+        }
+    }
+
+    @Test
+    public void testReopenAfterIncompleteWrite() throws IOException {
+        Path journalFile = tmpFolder.getRoot().toPath().resolve("journal.log");
+        Path file1 = createFile("a.srt", "content");
+        Path file2 = createFile("b.srt", "other content");
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            journal.record(file1, Status.STARTED);
+            journal.record(file1, Status.FINISHED);
+            journal.record(file2, Status.STARTED);
+        }
+        // simulate a crash while appending a record
+        Files.write(journalFile, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            assertEquals(2, journal.getEntryCount());
+            assertTrue(journal.isProcessed(file1));
+            List<Entry> unfinished = journal.getUnfinished();
+            assertEquals(1, unfinished.size());
+            assertEquals(file2.toAbsolutePath(), unfinished.get(0).getFile());
+
+            // deleted after it was processed: the last identity is recorded
+            Files.delete(file2);
+            journal.record(file2, Status.FINISHED);
+            journal.compact();
+        }
+
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            assertEquals(2, journal.getEntryCount());
+            assertTrue(journal.getUnfinished().isEmpty());
+            assertEquals(Status.FINISHED, journal.get(file2).getStatus());
+            assertNull(journal.get(tmpFolder.getRoot().toPath().resolve("unknown.srt")));
+        }
+    }
+
+    @Test
+    public void testUnfinishedAfterRestart() throws IOException {
+        Path journalFile = tmpFolder.getRoot().toPath().resolve("journal.log");
+        Path interrupted = createFile("a.srt", "content a");
+        Path failed = createFile("b.srt", "content b");
+        Path cancelled = createFile("c.srt", "content c");
+        Path finished = createFile("d.srt", "content d");
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            for (Path file : new Path[] { interrupted, failed, cancelled, finished }) {
+                journal.record(file, Status.STARTED);
+            }
+            journal.record(failed, Status.FAILED);
+            journal.record(cancelled, Status.CANCELLED);
+            journal.record(finished, Status.FINISHED);
+            // the application is shut down while "interrupted" is processed: no end status is recorded for it
+        }
+
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            // only the processing of the interrupted file is resumed
+            List<Entry> unfinished = journal.getUnfinished();
+            assertEquals(1, unfinished.size());
+            assertEquals(interrupted.toAbsolutePath(), unfinished.get(0).getFile());
+            assertFalse(journal.isProcessed(interrupted));
+
+            // resumed and finished
+            journal.record(interrupted, Status.STARTED);
+            journal.record(interrupted, Status.FINISHED);
+            assertTrue(journal.getUnfinished().isEmpty());
+        }
+    }
+
+    @Test
+    public void testReopenWithCorruptRecordLength() throws IOException {
+        Path journalFile = tmpFolder.getRoot().toPath().resolve("journal.log");
+        Path file = createFile("a.srt", "content");
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            journal.record(file, Status.FINISHED);
+        }
+        long validLength = Files.size(journalFile);
+
+        // negative length
+        Files.write(journalFile, new byte[] { -1, -1, -1, -2, 1, 2, 3 }, StandardOpenOption.APPEND);
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            assertEquals(1, journal.getEntryCount());
+            assertTrue(journal.isProcessed(file));
+        }
+        assertEquals(validLength, Files.size(journalFile));
+
+        // length far beyond the end of the file
+        Files.write(journalFile, new byte[] { 0x7f, -1, -1, -1, 1, 2, 3 }, StandardOpenOption.APPEND);
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            assertEquals(1, journal.getEntryCount());
+            // still writable after the corrupt record was discarded
+            journal.record(createFile("b.srt", "other content"), Status.FINISHED);
+        }
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            assertEquals(2, journal.getEntryCount());
+        }
+    }
+
+    @Test
+    public void testCompactDropsExpiredEntriesOfMissingFiles() throws IOException {
+        Path journalFile = tmpFolder.getRoot().toPath().resolve("journal.log");
+        Path file1 = createFile("a.srt", "content");
+        Path file2 = createFile("b.srt", "other content");
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile, Duration.ZERO)) {
+            journal.record(file1, Status.FINISHED);
+            journal.record(file2, Status.FINISHED);
+            Files.delete(file2);
+            sleepPastRecordTime();
+            journal.compact();
+
+            assertEquals(1, journal.getEntryCount());
+            assertNull(journal.get(file2));
+            assertEquals(1, journal.findByHash(ProcessedFileJournal.hash(file1)).size());
+        }
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            assertEquals(1, journal.getEntryCount());
+        }
+
+        // kept within the retention
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile)) {
+            Files.delete(file1);
+            journal.compact();
+            assertEquals(1, journal.getEntryCount());
+        }
+        // dropped on open after the retention
+        sleepPastRecordTime();
+        try (ProcessedFileJournal journal = ProcessedFileJournal.open(journalFile, Duration.ZERO)) {
+            assertEquals(0, journal.getEntryCount());
+        }
+    }
+
+    private static void sleepPastRecordTime() {
+        // the records are timestamped in milliseconds
+        try {
+            Thread.sleep(5L);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path createFile(String name, String content) throws IOException {
+        return Files.write(tmpFolder.getRoot().toPath().resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,65 @@
+package de.subcentral.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+
+import org.junit.Test;
+
+import de.subcentral.core.metadata.media.Episode;
+import de.subcentral.core.metadata.media.Series;
+
+public class PropertyAccessorTest {
+    @Test
+    public void testGetAndSet() throws IntrospectionException {
+        PropertyAccessor<Series, String> accessor = PropertyAccessor.of(Series.PROP_NAME);
+        Series series = new Series("Psych");
+        assertEquals("Psych", accessor.get(series));
+        accessor.set(series, "Psych (2001)");
+        assertEquals("Psych (2001)", series.getName());
+        assertSame(accessor, PropertyAccessor.of(Series.PROP_NAME));
+    }
+
+    @Test
+    public void testPrimitiveProperty() throws IntrospectionException {
+        PropertyAccessor<Episode, Boolean> accessor = PropertyAccessor.of(Episode.PROP_SPECIAL);
+        Episode epi = new Episode();
+        assertFalse(accessor.get(epi));
+        accessor.set(epi, true);
+        assertTrue(epi.isSpecial());
+        assertEquals(boolean.class, accessor.getType());
+    }
+
+    @Test
+    public void testNonPublicBeanClass() throws IntrospectionException {
+        PropertyAccessor<HiddenBean, Integer> accessor = PropertyAccessor.of(new PropertyDescriptor("value", HiddenBean.class));
+        HiddenBean bean = new HiddenBean();
+        accessor.set(bean, 42);
+        assertEquals(Integer.valueOf(42), accessor.get(bean));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExceptionIsNotWrapped() throws IntrospectionException {
+        PropertyAccessor<HiddenBean, Integer> accessor = PropertyAccessor.of(new PropertyDescriptor("value", HiddenBean.class));
+        accessor.set(new HiddenBean(), -1);
+    }
+
+    static class HiddenBean {
+        private int value;
+
+        public int getValue() {
+            return value;
+        }
+
+        public void setValue(int value) {
+            if (value < 0) {
+                throw new IllegalStateException("negative");
+            }
+            this.value = value;
+        }
+    }
+}
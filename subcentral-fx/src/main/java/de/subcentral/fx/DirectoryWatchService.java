@@ -1,43 +1,100 @@
 package de.subcentral.fx;
 
 import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
-import java.nio.file.WatchEvent.Kind;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
 
+import de.subcentral.core.util.NamedThreadFactory;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 
+/**
+ * Watches directories and passes the new or changed files on to a consumer. Each registered directory is the root of a tree of watched directories. The subdirectories up to
+ * the {@link #getMaxDepth() maximum depth} are watched as well, including the ones which are created while watching. Directories and files which match one of the
+ * {@link #getIgnorePatterns() ignore patterns} are skipped.
+ * <p>
+ * The directories can be registered and unregistered at any time, also while watching. Registering and unregistering does not block the watch thread or each other, so
+ * thousands of directories can be watched. While watching, only the registered directory itself is registered in the calling thread; its subdirectories are registered in
+ * the background. The registered directories may overlap (a subdirectory is watched as long as one of the registered directories it belongs to is registered).
+ * </p>
+ * <p>
+ * The watching is done by a {@link Watch} which does not depend on the JavaFX {@link Task} it runs in.
+ * </p>
+ */
 public class DirectoryWatchService extends Service<Void> {
-    private static final Logger                      log         = LogManager.getLogger(DirectoryWatchService.class);
+    private static final Logger                             log                     = LogManager.getLogger(DirectoryWatchService.class);
+    /**
+     * The default time to wait for further events before the collected events are passed on.
+     */
+    public static final Duration                            DEFAULT_DEBOUNCE_WINDOW = Duration.ofMillis(500L);
+    /**
+     * If events keep coming in, the collected events are passed on after this number of debounce windows at the latest.
+     */
+    private static final int                                MAX_DEBOUNCE_WINDOWS    = 10;
 
-    private final Map<Path, WatchEntry>              watchDirs   = new HashMap<>();
-    private final BiConsumer<Path, Collection<Path>> watchEventConsumer;
-    private WatchTask                                watchTask;
-    private AtomicBoolean                            watchActive = new AtomicBoolean(false);
-    private AtomicBoolean                            initialScan = new AtomicBoolean(false);
+    // the registered (root) directories and their event kinds
+    private final ConcurrentMap<Path, WatchEvent.Kind<?>[]> watchDirs               = new ConcurrentHashMap<>();
+    // the keys of all watched directories (the roots and their subdirectories) while watching
+    private final ConcurrentMap<WatchKey, WatchedDir>       watchKeys               = new ConcurrentHashMap<>();
+    private final BiConsumer<Path, Collection<Path>>        watchEventConsumer;
+    // registers the subdirectories of the directories which are registered while watching (the thread terminates when idle)
+    private final ExecutorService                           registrationExecutor    = new ThreadPoolExecutor(0,
+            1,
+            10L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("DirectoryWatchService-registration", true));
+    private volatile Watch                                  watch;
+    private final AtomicBoolean                             watchActive             = new AtomicBoolean(false);
+    private final AtomicBoolean                             initialScan             = new AtomicBoolean(false);
+    private volatile Duration                               debounceWindow          = DEFAULT_DEBOUNCE_WINDOW;
+    private volatile Duration                               reconciliationInterval  = Duration.ZERO;
+    private volatile int                                    maxDepth                = 0;
+    private volatile List<String>                           ignorePatterns          = ImmutableList.of();
+    private volatile List<PathMatcher>                      ignoreMatchers          = ImmutableList.of();
 
     public DirectoryWatchService(BiConsumer<Path, Collection<Path>> watchEventConsumer) {
         this.watchEventConsumer = Objects.requireNonNull(watchEventConsumer, "watchEventConsumer");
@@ -46,52 +103,89 @@ public class DirectoryWatchService extends Service<Void> {
     public boolean registerDirectory(Path dir, WatchEvent.Kind<?>... kinds) throws IOException {
         Objects.requireNonNull(dir, "dir");
         Objects.requireNonNull(kinds, "kinds");
-        synchronized (watchDirs) {
-            if (watchDirs.containsKey(dir)) {
-                return false;
-            }
-            WatchEntry entry;
-            if (watchActive.get()) {
-                entry = new WatchEntry(dir.register(watchTask.watchService, kinds), kinds);
-                log.info("Registered directory while watching: {}", dir);
+        if (watchDirs.putIfAbsent(dir, kinds) != null) {
+            return false;
+        }
+        // If the watch starts concurrently, the dir is registered by the watch or here (or both, which does no harm).
+        // If the watch stops concurrently, the dir is registered on the next start
+        Watch currentWatch = watch;
+        if (currentWatch != null && watchActive.get()) {
+            try {
+                // Only the dir itself is registered in the calling thread (so an invalid dir is reported to the caller).
+                // Walking its subdirectories may take long, so that is done in the background
+                currentWatch.registerTree(dir, dir, kinds, 0);
             }
-            else {
-                entry = new WatchEntry(null, kinds);
+            catch (ClosedWatchServiceException e) {
+                // the watch stopped in the meantime
                 log.info("Registered directory: {}", dir);
+                return true;
             }
-            watchDirs.put(dir, entry);
+            catch (IOException | RuntimeException e) {
+                watchDirs.remove(dir, kinds);
+                throw e;
+            }
+            if (maxDepth > 0) {
+                registrationExecutor.execute(() -> currentWatch.registerSubdirectories(dir, kinds));
+            }
+            log.info("Registered directory while watching: {}", dir);
             return true;
         }
+        log.info("Registered directory: {}", dir);
+        return true;
     }
 
     public boolean unregisterDirectory(Path dir) {
         Objects.requireNonNull(dir, "dir");
-        synchronized (watchDirs) {
-            WatchEntry entry = watchDirs.remove(dir);
-            if (entry != null) {
-                if (entry.key != null) {
-                    entry.key.cancel();
-                }
-                if (watchActive.get()) {
-                    log.info("Unregistered directory while watching: {}", dir);
-                    if (watchDirs.isEmpty()) {
-                        log.info("No more directories to watch. Stopping");
-                        cancel();
-                    }
+        if (watchDirs.remove(dir) == null) {
+            return false;
+        }
+        removeRoot(dir);
+        if (watchActive.get()) {
+            log.info("Unregistered directory while watching: {}", dir);
+            if (watchDirs.isEmpty()) {
+                log.info("No more directories to watch. Stopping");
+                cancel();
+            }
+        }
+        else {
+            log.info("Unregistered directory: {}", dir);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given root from the watched directories. The keys of the directories which do not belong to another root anymore are cancelled (if the roots overlap, a
+     * directory belongs to several roots and shares the key).
+     */
+    private void removeRoot(Path root) {
+        for (WatchKey key : watchKeys.keySet()) {
+            watchKeys.computeIfPresent(key, (WatchKey k, WatchedDir watchedDir) -> {
+                if (!watchedDir.roots.contains(root)) {
+                    return watchedDir;
                 }
-                else {
-                    log.info("Unregistered directory: {}", dir);
+                if (watchedDir.roots.size() == 1) {
+                    k.cancel();
+                    return null;
                 }
-                return true;
-            }
-            return false;
+                return watchedDir.withoutRoot(root);
+            });
         }
     }
 
+    /**
+     * 
+     * @return the registered (root) directories
+     */
     public Set<Path> getWatchDirectories() {
-        synchronized (watchDirs) {
-            return ImmutableSet.copyOf(watchDirs.keySet());
-        }
+        return ImmutableSet.copyOf(watchDirs.keySet());
+    }
+
+    /**
+     * 
+     * @return the number of directories which are currently watched (the registered directories and their subdirectories). 0 if not watching
+     */
+    public int getWatchedDirectoryCount() {
+        return watchKeys.size();
     }
 
     public boolean getInitialScan() {
@@ -102,76 +196,213 @@ public class DirectoryWatchService extends Service<Void> {
         this.initialScan.set(initialScan);
     }
 
+    public Duration getDebounceWindow() {
+        return debounceWindow;
+    }
+
+    /**
+     * The events of the watched directories are collected until no more events occurred for the given time. Then the new files are passed on to the consumer, each file only
+     * once. So a file which is being written (many modify events) or a burst of new files causes only one call to the consumer. Takes effect immediately.
+     * 
+     * @param debounceWindow
+     *            the debounce window. Zero passes on the events immediately
+     */
+    public void setDebounceWindow(Duration debounceWindow) {
+        Objects.requireNonNull(debounceWindow, "debounceWindow");
+        if (debounceWindow.isNegative()) {
+            throw new IllegalArgumentException("debounceWindow must not be negative: " + debounceWindow);
+        }
+        this.debounceWindow = debounceWindow;
+    }
+
+    public Duration getReconciliationInterval() {
+        return reconciliationInterval;
+    }
+
+    /**
+     * Sets the interval of the reconciliation scans. In a reconciliation scan, the watched directories are compared with a snapshot of their files (path, size and
+     * modification time) and the new or changed files are passed on to the consumer. This catches files whose events were lost without an overflow event (for example on
+     * network drives). After an overflow event, the affected directory is always scanned.
+     * 
+     * @param reconciliationInterval
+     *            the interval. Zero disables the reconciliation scans
+     */
+    public void setReconciliationInterval(Duration reconciliationInterval) {
+        Objects.requireNonNull(reconciliationInterval, "reconciliationInterval");
+        if (reconciliationInterval.isNegative()) {
+            throw new IllegalArgumentException("reconciliationInterval must not be negative: " + reconciliationInterval);
+        }
+        this.reconciliationInterval = reconciliationInterval;
+    }
+
+    private long getReconciliationIntervalNanos() {
+        return reconciliationInterval.toNanos();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Sets how deep the subdirectories of the registered directories are watched. Applies to the directories which are registered afterwards (the subdirectories which are
+     * created while watching are always registered with the current maximum depth).
+     * 
+     * @param maxDepth
+     *            the maximum depth. 0 watches only the registered directories, 1 their direct subdirectories as well and so on. {@link Integer#MAX_VALUE} for all levels
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must not be negative: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    public List<String> getIgnorePatterns() {
+        return ignorePatterns;
+    }
+
+    /**
+     * Sets the glob patterns (see {@link java.nio.file.FileSystem#getPathMatcher(String)}) of the directories and files which are ignored. A pattern is matched against the
+     * name and against the path relative to the registered directory. So "*.part" ignores all files ending with ".part" and "incomplete" the subdirectory "incomplete".
+     * Subdirectories which are ignored are not watched, so the files in them are ignored as well. A pattern like "incomplete/**" only matches the files in the
+     * subdirectory, not the subdirectory itself, so the subdirectory is still watched. Takes effect immediately.
+     * 
+     * @param ignorePatterns
+     *            the glob patterns
+     * @throws IllegalArgumentException
+     *             if a pattern is invalid
+     */
+    public void setIgnorePatterns(Collection<String> ignorePatterns) {
+        ImmutableList.Builder<PathMatcher> matchers = ImmutableList.builder();
+        for (String pattern : ignorePatterns) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+        }
+        this.ignoreMatchers = matchers.build();
+        this.ignorePatterns = ImmutableList.copyOf(ignorePatterns);
+    }
+
+    private boolean isIgnored(Path root, Path path) {
+        List<PathMatcher> matchers = ignoreMatchers;
+        if (matchers.isEmpty() || path.equals(root)) {
+            return false;
+        }
+        Path relativePath = root.relativize(path);
+        Path filename = path.getFileName();
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(filename) || matcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 
+     * @return whether the path is ignored relative to every root the directory belongs to
+     */
+    private boolean isIgnored(WatchedDir watchedDir, Path path) {
+        for (Path root : watchedDir.roots) {
+            if (!isIgnored(root, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Deletions are always watched (in addition to the given kinds) to keep the snapshots up to date.
+     */
+    private WatchEvent.Kind<?>[] getRegistrationKinds(Collection<Path> roots, WatchEvent.Kind<?>[] additionalKinds) {
+        Set<WatchEvent.Kind<?>> kinds = new LinkedHashSet<>();
+        kinds.add(StandardWatchEventKinds.ENTRY_DELETE);
+        for (Path root : roots) {
+            WatchEvent.Kind<?>[] rootKinds = watchDirs.get(root);
+            if (rootKinds != null) {
+                kinds.addAll(Arrays.asList(rootKinds));
+            }
+        }
+        kinds.addAll(Arrays.asList(additionalKinds));
+        return kinds.toArray(new WatchEvent.Kind<?>[kinds.size()]);
+    }
+
+    private static int getDepth(Path root, Path dir) {
+        return dir.equals(root) ? 0 : root.relativize(dir).getNameCount();
+    }
+
     @Override
     protected Task<Void> createTask() {
-        watchTask = new WatchTask();
-        return watchTask;
+        return new Task<Void>() {
+            @Override
+            protected Void call() throws Exception {
+                runWatch(this::isCancelled);
+                return null;
+            }
+        };
     }
 
-    private class WatchTask extends Task<Void> {
-        private WatchService watchService;
+    /**
+     * Watches the registered directories in the calling thread until it is interrupted or cancelled.
+     * 
+     * @param cancelled
+     *            whether the watch was cancelled (an interruption is expected then)
+     * @throws InterruptedException
+     *             if the thread was interrupted without cancellation
+     * @throws IOException
+     *             if a registered directory could not be watched
+     */
+    // package private for testing
+    void runWatch(BooleanSupplier cancelled) throws InterruptedException, IOException {
+        Watch newWatch = new Watch(cancelled);
+        watch = newWatch;
+        newWatch.run();
+    }
 
-        @Override
-        protected Void call() throws Exception {
-            try {
-                synchronized (watchDirs) {
-                    if (watchDirs.isEmpty()) {
-                        log.info("No directories to watch");
-                        return null;
-                    }
-                    watchService = FileSystems.getDefault().newWatchService();
-                    // register the dirs
-                    for (Map.Entry<Path, WatchEntry> entry : watchDirs.entrySet()) {
-                        Path dir = entry.getKey();
-                        WatchEvent.Kind<?>[] kinds = entry.getValue().kinds;
-                        watchDirs.put(dir, new WatchEntry(dir.register(watchService, kinds), kinds));
-                    }
-                    if (getInitialScan()) {
-                        scanDirectories();
-                    }
-                    watchActive.set(true);
-                }
-                log.info("Watching {}", watchDirs.keySet());
-                while (!Thread.interrupted()) {
-                    // wait for key to be signaled
-                    WatchKey currentKey = watchService.take();
-
-                    // Use SetMultimap to not add multiple entries for one file
-                    SetMultimap<Path, Path> newFiles = HashMultimap.create();
-                    for (WatchEvent<?> event : currentKey.pollEvents()) {
-                        WatchEvent.Kind<?> kind = event.kind();
-
-                        // This key is registered only
-                        // for ENTRY_CREATE events,
-                        // but an OVERFLOW event can
-                        // occur regardless if events
-                        // are lost or discarded.
-                        if (kind == StandardWatchEventKinds.OVERFLOW) {
-                            log.info("Overflow event occured");
-                            continue;
-                        }
+    /**
+     * A run of the watch. Independent of JavaFX.
+     */
+    private class Watch {
+        private final BooleanSupplier                 cancelled;
+        private volatile WatchService                 watchService;
+        // only accessed by the watch thread
+        private final Map<Path, Map<Path, FileState>> snapshots      = new HashMap<>();
+        private final SetMultimap<WatchedDir, Path>   pendingFiles   = LinkedHashMultimap.create();
+        private final Set<WatchedDir>                 pendingRescans = new LinkedHashSet<>();
+        private long                                  firstPendingEvent;
+        private long                                  lastPendingEvent;
 
-                        // The filename is the
-                        // context of the event.
-                        @SuppressWarnings("unchecked")
-                        WatchEvent<Path> evt = (WatchEvent<Path>) event;
-                        Path dir = (Path) currentKey.watchable();
-                        log.debug("New event in {}: file={}, eventKind={}, count={}", dir, evt.context(), evt.kind(), evt.count());
-                        newFiles.put(dir, evt.context());
-                    }
-                    for (Map.Entry<Path, Collection<Path>> entry : newFiles.asMap().entrySet()) {
-                        watchEventConsumer.accept(entry.getKey(), entry.getValue());
-                    }
+        private Watch(BooleanSupplier cancelled) {
+            this.cancelled = cancelled;
+        }
 
-                    // Reset the key -- this step is critical if you want to
-                    // receive further watch events. If the key is no longer valid,
-                    // the directory is inaccessible so exit the loop.
-                    boolean valid = currentKey.reset();
-                    if (!valid) {
-                        log.debug("Key was invalid, canceling watch");
-                        break;
+        private boolean isCancelled() {
+            return cancelled.getAsBoolean();
+        }
+
+        private void run() throws InterruptedException, IOException {
+            try {
+                if (watchDirs.isEmpty()) {
+                    log.info("No directories to watch");
+                    return;
+                }
+                watchService = FileSystems.getDefault().newWatchService();
+                watchKeys.clear();
+                // Active before the dirs are registered. So a dir which is registered concurrently is not missed
+                watchActive.set(true);
+                List<WatchedDir> dirs = new ArrayList<>();
+                for (Map.Entry<Path, WatchEvent.Kind<?>[]> entry : watchDirs.entrySet()) {
+                    dirs.addAll(registerTree(entry.getKey(), entry.getKey(), entry.getValue(), maxDepth));
+                }
+                // The dirs are registered before they are scanned, so no file gets lost in between.
+                // If there is no initial scan, the snapshots are only taken as the baseline for the reconciliation
+                boolean initialScan = getInitialScan();
+                for (WatchedDir dir : dirs) {
+                    if (isCancelled()) {
+                        return;
                     }
+                    scanDirectory(dir, initialScan);
                 }
+                log.info("Watching {} ({} directories)", getWatchDirectories(), watchKeys.size());
+                watch();
             }
             catch (InterruptedException e) {
                 if (!isCancelled()) {
@@ -179,44 +410,337 @@ public class DirectoryWatchService extends Service<Void> {
                 }
             }
             catch (RuntimeException e) {
-                log.error("Exception while watching " + watchDirs.keySet(), e);
+                log.error("Exception while watching " + getWatchDirectories(), e);
                 throw e;
             }
             finally {
-                synchronized (watchDirs) {
-                    watchActive.set(false);
-                    if (watchService != null) {
-                        try {
-                            watchService.close();
+                watchActive.set(false);
+                if (watchService != null) {
+                    try {
+                        watchService.close();
+                    }
+                    catch (IOException e) {
+                        log.warn("Exception while closing WatchService", e);
+                    }
+                }
+                watchKeys.clear();
+                log.info("Watch stopped");
+            }
+        }
+
+        /**
+         * Registers the subdirectories of the given root which was registered while watching. Called by the registration thread.
+         */
+        private void registerSubdirectories(Path root, WatchEvent.Kind<?>[] kinds) {
+            if (watchDirs.get(root) != kinds) {
+                // unregistered in the meantime
+                return;
+            }
+            try {
+                List<WatchedDir> registered = registerTree(root, root, kinds, maxDepth);
+                log.debug("Registered {} subdirectories of {}", registered.size(), root);
+            }
+            catch (ClosedWatchServiceException e) {
+                // the watch stopped in the meantime
+            }
+            catch (IOException | RuntimeException e) {
+                log.warn("Could not register the subdirectories of " + root, e);
+            }
+            if (watchDirs.get(root) != kinds) {
+                // unregistered while the subdirectories were registered
+                removeRoot(root);
+            }
+        }
+
+        /**
+         * Registers the given directory and its subdirectories up to the given maximum depth (relative to the root). May be called by any thread.
+         * 
+         * @return the directories which were not watched before
+         * @throws IOException
+         *             if the given directory could not be registered
+         */
+        private List<WatchedDir> registerTree(Path root, Path start, WatchEvent.Kind<?>[] kinds, int maxDepth) throws IOException {
+            int remainingDepth = maxDepth - getDepth(root, start);
+            if (remainingDepth < 0) {
+                return ImmutableList.of();
+            }
+            // The directories at the depth limit of the walk are passed to visitFile(). So walk one level deeper than the dirs which are registered
+            int walkDepth = remainingDepth == Integer.MAX_VALUE ? Integer.MAX_VALUE : remainingDepth + 1;
+            List<WatchedDir> registered = new ArrayList<>();
+            // Symbolic links are not followed. So there are no cycles
+            Files.walkFileTree(start, EnumSet.noneOf(FileVisitOption.class), walkDepth, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (isIgnored(root, dir)) {
+                        log.debug("Ignoring directory {}", dir);
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    // registering an already registered dir returns its existing key (and replaces its kinds)
+                    WatchKey key = dir.register(watchService, getRegistrationKinds(ImmutableList.of(), kinds));
+                    WatchedDir[] previous = new WatchedDir[1];
+                    WatchedDir watchedDir = watchKeys.compute(key, (WatchKey k, WatchedDir existing) -> {
+                        previous[0] = existing;
+                        return existing == null ? new WatchedDir(dir, ImmutableSet.of(root)) : existing.withRoot(root);
+                    });
+                    if (previous[0] == null) {
+                        registered.add(watchedDir);
+                    }
+                    else if (watchedDir.roots.size() > 1) {
+                        // the dir belongs to overlapping roots: it has to be watched for the events of all of them
+                        dir.register(watchService, getRegistrationKinds(watchedDir.roots, kinds));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                    if (file.equals(start)) {
+                        throw exc;
+                    }
+                    // a subdirectory which was deleted in the meantime or which is not accessible
+                    log.debug("Could not register {}: {}", file, exc.toString());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return registered;
+        }
+
+        private void watch() throws InterruptedException {
+            long reconciliationIntervalInUse = getReconciliationIntervalNanos();
+            long nextReconciliation = reconciliationIntervalInUse > 0L ? System.nanoTime() + reconciliationIntervalInUse : Long.MAX_VALUE;
+            while (!Thread.interrupted()) {
+                long debounceNanos = debounceWindow.toNanos();
+                long reconciliationInterval = getReconciliationIntervalNanos();
+                if (reconciliationInterval != reconciliationIntervalInUse) {
+                    reconciliationIntervalInUse = reconciliationInterval;
+                    nextReconciliation = reconciliationInterval > 0L ? System.nanoTime() + reconciliationInterval : Long.MAX_VALUE;
+                }
+
+                // wait for a key to be signaled, but not longer than until the pending files are due or the next reconciliation
+                long deadline = nextReconciliation;
+                if (hasPending()) {
+                    // the pending files are due if no more events occurred within the debounce window
+                    // or if they are pending for several windows already (a constant stream of events)
+                    deadline = Math.min(deadline, Math.min(lastPendingEvent + debounceNanos, firstPendingEvent + MAX_DEBOUNCE_WINDOWS * debounceNanos));
+                }
+                WatchKey currentKey;
+                if (deadline == Long.MAX_VALUE) {
+                    currentKey = watchService.take();
+                }
+                else {
+                    currentKey = watchService.poll(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+
+                if (currentKey != null) {
+                    collectEvents(currentKey);
+                    // Reset the key -- this step is critical if you want to
+                    // receive further watch events. If the key is no longer valid,
+                    // the directory is inaccessible (or was unregistered)
+                    boolean valid = currentKey.reset();
+                    if (!valid) {
+                        WatchedDir watchedDir = watchKeys.remove(currentKey);
+                        if (watchedDir != null) {
+                            log.debug("Key of {} was invalid, not watching that directory anymore", watchedDir);
+                            snapshots.remove(watchedDir.dir);
+                        }
+                        if (watchKeys.isEmpty()) {
+                            log.debug("No more valid keys, canceling watch");
+                            break;
                         }
-                        catch (IOException e) {
-                            log.warn("Exception while closing WatchService", e);
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (hasPending() && (now - lastPendingEvent >= debounceNanos || now - firstPendingEvent >= MAX_DEBOUNCE_WINDOWS * debounceNanos)) {
+                    flushPending();
+                }
+                if (reconciliationIntervalInUse > 0L && now - nextReconciliation >= 0L) {
+                    reconcile();
+                    nextReconciliation = System.nanoTime() + reconciliationIntervalInUse;
+                }
+            }
+        }
+
+        private void collectEvents(WatchKey key) {
+            WatchedDir watchedDir = watchKeys.get(key);
+            if (watchedDir == null) {
+                // unregistered in the meantime
+                key.pollEvents();
+                return;
+            }
+            Path dir = watchedDir.dir;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                WatchEvent.Kind<?> kind = event.kind();
+
+                // An OVERFLOW event can occur regardless of the registered kinds if events are lost or discarded.
+                // Then the whole directory has to be scanned (and its new subdirectories registered)
+                if (kind == StandardWatchEventKinds.OVERFLOW) {
+                    log.info("Overflow event occured in {}. Rescanning the directory", dir);
+                    pendingRescans.add(watchedDir);
+                    registerNewDirectory(watchedDir, dir);
+                }
+                else {
+                    // The filename is the context of the event.
+                    @SuppressWarnings("unchecked")
+                    WatchEvent<Path> evt = (WatchEvent<Path>) event;
+                    log.trace("New event in {}: file={}, eventKind={}, count={}", dir, evt.context(), evt.kind(), evt.count());
+                    Path path = dir.resolve(evt.context());
+                    if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                        // a file which is created again in the same state (size and modification time) is new again
+                        Map<Path, FileState> snapshot = snapshots.get(dir);
+                        if (snapshot != null) {
+                            snapshot.remove(evt.context());
                         }
                     }
-                    log.info("Watch stopped");
+                    else if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        registerNewDirectory(watchedDir, path);
+                    }
+                    else if (!isIgnored(watchedDir, path)) {
+                        pendingFiles.put(watchedDir, evt.context());
+                    }
+                }
+            }
+            if (!hasPending()) {
+                // only deletions or ignored files
+                return;
+            }
+            long now = System.nanoTime();
+            if (firstPendingEvent == 0L) {
+                firstPendingEvent = now;
+            }
+            lastPendingEvent = now;
+        }
+
+        /**
+         * Registers the given directory and its subdirectories for each root of the parent directory if they are not registered yet. The newly registered directories are
+         * rescanned with the next pending events because files may have been created in them before they were registered.
+         */
+        private void registerNewDirectory(WatchedDir parent, Path dir) {
+            for (Path root : parent.roots) {
+                WatchEvent.Kind<?>[] kinds = watchDirs.get(root);
+                if (kinds == null) {
+                    // unregistered in the meantime
+                    continue;
+                }
+                try {
+                    List<WatchedDir> registered = registerTree(root, dir, kinds, maxDepth);
+                    if (!registered.isEmpty()) {
+                        log.debug("Watching new directories: {}", registered);
+                        pendingRescans.addAll(registered);
+                    }
+                }
+                catch (IOException e) {
+                    log.debug("Could not register new directory {}: {}", dir, e.toString());
+                }
+            }
+        }
+
+        private boolean hasPending() {
+            return !pendingFiles.isEmpty() || !pendingRescans.isEmpty();
+        }
+
+        private void flushPending() {
+            for (WatchedDir dir : pendingRescans) {
+                // the events of the dir are covered by the scan
+                pendingFiles.removeAll(dir);
+                scanDirectory(dir, true);
+            }
+            for (Map.Entry<WatchedDir, Collection<Path>> entry : pendingFiles.asMap().entrySet()) {
+                Path dir = entry.getKey().dir;
+                Map<Path, FileState> snapshot = snapshots.computeIfAbsent(dir, (Path d) -> new HashMap<>());
+                List<Path> files = new ArrayList<>(entry.getValue().size());
+                for (Path file : entry.getValue()) {
+                    FileState state = FileState.read(dir.resolve(file));
+                    // files which are already gone or were already passed on in the same state are skipped
+                    if (state == null) {
+                        snapshot.remove(file);
+                    }
+                    else if (!state.equals(snapshot.put(file, state))) {
+                        files.add(file);
+                    }
+                }
+                log.debug("New files in {} (coalesced events): {}", dir, files);
+                if (!files.isEmpty()) {
+                    watchEventConsumer.accept(dir, files);
                 }
             }
-            return null;
+            pendingFiles.clear();
+            pendingRescans.clear();
+            firstPendingEvent = 0L;
         }
 
-        private void scanDirectories() throws IOException {
-            for (Path dir : watchDirs.keySet()) {
+        private void reconcile() {
+            // registers the subdirectories whose create events were lost
+            Set<WatchedDir> newDirs = new HashSet<>();
+            for (Map.Entry<Path, WatchEvent.Kind<?>[]> entry : watchDirs.entrySet()) {
+                try {
+                    newDirs.addAll(registerTree(entry.getKey(), entry.getKey(), entry.getValue(), maxDepth));
+                }
+                catch (IOException e) {
+                    log.warn("Could not register {}: {}", entry.getKey(), e.toString());
+                }
+            }
+            List<WatchedDir> dirs = ImmutableList.copyOf(watchKeys.values());
+            Set<Path> dirPaths = new HashSet<>(dirs.size());
+            for (WatchedDir dir : dirs) {
+                dirPaths.add(dir.dir);
+            }
+            snapshots.keySet().retainAll(dirPaths);
+            log.debug("Reconciling {} ({} directories)", getWatchDirectories(), dirs.size());
+            for (WatchedDir dir : dirs) {
                 if (isCancelled()) {
                     return;
                 }
-                List<Path> files = new ArrayList<>();
-                try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dir)) {
+                // A root dir which was registered while watching is not known yet. Its current files are taken as the baseline.
+                // The files of a subdir which was just found are new though
+                scanDirectory(dir, newDirs.contains(dir) || snapshots.containsKey(dir.dir));
+            }
+        }
+
+        /**
+         * Scans the given directory and updates its snapshot. A directory which cannot be scanned (for example because it was deleted) is skipped.
+         * 
+         * @param watchedDir
+         *            the directory
+         * @param passOnChanges
+         *            whether the files which are new or changed compared to the snapshot should be passed on to the consumer
+         */
+        private void scanDirectory(WatchedDir watchedDir, boolean passOnChanges) {
+            Path dir = watchedDir.dir;
+            Map<Path, FileState> oldSnapshot = snapshots.getOrDefault(dir, ImmutableMap.of());
+            Map<Path, FileState> newSnapshot = new HashMap<>(oldSnapshot.size());
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dir)) {
+                for (Path file : directoryStream) {
                     if (isCancelled()) {
                         return;
                     }
-                    for (Path file : directoryStream) {
-                        files.add(file);
+                    if (isIgnored(watchedDir, file)) {
+                        continue;
+                    }
+                    FileState state = FileState.read(file);
+                    if (state != null) {
+                        Path filename = file.getFileName();
+                        newSnapshot.put(filename, state);
+                        if (!state.equals(oldSnapshot.get(filename))) {
+                            files.add(filename);
+                        }
                     }
                 }
-                catch (IOException ex) {
-                    log.error("Exception while scanning directory " + dir, ex);
-                    throw ex;
-                }
+            }
+            catch (IOException ex) {
+                log.warn("Exception while scanning directory " + dir, ex);
+                snapshots.remove(dir);
+                return;
+            }
+            snapshots.put(dir, newSnapshot);
+            if (passOnChanges && !files.isEmpty()) {
+                log.debug("New or changed files in {} (scan): {}", dir, files);
                 watchEventConsumer.accept(dir, files);
             }
         }
@@ -227,13 +751,96 @@ public class DirectoryWatchService extends Service<Void> {
         log.debug("Watch was cancelled");
     }
 
-    private static class WatchEntry {
-        private final WatchKey             key;
-        private final WatchEvent.Kind<?>[] kinds;
+    /**
+     * The state of a regular file which is compared to detect changes.
+     */
+    private static class FileState {
+        private final long size;
+        private final long lastModified;
+
+        private FileState(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * 
+         * @return the state or null if the file is no regular file or does not exist (anymore)
+         */
+        private static FileState read(Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) {
+                    return null;
+                }
+                return new FileState(attrs.size(), attrs.lastModifiedTime().toMillis());
+            }
+            catch (IOException e) {
+                log.trace("Could not read attributes of {}: {}", file, e.toString());
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof FileState) {
+                FileState o = (FileState) obj;
+                return size == o.size && lastModified == o.lastModified;
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified);
+        }
+    }
+
+    /**
+     * A watched directory and the registered directories whose trees it belongs to (several if the registered directories overlap). Immutable, equal by the directory.
+     */
+    private static class WatchedDir {
+        private final Path      dir;
+        private final Set<Path> roots;
+
+        private WatchedDir(Path dir, Set<Path> roots) {
+            this.dir = dir;
+            this.roots = roots;
+        }
+
+        private WatchedDir withRoot(Path root) {
+            if (roots.contains(root)) {
+                return this;
+            }
+            return new WatchedDir(dir, ImmutableSet.<Path> builder().addAll(roots).add(root).build());
+        }
+
+        private WatchedDir withoutRoot(Path root) {
+            return new WatchedDir(dir, ImmutableSet.copyOf(roots.stream().filter((Path r) -> !r.equals(root)).iterator()));
+        }
 
-        public WatchEntry(WatchKey watchKey, Kind<?>[] kinds) {
-            this.key = watchKey;
-            this.kinds = kinds;
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof WatchedDir) {
+                return dir.equals(((WatchedDir) obj).dir);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return dir.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return dir.toString();
         }
     }
 }
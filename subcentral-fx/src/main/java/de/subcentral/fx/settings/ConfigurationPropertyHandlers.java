@@ -23,9 +23,11 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
 import javafx.util.StringConverter;
+import javafx.util.converter.IntegerStringConverter;
 
 public class ConfigurationPropertyHandlers {
     public static final ConfigurationPropertyHandler<String>                        STRING_HANDLER               = new StringConverterHandler<>(FxUtil.IDENTITY_STRING_CONVERTER);
+    public static final ConfigurationPropertyHandler<Integer>                       INTEGER_HANDLER              = new StringConverterHandler<>(new IntegerStringConverter());
     public static final ConfigurationPropertyHandler<Path>                          PATH_HANDLER                 = new StringConverterHandler<>(FxUtil.PATH_STRING_CONVERTER);
     public static final ConfigurationPropertyHandler<ObservableList<Path>>          PATH_LIST_HANDLER            = new ListStringConverterHandler<>(FxUtil.PATH_STRING_CONVERTER);
     public static final ConfigurationPropertyHandler<ObservableList<Path>>          PATH_SORTED_LIST_HANDLER     = new ListStringConverterHandler<>(FxUtil.PATH_STRING_CONVERTER,
@@ -172,4 +174,4 @@ public class ConfigurationPropertyHandlers {
             }
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,242 @@
+package de.subcentral.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class DirectoryWatchServiceTest {
+    private static final long             TIMEOUT_MILLIS = 10_000L;
+    // the time in which no file should be passed on
+    private static final long             QUIET_MILLIS   = 1_500L;
+
+    @Rule
+    public TemporaryFolder                tmpFolder      = new TemporaryFolder();
+
+    private final BlockingQueue<Path>     passedOn       = new LinkedBlockingQueue<>();
+    private final DirectoryWatchService   service        = new DirectoryWatchService((dir, files) -> files.forEach(file -> passedOn.add(dir.resolve(file))));
+    private final AtomicBoolean           cancelled      = new AtomicBoolean(false);
+    private Thread                        watchThread;
+
+    @After
+    public void stopWatch() throws InterruptedException {
+        if (watchThread != null) {
+            cancelled.set(true);
+            watchThread.interrupt();
+            watchThread.join(TIMEOUT_MILLIS);
+        }
+    }
+
+    @Test
+    public void testEventsAreCoalesced() throws Exception {
+        Path dir = tmpFolder.newFolder("watch").toPath();
+        service.setDebounceWindow(Duration.ofMillis(300L));
+        register(dir);
+        startWatch(1);
+
+        // a file which is written in several steps
+        Path file = write(dir.resolve("a.srt"));
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(20L);
+            Files.write(file, ("line " + i + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        assertEquals(file, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testSubdirectoriesAndIgnorePatterns() throws Exception {
+        Path dir = tmpFolder.newFolder("watch").toPath();
+        Path sub = Files.createDirectories(dir.resolve("sub"));
+        Path tooDeep = Files.createDirectories(sub.resolve("deeper"));
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        service.setMaxDepth(1);
+        service.setIgnorePatterns(ImmutableList.of("*.part"));
+        register(dir);
+        startWatch(2);
+
+        write(tooDeep.resolve("deep.srt"));
+        write(sub.resolve("b.part"));
+        Path file = write(sub.resolve("b.srt"));
+
+        assertEquals(file, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testIgnoredSubdirectoryIsNotWatched() throws Exception {
+        Path dir = tmpFolder.newFolder("watch").toPath();
+        Path incomplete = Files.createDirectories(dir.resolve("incomplete"));
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        service.setMaxDepth(1);
+        service.setIgnorePatterns(ImmutableList.of("incomplete"));
+        register(dir);
+        startWatch(1);
+
+        write(incomplete.resolve("a.srt"));
+        Path file = write(dir.resolve("b.srt"));
+
+        assertEquals(file, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testNewSubdirectoryIsWatched() throws Exception {
+        Path dir = tmpFolder.newFolder("watch").toPath();
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        service.setMaxDepth(1);
+        register(dir);
+        startWatch(1);
+
+        Path sub = Files.createDirectories(dir.resolve("sub"));
+        // a file which may be created before the new directory is registered is found by its rescan
+        Path first = write(sub.resolve("first.srt"));
+        assertEquals(first, poll());
+        awaitWatchedDirectoryCount(2);
+
+        Path second = write(sub.resolve("second.srt"));
+        assertEquals(second, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testRecreatedFileIsPassedOnAgain() throws Exception {
+        Path dir = tmpFolder.newFolder("watch").toPath();
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        register(dir);
+        startWatch(1);
+
+        Path file = write(dir.resolve("a.srt"));
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        assertEquals(file, poll());
+
+        Files.delete(file);
+        Thread.sleep(500L);
+        // the same size and modification time as before
+        write(file);
+        Files.setLastModifiedTime(file, lastModified);
+
+        assertEquals(file, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testInitialScan() throws Exception {
+        Path dir = tmpFolder.newFolder("watch").toPath();
+        Path existing = write(dir.resolve("existing.srt"));
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        service.setInitialScan(true);
+        register(dir);
+        startWatch(1);
+
+        assertEquals(existing, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testRegisterWhileWatching() throws Exception {
+        Path dir1 = tmpFolder.newFolder("watch1").toPath();
+        Path dir2 = tmpFolder.newFolder("watch2").toPath();
+        Path sub = Files.createDirectories(dir2.resolve("sub"));
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        service.setMaxDepth(1);
+        register(dir1);
+        startWatch(1);
+
+        register(dir2);
+        // the subdirectory is registered in the background
+        awaitWatchedDirectoryCount(3);
+        Path file = write(sub.resolve("a.srt"));
+
+        assertEquals(file, poll());
+        assertNoMorePassedOn();
+    }
+
+    @Test
+    public void testUnregisterOverlappingRoot() throws Exception {
+        Path parent = tmpFolder.newFolder("watch").toPath();
+        Path child = Files.createDirectories(parent.resolve("child"));
+        service.setDebounceWindow(Duration.ofMillis(100L));
+        service.setMaxDepth(1);
+        register(parent);
+        register(child);
+        startWatch(2);
+
+        assertTrue(service.unregisterDirectory(parent));
+        assertEquals(ImmutableSet.of(child), service.getWatchDirectories());
+        assertEquals(1, service.getWatchedDirectoryCount());
+
+        write(parent.resolve("ignored.srt"));
+        Path file = write(child.resolve("a.srt"));
+
+        assertEquals(file, poll());
+        assertNoMorePassedOn();
+    }
+
+    private void register(Path dir) throws IOException {
+        assertTrue(service.registerDirectory(dir, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY));
+    }
+
+    private void startWatch(int expectedWatchedDirectoryCount) throws InterruptedException {
+        watchThread = new Thread(() -> {
+            try {
+                service.runWatch(cancelled::get);
+            }
+            catch (InterruptedException | IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, "DirectoryWatchServiceTest-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        awaitWatchedDirectoryCount(expectedWatchedDirectoryCount);
+    }
+
+    private void awaitWatchedDirectoryCount(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (service.getWatchedDirectoryCount() != expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Expected " + expected + " watched directories but were " + service.getWatchedDirectoryCount());
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    private static Path write(Path file) throws IOException {
+        return Files.write(file, "content".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path poll() throws InterruptedException {
+        return passedOn.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void assertNoMorePassedOn() throws InterruptedException {
+        Set<Path> more = new HashSet<>();
+        Path file;
+        while ((file = passedOn.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+            more.add(file);
+        }
+        assertEquals(ImmutableSet.of(), more);
+    }
+}
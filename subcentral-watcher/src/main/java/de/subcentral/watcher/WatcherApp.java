@@ -8,9 +8,21 @@ import org.apache.commons.lang3.SystemUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.metadata.service.FileHttpResponseCache;
+import de.subcentral.core.metadata.service.HttpMetadataService;
+import de.subcentral.core.metadata.service.HttpResponseCache;
+import de.subcentral.core.metadata.service.LocalReleaseMetadataService;
+import de.subcentral.core.metadata.service.MemoryHttpResponseCache;
+import de.subcentral.core.metadata.service.TieredHttpResponseCache;
 import de.subcentral.core.util.LocalConfig;
 import de.subcentral.core.util.TimeUtil;
 import de.subcentral.fx.FxIO;
+import de.subcentral.support.orlydbcom.OrlyDbCom;
+import de.subcentral.support.predbme.PreDbMe;
+import de.subcentral.support.predborg.PreDbOrg;
+import de.subcentral.support.xrelto.XRelTo;
 import de.subcentral.watcher.controller.WatcherMainController;
 import javafx.application.Application;
 import javafx.scene.Scene;
@@ -18,21 +30,27 @@ import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
 public class WatcherApp extends Application {
-    public static final String    APP_NAME         = "Watcher";
-    public static final String    APP_VERSION      = "2.3";
-    public static final String    APP_VERSION_DATE = "2017-05-30";
-    public static final String    APP_INFO         = APP_NAME + " " + APP_VERSION + " (" + APP_VERSION_DATE + ")";
+    public static final String                          APP_NAME         = "Watcher";
+    public static final String                          APP_VERSION      = "2.3";
+    public static final String                          APP_VERSION_DATE = "2017-05-30";
+    public static final String                          APP_INFO         = APP_NAME + " " + APP_VERSION + " (" + APP_VERSION_DATE + ")";
 
-    public static final String    SYS_PROP_LOGDIR  = "watcher.logdir";
+    public static final String                          SYS_PROP_LOGDIR  = "watcher.logdir";
 
-    private static Logger         log;
+    private static final String                         HTTP_CACHE_DIR   = "http-cache";
+    private static final String                         RELEASE_MIRROR   = "release-mirror.log";
+
+    private static Logger                               log;
+
+    // the local mirror of the release databases or null if it could not be opened
+    private LocalReleaseMetadataService                 releaseMirror;
 
     // View
-    private Stage                 primaryStage;
-    private BorderPane            mainView;
+    private Stage                                       primaryStage;
+    private BorderPane                                  mainView;
 
     // Control
-    private WatcherMainController watcherMainController;
+    private WatcherMainController                       watcherMainController;
 
     @Override
     public void init() throws Exception {
@@ -46,9 +64,39 @@ public class WatcherApp extends Application {
         log.info("Java home: {}", SystemUtils.JAVA_HOME);
         log.info("User dir: {}", SystemUtils.USER_DIR);
 
+        initResponseCache();
+        initReleaseMirror();
+
         log.info("Initialized {} in {} ms", APP_INFO, TimeUtil.durationMillis(start));
     }
 
+    private static void initResponseCache() {
+        // Responses of the release databases are kept in memory and on disk, so the same releases are not requested again after a restart
+        Path cacheDir = getLocalConfigDirectory().resolve(HTTP_CACHE_DIR);
+        FileHttpResponseCache fileCache = new FileHttpResponseCache(cacheDir);
+        fileCache.removeExpired();
+        HttpResponseCache cache = new TieredHttpResponseCache(new MemoryHttpResponseCache(), fileCache);
+        for (HttpMetadataService service : ImmutableList.of(PreDbMe.getMetadataService(),
+                PreDbOrg.getMetadataService(),
+                XRelTo.getMetadataService(),
+                OrlyDbCom.getMetadataService())) {
+            service.setResponseCache(cache);
+        }
+        log.debug("Using response cache {}", cache);
+    }
+
+    private void initReleaseMirror() {
+        // The results of the release databases are mirrored locally, so the same releases are not queried again and the processing works while the databases are down
+        Path file = getLocalConfigDirectory().resolve(RELEASE_MIRROR);
+        try {
+            releaseMirror = LocalReleaseMetadataService.open(file);
+            log.debug("Using release mirror {} with {} releases", releaseMirror, releaseMirror.getReleaseCount());
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Could not open release mirror " + file + ". Release databases are always queried", e);
+        }
+    }
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         log.debug("Starting {} ...", APP_INFO);
@@ -70,7 +118,7 @@ public class WatcherApp extends Application {
     }
 
     private void initMainController() throws IOException {
-        this.watcherMainController = new WatcherMainController(primaryStage);
+        this.watcherMainController = new WatcherMainController(primaryStage, releaseMirror);
         mainView = FxIO.loadView("MainView.fxml", watcherMainController, "MainView", Locale.ENGLISH);
     }
 
@@ -86,6 +134,9 @@ public class WatcherApp extends Application {
         long start = System.nanoTime();
 
         watcherMainController.shutdown();
+        if (releaseMirror != null) {
+            releaseMirror.close();
+        }
 
         log.info("Stopped {} in {} ms", APP_INFO, TimeUtil.durationMillis(start));
     }
@@ -2,12 +2,19 @@ package de.subcentral.watcher.controller;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.StringJoiner;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.Strings;
+
+import de.subcentral.core.util.StringUtil;
 import de.subcentral.fx.DirectoryWatchService;
 import de.subcentral.fx.FxControlBindings;
 import de.subcentral.fx.FxIO;
@@ -32,6 +39,8 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 
 public class WatchController extends SubController<WatcherMainController> {
+    private static final Logger   log      = LogManager.getLogger(WatchController.class);
+
     // View
     @FXML
     private Button                startWatchButton;
@@ -148,11 +157,36 @@ public class WatchController extends SubController<WatcherMainController> {
 
         watchService = new DirectoryWatchService(parent.getProcessingController()::handleFilesFromWatchDir);
         watchService.setExecutor(watchServiceExecutor);
+        updateWatchScope();
         WatcherFxUtil.bindWatchDirectories(watchService, SettingsController.SETTINGS.getWatchDirectories().property());
         watchService.setInitialScan(SettingsController.SETTINGS.getInitialScan().get());
         SettingsController.SETTINGS.getInitialScan()
                 .property()
                 .addListener((ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) -> watchService.setInitialScan(newValue));
+        updateWatchTimings();
+        SettingsController.SETTINGS.getDebounceMillis().property().addListener((Observable o) -> updateWatchTimings());
+        SettingsController.SETTINGS.getReconciliationSeconds().property().addListener((Observable o) -> updateWatchTimings());
+        SettingsController.SETTINGS.getMaxDepth().property().addListener((Observable o) -> updateWatchScope());
+        SettingsController.SETTINGS.getIgnorePatterns().property().addListener((Observable o) -> updateWatchScope());
+    }
+
+    private void updateWatchTimings() {
+        Integer debounceMillis = SettingsController.SETTINGS.getDebounceMillis().getValue();
+        Integer reconciliationSeconds = SettingsController.SETTINGS.getReconciliationSeconds().getValue();
+        watchService.setDebounceWindow(debounceMillis != null && debounceMillis > 0 ? Duration.ofMillis(debounceMillis) : Duration.ZERO);
+        watchService.setReconciliationInterval(reconciliationSeconds != null && reconciliationSeconds > 0 ? Duration.ofSeconds(reconciliationSeconds) : Duration.ZERO);
+    }
+
+    private void updateWatchScope() {
+        Integer maxDepth = SettingsController.SETTINGS.getMaxDepth().getValue();
+        // the max depth applies to the directories which are registered afterwards (e.g. after a restart of the watch)
+        watchService.setMaxDepth(maxDepth != null && maxDepth > 0 ? maxDepth : 0);
+        try {
+            watchService.setIgnorePatterns(StringUtil.COMMA_SPLITTER.splitToList(Strings.nullToEmpty(SettingsController.SETTINGS.getIgnorePatterns().getValue())));
+        }
+        catch (IllegalArgumentException e) {
+            log.warn("Invalid ignore patterns: {}", e.toString());
+        }
     }
 
     @Override
@@ -22,6 +22,7 @@ import javax.swing.SwingUtilities;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import de.subcentral.core.metadata.service.LocalReleaseMetadataService;
 import de.subcentral.core.util.NamedThreadFactory;
 import de.subcentral.fx.FxIO;
 import de.subcentral.fx.ctrl.MainController;
@@ -38,34 +39,45 @@ import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
 
 public class WatcherMainController extends MainController {
-    private static final Logger  log                  = LogManager.getLogger(WatcherMainController.class);
+    private static final Logger               log                  = LogManager.getLogger(WatcherMainController.class);
 
-    public static final int      PROCESSING_TAB_INDEX = 0;
-    public static final int      SETTINGS_TAB_INDEX   = 1;
+    public static final int                   PROCESSING_TAB_INDEX = 0;
+    public static final int                   SETTINGS_TAB_INDEX   = 1;
 
     // View
     // UI components are automatically injected before initialize()
     @FXML
-    private BorderPane           rootPane;
+    private BorderPane                        rootPane;
     @FXML
-    private TabPane              tabPane;
+    private TabPane                           tabPane;
     @FXML
-    private AnchorPane           processingRootPane;
+    private AnchorPane                        processingRootPane;
     @FXML
-    private AnchorPane           settingsRootPane;
+    private AnchorPane                        settingsRootPane;
 
     // SystemTray handling
-    private SystemTray           systemTray;
-    private TrayIcon             systemTrayIcon;
-    private MenuItem             systemTrayShowHideMenuItem;
+    private SystemTray                        systemTray;
+    private TrayIcon                          systemTrayIcon;
+    private MenuItem                          systemTrayShowHideMenuItem;
 
     // Controller
-    private WatchController      watchController;
-    private ProcessingController processingController;
-    private SettingsController   settingsController;
+    private WatchController                   watchController;
+    private ProcessingController              processingController;
+    private SettingsController                settingsController;
 
-    public WatcherMainController(Stage primaryStage) {
+    // the local mirror of the release databases (may be null)
+    private final LocalReleaseMetadataService releaseMirror;
+
+    /**
+     * 
+     * @param primaryStage
+     *            the primary stage
+     * @param releaseMirror
+     *            the local mirror of the release databases or null if there is none
+     */
+    public WatcherMainController(Stage primaryStage, LocalReleaseMetadataService releaseMirror) {
         super(primaryStage);
+        this.releaseMirror = releaseMirror;
     }
 
     @Override
@@ -185,6 +197,14 @@ public class WatcherMainController extends MainController {
         return watchController;
     }
 
+    /**
+     * 
+     * @return the local mirror of the release databases or null if there is none
+     */
+    public LocalReleaseMetadataService getReleaseMirror() {
+        return releaseMirror;
+    }
+
     public ProcessingController getProcessingController() {
         return processingController;
     }
@@ -10,6 +10,7 @@ import de.subcentral.core.correct.CorrectionService;
 import de.subcentral.core.metadata.release.CompatibilityService;
 import de.subcentral.core.metadata.release.StandardRelease;
 import de.subcentral.core.metadata.release.Tag;
+import de.subcentral.core.metadata.service.LocalReleaseMetadataService;
 import de.subcentral.core.metadata.service.MetadataService;
 import de.subcentral.core.parse.ParsingService;
 import de.subcentral.core.util.Context;
@@ -26,6 +27,8 @@ class ProcessingConfig {
     // release - dbs
     private ImmutableList<MetadataService> releaseDbs;
     private ParsingService                 releaseParsingService;
+    // release - mirror (null if disabled or not available)
+    private LocalReleaseMetadataService    releaseMirror;
     // release - guessing
     private boolean                        guessingEnabled;
     private ImmutableList<StandardRelease> standardReleases;
@@ -83,6 +86,14 @@ class ProcessingConfig {
         this.releaseParsingService = releaseParsingService;
     }
 
+    LocalReleaseMetadataService getReleaseMirror() {
+        return releaseMirror;
+    }
+
+    void setReleaseMirror(LocalReleaseMetadataService releaseMirror) {
+        this.releaseMirror = releaseMirror;
+    }
+
     boolean isGuessingEnabled() {
         return guessingEnabled;
     }
@@ -204,6 +215,7 @@ class ProcessingConfig {
                 .add("releaseMetaTags", releaseMetaTags)
                 .add("releaseDbs", releaseDbs)
                 .add("releaseParsingService", releaseParsingService)
+                .add("releaseMirror", releaseMirror)
                 .add("guessingEnabled", guessingEnabled)
                 .add("standardReleases", standardReleases)
                 .add("compatibilityEnabled", compatibilityEnabled)
@@ -219,4 +231,4 @@ class ProcessingConfig {
                 .add("packingSourceDeletionMode", packingSourceDeletionMode)
                 .toString();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -6,15 +6,22 @@ import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,7 +45,11 @@ import de.subcentral.core.name.NamingService;
 import de.subcentral.core.name.PrintPropService;
 import de.subcentral.core.parse.MultiParsingService;
 import de.subcentral.core.util.Context;
+import de.subcentral.core.util.FileReadinessTracker;
 import de.subcentral.core.util.IOUtil;
+import de.subcentral.core.util.NamedThreadFactory;
+import de.subcentral.core.util.ProcessedFileJournal;
+import de.subcentral.core.util.ProcessedFileJournal.Status;
 import de.subcentral.core.util.TimeUtil;
 import de.subcentral.fx.FxBindings;
 import de.subcentral.fx.FxIO;
@@ -48,6 +59,7 @@ import de.subcentral.fx.UserPattern;
 import de.subcentral.fx.action.FxActions;
 import de.subcentral.fx.ctrl.SubController;
 import de.subcentral.fx.settings.SettingsUtil;
+import de.subcentral.watcher.WatcherApp;
 import de.subcentral.watcher.WatcherFxUtil;
 import de.subcentral.watcher.controller.WatcherMainController;
 import de.subcentral.watcher.controller.settings.SettingsController;
@@ -88,6 +100,7 @@ import javafx.stage.Stage;
 
 public class ProcessingController extends SubController<WatcherMainController> {
     private static final Logger                                   log                       = LogManager.getLogger(ProcessingController.class);
+    private static final String                                   JOURNAL_FILENAME          = "processed-files.journal";
 
     // Processing Config
     private final Binding<ProcessingConfig>                       processingConfig          = initProcessingCfgBinding();
@@ -95,7 +108,19 @@ public class ProcessingController extends SubController<WatcherMainController> {
     private final NamingService                                   namingServiceForFiltering = initNamingServiceForFiltering();
     private final PrintPropService                                printPropService          = initPropToStringService();
 
-    private ExecutorService                                       processingExecutor;
+    private ProcessingPipeline                                    processingPipeline;
+    // files from the watch directories are only processed once they are completely written
+    private FileReadinessTracker                                  readinessTracker;
+    private ExecutorService                                       intakeExecutor;
+    // the processing of the files is journaled, so already processed files are known after a restart as well
+    private final ProcessedFileJournal                            journal                   = openJournal();
+    // only accessed in the JavaFX Application Thread
+    private final Map<Path, ProcessingTask>                       tasksBySourceFile         = new HashMap<>();
+    // the tasks whose results are taken over by the tasks of files with the same content (only accessed in the JavaFX Application Thread)
+    private final Map<String, ProcessingTask>                     tasksByContentHash        = new HashMap<>();
+    private boolean                                               unfinishedTasksResumed;
+    // set when the application shuts down, so the interrupted tasks leave their files started in the journal
+    private volatile boolean                                      shuttingDown;
 
     // View properties
     // ProcessingTree
@@ -129,9 +154,11 @@ public class ProcessingController extends SubController<WatcherMainController> {
 
     public ProcessingController(WatcherMainController watcherMainController) {
         super(watcherMainController);
+        // not in initialize() because the view may be reloaded
+        initProcessingPipelineSizing();
     }
 
-    private static Binding<ProcessingConfig> initProcessingCfgBinding() {
+    private Binding<ProcessingConfig> initProcessingCfgBinding() {
         return new ObjectBinding<ProcessingConfig>() {
             {
                 super.bind(SettingsController.SETTINGS.getProcessingSettings());
@@ -150,6 +177,7 @@ public class ProcessingController extends SubController<WatcherMainController> {
                     cfg.setFilenameParsingService(new MultiParsingService("filename", SettingsUtil.getValuesOfEnabledSettingEntries(settings.getFilenameParsers().getValue())));
                     cfg.setReleaseDbs(SettingsUtil.getValuesOfEnabledSettingEntries(settings.getReleaseDbs().getValue()));
                     cfg.setReleaseParsingService(new MultiParsingService("release", SettingsUtil.getValuesOfEnabledSettingEntries(settings.getReleaseParsers().getValue())));
+                    cfg.setReleaseMirror(settings.getReleaseMirrorEnabled().get() ? parent.getReleaseMirror() : null);
                     cfg.setGuessingEnabled(settings.getGuessingEnabled().get());
                     cfg.setReleaseMetaTags(ImmutableList.copyOf(settings.getReleaseMetaTags().getValue()));
                     cfg.setStandardReleases(ImmutableList.copyOf(settings.getStandardReleases().getValue()));
@@ -233,15 +261,31 @@ public class ProcessingController extends SubController<WatcherMainController> {
         return NamingDefaults.getDefaultPrintPropService();
     }
 
+    private static ProcessedFileJournal openJournal() {
+        Path file = WatcherApp.getLocalConfigDirectory().resolve(JOURNAL_FILENAME);
+        try {
+            ProcessedFileJournal journal = ProcessedFileJournal.open(file);
+            log.debug("Using processed file journal {} with {} entries", file, journal.getEntryCount());
+            return journal;
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("Could not open processed file journal " + file + ". Already processed files are only known until the application is closed", e);
+            return null;
+        }
+    }
+
     @Override
     protected void initialize() {
         initProcessingTreeTable();
         initLowerButtonBar();
+        resumeUnfinishedTasks();
     }
 
     private void initProcessingTreeTable() {
         // init root
         processingTreeTable.setRoot(new TreeItem<>());
+        tasksBySourceFile.clear();
+        tasksByContentHash.clear();
 
         // init columns
         nameColumn.setCellValueFactory((TreeTableColumn.CellDataFeatures<ProcessingItem, String> features) -> features.getValue().getValue().nameProperty());
@@ -413,11 +457,44 @@ public class ProcessingController extends SubController<WatcherMainController> {
         return processingTreeTable;
     }
 
-    private ExecutorService getProcessingExecutor() {
-        if (processingExecutor == null || processingExecutor.isShutdown()) {
-            processingExecutor = Executors.newSingleThreadExecutor((Runnable r) -> new Thread(r, "Watcher-FileProcessor"));
+    // package private
+    synchronized ProcessingPipeline getProcessingPipeline() {
+        if (processingPipeline == null || processingPipeline.isShutdown()) {
+            ProcessingSettings settings = SettingsController.SETTINGS.getProcessingSettings();
+            processingPipeline = new ProcessingPipeline(getPositive(settings.getWorkers().getValue(), 4),
+                    getPositive(settings.getBacklogCapacity().getValue(), 1000),
+                    getPositive(settings.getCpuThreads().getValue(), Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                    getPositive(settings.getIoThreads().getValue(), 4));
+            log.debug("Created processing pipeline: {}", processingPipeline);
         }
-        return processingExecutor;
+        return processingPipeline;
+    }
+
+    /**
+     * 
+     * @return the current statistics of the processing stages (timings and queue depths)
+     */
+    public List<ProcessingStageStatistics> getProcessingStatistics() {
+        return getProcessingPipeline().getStatistics();
+    }
+
+    private void initProcessingPipelineSizing() {
+        ProcessingSettings settings = SettingsController.SETTINGS.getProcessingSettings();
+        settings.getWorkers().property().addListener((Observable o) -> {
+            int workers = getPositive(settings.getWorkers().getValue(), 4);
+            log.debug("Changing the number of processing workers to {}", workers);
+            getProcessingPipeline().setWorkerCount(workers);
+        });
+        settings.getCpuThreads().property().addListener((Observable o) -> {
+            getProcessingPipeline().setCpuThreadCount(getPositive(settings.getCpuThreads().getValue(), 1));
+        });
+        settings.getIoThreads().property().addListener((Observable o) -> {
+            getProcessingPipeline().setIoThreadCount(getPositive(settings.getIoThreads().getValue(), 4));
+        });
+    }
+
+    private static int getPositive(Integer value, int defaultValue) {
+        return value != null && value.intValue() > 0 ? value.intValue() : defaultValue;
     }
 
     // package private
@@ -428,22 +505,73 @@ public class ProcessingController extends SubController<WatcherMainController> {
     // Controlling methods
     public void handleFilesFromWatchDir(Path watchDir, Collection<Path> files) {
         log.debug("Handling {} file(s) watch directory {}", files.size(), watchDir);
-        handleFiles(files.stream().map((Path relativeFile) -> watchDir.resolve(relativeFile)));
+        // The files may still be being written. They are handled once they are ready
+        FileReadinessTracker tracker = getReadinessTracker();
+        // The result files must not be processed again if the target directory is watched (as a subdirectory of a watch directory)
+        Path targetDir = SettingsController.SETTINGS.getProcessingSettings().getTargetDir().getValue();
+        for (Path relativeFile : files) {
+            Path file = watchDir.resolve(relativeFile);
+            if (targetDir != null && targetDir.isAbsolute() && file.startsWith(targetDir)) {
+                log.debug("Ignoring {} because it is in the target directory", file);
+                continue;
+            }
+            tracker.track(file);
+        }
+    }
+
+    private synchronized FileReadinessTracker getReadinessTracker() {
+        if (readinessTracker == null) {
+            // one thread which takes the ready files in (and which may be slowed down if the processing backlog is full)
+            intakeExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("Watcher-FileIntake", true));
+            readinessTracker = new FileReadinessTracker(getQuiescencePeriod(),
+                    (Path file) -> intakeExecutor.execute(() -> handleFiles(Stream.of(file))));
+            SettingsController.SETTINGS.getQuiescenceMillis().property().addListener((Observable o) -> readinessTracker.setQuiescencePeriod(getQuiescencePeriod()));
+        }
+        return readinessTracker;
+    }
+
+    private static Duration getQuiescencePeriod() {
+        return Duration.ofMillis(getPositive(SettingsController.SETTINGS.getQuiescenceMillis().getValue(), 1000));
     }
 
     public void handleDroppedFiles(Collection<File> files) {
         log.debug("Handling {} file(s) from Drag-And-Drop", files.size());
-        handleFiles(files.stream().map((File file) -> file.toPath()));
+        // Submitting may block if the processing backlog is full. The JavaFX Application Thread must not block
+        List<Path> paths = files.stream().map((File file) -> file.toPath()).collect(Collectors.toList());
+        getExecutor().execute(() -> handleFiles(paths.stream()));
     }
 
+    /**
+     * Must not be called in the JavaFX Application Thread because it may block until there is space in the processing backlog.
+     */
     private void handleFiles(Stream<Path> files) {
         // Filtering based on file attributes is done in the thread which ever called this method (IO can take some time)
         final List<Path> filteredWithFileAttributes = files.filter(ProcessingController::filterByFileAttributes).collect(Collectors.toList());
+        if (filteredWithFileAttributes.isEmpty()) {
+            return;
+        }
 
-        // Filtering based on the current settings has to be done in the JavaFX Application Thread
-        Platform.runLater(() -> {
-            filteredWithFileAttributes.stream().filter(ProcessingController::filterByName).filter(this::filterOutAlreadyProcessedFiles).forEach(this::submitNewTask);
+        // Looking up the files in the journal is done in the calling thread as well (it reads the file attributes)
+        final Set<Path> journaledAsProcessed = new HashSet<>();
+        for (Path file : filteredWithFileAttributes) {
+            if (isJournaledAsProcessed(file)) {
+                journaledAsProcessed.add(file);
+            }
+        }
+
+        // Filtering based on the current settings and creating the tasks has to be done in the JavaFX Application Thread
+        final List<ProcessingTask> newTasks = new ArrayList<>(filteredWithFileAttributes.size());
+        FxUtil.runAndWait(() -> {
+            filteredWithFileAttributes.stream()
+                    .filter(ProcessingController::filterByName)
+                    .filter((Path file) -> filterOutAlreadyProcessedFiles(file, journaledAsProcessed.contains(file)))
+                    .forEach((Path file) -> newTasks.add(createNewTask(file)));
         });
+
+        // Submitting is done in the calling thread. So if the backlog is full, the caller is slowed down (back-pressure)
+        for (ProcessingTask task : newTasks) {
+            submit(task);
+        }
     }
 
     private static boolean filterByFileAttributes(Path file) {
@@ -483,31 +611,114 @@ public class ProcessingController extends SubController<WatcherMainController> {
         return true;
     }
 
-    private boolean filterOutAlreadyProcessedFiles(Path file) {
-        boolean rejectAlreadyProcessedFiles = SettingsController.SETTINGS.getRejectAlreadyProcessedFiles().get();
-        for (TreeItem<ProcessingItem> sourceTreeItem : processingTreeTable.getRoot().getChildren()) {
-            ProcessingTask task = (ProcessingTask) sourceTreeItem.getValue();
-            if (task.getSourceFile().equals(file)) {
-                if ((task.getState() == State.READY || task.getState() == State.SCHEDULED || task.getState() == State.RUNNING)) {
-                    log.info("Rejecting {} because that file is already being processed currently", file);
-                    return false;
-                }
-                if (rejectAlreadyProcessedFiles) {
-                    log.info("Rejecting {} because that file is already present in the processing list and 'rejectAlreadyProcessedFiles' is enabled", file);
-                    return false;
-                }
+    private boolean isJournaledAsProcessed(Path file) {
+        if (journal == null) {
+            return false;
+        }
+        try {
+            return journal.isProcessed(file);
+        }
+        catch (IOException e) {
+            log.debug("Could not look up {} in the processed file journal: {}", file, e.toString());
+            return false;
+        }
+    }
+
+    private boolean filterOutAlreadyProcessedFiles(Path file, boolean journaledAsProcessed) {
+        ProcessingTask task = tasksBySourceFile.get(file);
+        if (task != null && (task.getState() == State.READY || task.getState() == State.SCHEDULED || task.getState() == State.RUNNING)) {
+            log.info("Rejecting {} because that file is already being processed currently", file);
+            return false;
+        }
+        if (SettingsController.SETTINGS.getRejectAlreadyProcessedFiles().get()) {
+            if (task != null) {
+                log.info("Rejecting {} because that file is already present in the processing list and 'rejectAlreadyProcessedFiles' is enabled", file);
+                return false;
+            }
+            if (journaledAsProcessed) {
+                log.info("Rejecting {} because that file was already processed (according to the journal) and 'rejectAlreadyProcessedFiles' is enabled", file);
+                return false;
             }
         }
         return true;
     }
 
-    private void submitNewTask(Path file) {
+    /**
+     * Looks up the task of another file with the same content as the file of the given task whose results the given task can take over. If there is none, the given task is
+     * registered for its content, so tasks of files with the same content which start later take over its results. Only tasks which process their files themselves are
+     * registered, so a task which is returned never waits for another task. May be called by any thread.
+     * 
+     * @return the task or null if the given task has to process its file itself
+     */
+    ProcessingTask lookUpTaskWithSameContent(ProcessingTask task) {
+        String contentHash = task.getContentHash();
+        if (contentHash == null) {
+            return null;
+        }
+        AtomicReference<ProcessingTask> original = new AtomicReference<>();
+        FxUtil.runAndWait(() -> {
+            ProcessingTask other = tasksByContentHash.get(contentHash);
+            if (other == null || other == task || other.getSourceFile().equals(task.getSourceFile()) || other.getState() == State.FAILED
+                    || other.getState() == State.CANCELLED) {
+                tasksByContentHash.put(contentHash, task);
+            }
+            else {
+                original.set(other);
+            }
+        });
+        return original.get();
+    }
+
+    /**
+     * Records the status of the processing of the given file in the journal. May be called by any thread.
+     * 
+     * @param contentHash
+     *            the hash of the content of the file if already known (or null)
+     */
+    void recordInJournal(Path file, Status status, String contentHash) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.record(file, status, contentHash);
+        }
+        catch (IOException e) {
+            log.warn("Could not record processing status {} of {} in the journal: {}", status, file, e.toString());
+        }
+    }
+
+    /**
+     * Resubmits the files whose processing was started but did not end before the application was closed (once, the view may be reloaded).
+     */
+    private void resumeUnfinishedTasks() {
+        if (journal == null || unfinishedTasksResumed) {
+            return;
+        }
+        unfinishedTasksResumed = true;
+        List<Path> files = journal.getUnfinished().stream().map(ProcessedFileJournal.Entry::getFile).collect(Collectors.toList());
+        if (!files.isEmpty()) {
+            log.info("Resuming the processing of {} file(s) which were not finished: {}", files.size(), files);
+            getExecutor().execute(() -> handleFiles(files.stream()));
+        }
+    }
+
+    private ProcessingTask createNewTask(Path file) {
         TreeItem<ProcessingItem> taskItem = new TreeItem<>();
         ProcessingTask newTask = new ProcessingTask(file, this, taskItem);
         taskItem.setValue(newTask);
         processingTreeTable.getRoot().getChildren().add(taskItem);
+        tasksBySourceFile.put(file, newTask);
+        return newTask;
+    }
 
-        getProcessingExecutor().submit(newTask);
+    private void submit(ProcessingTask task) {
+        try {
+            getProcessingPipeline().submit(task);
+        }
+        catch (RejectedExecutionException e) {
+            log.warn("Could not submit processing task for {}: {}", task.getSourceFile(), e.toString());
+            Platform.runLater(() -> task.cancel());
+        }
     }
 
     // Getter for the tree items and tasks
@@ -623,13 +834,19 @@ public class ProcessingController extends SubController<WatcherMainController> {
                     taskTreeItem.getChildren().clear();
                     ProcessingTask newTask = new ProcessingTask(task.getSourceFile(), ProcessingController.this, taskTreeItem);
                     taskTreeItem.setValue(newTask);
+                    tasksBySourceFile.put(newTask.getSourceFile(), newTask);
+                    // the new task registers itself for the content again when it starts
+                    if (task.getContentHash() != null) {
+                        tasksByContentHash.remove(task.getContentHash(), task);
+                    }
 
                     // TODO hack so that the new TreeItem item is observed for the state of its ProcessingT
                     // -> solution: use service (can be restarted)
                     processingTreeTable.getSelectionModel().clearSelection();
                     processingTreeTable.getSelectionModel().select(taskTreeItem);
 
-                    getProcessingExecutor().execute(newTask);
+                    // Submitting may block if the processing backlog is full
+                    getExecutor().execute(() -> submit(newTask));
                 }
 
                 @Override
@@ -658,6 +875,10 @@ public class ProcessingController extends SubController<WatcherMainController> {
             task.cancel(true);
             // Remove tree item
             processingTreeTable.getRoot().getChildren().remove(taskTreeItem);
+            tasksBySourceFile.remove(task.getSourceFile(), task);
+            if (task.getContentHash() != null) {
+                tasksByContentHash.remove(task.getContentHash(), task);
+            }
             // We have to clear the selection manually if no items left
             if (processingTreeTable.getRoot().getChildren().isEmpty()) {
                 processingTreeTable.getSelectionModel().clearSelection();
@@ -690,11 +911,38 @@ public class ProcessingController extends SubController<WatcherMainController> {
         }
     }
 
+    /**
+     * 
+     * @return whether the application is shutting down. The tasks which are interrupted then are resumed on the next start (see {@link #resumeUnfinishedTasks()})
+     */
+    // package private
+    boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
     @Override
     public void shutdown() throws InterruptedException {
-        if (processingExecutor != null) {
-            processingExecutor.shutdownNow();
-            processingExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        shuttingDown = true;
+        ProcessingPipeline pipeline;
+        synchronized (this) {
+            pipeline = processingPipeline;
+            if (readinessTracker != null) {
+                readinessTracker.close();
+                intakeExecutor.shutdownNow();
+            }
+        }
+        if (pipeline != null) {
+            log.debug("Processing statistics: {}", pipeline.getStatistics());
+            pipeline.shutdownNow();
+            pipeline.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            }
+            catch (IOException e) {
+                log.warn("Exception while closing processed file journal", e);
+            }
         }
     }
 
@@ -822,6 +1070,8 @@ public class ProcessingController extends SubController<WatcherMainController> {
             switch (flag) {
                 case DELETED_SOURCE_FILE:
                     return "Deleted source file";
+                case SAME_CONTENT_AS_OTHER_FILE:
+                    return "Same content as other file";
                 default:
                     return flag.toString();
             }
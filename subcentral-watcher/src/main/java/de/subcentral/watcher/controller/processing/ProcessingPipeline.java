@@ -0,0 +1,369 @@
+package de.subcentral.watcher.controller.processing;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.subcentral.core.util.ExecutorUtil;
+import de.subcentral.core.util.NamedThreadFactory;
+
+/**
+ * The pipeline which processes the files.
+ * <ul>
+ * <li>The <b>workers</b> run the {@link ProcessingTask processing tasks}. A worker only conducts its task through the stages, so the number of workers is the number of files
+ * which are processed at the same time. The tasks which wait for a worker are held in a bounded backlog. If the backlog is full, {@link #submit(Runnable) submitting} blocks
+ * until there is space again (back-pressure). So a flood of new files cannot exhaust the memory.</li>
+ * <li>Each {@link ProcessingStage stage} has its own threads and its own queue. So the result files of one task can be packed while another task is still querying the release
+ * databases. CPU-bound stages get few threads (about as many as processors), I/O-bound stages more.</li>
+ * </ul>
+ * The {@link ProcessingStageListener listeners} and the task itself are notified when a stage of a task starts and finishes. The statistics of the stages (timings, queue depths)
+ * are available via {@link #getStatistics()}.
+ * <p>
+ * The sizes of the pools can be changed at runtime. The capacity of the backlog is fixed.
+ * </p>
+ *
+ * @implSpec #thread-safe
+ */
+class ProcessingPipeline {
+    private static final Logger                       log       = LogManager.getLogger(ProcessingPipeline.class);
+
+    private final BlockingQueue<Runnable>             backlog;
+    private final ThreadPoolExecutor                  workers;
+    private final Map<ProcessingStage, StageExecutor> stages    = new EnumMap<>(ProcessingStage.class);
+    private final ExecutorService                     queryExecutor;
+    private final List<ProcessingStageListener>       listeners = new CopyOnWriteArrayList<>();
+
+    ProcessingPipeline(int workerCount, int backlogCapacity, int cpuThreadCount, int ioThreadCount) {
+        this.backlog = new ArrayBlockingQueue<>(backlogCapacity);
+        this.workers = new ThreadPoolExecutor(workerCount,
+                workerCount,
+                0L,
+                TimeUnit.MILLISECONDS,
+                backlog,
+                new NamedThreadFactory("Watcher-FileProcessor", false),
+                new BlockingSubmitPolicy());
+        for (ProcessingStage stage : ProcessingStage.values()) {
+            stages.put(stage, new StageExecutor(stage, stage.isCpuBound() ? cpuThreadCount : ioThreadCount));
+        }
+        // The QUERY stage waits for the queries of the release databases. So they must not run in the threads of that stage.
+        // Neither may they wait in the queue of a bounded pool: their deadline counts from the submission
+        this.queryExecutor = ExecutorUtil.newPerTaskExecutor("Watcher-ReleaseDbQuery");
+    }
+
+    /**
+     * Submits a processing task. Blocks while the backlog is full.
+     *
+     * @param task
+     *            the task
+     * @throws RejectedExecutionException
+     *             if the pipeline is shut down or if the calling thread is interrupted while waiting for space in the backlog
+     */
+    void submit(Runnable task) throws RejectedExecutionException {
+        workers.execute(task);
+    }
+
+    /**
+     * Runs a stage of a processing task and waits for its result.
+     *
+     * @param stage
+     *            the stage
+     * @param task
+     *            the task
+     * @param work
+     *            the work of the stage
+     * @return the result of the stage
+     * @throws Exception
+     *             the exception thrown by the stage or an {@link InterruptedException}
+     * @see #await(Future)
+     */
+    <T> T run(ProcessingStage stage, ProcessingTask task, Callable<T> work) throws Exception {
+        return await(submit(stage, task, work));
+    }
+
+    /**
+     * Queues a stage of a processing task.
+     *
+     * @param stage
+     *            the stage
+     * @param task
+     *            the task
+     * @param work
+     *            the work of the stage
+     * @return the future result of the stage. {@link Future#cancel(boolean) Cancelling} it interrupts the stage
+     */
+    <T> Future<T> submit(ProcessingStage stage, ProcessingTask task, Callable<T> work) {
+        return stages.get(stage).submit(task, work);
+    }
+
+    /**
+     * Waits for the result of a stage. If the calling thread is interrupted while waiting (the processing task was cancelled), the stage is cancelled as well.
+     *
+     * @param stageResult
+     *            the future result of the stage
+     * @return the result of the stage
+     * @throws Exception
+     *             the exception thrown by the stage or an {@link InterruptedException}
+     */
+    static <T> T await(Future<T> stageResult) throws Exception {
+        try {
+            return stageResult.get();
+        }
+        catch (InterruptedException e) {
+            stageResult.cancel(true);
+            throw e;
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     *
+     * @return the executor for the concurrent queries of the release databases within the {@link ProcessingStage#QUERY} stage
+     */
+    ExecutorService getQueryExecutor() {
+        return queryExecutor;
+    }
+
+    void addListener(ProcessingStageListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(ProcessingStageListener listener) {
+        listeners.remove(listener);
+    }
+
+    void setWorkerCount(int workerCount) {
+        resize(workers, workerCount);
+    }
+
+    void setThreadCount(ProcessingStage stage, int threadCount) {
+        resize(stages.get(stage).executor, threadCount);
+    }
+
+    void setCpuThreadCount(int cpuThreadCount) {
+        for (StageExecutor stage : stages.values()) {
+            if (stage.stage.isCpuBound()) {
+                resize(stage.executor, cpuThreadCount);
+            }
+        }
+    }
+
+    void setIoThreadCount(int ioThreadCount) {
+        for (StageExecutor stage : stages.values()) {
+            if (!stage.stage.isCpuBound()) {
+                resize(stage.executor, ioThreadCount);
+            }
+        }
+    }
+
+    private static void resize(ThreadPoolExecutor executor, int threadCount) {
+        // the order matters because the core size must not exceed the maximum size
+        if (threadCount > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threadCount);
+            executor.setCorePoolSize(threadCount);
+        }
+        else {
+            executor.setCorePoolSize(threadCount);
+            executor.setMaximumPoolSize(threadCount);
+        }
+        // so that the tasks in the queue are picked up immediately
+        executor.prestartAllCoreThreads();
+    }
+
+    /**
+     *
+     * @return the number of processing tasks which wait for a worker
+     */
+    int getBacklogSize() {
+        return backlog.size();
+    }
+
+    /**
+     *
+     * @return the current statistics of all stages (in the order of the stages)
+     */
+    List<ProcessingStageStatistics> getStatistics() {
+        ImmutableList.Builder<ProcessingStageStatistics> statistics = ImmutableList.builder();
+        for (StageExecutor stage : stages.values()) {
+            statistics.add(stage.getStatistics());
+        }
+        return statistics.build();
+    }
+
+    boolean isShutdown() {
+        return workers.isShutdown();
+    }
+
+    void shutdownNow() {
+        int dropped = workers.shutdownNow().size();
+        if (dropped > 0) {
+            log.debug("Dropped {} waiting processing task(s) on shutdown", dropped);
+        }
+        for (StageExecutor stage : stages.values()) {
+            stage.executor.shutdownNow();
+        }
+        queryExecutor.shutdownNow();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        for (StageExecutor stage : stages.values()) {
+            if (!stage.executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return queryExecutor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private void fireStageStarted(ProcessingTask task, ProcessingStage stage) {
+        notifyListeners(task, (ProcessingStageListener l) -> l.stageStarted(task, stage));
+    }
+
+    private void fireStageFinished(ProcessingTask task, ProcessingStage stage, long durationNanos, Throwable failure) {
+        notifyListeners(task, (ProcessingStageListener l) -> l.stageFinished(task, stage, durationNanos, failure));
+    }
+
+    private void notifyListeners(ProcessingTask task, Consumer<ProcessingStageListener> notification) {
+        // the task itself first, so its status is up to date when the other listeners are notified
+        notifyListener(task, notification);
+        for (ProcessingStageListener l : listeners) {
+            notifyListener(l, notification);
+        }
+    }
+
+    private static void notifyListener(ProcessingStageListener listener, Consumer<ProcessingStageListener> notification) {
+        try {
+            notification.accept(listener);
+        }
+        catch (RuntimeException e) {
+            log.warn("Exception while notifying processing stage listener " + listener, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(ProcessingPipeline.class)
+                .add("workers", workers.getMaximumPoolSize())
+                .add("backlog", backlog.size());
+        for (StageExecutor stage : stages.values()) {
+            helper.add(StringUtils.lowerCase(stage.stage.name()) + "Threads", stage.executor.getMaximumPoolSize());
+        }
+        return helper.toString();
+    }
+
+    private final class StageExecutor {
+        private final ProcessingStage    stage;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder          completed      = new LongAdder();
+        private final LongAdder          failed         = new LongAdder();
+        private final LongAdder          totalRunNanos  = new LongAdder();
+        private final AtomicLong         maxRunNanos    = new AtomicLong();
+        private final LongAdder          totalWaitNanos = new LongAdder();
+
+        private StageExecutor(ProcessingStage stage, int threadCount) {
+            this.stage = stage;
+            this.executor = new ThreadPoolExecutor(threadCount,
+                    threadCount,
+                    0L,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory("Watcher-FileProcessor-" + stage.name(), true));
+        }
+
+        private <T> Future<T> submit(ProcessingTask task, Callable<T> work) {
+            long queuedAt = System.nanoTime();
+            return executor.submit(() -> {
+                long start = System.nanoTime();
+                totalWaitNanos.add(start - queuedAt);
+                fireStageStarted(task, stage);
+                Throwable failure = null;
+                try {
+                    return work.call();
+                }
+                catch (Throwable t) {
+                    failure = t;
+                    throw t;
+                }
+                finally {
+                    long duration = System.nanoTime() - start;
+                    completed.increment();
+                    if (failure != null) {
+                        failed.increment();
+                    }
+                    totalRunNanos.add(duration);
+                    maxRunNanos.accumulateAndGet(duration, Math::max);
+                    fireStageFinished(task, stage, duration, failure);
+                }
+            });
+        }
+
+        private ProcessingStageStatistics getStatistics() {
+            return new ProcessingStageStatistics(stage,
+                    executor.getMaximumPoolSize(),
+                    executor.getQueue().size(),
+                    executor.getActiveCount(),
+                    completed.sum(),
+                    failed.sum(),
+                    totalRunNanos.sum(),
+                    maxRunNanos.get(),
+                    totalWaitNanos.sum());
+        }
+    }
+
+    /**
+     * Instead of rejecting a task if the backlog is full, the submitting thread waits until there is space in the backlog.
+     */
+    private static class BlockingSubmitPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor was shut down");
+            }
+            try {
+                log.debug("Processing backlog is full. Waiting for space");
+                executor.getQueue().put(task);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in the processing backlog", e);
+            }
+            // the executor may have been shut down while waiting
+            if (executor.isShutdown() && executor.remove(task)) {
+                throw new RejectedExecutionException("Executor was shut down");
+            }
+        }
+    }
+}
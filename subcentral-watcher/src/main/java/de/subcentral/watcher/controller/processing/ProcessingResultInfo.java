@@ -32,6 +32,15 @@ public class ProcessingResultInfo implements ProcessingInfo {
         this.result = result;
     }
 
+    /**
+     * 
+     * @return a copy which is not assigned to a result yet
+     */
+    // package private
+    ProcessingResultInfo copy() {
+        return new ProcessingResultInfo(sourceType, relationType, standardRelease, compatibility);
+    }
+
     public ProcessingResult getResult() {
         return result;
     }
@@ -0,0 +1,57 @@
+package de.subcentral.watcher.controller.processing;
+
+/**
+ * The stages of the processing of a file. Each stage has its own threads and queue in the {@link ProcessingPipeline}.
+ */
+public enum ProcessingStage {
+    /**
+     * Parsing and correcting the filename.
+     */
+    PARSE("Parsing filename", true, 0.25d),
+    /**
+     * Querying the release databases.
+     */
+    QUERY("Querying release databases", false, 0.5d),
+    /**
+     * Enriching and filtering the found releases, guessing and searching for compatible releases.
+     */
+    MATCH("Processing query results", true, 0.75d),
+    /**
+     * Copying the source file to a result file (per result).
+     */
+    CREATE_FILES("Creating files", false, 0.75d),
+    /**
+     * Packing a result file (per result).
+     */
+    PACK("Packing files", false, 0.75d);
+
+    private final String  description;
+    private final boolean cpuBound;
+    private final double  progressWhenFinished;
+
+    private ProcessingStage(String description, boolean cpuBound, double progressWhenFinished) {
+        this.description = description;
+        this.cpuBound = cpuBound;
+        this.progressWhenFinished = progressWhenFinished;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     *
+     * @return true if the stage mainly computes, false if it mainly waits for I/O
+     */
+    public boolean isCpuBound() {
+        return cpuBound;
+    }
+
+    /**
+     *
+     * @return the progress of the processing task after this stage (0.0 - 1.0)
+     */
+    public double getProgressWhenFinished() {
+        return progressWhenFinished;
+    }
+}
@@ -0,0 +1,26 @@
+package de.subcentral.watcher.controller.processing;
+
+/**
+ * Is notified when a {@link ProcessingStage stage} of a {@link ProcessingTask} starts and finishes. The methods are called in the thread of the stage, so implementations
+ * have to be thread-safe and should return quickly.
+ */
+public interface ProcessingStageListener {
+    public default void stageStarted(ProcessingTask task, ProcessingStage stage) {
+        // default implementation: do nothing
+    }
+
+    /**
+     *
+     * @param task
+     *            the task
+     * @param stage
+     *            the stage
+     * @param durationNanos
+     *            the time the stage took (without the time it waited in the queue)
+     * @param failure
+     *            the exception which was thrown by the stage or null if it succeeded
+     */
+    public default void stageFinished(ProcessingTask task, ProcessingStage stage, long durationNanos, Throwable failure) {
+        // default implementation: do nothing
+    }
+}
@@ -0,0 +1,109 @@
+package de.subcentral.watcher.controller.processing;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A snapshot of the statistics of a {@link ProcessingStage} of the {@link ProcessingPipeline}.
+ */
+public class ProcessingStageStatistics {
+    private final ProcessingStage stage;
+    private final int             threads;
+    private final int             queued;
+    private final int             running;
+    private final long            completed;
+    private final long            failed;
+    private final long            totalRunNanos;
+    private final long            maxRunNanos;
+    private final long            totalWaitNanos;
+
+    // package private
+    ProcessingStageStatistics(ProcessingStage stage,
+            int threads,
+            int queued,
+            int running,
+            long completed,
+            long failed,
+            long totalRunNanos,
+            long maxRunNanos,
+            long totalWaitNanos) {
+        this.stage = Objects.requireNonNull(stage, "stage");
+        this.threads = threads;
+        this.queued = queued;
+        this.running = running;
+        this.completed = completed;
+        this.failed = failed;
+        this.totalRunNanos = totalRunNanos;
+        this.maxRunNanos = maxRunNanos;
+        this.totalWaitNanos = totalWaitNanos;
+    }
+
+    public ProcessingStage getStage() {
+        return stage;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     *
+     * @return the number of stage runs which wait in the queue of the stage (queue depth)
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     *
+     * @return the number of finished stage runs (including the failed ones)
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getTotalRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalRunNanos);
+    }
+
+    public long getAverageRunMillis() {
+        return completed == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(totalRunNanos / completed);
+    }
+
+    public long getMaxRunMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxRunNanos);
+    }
+
+    /**
+     *
+     * @return the average time a stage run waited in the queue
+     */
+    public long getAverageWaitMillis() {
+        return completed == 0L ? 0L : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / completed);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(ProcessingStageStatistics.class)
+                .add("stage", stage)
+                .add("threads", threads)
+                .add("queued", queued)
+                .add("running", running)
+                .add("completed", completed)
+                .add("failed", failed)
+                .add("avgRunMillis", getAverageRunMillis())
+                .add("maxRunMillis", getMaxRunMillis())
+                .add("avgWaitMillis", getAverageWaitMillis())
+                .toString();
+    }
+}
@@ -6,14 +6,21 @@ import java.nio.file.CopyOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -23,10 +30,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ListMultimap;
 
 import de.subcentral.core.correct.Correction;
+import de.subcentral.core.metadata.MetadataUtil;
 import de.subcentral.core.metadata.media.Media;
 import de.subcentral.core.metadata.media.MediaUtil;
 import de.subcentral.core.metadata.release.Compatibility;
@@ -37,6 +46,7 @@ import de.subcentral.core.metadata.release.StandardRelease;
 import de.subcentral.core.metadata.release.StandardRelease.Scope;
 import de.subcentral.core.metadata.release.Tag;
 import de.subcentral.core.metadata.release.Tags;
+import de.subcentral.core.metadata.service.LocalReleaseMetadataService;
 import de.subcentral.core.metadata.service.MetadataService;
 import de.subcentral.core.metadata.service.MetadataServiceUtil;
 import de.subcentral.core.metadata.subtitle.Subtitle;
@@ -46,7 +56,9 @@ import de.subcentral.core.parse.ParsingService;
 import de.subcentral.core.util.CollectionUtil;
 import de.subcentral.core.util.Context;
 import de.subcentral.core.util.IOUtil;
+import de.subcentral.core.util.ProcessedFileJournal.Status;
 import de.subcentral.core.util.TimeUtil;
+import de.subcentral.fx.FxUtil;
 import de.subcentral.support.winrar.WinRarPackConfig;
 import de.subcentral.support.winrar.WinRarPackConfig.CompressionMethod;
 import de.subcentral.support.winrar.WinRarPackConfig.OverwriteMode;
@@ -70,10 +82,16 @@ import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.scene.control.TreeItem;
 
-public class ProcessingTask extends Task<Void> implements ProcessingItem {
+public class ProcessingTask extends Task<Void> implements ProcessingItem, ProcessingStageListener {
 	private static final Logger				log					= LogManager.getLogger(ProcessingTask.class);
+	/**
+	 * Release databases which do not respond within this time are skipped, so a stalled database does not hold up the processing.
+	 */
+	private static final Duration			RELEASE_DB_DEADLINE	= Duration.ofSeconds(5L);
 
 	private final ProcessingController		controller;
+	// the hash of the content of the source file (computed when the processing starts, null if it could not be computed)
+	private volatile String					contentHash;
 
 	// for ProcessingItem implementation
 	private final ListProperty<Path>		files;
@@ -90,6 +108,9 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 	private SubtitleRelease					resultObject;
 	private ListProperty<ProcessingResult>	results				= new SimpleListProperty<>(this, "results", FXCollections.observableArrayList());
 
+	// the sum of the durations of each stage in nanos (the file stages run once per result)
+	private final ConcurrentMap<ProcessingStage, Long>	stageNanos	= new ConcurrentHashMap<>();
+
 	// package private
 	ProcessingTask(Path sourceFile, ProcessingController controller, TreeItem<ProcessingItem> taskTreeItem) {
 		this.controller = Objects.requireNonNull(controller, "controller");
@@ -107,6 +128,10 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		return files.get(0);
 	}
 
+	public String getContentHash() {
+		return contentHash;
+	}
+
 	public ProcessingController getController() {
 		return controller;
 	}
@@ -172,34 +197,91 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		return results;
 	}
 
+	/**
+	 * 
+	 * @return the time spent in each stage so far (in the order of the stages)
+	 */
+	public Map<ProcessingStage, Duration> getStageDurations() {
+		Map<ProcessingStage, Duration> durations = new EnumMap<>(ProcessingStage.class);
+		stageNanos.forEach((ProcessingStage stage, Long nanos) -> durations.put(stage, Duration.ofNanos(nanos)));
+		return ImmutableMap.copyOf(durations);
+	}
+
+	@Override
+	public void stageStarted(ProcessingTask task, ProcessingStage stage) {
+		// stages may also run after the task is done (for example if a release is added manually)
+		if (!isDone()) {
+			updateMessage(stage.getDescription());
+		}
+	}
+
+	@Override
+	public void stageFinished(ProcessingTask task, ProcessingStage stage, long durationNanos, Throwable failure) {
+		stageNanos.merge(stage, durationNanos, Long::sum);
+		if (!isDone() && failure == null) {
+			updateProgress(stage.getProgressWhenFinished(), 1d);
+		}
+	}
+
 	@Override
 	protected Void call() throws Exception {
 		long start = System.nanoTime();
 		log.debug("Processing {}", getSourceFile());
+		// Only files which became tasks are hashed (and in the processing thread, as the whole file is read)
+		contentHash = hashContent();
+		controller.recordInJournal(getSourceFile(), Status.STARTED, contentHash);
+		boolean completed = false;
 		try {
 			// Load config
 			checkCancelled();
 			loadCurrentProcessingConfig();
+			ProcessingPipeline pipeline = controller.getProcessingPipeline();
+
+			// Same content as a file in the processing list: its results are taken over instead of processing this file.
+			// Files with the same content as a file which is only in the journal are processed as the journal has no results to take over
+			checkCancelled();
+			ProcessingTask original = controller.lookUpTaskWithSameContent(this);
+			if (original != null && takeOverResults(original)) {
+				deleteSourceFile();
+				completed = true;
+				return null;
+			}
 
 			// Parse
 			checkCancelled();
-			parsedObject = parse(getSourceFile());
+			parsedObject = pipeline.run(ProcessingStage.PARSE, this, () -> parse(getSourceFile()));
+			if (parsedObject == null) {
+				completed = true;
+				return null;
+			}
+			createResultObject();
 
-			updateProgress(0.25d, 1d);
+			// Query
+			checkCancelled();
+			Release srcRls = parsedObject.getFirstMatchingRelease();
+			ListMultimap<MetadataService, Release> queryResults = pipeline.run(ProcessingStage.QUERY, this, () -> query(srcRls));
 
-			// Process
+			// Match
 			checkCancelled();
-			if (parsedObject != null) {
-				createResultObject();
-				processParsed();
+			List<ProcessingResult> newResults = pipeline.run(ProcessingStage.MATCH, this, () -> match(srcRls, queryResults));
 
-				// May clean up
-				deleteSourceFile();
-			}
+			// Create and pack files
+			checkCancelled();
+			createResultFiles(newResults);
+
+			// May clean up
+			deleteSourceFile();
+			completed = true;
 			return null;
 		}
 		finally {
-			log.debug("Processed {} in {} ms", getSourceFile(), TimeUtil.durationMillis(start));
+			log.debug("Processed {} in {} ms. Time per stage: {}", getSourceFile(), TimeUtil.durationMillis(start), getStageDurations());
+
+			// If the application is shutting down, the file remains started in the journal. So its processing is resumed on the next start.
+			// (getProcessingPipeline() must not be used for that check as it creates a new pipeline if the current one was shut down)
+			if (!controller.isShuttingDown()) {
+				controller.recordInJournal(getSourceFile(), isCancelled() ? Status.CANCELLED : (completed ? Status.FINISHED : Status.FAILED), contentHash);
+			}
 
 			// To ensure the message is "Cancelled":
 			// Sometimes the task does not get interrupted immediately
@@ -240,6 +322,16 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		}
 	}
 
+	private String hashContent() {
+		try {
+			return IOUtil.sha256(getSourceFile());
+		}
+		catch (IOException e) {
+			log.debug("Could not hash the content of {}: {}", getSourceFile(), e.toString());
+			return null;
+		}
+	}
+
 	private void loadCurrentProcessingConfig() {
 		// get the current ProcessingConfig> and use it for the entire process
 		config = controller.getProcessingConfig().getValue();
@@ -247,7 +339,6 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 	}
 
 	private SubtitleRelease parse(Path file) {
-		updateMessage("Parsing filename");
 		ParsingService parsingService = config.getFilenameParsingService();
 
 		String filenameWithoutExt = IOUtil.splitIntoFilenameAndExtension(file.getFileName().toString())[0];
@@ -281,14 +372,12 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		resultObject = convertedSubAdj;
 	}
 
-	private void processParsed() throws Exception {
-		// Querying
-		Release srcRls = parsedObject.getFirstMatchingRelease();
-		ListMultimap<MetadataService, Release> queryResults = query(srcRls);
-		updateProgress(0.5d, 1d);
-
-		// Process query results
-		updateMessage("Processing query results");
+	/**
+	 * 
+	 * @return the results which were added
+	 */
+	private List<ProcessingResult> match(Release srcRls, ListMultimap<MetadataService, Release> queryResults) throws Exception {
+		List<ProcessingResult> newResults = new ArrayList<>();
 		// Add StandardReleases with Scope=ALWAYS
 		List<Release> existingRlss = new ArrayList<>(queryResults.values());
 		for (StandardRelease standardRls : config.getStandardReleases()) {
@@ -304,7 +393,7 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 
 		if (existingRlss.isEmpty()) {
 			log.info("No releases found in databases and no standard releases with Scope=ALWAYS");
-			guess(ImmutableList.of());
+			guess(ImmutableList.of(), newResults);
 		}
 		else {
 			// Distinct, enrich, standardize
@@ -328,7 +417,7 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 			// Guess
 			if (matchingReleases.isEmpty()) {
 				log.info("No matching releases found");
-				guess(mediaFilteredFoundRlssWithInfo);
+				guess(mediaFilteredFoundRlssWithInfo, newResults);
 			}
 			else {
 				logItems(Level.DEBUG, "Matching releases:", matchingReleases);
@@ -337,14 +426,14 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 
 				// Add matching releases
 				for (ReleaseAndInfo ri : matchingRlssWithInfo) {
-					addReleaseToResult(ri);
+					newResults.add(addMatchingRelease(ri.getRelease(), ri.getInfo()));
 				}
 
 				log.debug("Searching for compatible releases among the listed releases");
-				addCompatibleReleases(matchingRlssWithInfo, mediaFilteredFoundRlssWithInfo);
+				addCompatibleReleases(matchingRlssWithInfo, mediaFilteredFoundRlssWithInfo, newResults);
 			}
 		}
-		updateProgress(0.75d, 1d);
+		return newResults;
 	}
 
 	private ListMultimap<MetadataService, Release> query(Release rls) throws InterruptedException {
@@ -361,6 +450,18 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 			return builder.build();
 		}
 
+		List<Media> queryObj = rls.getMedia();
+		LocalReleaseMetadataService mirror = config.getReleaseMirror();
+		if (mirror != null) {
+			// The release databases are only queried if the mirror has no up-to-date release which matches the source release.
+			// Other releases of the media are not enough because matching releases may have been published after they were mirrored
+			List<Release> mirroredRlss = mirror.searchByObject(queryObj, Release.class);
+			if (mirroredRlss.stream().anyMatch(ReleaseUtil.filterByTags(rls.getTags()).and(ReleaseUtil.filterByGroup(rls.getGroup(), false)))) {
+				logItems(Level.DEBUG, "Results of " + mirror.getSite().getName(), mirroredRlss);
+				return ImmutableListMultimap.<MetadataService, Release> builder().putAll(mirror, mirroredRlss).build();
+			}
+		}
+
 		StringJoiner rlsDbs = new StringJoiner(", ");
 		for (MetadataService rlsDb : config.getReleaseDbs()) {
 			rlsDbs.add(rlsDb.getSite().getDisplayName());
@@ -368,21 +469,42 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 
 		updateMessage("Querying " + rlsDbs.toString());
 		log.debug("Querying release databases " + rlsDbs.toString());
-		List<Media> queryObj = rls.getMedia();
 
 		checkCancelled();
-		ListMultimap<MetadataService, Release> queryResults = MetadataServiceUtil.searchInAll(config.getReleaseDbs(), queryObj, Release.class, controller.getExecutor());
+		ListMultimap<MetadataService, Release> queryResults = MetadataServiceUtil.searchInAll(config.getReleaseDbs(),
+				queryObj,
+				Release.class,
+				controller.getProcessingPipeline().getQueryExecutor(),
+				RELEASE_DB_DEADLINE);
 
 		for (Map.Entry<MetadataService, Collection<Release>> entry : queryResults.asMap().entrySet()) {
 			logItems(Level.DEBUG, "Results of " + entry.getKey().getSite().getName(), entry.getValue());
 		}
+		if (mirror != null) {
+			if (!queryResults.isEmpty()) {
+				try {
+					mirror.addAll(queryResults.values());
+				}
+				catch (IOException e) {
+					log.warn("Could not add releases to release mirror", e);
+				}
+			}
+			else {
+				// The databases may be down. Then the releases which were found earlier are better than none
+				List<Release> expiredRlss = mirror.searchByObject(queryObj, Release.class, true);
+				if (!expiredRlss.isEmpty()) {
+					logItems(Level.INFO, "No releases found in databases. Using earlier results of " + mirror.getSite().getName(), expiredRlss);
+					return ImmutableListMultimap.<MetadataService, Release> builder().putAll(mirror, expiredRlss).build();
+				}
+			}
+		}
 		if (queryResults.isEmpty()) {
 			log.info("No releases found in databases");
 		}
 		return queryResults;
 	}
 
-	private void guess(List<ReleaseAndInfo> mediaFilteredFoundReleases) throws Exception {
+	private void guess(List<ReleaseAndInfo> mediaFilteredFoundReleases, List<ProcessingResult> newResults) throws Exception {
 		Release srcRls = parsedObject.getFirstMatchingRelease();
 		if (config.isGuessingEnabled()) {
 			log.trace("Guessing enabled");
@@ -395,11 +517,11 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 			List<ReleaseAndInfo> guessedRlssWithInfos = toReleaseAndInfoList(guessedReleases.entrySet(),
 					(Map.Entry<Release, StandardRelease> entry) -> new ReleaseAndInfo(entry.getKey(), ProcessingResultInfo.guessedMatching(entry.getValue())));
 			for (ReleaseAndInfo entry : guessedRlssWithInfos) {
-				addReleaseToResult(entry);
+				newResults.add(addMatchingRelease(entry.getRelease(), entry.getInfo()));
 			}
 
 			log.trace("Searching for compatible releases among the listed releases");
-			boolean foundCompatibleListedReleases = addCompatibleReleases(guessedRlssWithInfos, mediaFilteredFoundReleases);
+			boolean foundCompatibleListedReleases = addCompatibleReleases(guessedRlssWithInfos, mediaFilteredFoundReleases, newResults);
 			if (!foundCompatibleListedReleases) {
 				log.debug("No compatible releases found among the listed releases. Searching for compatible releases among the standard releases");
 				List<ReleaseAndInfo> stdRlssWithMediaAndMetaTags = new ArrayList<>(stdRlss.size());
@@ -408,7 +530,7 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 					CollectionUtil.transferElementsToHead(srcRls.getTags(), rls.getTags(), config.getReleaseMetaTags());
 					stdRlssWithMediaAndMetaTags.add(new ReleaseAndInfo(rls, ProcessingResultInfo.guessedMatching(stdRls)));
 				}
-				addCompatibleReleases(guessedRlssWithInfos, stdRlssWithMediaAndMetaTags);
+				addCompatibleReleases(guessedRlssWithInfos, stdRlssWithMediaAndMetaTags, newResults);
 			}
 		}
 		else {
@@ -416,7 +538,7 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		}
 	}
 
-	private boolean addCompatibleReleases(Collection<ReleaseAndInfo> matchingRlss, Collection<ReleaseAndInfo> listedRlss) throws Exception {
+	private boolean addCompatibleReleases(Collection<ReleaseAndInfo> matchingRlss, Collection<ReleaseAndInfo> listedRlss, List<ProcessingResult> newResults) throws Exception {
 		if (config.isCompatibilityEnabled()) {
 			log.trace("Search for compatible releases enabled");
 			// Find compatibles
@@ -452,7 +574,7 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 							throw new AssertionError();
 					}
 
-					addReleaseToResult(compatible.getCompatible(), info);
+					newResults.add(addMatchingRelease(compatible.getCompatible(), info));
 				}
 				return true;
 			}
@@ -464,11 +586,11 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 	}
 
 	// protected: also callable from DetailsController
-	protected void addReleaseToResult(ReleaseAndInfo rlsAndInfo) throws Exception {
-		addReleaseToResult(rlsAndInfo.getRelease(), rlsAndInfo.getInfo());
+	protected void addReleaseToResult(Release rls, ProcessingResultInfo info) throws Exception {
+		createResultFiles(ImmutableList.of(addMatchingRelease(rls, info)));
 	}
 
-	protected void addReleaseToResult(Release rls, ProcessingResultInfo info) throws Exception {
+	private ProcessingResult addMatchingRelease(Release rls, ProcessingResultInfo info) {
 		List<Correction> corrections = config.getAfterQueryingCorrectionService().correct(rls);
 		corrections.forEach((Correction c) -> log.debug("After querying correction: {}", c));
 
@@ -482,10 +604,7 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		}
 
 		resultObject.getMatchingReleases().add(rls);
-		ProcessingResult result = addResult(rls, info);
-
-		createResultFiles(result);
-
+		return addResult(rls, info);
 	}
 
 	private List<Release> processReleases(Collection<Release> rlss) {
@@ -538,21 +657,160 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 		return result;
 	}
 
-	private void createResultFiles(ProcessingResult result) throws Exception {
-		result.updateState(State.SCHEDULED);
-		updateMessage("Creating files");
+	/**
+	 * Takes over the results of the task of a file with the same content. That task is waited for if it is running. Its result files are shared if they are in the target
+	 * directory of this task as well and copied otherwise (already packed). So the file is neither parsed nor are the release databases queried.
+	 * <p>
+	 * The other task does not wait for another task itself (only tasks which process their files themselves are looked up), so this cannot deadlock.
+	 * </p>
+	 * 
+	 * @return true if the results were taken over, false if the source file has to be processed (because the other task did not succeed or its result files do not exist)
+	 */
+	private boolean takeOverResults(ProcessingTask original) throws Exception {
+		updateMessage("Waiting for " + original.getSourceFile().getFileName());
+		try {
+			original.get();
+		}
+		catch (ExecutionException | CancellationException e) {
+			log.debug("Processing {} because the processing of {} (same content) did not succeed", getSourceFile(), original.getSourceFile());
+			return false;
+		}
+
+		// the results and their files are updated in the JavaFX Application Thread
+		Map<ProcessingResult, List<Path>> originalResults = new LinkedHashMap<>();
+		FxUtil.runAndWait(() -> {
+			for (ProcessingResult result : original.getResults()) {
+				if (!result.getFiles().isEmpty()) {
+					originalResults.put(result, ImmutableList.copyOf(result.getFiles()));
+				}
+			}
+		});
+		if (originalResults.isEmpty()) {
+			log.debug("Processing {} because the processing of {} (same content) has no result files", getSourceFile(), original.getSourceFile());
+			return false;
+		}
+		for (List<Path> originalFiles : originalResults.values()) {
+			for (Path originalFile : originalFiles) {
+				if (Files.notExists(originalFile)) {
+					// for example deleted by reprocessing the other file
+					log.debug("Processing {} because the result file {} of {} (same content) does not exist anymore", getSourceFile(), originalFile, original.getSourceFile());
+					return false;
+				}
+			}
+		}
+		log.info("Taking over the results of {} for {} because they have the same content", original.getSourceFile(), getSourceFile());
+		parsedObject = MetadataUtil.deepCopy(original.getParsedObject());
+		resultObject = MetadataUtil.deepCopy(original.getResultObject());
+		listedReleases = original.getListedReleases();
+		updateInfo(ProcessingTaskInfo.withAdditonalFlags(getInfo(), ProcessingTaskInfo.Flag.SAME_CONTENT_AS_OTHER_FILE));
+
+		List<ProcessingResult> newResults = new ArrayList<>(originalResults.size());
+		for (ProcessingResult originalResult : originalResults.keySet()) {
+			newResults.add(addResult(MetadataUtil.deepCopy(originalResult.getRelease()), originalResult.getInfo().copy()));
+		}
+		controller.getProcessingPipeline().run(ProcessingStage.CREATE_FILES, this, () -> {
+			Path targetDir = getTargetDir();
+			int i = 0;
+			for (List<Path> originalFiles : originalResults.values()) {
+				takeOverFiles(newResults.get(i++), originalFiles, targetDir);
+			}
+			return null;
+		});
+		return true;
+	}
+
+	private void takeOverFiles(ProcessingResult result, List<Path> originalFiles, Path targetDir) throws Exception {
 		result.updateMessage("Creating files");
 		result.updateState(State.RUNNING);
-
 		try {
-			Path srcFile = getSourceFile();
-			Path targetDir;
-			if (config.getTargetDir() != null) {
-				targetDir = srcFile.resolveSibling(config.getTargetDir());
+			checkCancelled();
+			Files.createDirectories(targetDir);
+			for (Path originalFile : originalFiles) {
+				Path file = targetDir.resolve(originalFile.getFileName());
+				if (file.toAbsolutePath().normalize().equals(originalFile.toAbsolutePath().normalize())) {
+					// the results are linked (the result files are shared)
+					log.debug("Sharing {}", file);
+				}
+				else {
+					checkCancelled();
+					Files.copy(originalFile, file, createCopyOptions());
+					log.debug("Copied {} to {}", originalFile, file);
+				}
+				result.addFile(file);
+			}
+			result.updateMessage("Done");
+			result.updateState(State.SUCCEEDED);
+		}
+		catch (Exception e) {
+			if (isCancelled()) {
+				log.debug("Cancelled while taking over files for {}. Exception: {}", result, e.toString());
+				result.updateException(e);
+				result.updateMessage("Cancelled");
+				result.updateState(State.CANCELLED);
+				throw e;
 			}
 			else {
-				targetDir = srcFile.getParent();
+				log.error("Taking over files failed for " + result, e);
+				result.updateException(e);
+				result.updateMessage("File creation failed");
+				result.updateState(State.FAILED);
 			}
+		}
+		finally {
+			result.updateProgress(1d);
+		}
+	}
+
+	/**
+	 * The files of the results are copied in the {@link ProcessingStage#CREATE_FILES} stage and packed in the {@link ProcessingStage#PACK} stage. So a file can be packed
+	 * while the next file is still being copied.
+	 */
+	private void createResultFiles(List<ProcessingResult> newResults) throws Exception {
+		ProcessingPipeline pipeline = controller.getProcessingPipeline();
+		List<Future<Path>> copies = new ArrayList<>(newResults.size());
+		List<Future<Boolean>> packs = new ArrayList<>(newResults.size());
+		try {
+			for (ProcessingResult result : newResults) {
+				result.updateState(State.SCHEDULED);
+				copies.add(pipeline.submit(ProcessingStage.CREATE_FILES, this, () -> copyToResultFile(result)));
+			}
+			for (int i = 0; i < newResults.size(); i++) {
+				ProcessingResult result = newResults.get(i);
+				Path newFile = ProcessingPipeline.await(copies.get(i));
+				if (newFile == null) {
+					// copying failed
+					continue;
+				}
+				if (config.isPackingEnabled()) {
+					packs.add(pipeline.submit(ProcessingStage.PACK, this, () -> packResultFile(result, newFile)));
+				}
+				else {
+					result.updateProgress(1d);
+				}
+			}
+			for (Future<Boolean> pack : packs) {
+				ProcessingPipeline.await(pack);
+			}
+		}
+		catch (Exception e) {
+			// Stop the stages which are still queued or running
+			copies.forEach((Future<Path> copy) -> copy.cancel(true));
+			packs.forEach((Future<Boolean> pack) -> pack.cancel(true));
+			throw e;
+		}
+	}
+
+	/**
+	 * 
+	 * @return the copied file or null if copying failed
+	 */
+	private Path copyToResultFile(ProcessingResult result) throws Exception {
+		result.updateMessage("Creating files");
+		result.updateState(State.RUNNING);
+
+		try {
+			Path srcFile = getSourceFile();
+			Path targetDir = getTargetDir();
 
 			checkCancelled();
 			Files.createDirectories(targetDir);
@@ -566,13 +824,10 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 
 			result.addFile(newFile);
 			log.debug("Copied {} to {}", srcFile, targetFile);
-
-			if (pack(result, newFile)) {
-				result.updateMessage("Done");
-				result.updateState(State.SUCCEEDED);
-			}
+			return newFile;
 		}
 		catch (Exception e) {
+			result.updateProgress(1d);
 			if (isCancelled()) {
 				log.debug("Cancelled while creating file for {}. Exception: {}", result, e.toString());
 				result.updateException(e);
@@ -585,8 +840,28 @@ public class ProcessingTask extends Task<Void> implements ProcessingItem {
 				result.updateException(e);
 				result.updateMessage("File creation failed");
 				result.updateState(State.FAILED);
+				return null;
 			}
 		}
+	}
+
+	private Path getTargetDir() {
+		Path srcFile = getSourceFile();
+		if (config.getTargetDir() != null) {
+			return srcFile.resolveSibling(config.getTargetDir());
+		}
+		return srcFile.getParent();
+	}
+
+	private boolean packResultFile(ProcessingResult result, Path file) throws Exception {
+		try {
+			if (pack(result, file)) {
+				result.updateMessage("Done");
+				result.updateState(State.SUCCEEDED);
+				return true;
+			}
+			return false;
+		}
 		finally {
 			result.updateProgress(1d);
 		}
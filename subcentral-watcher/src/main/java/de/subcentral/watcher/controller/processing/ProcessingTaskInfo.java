@@ -9,7 +9,7 @@ import java.util.Set;
 
 public class ProcessingTaskInfo implements ProcessingInfo {
     public static enum Flag {
-        DELETED_SOURCE_FILE
+        DELETED_SOURCE_FILE, SAME_CONTENT_AS_OTHER_FILE
     };
 
     private final Set<Flag> flags;
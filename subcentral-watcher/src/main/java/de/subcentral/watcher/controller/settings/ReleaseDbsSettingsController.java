@@ -23,6 +23,7 @@ import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Hyperlink;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
@@ -55,6 +56,8 @@ public class ReleaseDbsSettingsController extends AbstractSettingsSectionControl
     private Button                                                                moveUpReleaseDbBtn;
     @FXML
     private Button                                                                moveDownReleaseDbBtn;
+    @FXML
+    private CheckBox                                                              releaseMirrorEnabledCheckBox;
 
     public ReleaseDbsSettingsController(SettingsController settingsController) {
         super(settingsController);
@@ -105,6 +108,8 @@ public class ReleaseDbsSettingsController extends AbstractSettingsSectionControl
 
         FxActions.bindMoveButtons(releaseDbsTableView, moveUpReleaseDbBtn, moveDownReleaseDbBtn);
 
+        releaseMirrorEnabledCheckBox.selectedProperty().bindBidirectional(settings.getReleaseMirrorEnabled().property());
+
         // initial update
         updateAvailibities();
     }
@@ -150,7 +155,12 @@ public class ReleaseDbsSettingsController extends AbstractSettingsSectionControl
                     break;
                 case NOT_AVAILABLE:
                     setGraphic(createSymbolAndTextGraphic("cancel_16.png", item));
-                    setTooltip(new Tooltip("Not available: Not reachable"));
+                    if (item.getStatus() != null && item.getStatus().getMessage() != null) {
+                        setTooltip(new Tooltip("Not available: " + item.getStatus().getMessage()));
+                    }
+                    else {
+                        setTooltip(new Tooltip("Not available: Not reachable"));
+                    }
                     break;
                 default:
                     setGraphic(new Label(item.toString()));
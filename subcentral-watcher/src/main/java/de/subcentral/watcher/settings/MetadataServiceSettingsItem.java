@@ -1,10 +1,12 @@
 package de.subcentral.watcher.settings;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.HierarchicalConfiguration;
@@ -13,6 +15,7 @@ import org.apache.commons.configuration2.tree.ImmutableNode;
 
 import com.google.common.collect.ImmutableSet;
 
+import de.subcentral.core.metadata.service.CoalescingMetadataService;
 import de.subcentral.core.metadata.service.MetadataService;
 import de.subcentral.core.util.Service;
 import de.subcentral.core.util.ServiceUtil;
@@ -22,6 +25,7 @@ import de.subcentral.support.orlydbcom.OrlyDbCom;
 import de.subcentral.support.predbme.PreDbMe;
 import de.subcentral.support.predborg.PreDbOrg;
 import de.subcentral.support.xrelto.XRelTo;
+import javafx.application.Platform;
 import javafx.beans.Observable;
 import javafx.beans.property.Property;
 import javafx.beans.property.SimpleObjectProperty;
@@ -79,6 +83,9 @@ public class MetadataServiceSettingsItem extends SimpleDeactivatableSettingsItem
 
     public MetadataServiceSettingsItem(MetadataService database, boolean enabled) {
         super(database, enabled);
+        // e.g. the database is skipped because it stopped responding.
+        // The database is shared and outlives the settings items (which are recreated when the settings are loaded), so it must not keep them alive
+        database.addStatusListener(new WeakStatusListener(this));
     }
 
     public Property<Availability> availabilityProperty() {
@@ -109,6 +116,29 @@ public class MetadataServiceSettingsItem extends SimpleDeactivatableSettingsItem
         executor.submit(updateAvailibilityTask);
     }
 
+    /**
+     * Updates the availability of the item as long as the item is in use. Removes itself from the database once the item was garbage collected.
+     */
+    private static class WeakStatusListener implements Consumer<Service.Status> {
+        private final WeakReference<MetadataServiceSettingsItem> itemRef;
+        private final MetadataService                            database;
+
+        private WeakStatusListener(MetadataServiceSettingsItem item) {
+            this.itemRef = new WeakReference<>(item);
+            this.database = item.getItem();
+        }
+
+        @Override
+        public void accept(Service.Status status) {
+            MetadataServiceSettingsItem item = itemRef.get();
+            if (item == null) {
+                database.removeStatusListener(this);
+                return;
+            }
+            Platform.runLater(() -> item.availability.setValue(Availability.ofServiceStatus(status)));
+        }
+    }
+
     public static ObservableList<MetadataServiceSettingsItem> createObservableList() {
         return createObservableList(new ArrayList<>());
     }
@@ -122,6 +152,8 @@ public class MetadataServiceSettingsItem extends SimpleDeactivatableSettingsItem
     }
 
     private static class ListConfigurationPropertyHandler implements ConfigurationPropertyHandler<ObservableList<MetadataServiceSettingsItem>> {
+        private static final Set<MetadataService> AVAILABLE_METADATA_SERVICES = initAvailableMetadataServices();
+
         @SuppressWarnings("unchecked")
         @Override
         public ObservableList<MetadataServiceSettingsItem> get(ImmutableConfiguration cfg, String key) {
@@ -147,11 +179,16 @@ public class MetadataServiceSettingsItem extends SimpleDeactivatableSettingsItem
         }
 
         private static Set<MetadataService> getAvailableMetadataServices() {
+            return AVAILABLE_METADATA_SERVICES;
+        }
+
+        private static Set<MetadataService> initAvailableMetadataServices() {
+            // concurrent processing tasks often query the same release at the same time
             ImmutableSet.Builder<MetadataService> services = ImmutableSet.builder();
-            services.add(PreDbMe.getMetadataService());
-            services.add(PreDbOrg.getMetadataService());
-            services.add(XRelTo.getMetadataService());
-            services.add(OrlyDbCom.getMetadataService());
+            services.add(new CoalescingMetadataService(PreDbMe.getMetadataService()));
+            services.add(new CoalescingMetadataService(PreDbOrg.getMetadataService()));
+            services.add(new CoalescingMetadataService(XRelTo.getMetadataService()));
+            services.add(new CoalescingMetadataService(OrlyDbCom.getMetadataService()));
             return services.build();
         }
 
@@ -164,4 +201,4 @@ public class MetadataServiceSettingsItem extends SimpleDeactivatableSettingsItem
             }
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
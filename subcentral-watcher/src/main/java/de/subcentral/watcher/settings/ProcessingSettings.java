@@ -40,6 +40,20 @@ public class ProcessingSettings extends Settings {
     private static final LocateStrategyHandler                                  LOCATE_STRATEGY_HANDLER            = new LocateStrategyHandler();
     private static final DeletionModeHandler                                    DELETION_MODE_HANDLER              = new DeletionModeHandler();
 
+    // Execution
+    private final ObjectSettingsProperty<Integer>                               workers                            = new ObjectSettingsProperty<>("execution.workers",
+            ConfigurationPropertyHandlers.INTEGER_HANDLER,
+            4);
+    private final ObjectSettingsProperty<Integer>                               backlogCapacity                    = new ObjectSettingsProperty<>("execution.backlogCapacity",
+            ConfigurationPropertyHandlers.INTEGER_HANDLER,
+            1000);
+    private final ObjectSettingsProperty<Integer>                               cpuThreads                         = new ObjectSettingsProperty<>("execution.cpuThreads",
+            ConfigurationPropertyHandlers.INTEGER_HANDLER,
+            2);
+    private final ObjectSettingsProperty<Integer>                               ioThreads                          = new ObjectSettingsProperty<>("execution.ioThreads",
+            ConfigurationPropertyHandlers.INTEGER_HANDLER,
+            4);
+
     // Parsing
     private final StringSettingsProperty                                        filenamePatterns                   = new StringSettingsProperty("parsing.filenamePatterns");
     private final ListSettingsProperty<ParsingServiceSettingsItem>              filenameParsers                    = new ListSettingsProperty<>("parsing.parsers",
@@ -56,6 +70,8 @@ public class ProcessingSettings extends Settings {
     private final ListSettingsProperty<MetadataServiceSettingsItem>             releaseDbs                         = new ListSettingsProperty<>("metadata.release.databases",
             MetadataServiceSettingsItem.getListConfigurationPropertyHandler(),
             MetadataServiceSettingsItem.createObservableList());
+    // Metadata - Release - Mirror
+    private final BooleanSettingsProperty                                       releaseMirrorEnabled               = new BooleanSettingsProperty("metadata.release.mirror[@enabled]", true);
     // Metadata - Release - Guessing
     private final BooleanSettingsProperty                                       guessingEnabled                    = new BooleanSettingsProperty("metadata.release.guessing[@enabled]", true);
     private final ListSettingsProperty<StandardRelease>                         standardReleases                   = new ListSettingsProperty<>("metadata.release.guessing.standardReleases",
@@ -95,11 +111,16 @@ public class ProcessingSettings extends Settings {
 
     // package protected (should only be instantiated by WatcherSettings)
     ProcessingSettings() {
-        initSettables(filenamePatterns,
+        initSettables(workers,
+                backlogCapacity,
+                cpuThreads,
+                ioThreads,
+                filenamePatterns,
                 filenameParsers,
                 releaseParsers,
                 releaseMetaTags,
                 releaseDbs,
+                releaseMirrorEnabled,
                 guessingEnabled,
                 standardReleases,
                 compatibilityEnabled,
@@ -124,6 +145,38 @@ public class ProcessingSettings extends Settings {
         };
     }
 
+    /**
+     * 
+     * @return the number of files which are processed at the same time
+     */
+    public ObjectSettingsProperty<Integer> getWorkers() {
+        return workers;
+    }
+
+    /**
+     * 
+     * @return the maximum number of files which wait to be processed. Takes effect after a restart
+     */
+    public ObjectSettingsProperty<Integer> getBacklogCapacity() {
+        return backlogCapacity;
+    }
+
+    /**
+     * 
+     * @return the number of threads of each CPU-bound processing stage (parsing, matching)
+     */
+    public ObjectSettingsProperty<Integer> getCpuThreads() {
+        return cpuThreads;
+    }
+
+    /**
+     * 
+     * @return the number of threads of each I/O-bound processing stage (querying, creating files, packing)
+     */
+    public ObjectSettingsProperty<Integer> getIoThreads() {
+        return ioThreads;
+    }
+
     public StringSettingsProperty getFilenamePatterns() {
         return filenamePatterns;
     }
@@ -144,6 +197,10 @@ public class ProcessingSettings extends Settings {
         return releaseDbs;
     }
 
+    public BooleanSettingsProperty getReleaseMirrorEnabled() {
+        return releaseMirrorEnabled;
+    }
+
     public BooleanSettingsProperty getGuessingEnabled() {
         return guessingEnabled;
     }
@@ -255,4 +312,4 @@ public class ProcessingSettings extends Settings {
             cfg.addProperty(key, value.name());
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
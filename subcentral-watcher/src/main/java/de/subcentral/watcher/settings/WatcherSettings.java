@@ -5,29 +5,43 @@ import java.nio.file.Path;
 import de.subcentral.fx.settings.BooleanSettingsProperty;
 import de.subcentral.fx.settings.ConfigurationPropertyHandlers;
 import de.subcentral.fx.settings.ListSettingsProperty;
+import de.subcentral.fx.settings.ObjectSettingsProperty;
 import de.subcentral.fx.settings.Settings;
+import de.subcentral.fx.settings.StringSettingsProperty;
 
 public class WatcherSettings extends Settings {
     // Watch
-    private final ListSettingsProperty<Path> watchDirectories                = new ListSettingsProperty<>("watch.directories.dir", ConfigurationPropertyHandlers.PATH_LIST_HANDLER);
-    private final BooleanSettingsProperty    initialScan                     = new BooleanSettingsProperty("watch.initialScan", true);
-    private final BooleanSettingsProperty    rejectAlreadyProcessedFiles     = new BooleanSettingsProperty("watch.rejectAlreadyProcessedFiles", true);
+    private final ListSettingsProperty<Path>      watchDirectories                = new ListSettingsProperty<>("watch.directories.dir", ConfigurationPropertyHandlers.PATH_LIST_HANDLER);
+    private final BooleanSettingsProperty         initialScan                     = new BooleanSettingsProperty("watch.initialScan", true);
+    private final BooleanSettingsProperty         rejectAlreadyProcessedFiles     = new BooleanSettingsProperty("watch.rejectAlreadyProcessedFiles", true);
+    private final ObjectSettingsProperty<Integer> debounceMillis                  = new ObjectSettingsProperty<>("watch.debounceMillis", ConfigurationPropertyHandlers.INTEGER_HANDLER, 500);
+    private final ObjectSettingsProperty<Integer> reconciliationSeconds           = new ObjectSettingsProperty<>("watch.reconciliationSeconds",
+            ConfigurationPropertyHandlers.INTEGER_HANDLER,
+            0);
+    private final ObjectSettingsProperty<Integer> quiescenceMillis                = new ObjectSettingsProperty<>("watch.quiescenceMillis", ConfigurationPropertyHandlers.INTEGER_HANDLER, 1000);
+    private final ObjectSettingsProperty<Integer> maxDepth                        = new ObjectSettingsProperty<>("watch.maxDepth", ConfigurationPropertyHandlers.INTEGER_HANDLER, 3);
+    private final StringSettingsProperty          ignorePatterns                  = new StringSettingsProperty("watch.ignorePatterns", ".*");
 
     // Processing
-    private final ProcessingSettings         processingSettings              = new ProcessingSettings();
+    private final ProcessingSettings              processingSettings              = new ProcessingSettings();
     // UI
     // UI - Warnings
-    private final BooleanSettingsProperty    warningsEnabled                 = new BooleanSettingsProperty("ui.warnings[@enabled]", true);
-    private final BooleanSettingsProperty    guessingWarningEnabled          = new BooleanSettingsProperty("ui.warnings.guessingWarning[@enabled]", true);
-    private final BooleanSettingsProperty    releaseMetaTaggedWarningEnabled = new BooleanSettingsProperty("ui.warnings.releaseMetaTaggedWarning[@enabled]", true);
-    private final BooleanSettingsProperty    releaseNukedWarningEnabled      = new BooleanSettingsProperty("ui.warnings.releaseNukedWarning[@enabled]", true);
+    private final BooleanSettingsProperty         warningsEnabled                 = new BooleanSettingsProperty("ui.warnings[@enabled]", true);
+    private final BooleanSettingsProperty         guessingWarningEnabled          = new BooleanSettingsProperty("ui.warnings.guessingWarning[@enabled]", true);
+    private final BooleanSettingsProperty         releaseMetaTaggedWarningEnabled = new BooleanSettingsProperty("ui.warnings.releaseMetaTaggedWarning[@enabled]", true);
+    private final BooleanSettingsProperty         releaseNukedWarningEnabled      = new BooleanSettingsProperty("ui.warnings.releaseNukedWarning[@enabled]", true);
     // UI - System Tray
-    private final BooleanSettingsProperty    systemTrayEnabled               = new BooleanSettingsProperty("ui.systemTray[@enabled]", true);
+    private final BooleanSettingsProperty         systemTrayEnabled               = new BooleanSettingsProperty("ui.systemTray[@enabled]", true);
 
     public WatcherSettings() {
         initSettables(watchDirectories,
                 initialScan,
                 rejectAlreadyProcessedFiles,
+                debounceMillis,
+                reconciliationSeconds,
+                quiescenceMillis,
+                maxDepth,
+                ignorePatterns,
                 processingSettings,
                 warningsEnabled,
                 guessingWarningEnabled,
@@ -48,6 +62,46 @@ public class WatcherSettings extends Settings {
         return rejectAlreadyProcessedFiles;
     }
 
+    /**
+     * 
+     * @return the time to wait for further events of the watch directories before the new files are processed (in milliseconds)
+     */
+    public ObjectSettingsProperty<Integer> getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    /**
+     * 
+     * @return the interval of the scans which compare the watch directories with their last known state to catch lost events (in seconds). 0 disables the scans
+     */
+    public ObjectSettingsProperty<Integer> getReconciliationSeconds() {
+        return reconciliationSeconds;
+    }
+
+    /**
+     * 
+     * @return the time a new file in a watch directory has to remain unchanged (and unlocked) before it is processed (in milliseconds)
+     */
+    public ObjectSettingsProperty<Integer> getQuiescenceMillis() {
+        return quiescenceMillis;
+    }
+
+    /**
+     * 
+     * @return how deep the subdirectories of the watch directories are watched. 0 watches only the watch directories themselves
+     */
+    public ObjectSettingsProperty<Integer> getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * 
+     * @return the comma-separated glob patterns of the directories and files in the watch directories which are ignored
+     */
+    public StringSettingsProperty getIgnorePatterns() {
+        return ignorePatterns;
+    }
+
     public ProcessingSettings getProcessingSettings() {
         return processingSettings;
     }